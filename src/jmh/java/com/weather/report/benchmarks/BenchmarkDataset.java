@@ -0,0 +1,143 @@
+package com.weather.report.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.weather.report.WeatherReport;
+import com.weather.report.model.UserType;
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.services.WorkloadGenerator;
+import com.weather.report.services.WorkloadSpec;
+
+/**
+ * Reproducible dataset shared by the benchmarks, produced by the
+ * {@link WorkloadGenerator}.
+ * <p>
+ * The topology has {@value #NETWORKS} networks of {@value #GATEWAYS} gateways
+ * with {@value #SENSORS} sensors each, all read once a minute from
+ * {@link #START}, so every sensor gets the same share of the rows; about one
+ * reading in a hundred exceeds the sensor's threshold.
+ */
+final class BenchmarkDataset {
+
+  /** JVM option selecting the in-memory benchmark persistence unit in forked runs */
+  static final String PERSISTENCE_UNIT = "-D" + PersistenceManager.PU_PROPERTY + "=weatherReportBenchmarkPU";
+
+  static final int NETWORKS = 2;
+  static final int GATEWAYS = 4;
+  static final int SENSORS = 8;
+
+  static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+  static final String USERNAME = "benchmark";
+
+  private static final Duration INTERVAL = Duration.ofMinutes(1);
+  private static final double VIOLATION_RATE = 0.01;
+  private static final int INSERT_BATCH = 10_000;
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(WeatherReport.DATE_FORMAT);
+
+  private BenchmarkDataset() {
+    // utility class
+  }
+
+  static int sensorCount() {
+    return NETWORKS * GATEWAYS * SENSORS;
+  }
+
+  // codes follow the WorkloadGenerator scheme, counted from 0 here
+  static String network(int n) {
+    return String.format("NET_%02d", n + 1);
+  }
+
+  static String gateway(int n, int g) {
+    return String.format("GW_%02d%02d", n + 1, g + 1);
+  }
+
+  static String sensor(int n, int g, int s) {
+    return String.format("S_%02d%02d%02d", n + 1, g + 1, s + 1);
+  }
+
+  /**
+   * @param rows number of rows of the dataset
+   * @return timestamp of its last row
+   */
+  static LocalDateTime end(int rows) {
+    return START.plus(INTERVAL.multipliedBy(Math.max(0, rows - 1) / sensorCount()));
+  }
+
+  static String format(LocalDateTime timestamp) {
+    return timestamp.format(FORMATTER);
+  }
+
+  /**
+   * Drops the current database: the next access boots an empty one holding
+   * only the benchmark user.
+   *
+   * @return facade bound to the fresh database
+   */
+  static WeatherReport reset() {
+    PersistenceManager.close();
+    WeatherReport facade = new WeatherReport();
+    facade.createUser(USERNAME, UserType.MAINTAINER);
+    return facade;
+  }
+
+  /**
+   * Creates and connects the whole topology, with one operator per network.
+   *
+   * @param thresholds whether every sensor gets a threshold
+   */
+  static void createTopology(boolean thresholds) throws Exception {
+    new WorkloadGenerator(spec(0).withThresholds(thresholds)).createTopology(USERNAME);
+  }
+
+  /**
+   * Writes the first {@code rows} rows as a CSV file in the import format.
+   */
+  static void writeCsv(Path file, int rows) throws IOException {
+    Iterator<Measurement> readings = new WorkloadGenerator(spec(rows)).iterator();
+    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+      writer.write(WorkloadGenerator.CSV_HEADER);
+      writer.newLine();
+      for (int i = 0; i < rows; i++) {
+        writer.write(WorkloadGenerator.toCsvLine(readings.next()));
+        writer.newLine();
+      }
+    }
+  }
+
+  /**
+   * Stores the first {@code rows} rows straight through the repository, in
+   * batches, bypassing CSV parsing and threshold checks.
+   */
+  static void insert(int rows) {
+    MeasurementRepository repository = new MeasurementRepository();
+    Iterator<Measurement> readings = new WorkloadGenerator(spec(rows)).iterator();
+    List<Measurement> batch = new ArrayList<>(INSERT_BATCH);
+    for (int i = 0; i < rows; i++) {
+      batch.add(readings.next());
+      if (batch.size() == INSERT_BATCH || i == rows - 1) {
+        repository.createAll(batch, null);
+        batch = new ArrayList<>(INSERT_BATCH);
+      }
+    }
+  }
+
+  // long enough for the given number of rows
+  private static WorkloadSpec spec(int rows) {
+    return WorkloadSpec.defaults()
+        .withSeed(42L)
+        .withTopology(NETWORKS, GATEWAYS, SENSORS)
+        .withSampling(START, INTERVAL, INTERVAL.multipliedBy(Math.ceilDiv(rows, sensorCount())))
+        .withViolationRate(VIOLATION_RATE);
+  }
+}
@@ -0,0 +1,76 @@
+package com.weather.report.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.services.DataImportingService;
+import com.weather.report.services.ImportOptions;
+import com.weather.report.services.ImportSummary;
+
+/**
+ * Import throughput of {@link DataImportingService#storeMeasurements}, in rows
+ * per second, for a file of {@value #ROWS} rows.
+ * <p>
+ * With {@code thresholds} set every sensor has a threshold, so each stored row
+ * is also checked and about one in a hundred raises an alert: the difference
+ * between the two runs is the cost of threshold checking. The database is
+ * recreated before every iteration, since each import adds the whole file
+ * again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = BenchmarkDataset.PERSISTENCE_UNIT)
+public class IngestBenchmark {
+
+  static final int ROWS = 10_000;
+
+  @Param({ "false", "true" })
+  boolean thresholds;
+
+  private Path file;
+
+  @Setup(Level.Trial)
+  public void writeFile() throws IOException {
+    file = Files.createTempFile("ingest-benchmark", ".csv");
+    BenchmarkDataset.writeCsv(file, ROWS);
+  }
+
+  @Setup(Level.Iteration)
+  public void resetDatabase() throws Exception {
+    BenchmarkDataset.reset();
+    BenchmarkDataset.createTopology(thresholds);
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteFile() throws IOException {
+    PersistenceManager.close();
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public ImportSummary storeMeasurements() {
+    return DataImportingService.storeMeasurements(file.toString(), ImportOptions.defaults());
+  }
+}
@@ -0,0 +1,120 @@
+package com.weather.report.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.async.AsyncLoggerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.services.DataImportingService;
+import com.weather.report.services.ImportOptions;
+import com.weather.report.services.ImportSummary;
+
+/**
+ * Import throughput, in rows per second, of a noisy feed of {@value #ROWS}
+ * rows with synchronous and asynchronous logging.
+ * <p>
+ * One row in {@value #MALFORMED_EVERY} is malformed and every sensor has a
+ * threshold, so the import logs its rejects and about one row in a hundred
+ * raises an alert, logged once plus once per message sent. {@code sync} is the
+ * previous setup, where the importing thread formats and writes every line
+ * itself; {@code async} is the shipped one. The log selector must be chosen
+ * before Log4j starts, so each value runs in its own fork and sets it first
+ * thing; standard output goes to a temporary file so that the forks do not
+ * flood the benchmark report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = BenchmarkDataset.PERSISTENCE_UNIT)
+public class NoisyIngestBenchmark {
+
+  static final int ROWS = 10_000;
+  static final int MALFORMED_EVERY = 10;
+
+  private static final String SELECTOR_PROPERTY = "log4j2.contextSelector";
+  private static final String SYNC_SELECTOR = "org.apache.logging.log4j.core.selector.ClassLoaderContextSelector";
+  private static final String ASYNC_SELECTOR = "org.apache.logging.log4j.core.async.AsyncLoggerContextSelector";
+
+  @Param({ "sync", "async" })
+  String logging;
+
+  private Path file;
+  private Path log;
+  private PrintStream stdout;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    stdout = System.out;
+    log = Files.createTempFile("noisy-ingest-benchmark", ".log");
+    System.setOut(new PrintStream(new FileOutputStream(log.toFile()), false));
+    System.setProperty(SELECTOR_PROPERTY, "async".equals(logging) ? ASYNC_SELECTOR : SYNC_SELECTOR);
+    boolean async = LogManager.getContext(false) instanceof AsyncLoggerContext;
+    if (async != "async".equals(logging)) {
+      throw new IllegalStateException("Log4j started before the " + logging + " selector was set");
+    }
+
+    Path clean = Files.createTempFile("noisy-ingest-benchmark", ".csv");
+    file = Files.createTempFile("noisy-ingest-benchmark", ".csv");
+    BenchmarkDataset.writeCsv(clean, ROWS);
+    try (BufferedReader reader = Files.newBufferedReader(clean);
+        BufferedWriter writer = Files.newBufferedWriter(file)) {
+      writer.write(reader.readLine());
+      writer.newLine();
+      int row = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        // a truncated row, rejected for its column count
+        writer.write(++row % MALFORMED_EVERY == 0 ? line.substring(0, line.lastIndexOf(',')) : line);
+        writer.newLine();
+      }
+    }
+    Files.delete(clean);
+  }
+
+  @Setup(Level.Iteration)
+  public void resetDatabase() throws Exception {
+    BenchmarkDataset.reset();
+    BenchmarkDataset.createTopology(true);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    PersistenceManager.close();
+    LogManager.shutdown();
+    System.out.close();
+    System.setOut(stdout);
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(Path.of(file + DataImportingService.REJECTS_SUFFIX));
+    Files.deleteIfExists(log);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public ImportSummary storeMeasurements() {
+    return DataImportingService.storeMeasurements(file.toString(), ImportOptions.defaults());
+  }
+}
@@ -0,0 +1,77 @@
+package com.weather.report.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weather.report.WeatherReport;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.reports.GatewayReport;
+import com.weather.report.reports.NetworkReport;
+import com.weather.report.reports.SensorReport;
+
+/**
+ * Latency of the sensor, gateway and network reports over the whole dataset.
+ * <p>
+ * A sensor report reads one row in {@code sensorCount()}, a gateway report one
+ * in {@code NETWORKS * GATEWAYS} and a network report one in
+ * {@code NETWORKS}. The larger sizes take minutes to load and need a large heap
+ * (the 10M rows run wants {@code -jvmArgsAppend -Xmx8g}); pick the sizes with
+ * {@code -p rows=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = BenchmarkDataset.PERSISTENCE_UNIT)
+public class ReportBenchmark {
+
+  @Param({ "10000", "1000000", "10000000" })
+  int rows;
+
+  private WeatherReport facade;
+  private String start;
+  private String end;
+
+  @Setup(Level.Trial)
+  public void loadDataset() throws Exception {
+    facade = BenchmarkDataset.reset();
+    BenchmarkDataset.createTopology(false);
+    BenchmarkDataset.insert(rows);
+    start = BenchmarkDataset.format(BenchmarkDataset.START);
+    end = BenchmarkDataset.format(BenchmarkDataset.end(rows));
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    PersistenceManager.close();
+  }
+
+  @Benchmark
+  public SensorReport sensorReport() throws Exception {
+    return facade.sensors().getSensorReport(BenchmarkDataset.sensor(0, 0, 0), start, end);
+  }
+
+  @Benchmark
+  public GatewayReport gatewayReport() throws Exception {
+    return facade.gateways().getGatewayReport(BenchmarkDataset.gateway(0, 0), start, end);
+  }
+
+  @Benchmark
+  public NetworkReport networkReport() throws Exception {
+    return facade.networks().getNetworkReport(BenchmarkDataset.network(0), start, end);
+  }
+}
@@ -0,0 +1,64 @@
+package com.weather.report.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.weather.report.WeatherReport;
+import com.weather.report.model.entities.Gateway;
+import com.weather.report.model.entities.Network;
+import com.weather.report.persistence.PersistenceManager;
+
+/**
+ * Latency of a disconnect followed by a reconnect, for a sensor and for a
+ * gateway of the benchmark topology, so that the topology is the same before
+ * every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = BenchmarkDataset.PERSISTENCE_UNIT)
+public class TopologyBenchmark {
+
+  private static final String NETWORK = BenchmarkDataset.network(0);
+  private static final String GATEWAY = BenchmarkDataset.gateway(0, 0);
+  private static final String SENSOR = BenchmarkDataset.sensor(0, 0, 0);
+
+  private WeatherReport facade;
+
+  @Setup(Level.Trial)
+  public void createTopology() throws Exception {
+    facade = BenchmarkDataset.reset();
+    BenchmarkDataset.createTopology(false);
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    PersistenceManager.close();
+  }
+
+  @Benchmark
+  public Gateway reconnectSensor() throws Exception {
+    facade.topology().disconnectSensor(SENSOR, GATEWAY, BenchmarkDataset.USERNAME);
+    return facade.topology().connectSensor(SENSOR, GATEWAY, BenchmarkDataset.USERNAME);
+  }
+
+  @Benchmark
+  public Network reconnectGateway() throws Exception {
+    facade.topology().disconnectGateway(NETWORK, GATEWAY, BenchmarkDataset.USERNAME);
+    return facade.topology().connectGateway(NETWORK, GATEWAY, BenchmarkDataset.USERNAME);
+  }
+}
@@ -0,0 +1,160 @@
+package com.weather.report;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import com.weather.report.exceptions.WeatherReportException;
+import com.weather.report.model.UserType;
+import com.weather.report.model.entities.User;
+import com.weather.report.reports.GatewayReport;
+import com.weather.report.reports.NetworkReport;
+import com.weather.report.reports.SensorReport;
+import com.weather.report.services.AlertingService;
+import com.weather.report.services.ImportOptions;
+import com.weather.report.services.ImportSummary;
+
+/**
+ * Non-blocking variant of {@link WeatherReport}: every call runs on its own
+ * virtual thread and returns a {@link CompletableFuture}.
+ * <p>
+ * Calls run concurrently with each other, each in its own unit of work: a
+ * call never joins a transaction opened by the caller. At most
+ * {@code maxConcurrency} calls run at the same time, the others wait for a
+ * free slot on their virtual thread without holding a connection, so that a
+ * burst of requests cannot exhaust the connection pool. Operations not
+ * mirrored here are run through {@link #submit(Operation)}:
+ *
+ * <pre>
+ * concurrent.submit(r -&gt; r.sensors().createSensor(code, name, null, username));
+ * </pre>
+ *
+ * Futures complete exceptionally with the {@link WeatherReportException} or
+ * runtime exception thrown by the call. Imports of the same file must not
+ * run concurrently.
+ */
+public class ConcurrentWeatherReport implements AutoCloseable {
+
+  /** system property overriding the default limit on concurrent calls */
+  public static final String MAX_CONCURRENCY_PROPERTY = "weather.concurrent.maxConcurrency";
+
+  /** default limit on concurrent calls, the size of the production connection pool */
+  public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+  /**
+   * Call on the blocking facade, run by {@link #submit(Operation)}.
+   *
+   * @param <T> result type
+   */
+  @FunctionalInterface
+  public interface Operation<T> {
+    T apply(WeatherReport facade) throws WeatherReportException;
+  }
+
+  private final WeatherReport facade;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Semaphore permits;
+
+  public ConcurrentWeatherReport() {
+    this(Integer.getInteger(MAX_CONCURRENCY_PROPERTY, DEFAULT_MAX_CONCURRENCY));
+  }
+
+  /**
+   * @param maxConcurrency maximum number of calls running at the same time
+   */
+  public ConcurrentWeatherReport(int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("Max concurrency must be positive");
+    }
+    this.facade = new WeatherReport();
+    this.permits = new Semaphore(maxConcurrency, true);
+  }
+
+  /**
+   * @return the blocking facade the calls are delegated to
+   */
+  public WeatherReport blocking() {
+    return facade;
+  }
+
+  /**
+   * Runs a call on the blocking facade on a virtual thread.
+   *
+   * @param <T>       result type
+   * @param operation call to run
+   * @return future completed with the result of the call
+   */
+  public <T> CompletableFuture<T> submit(Operation<T> operation) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CompletionException(e);
+      }
+      try {
+        return operation.apply(facade);
+      } catch (WeatherReportException e) {
+        throw new CompletionException(e);
+      } finally {
+        permits.release();
+      }
+    }, executor);
+  }
+
+  /**
+   * @see WeatherReport#importDataFromFile(String, ImportOptions)
+   */
+  public CompletableFuture<ImportSummary> importDataFromFile(String filePath) {
+    return importDataFromFile(filePath, ImportOptions.defaults());
+  }
+
+  /**
+   * @see WeatherReport#importDataFromFile(String, ImportOptions)
+   */
+  public CompletableFuture<ImportSummary> importDataFromFile(String filePath, ImportOptions options) {
+    return submit(r -> r.importDataFromFile(filePath, options));
+  }
+
+  /**
+   * @see WeatherReport#createUser(String, UserType)
+   */
+  public CompletableFuture<User> createUser(String username, UserType type) {
+    return submit(r -> r.createUser(username, type));
+  }
+
+  /**
+   * @see com.weather.report.operations.NetworkOperations#getNetworkReport
+   */
+  public CompletableFuture<NetworkReport> getNetworkReport(String code, String startDate, String endDate) {
+    return submit(r -> r.networks().getNetworkReport(code, startDate, endDate));
+  }
+
+  /**
+   * @see com.weather.report.operations.GatewayOperations#getGatewayReport
+   */
+  public CompletableFuture<GatewayReport> getGatewayReport(String code, String startDate, String endDate) {
+    return submit(r -> r.gateways().getGatewayReport(code, startDate, endDate));
+  }
+
+  /**
+   * @see com.weather.report.operations.SensorOperations#getSensorReport
+   */
+  public CompletableFuture<SensorReport> getSensorReport(String code, String startDate, String endDate) {
+    return submit(r -> r.sensors().getSensorReport(code, startDate, endDate));
+  }
+
+  /**
+   * Stops accepting calls, waits for the running ones to complete and then
+   * delivers the threshold alerts they queued.
+   *
+   * @see AlertingService#shutdown()
+   */
+  @Override
+  public void close() {
+    executor.close();
+    AlertingService.shutdown();
+  }
+}
@@ -7,9 +7,19 @@ import com.weather.report.operations.NetworkOperations;
 import com.weather.report.operations.OperationsFactory;
 import com.weather.report.operations.SensorOperations;
 import com.weather.report.operations.TopologyOperations;
-import com.weather.report.repositories.CRUDRepository;
+import com.weather.report.repositories.Repositories;
 import com.weather.report.services.DataImportingService;
+import com.weather.report.services.ImportOptions;
+import com.weather.report.services.ImportSummary;
 
+/**
+ * Blocking facade of the system.
+ * <p>
+ * A facade may be shared by several threads: each call runs in a unit of
+ * work bound to the calling thread, and the caches behind the repositories
+ * are safe for concurrent use. {@link ConcurrentWeatherReport} runs the calls
+ * on virtual threads.
+ */
 public class WeatherReport {
   public static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
 
@@ -30,6 +40,18 @@ public class WeatherReport {
     DataImportingService.storeMeasurements(filePath);
   }
 
+  /**
+   * Imports weather measurements from the given file with explicit settings
+   * (topology checks, resumable mode, batch size).
+   * 
+   * @param filePath the path of the file
+   * @param options  import settings
+   * @return counters collected during the import
+   */
+  public ImportSummary importDataFromFile(String filePath, ImportOptions options) {
+    return DataImportingService.storeMeasurements(filePath, options);
+  }
+
   /**
    * Creates a new user in the system.
    * 
@@ -39,7 +61,7 @@ public class WeatherReport {
    * @return the newly created user
    */
   public User createUser(String username, UserType type) {
-    return new CRUDRepository<>(User.class).create(new User(username, type));
+    return Repositories.users().create(new User(username, type));
   }
 
   /*********************************
@@ -0,0 +1,36 @@
+package com.weather.report.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event committed for every threshold alert; its duration is
+ * the time the importing thread spent raising it, the messages being sent
+ * later by the {@link com.weather.report.notifications.NotificationDispatcher}.
+ */
+@Name("com.weather.report.AlertDispatch")
+@Label("Alert Dispatch")
+@Category({ "Weather Report", "Alerts" })
+@Description("Threshold violation notified to the operators of a network")
+@StackTrace(false)
+public class AlertDispatchEvent extends Event {
+
+  @Label("Sensor")
+  public String sensorCode;
+
+  @Label("Recipients")
+  @Description("Operators notified")
+  public int recipients;
+
+  @Label("Messages")
+  @Description("Pending emails and SMS the alert was added to")
+  public int messages;
+
+  @Label("Queue Depth")
+  @Description("Messages waiting to be sent when this alert was raised")
+  public int queueDepth;
+}
@@ -0,0 +1,44 @@
+package com.weather.report.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count of events, registered by {@link Metrics#counter(String)}.
+ * Updates are dropped while metrics are disabled.
+ */
+public final class Counter {
+
+  private final String name;
+  private final LongAdder count = new LongAdder();
+
+  Counter(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void increment() {
+    if (Metrics.enabled) {
+      count.increment();
+    }
+  }
+
+  /**
+   * @param n number of events to add
+   */
+  public void add(long n) {
+    if (Metrics.enabled) {
+      count.add(n);
+    }
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  void reset() {
+    count.reset();
+  }
+}
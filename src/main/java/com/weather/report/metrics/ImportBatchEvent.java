@@ -0,0 +1,47 @@
+package com.weather.report.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event committed for every batch of an import, spanning from
+ * the first row read for the batch to the end of its transaction.
+ * <p>
+ * Parse and persist times are only measured while the event is enabled in a
+ * recording, see {@link #isEnabled()}.
+ */
+@Name("com.weather.report.ImportBatch")
+@Label("Import Batch")
+@Category({ "Weather Report", "Import" })
+@Description("Measurements of a CSV file committed in one transaction")
+@StackTrace(false)
+public class ImportBatchEvent extends Event {
+
+  @Label("File")
+  public String file;
+
+  @Label("Rows")
+  @Description("Measurements stored by the batch")
+  public int rows;
+
+  @Label("Bytes")
+  @Description("Bytes of the file read for the batch")
+  @DataAmount
+  public long bytes;
+
+  @Label("Parse Time")
+  @Description("Time spent parsing the CSV rows of the batch")
+  @Timespan
+  public long parseTime;
+
+  @Label("Persist Time")
+  @Description("Time spent inserting the batch and committing its transaction")
+  @Timespan
+  public long persistTime;
+}
@@ -0,0 +1,112 @@
+package com.weather.report.metrics;
+
+import java.util.Locale;
+
+/**
+ * Value of one metric at the time of a {@link Metrics#snapshot()}.
+ * <p>
+ * Counters only have a count, gauges only a value; timers have both a count
+ * and the latency statistics, in milliseconds.
+ */
+public class MetricSnapshot {
+
+  /** kind of metric */
+  public enum Type {
+    COUNTER, GAUGE, TIMER
+  }
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final String name;
+  private final Type type;
+  private final long count;
+  private final double value;
+  private final double meanMillis;
+  private final double p50Millis;
+  private final double p95Millis;
+  private final double p99Millis;
+  private final double maxMillis;
+
+  private MetricSnapshot(String name, Type type, long count, double value, double meanMillis, double p50Millis,
+      double p95Millis, double p99Millis, double maxMillis) {
+    this.name = name;
+    this.type = type;
+    this.count = count;
+    this.value = value;
+    this.meanMillis = meanMillis;
+    this.p50Millis = p50Millis;
+    this.p95Millis = p95Millis;
+    this.p99Millis = p99Millis;
+    this.maxMillis = maxMillis;
+  }
+
+  static MetricSnapshot of(Counter counter) {
+    return new MetricSnapshot(counter.getName(), Type.COUNTER, counter.getCount(), 0, 0, 0, 0, 0, 0);
+  }
+
+  static MetricSnapshot of(String name, double value) {
+    return new MetricSnapshot(name, Type.GAUGE, 0, value, 0, 0, 0, 0, 0);
+  }
+
+  static MetricSnapshot of(Timer timer) {
+    return new MetricSnapshot(timer.getName(), Type.TIMER, timer.getCount(), 0,
+        timer.getMeanNanos() / NANOS_PER_MILLI,
+        timer.getPercentileNanos(0.50) / NANOS_PER_MILLI,
+        timer.getPercentileNanos(0.95) / NANOS_PER_MILLI,
+        timer.getPercentileNanos(0.99) / NANOS_PER_MILLI,
+        timer.getMaxNanos() / NANOS_PER_MILLI);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return events counted by a counter or timed by a timer
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return current value of a gauge
+   */
+  public double getValue() {
+    return value;
+  }
+
+  public double getMeanMillis() {
+    return meanMillis;
+  }
+
+  public double getP50Millis() {
+    return p50Millis;
+  }
+
+  public double getP95Millis() {
+    return p95Millis;
+  }
+
+  public double getP99Millis() {
+    return p99Millis;
+  }
+
+  public double getMaxMillis() {
+    return maxMillis;
+  }
+
+  @Override
+  public String toString() {
+    return switch (type) {
+      case COUNTER -> String.format(Locale.ROOT, "%s counter count=%d", name, count);
+      case GAUGE -> String.format(Locale.ROOT, "%s gauge value=%s", name, value);
+      case TIMER -> String.format(Locale.ROOT,
+          "%s timer count=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+          name, count, meanMillis, p50Millis, p95Millis, p99Millis, maxMillis);
+    };
+  }
+}
@@ -0,0 +1,273 @@
+package com.weather.report.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * In-process registry of counters, gauges and latency {@link Timer timers}.
+ * <p>
+ * Metrics are registered once, usually in static fields, and looked up by
+ * name; {@link #snapshot()} reads them all and {@link #dump(Path)} writes them
+ * to a file, which {@link #startDumping(Path, Duration)} repeats on a
+ * background thread. Recording is off unless {@value #ENABLED_PROPERTY} is
+ * set or {@link #setEnabled(boolean)} is called: counters and timers then
+ * return after reading a volatile flag, and {@link #timed} hands back the
+ * unwrapped object.
+ */
+public final class Metrics {
+
+  private static final Logger logger = LogManager.getLogger(Metrics.class);
+
+  /** system property enabling metrics at startup */
+  public static final String ENABLED_PROPERTY = "weather.metrics.enabled";
+
+  /** system property naming a file the metrics are periodically written to */
+  public static final String DUMP_FILE_PROPERTY = "weather.metrics.dumpFile";
+
+  /** system property overriding the default dump period, in seconds */
+  public static final String DUMP_SECONDS_PROPERTY = "weather.metrics.dumpSeconds";
+
+  private static final int DEFAULT_DUMP_SECONDS = 60;
+
+  static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+  private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+  private static final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+  private static final Object LOCK = new Object();
+  private static ScheduledExecutorService dumper;
+
+  static {
+    String dumpFile = System.getProperty(DUMP_FILE_PROPERTY);
+    if (enabled && dumpFile != null) {
+      startDumping(Path.of(dumpFile), Duration.ofSeconds(Integer.getInteger(DUMP_SECONDS_PROPERTY,
+          DEFAULT_DUMP_SECONDS)));
+    }
+  }
+
+  private Metrics() {
+    // utility class
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Turns recording on or off. Objects already returned by {@link #timed} keep
+   * the state they were created with.
+   *
+   * @param enabled whether metrics are recorded
+   */
+  public static void setEnabled(boolean enabled) {
+    Metrics.enabled = enabled;
+  }
+
+  /**
+   * @param name name of the counter
+   * @return the counter of that name, registered on first use
+   */
+  public static Counter counter(String name) {
+    return counters.computeIfAbsent(name, Counter::new);
+  }
+
+  /**
+   * @param name name of the timer
+   * @return the timer of that name, registered on first use
+   */
+  public static Timer timer(String name) {
+    return timers.computeIfAbsent(name, Timer::new);
+  }
+
+  /**
+   * Registers a gauge, read on every snapshot; a gauge registered under the
+   * same name is replaced.
+   *
+   * @param name  name of the gauge
+   * @param value current value of the gauge
+   */
+  public static void gauge(String name, DoubleSupplier value) {
+    gauges.put(name, value);
+  }
+
+  /**
+   * @return current value of every metric, sorted by name
+   */
+  public static List<MetricSnapshot> snapshot() {
+    List<MetricSnapshot> snapshot = new ArrayList<>();
+    for (Counter counter : counters.values()) {
+      snapshot.add(MetricSnapshot.of(counter));
+    }
+    for (Timer timer : timers.values()) {
+      snapshot.add(MetricSnapshot.of(timer));
+    }
+    for (Map.Entry<String, DoubleSupplier> gauge : gauges.entrySet()) {
+      snapshot.add(MetricSnapshot.of(gauge.getKey(), read(gauge.getValue())));
+    }
+    snapshot.sort(Comparator.comparing(MetricSnapshot::getName));
+    return snapshot;
+  }
+
+  /**
+   * @param name name of a metric
+   * @return its current value, {@code null} if no metric has that name
+   */
+  public static MetricSnapshot snapshot(String name) {
+    Counter counter = counters.get(name);
+    if (counter != null) {
+      return MetricSnapshot.of(counter);
+    }
+    Timer timer = timers.get(name);
+    if (timer != null) {
+      return MetricSnapshot.of(timer);
+    }
+    DoubleSupplier gauge = gauges.get(name);
+    return gauge != null ? MetricSnapshot.of(name, read(gauge)) : null;
+  }
+
+  /**
+   * Zeroes every counter and timer; gauges are left registered.
+   */
+  public static void reset() {
+    counters.values().forEach(Counter::reset);
+    timers.values().forEach(Timer::reset);
+  }
+
+  /**
+   * Writes a snapshot to a file, one metric per line, replacing the previous
+   * content atomically so that readers never see a partial dump.
+   *
+   * @param file file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void dump(Path file) throws IOException {
+    Path target = file.toAbsolutePath();
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      writer.write("# metrics at " + LocalDateTime.now());
+      writer.newLine();
+      for (MetricSnapshot metric : snapshot()) {
+        writer.write(metric.toString());
+        writer.newLine();
+      }
+    }
+    try {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Dumps the metrics to a file at a fixed period on a daemon thread,
+   * replacing any previous schedule.
+   *
+   * @param file   file to write
+   * @param period time between two dumps
+   */
+  public static void startDumping(Path file, Duration period) {
+    if (period.isNegative() || period.isZero()) {
+      throw new IllegalArgumentException("Dump period must be positive");
+    }
+    synchronized (LOCK) {
+      stopDumping();
+      dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "metrics-dump");
+        thread.setDaemon(true);
+        return thread;
+      });
+      dumper.scheduleAtFixedRate(() -> {
+        try {
+          dump(file);
+        } catch (IOException | RuntimeException e) {
+          logger.warn("Cannot dump metrics to {}: {}", file, e.getMessage());
+        }
+      }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops the periodic dumps, if any.
+   */
+  public static void stopDumping() {
+    synchronized (LOCK) {
+      if (dumper != null) {
+        dumper.shutdownNow();
+        dumper = null;
+      }
+    }
+  }
+
+  /**
+   * Wraps an object so that every method of an interface is timed, as
+   * {@code <prefix>.<method>}, and its exceptions counted, as
+   * {@code <prefix>.<method>.errors}.
+   *
+   * @param <T>    interface type
+   * @param type   interface whose methods are timed
+   * @param target object to wrap
+   * @param prefix prefix of the metric names
+   * @return a timed proxy, or {@code target} itself while metrics are disabled
+   */
+  public static <T> T timed(Class<T> type, T target, String prefix) {
+    if (!enabled) {
+      return target;
+    }
+    Map<Method, Timer> methodTimers = new HashMap<>();
+    Map<Method, Counter> methodErrors = new HashMap<>();
+    for (Method method : type.getMethods()) {
+      methodTimers.put(method, timer(prefix + "." + method.getName()));
+      methodErrors.put(method, counter(prefix + "." + method.getName() + ".errors"));
+    }
+    InvocationHandler handler = (proxy, method, args) -> {
+      Timer timer = methodTimers.get(method);
+      long start = timer != null ? timer.start() : 0L;
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        if (timer != null) {
+          methodErrors.get(method).increment();
+        }
+        throw e.getCause();
+      } finally {
+        if (timer != null) {
+          timer.stop(start);
+        }
+      }
+    };
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+  }
+
+  private static double read(DoubleSupplier gauge) {
+    try {
+      return gauge.getAsDouble();
+    } catch (RuntimeException e) {
+      return Double.NaN;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.weather.report.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event committed for every sensor, gateway or network report,
+ * split in a load phase, reading the measurements and aggregates of the
+ * window, and a compute phase, building the report from them.
+ * <p>
+ * Builders call {@link #start}, then {@link #loaded(long)} once the rows are
+ * read and {@link #finish()} when the report is ready; both return at once
+ * while the event is not recorded.
+ */
+@Name("com.weather.report.ReportBuild")
+@Label("Report Build")
+@Category({ "Weather Report", "Reports" })
+@Description("Report computed over a window of measurements")
+@StackTrace(false)
+public class ReportBuildEvent extends Event {
+
+  @Label("Kind")
+  @Description("sensor, gateway or network")
+  public String kind;
+
+  @Label("Code")
+  public String code;
+
+  @Label("Window Start")
+  public String windowStart;
+
+  @Label("Window End")
+  public String windowEnd;
+
+  @Label("Rows Scanned")
+  @Description("Measurements read, counting those summarized by aggregates")
+  public long rowsScanned;
+
+  @Label("Load Time")
+  @Timespan
+  public long loadTime;
+
+  @Label("Compute Time")
+  @Timespan
+  public long computeTime;
+
+  private transient long phaseStart;
+
+  /**
+   * @param kind  kind of report
+   * @param code  code of the reported element
+   * @param start window start as given to the builder, may be {@code null}
+   * @param end   window end as given to the builder, may be {@code null}
+   * @return a started event
+   */
+  public static ReportBuildEvent start(String kind, String code, String start, String end) {
+    ReportBuildEvent event = new ReportBuildEvent();
+    if (event.isEnabled()) {
+      event.kind = kind;
+      event.code = code;
+      event.windowStart = start;
+      event.windowEnd = end;
+      event.phaseStart = System.nanoTime();
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Ends the load phase.
+   *
+   * @param rowsScanned measurements read for the report
+   */
+  public void loaded(long rowsScanned) {
+    if (isEnabled()) {
+      long now = System.nanoTime();
+      this.rowsScanned = rowsScanned;
+      this.loadTime = now - phaseStart;
+      this.phaseStart = now;
+    }
+  }
+
+  /**
+   * Ends the compute phase and commits the event.
+   */
+  public void finish() {
+    if (isEnabled()) {
+      computeTime = System.nanoTime() - phaseStart;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.weather.report.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram, registered by {@link Metrics#timer(String)}.
+ * <p>
+ * Durations are counted in log-linear buckets: exact below 16 ns, then eight
+ * buckets per power of two, so percentiles are within 12.5% of the recorded
+ * values whatever their magnitude, in a fixed 4 KB of counters and without
+ * locking. While metrics are disabled {@link #start()} returns {@code 0} and
+ * {@link #stop(long)} ignores it, so a timed block costs a field read.
+ */
+public final class Timer {
+
+  private static final int LINEAR = 16;
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+  private final String name;
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  Timer(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return start time to hand to {@link #stop(long)}, {@code 0} if metrics
+   *         are disabled
+   */
+  public long start() {
+    return Metrics.enabled ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Records the time elapsed since {@code start}.
+   *
+   * @param start value returned by {@link #start()}
+   */
+  public void stop(long start) {
+    if (start != 0L) {
+      record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * @param nanos duration to record, negative values count as zero
+   */
+  public void record(long nanos) {
+    if (!Metrics.enabled) {
+      return;
+    }
+    long value = Math.max(0L, nanos);
+    buckets.incrementAndGet(indexOf(value));
+    count.increment();
+    totalNanos.add(value);
+    maxNanos.accumulateAndGet(value, Math::max);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * @return mean duration, {@code 0} if nothing was recorded
+   */
+  public double getMeanNanos() {
+    long n = count.sum();
+    return n == 0 ? 0.0 : (double) totalNanos.sum() / n;
+  }
+
+  /**
+   * @param quantile quantile in {@code [0, 1]}, e.g. {@code 0.99}
+   * @return upper bound of the bucket holding the quantile, at most the
+   *         maximum recorded, {@code 0} if nothing was recorded
+   */
+  public long getPercentileNanos(double quantile) {
+    if (quantile < 0 || quantile > 1) {
+      throw new IllegalArgumentException("Quantile must be between 0 and 1");
+    }
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0L;
+    }
+    long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(i), maxNanos.get());
+      }
+    }
+    return maxNanos.get();
+  }
+
+  void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0L);
+    }
+    count.reset();
+    totalNanos.reset();
+    maxNanos.set(0L);
+  }
+
+  static int indexOf(long value) {
+    if (value < LINEAR) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+  }
+
+  static long upperBoundOf(int index) {
+    if (index < LINEAR) {
+      return index;
+    }
+    int exponent = (index - LINEAR) / SUB_BUCKETS + 4;
+    long sub = (index - LINEAR) % SUB_BUCKETS;
+    long next = (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS);
+    // the last bucket ends at Long.MAX_VALUE, where the shift overflows
+    return next <= 0 ? Long.MAX_VALUE : next - 1;
+  }
+}
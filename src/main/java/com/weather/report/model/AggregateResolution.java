@@ -0,0 +1,29 @@
+package com.weather.report.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/// Width of the time buckets old measurements are rolled up into by the
+/// retention engine.
+public enum AggregateResolution {
+  /// one aggregate per sensor and hour
+  HOURLY(ChronoUnit.HOURS),
+  /// one aggregate per sensor and day
+  DAILY(ChronoUnit.DAYS);
+
+  private final ChronoUnit unit;
+
+  AggregateResolution(ChronoUnit unit) {
+    this.unit = unit;
+  }
+
+  /// Start of the bucket containing the given time
+  public LocalDateTime bucketOf(LocalDateTime timestamp) {
+    return timestamp.truncatedTo(unit);
+  }
+
+  /// Start of the bucket following the one starting at the given time
+  public LocalDateTime next(LocalDateTime bucketStart) {
+    return bucketStart.plus(1, unit);
+  }
+}
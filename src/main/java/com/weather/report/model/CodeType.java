@@ -0,0 +1,8 @@
+package com.weather.report.model;
+
+/// Kinds of codes stored in the measurement code dictionary.
+public enum CodeType {
+  SENSOR,
+  GATEWAY,
+  NETWORK
+}
@@ -0,0 +1,31 @@
+package com.weather.report.model;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.weather.report.model.entities.Operator;
+
+/// Immutable copy of the addresses an operator is notified on, detached from
+/// the `Operator` entity so that it can be shared between threads.
+///
+/// @param email       e-mail address of the operator
+/// @param phoneNumber phone number of the operator, `null` if none
+public record OperatorContact(String email, String phoneNumber) {
+
+  /// @param operator operator entity
+  /// @return the contact addresses of the operator
+  public static OperatorContact of(Operator operator) {
+    return new OperatorContact(operator.getEmail(), operator.getPhoneNumber());
+  }
+
+  /// @param operators operator entities
+  /// @return the contact addresses of the operators, in the same order
+  public static List<OperatorContact> allOf(Collection<Operator> operators) {
+    return operators.stream().map(OperatorContact::of).toList();
+  }
+
+  /// @return a new, unmanaged operator carrying only the contact addresses
+  public Operator toOperator() {
+    return new Operator(null, null, email, phoneNumber);
+  }
+}
@@ -2,11 +2,23 @@ package com.weather.report.model;
 
 /// Define the possible comparison types for
 /// a [Threshold][com.weather.report.model.entities.Threshold].
+///
+/// The range types compare a measurement with the band between the value and
+/// the upper value of the threshold, bounds included.
 public enum ThresholdType {
   LESS_THAN,
   GREATER_THAN,
   LESS_OR_EQUAL,
   GREATER_OR_EQUAL,
   EQUAL,
-  NOT_EQUAL
+  NOT_EQUAL,
+  /// anomalous when the value falls inside the band
+  INSIDE_RANGE,
+  /// anomalous when the value falls outside the band
+  OUTSIDE_RANGE;
+
+  /// @return whether the type needs an upper value
+  public boolean isRange() {
+    return this == INSIDE_RANGE || this == OUTSIDE_RANGE;
+  }
 }
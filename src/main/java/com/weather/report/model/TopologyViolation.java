@@ -0,0 +1,12 @@
+package com.weather.report.model;
+
+/// Reasons why an imported measurement does not match the configured
+/// topology of networks, gateways and sensors.
+public enum TopologyViolation {
+  /// the sensor code is not configured in the system
+  UNKNOWN_SENSOR,
+  /// the sensor is not connected to the gateway reported by the row
+  GATEWAY_MISMATCH,
+  /// the gateway is not connected to the network reported by the row
+  NETWORK_MISMATCH
+}
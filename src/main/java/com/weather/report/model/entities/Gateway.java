@@ -5,7 +5,12 @@ import java.util.ArrayList;
 import com.weather.report.model.Timestamped;
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "gateways")
 public class Gateway extends Timestamped {
 
@@ -20,6 +25,7 @@ public class Gateway extends Timestamped {
     private String description;
 
     @OneToMany(mappedBy = "gateway", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Collection<Parameter> parameters = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,90 @@
+package com.weather.report.model.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/// Progress of a resumable CSV import, committed together with each batch of
+/// measurements so that an interrupted import restarts after the last stored
+/// batch.
+@Entity
+@Table(name = "import_checkpoints")
+public class ImportCheckpoint {
+
+  /// SHA-256 of the file content, hex encoded
+  @Id
+  @Column(length = 64)
+  private String fingerprint;
+
+  @Column(name = "file_path", length = 1024)
+  private String filePath;
+
+  /// byte offset of the first row not yet committed
+  @Column(name = "byte_offset")
+  private long byteOffset;
+
+  /// number of the last line (header included) covered by the checkpoint
+  @Column(name = "line_number")
+  private long lineNumber;
+
+  /// number of measurements stored so far
+  @Column(name = "row_count")
+  private long rowCount;
+
+  private boolean completed;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
+  protected ImportCheckpoint() {
+    // JPA only
+  }
+
+  public ImportCheckpoint(String fingerprint, String filePath) {
+    this.fingerprint = fingerprint;
+    this.filePath = filePath;
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public String getFilePath() {
+    return filePath;
+  }
+
+  public long getByteOffset() {
+    return byteOffset;
+  }
+
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public boolean isCompleted() {
+    return completed;
+  }
+
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  /// Moves the checkpoint to the end of a batch about to be committed
+  public void advance(long byteOffset, long lineNumber, long rowCount) {
+    this.byteOffset = byteOffset;
+    this.lineNumber = lineNumber;
+    this.rowCount = rowCount;
+    this.updatedAt = LocalDateTime.now();
+  }
+
+  public void setCompleted(boolean completed) {
+    this.completed = completed;
+  }
+}
@@ -2,22 +2,163 @@ package com.weather.report.model.entities;
 
 import java.time.LocalDateTime;
 
+import com.weather.report.model.CodeType;
+import com.weather.report.model.TopologyViolation;
+import com.weather.report.persistence.CodeDictionary;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /// Represnts a measurement taken by a sensor in the weather report system
+///
+/// The range lookups used by reports are declared as named queries, one per
+/// combination of bounds, so that Hibernate parses and plans them once at boot.
+///
+/// Rows are keyed by calendar month: `partition_month` (`yyyyMM`) leads
+/// the partition index and bounds every sensor, gateway and network range
+/// query, so range scans only touch the months overlapping the requested
+/// window. The rows all live in one table, since H2 has no detachable
+/// partitions: deleting a month is a bulk delete costing O(rows), not O(1).
+///
+/// Sensor, gateway and network codes are stored as the integer keys of the
+/// [MeasurementCode] dictionary, which keeps rows and indexes narrow; queries
+/// therefore filter on `sensorId`, `gatewayId` and `networkId`, while the
+/// entity itself still exposes the codes.
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_measurement_sensor_time", columnList = "sensor_id, measurement_timestamp"),
+    @Index(name = "idx_measurement_partition", columnList = "partition_month, network_id, measurement_timestamp") })
+@NamedQuery(name = Measurement.BY_SENSOR,
+    query = "SELECT m FROM Measurement m WHERE m.sensorId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_SENSOR + Measurement.FROM,
+    query = "SELECT m FROM Measurement m WHERE m.sensorId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp >= :start ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_SENSOR + Measurement.UNTIL,
+    query = "SELECT m FROM Measurement m WHERE m.sensorId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp <= :end ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_SENSOR + Measurement.BETWEEN,
+    query = "SELECT m FROM Measurement m WHERE m.sensorId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp >= :start AND m.timestamp <= :end ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_GATEWAY,
+    query = "SELECT m FROM Measurement m WHERE m.gatewayId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_GATEWAY + Measurement.FROM,
+    query = "SELECT m FROM Measurement m WHERE m.gatewayId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp >= :start ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_GATEWAY + Measurement.UNTIL,
+    query = "SELECT m FROM Measurement m WHERE m.gatewayId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp <= :end ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_GATEWAY + Measurement.BETWEEN,
+    query = "SELECT m FROM Measurement m WHERE m.gatewayId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp >= :start AND m.timestamp <= :end ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_NETWORK,
+    query = "SELECT m FROM Measurement m WHERE m.networkId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_NETWORK + Measurement.FROM,
+    query = "SELECT m FROM Measurement m WHERE m.networkId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp >= :start ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_NETWORK + Measurement.UNTIL,
+    query = "SELECT m FROM Measurement m WHERE m.networkId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp <= :end ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.BY_NETWORK + Measurement.BETWEEN,
+    query = "SELECT m FROM Measurement m WHERE m.networkId = :id"
+        + " AND m.partitionMonth >= :firstPartition AND m.partitionMonth <= :lastPartition"
+        + " AND m.timestamp >= :start AND m.timestamp <= :end ORDER BY m.timestamp ASC")
+@NamedQuery(name = Measurement.PARTITIONS,
+    query = "SELECT DISTINCT m.partitionMonth FROM Measurement m")
+@NamedQuery(name = Measurement.DELETE_MONTHS,
+    query = "DELETE FROM Measurement m WHERE m.partitionMonth >= :firstPartition"
+        + " AND m.partitionMonth <= :lastPartition")
+@NamedQuery(name = Measurement.NETWORKS,
+    query = "SELECT DISTINCT m.networkId FROM Measurement m WHERE m.networkId IS NOT NULL")
+@NamedQuery(name = Measurement.EXPIRED,
+    query = "SELECT m FROM Measurement m WHERE m.networkId = :id"
+        + " AND m.partitionMonth <= :lastPartition AND m.timestamp < :cutoff ORDER BY m.id ASC")
+@NamedQuery(name = Measurement.DELETE_BY_IDS,
+    query = "DELETE FROM Measurement m WHERE m.id IN :ids")
+@NamedQuery(name = Measurement.RECENT,
+    query = "SELECT m.networkId, m.gatewayId, m.sensorId, m.timestamp, m.value FROM Measurement m"
+        + " WHERE m.partitionMonth >= :firstPartition AND m.timestamp >= :start")
+@NamedQuery(name = Measurement.EXISTING_KEYS,
+    query = "SELECT m.sensorId, m.timestamp FROM Measurement m"
+        + " WHERE m.sensorId IN :ids AND m.timestamp >= :from AND m.timestamp <= :to")
 public class Measurement {
 
+  /// Measurements of a sensor (`:id`) in the partitions
+  /// `[:firstPartition, :lastPartition]`, oldest first
+  public static final String BY_SENSOR = "Measurement.bySensor";
+  /// Measurements of a gateway (`:id`) in the partitions
+  /// `[:firstPartition, :lastPartition]`, oldest first
+  public static final String BY_GATEWAY = "Measurement.byGateway";
+  /// Measurements of a network (`:id`) in the partitions
+  /// `[:firstPartition, :lastPartition]`, oldest first
+  public static final String BY_NETWORK = "Measurement.byNetwork";
+  /// Partitions holding at least one measurement
+  public static final String PARTITIONS = "Measurement.partitions";
+  /// Bulk delete of the months `[:firstPartition, :lastPartition]`
+  public static final String DELETE_MONTHS = "Measurement.deleteMonths";
+  /// Keys of the networks having at least one measurement
+  public static final String NETWORKS = "Measurement.networks";
+  /// Measurements of a network (`:id`) older than `:cutoff`, in the
+  /// partitions up to `:lastPartition`, in insertion order
+  public static final String EXPIRED = "Measurement.expired";
+  /// Bulk delete of the measurements with ids in `:ids`
+  public static final String DELETE_BY_IDS = "Measurement.deleteByIds";
+  /// Code keys, timestamp and value of the measurements taken since `:start`,
+  /// in the partitions from `:firstPartition`
+  public static final String RECENT = "Measurement.recent";
+  /// Suffix of the range queries bounded below by `:start`
+  public static final String FROM = ".from";
+  /// Suffix of the range queries bounded above by `:end`
+  public static final String UNTIL = ".until";
+  /// Suffix of the range queries bounded by `:start` and `:end`
+  public static final String BETWEEN = ".between";
+  /// Sensor key and timestamp of the measurements of the sensors `:ids` in
+  /// `[:from, :to]`
+  public static final String EXISTING_KEYS = "Measurement.existingKeys";
+
+  // sequence ids (unlike IDENTITY) let Hibernate batch the inserts of an import
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "measurement_seq")
+  @SequenceGenerator(name = "measurement_seq", sequenceName = "measurement_seq", allocationSize = 50)
   private Long id;
 
+  @Column(name = "sensor_id")
+  private Integer sensorId;
+  @Column(name = "gateway_id")
+  private Integer gatewayId;
+  @Column(name = "network_id")
+  private Integer networkId;
+
+  @Transient
   private String sensorCode;
+  @Transient
   private String gatewayCode;
+  @Transient
   private String networkCode;
 
   @Column(name = "measurement_value")
@@ -26,6 +167,13 @@ public class Measurement {
   @Column(name = "measurement_timestamp")
   private LocalDateTime timestamp;
 
+  @Column(name = "partition_month")
+  private int partitionMonth;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "topology_violation")
+  private TopologyViolation topologyViolation;
+
   public Measurement() { 
     // JPA Compliance
   }
@@ -36,6 +184,46 @@ public class Measurement {
     this.sensorCode = sensorCode;
     this.value = value;
     this.timestamp = timestamp;
+    this.partitionMonth = partitionOf(timestamp);
+  }
+
+  /// Sets the dictionary keys of the codes; the repository resolves them,
+  /// adding new codes in its own unit of work, before persisting
+  public void setCodeKeys(Integer sensorId, Integer gatewayId, Integer networkId) {
+    this.sensorId = sensorId;
+    this.gatewayId = gatewayId;
+    this.networkId = networkId;
+  }
+
+  // a pure in-memory lookup: never writes to the dictionary in the middle of a flush
+  @PrePersist
+  void encodeCodes() {
+    this.sensorId = keyOf(CodeType.SENSOR, this.sensorCode, this.sensorId);
+    this.gatewayId = keyOf(CodeType.GATEWAY, this.gatewayCode, this.gatewayId);
+    this.networkId = keyOf(CodeType.NETWORK, this.networkCode, this.networkId);
+  }
+
+  private static Integer keyOf(CodeType type, String code, Integer resolved) {
+    if (code == null || resolved != null) {
+      return resolved;
+    }
+    Integer id = CodeDictionary.cached(type, code);
+    if (id == null) {
+      throw new IllegalStateException("Code " + code + " not resolved before persisting the measurement");
+    }
+    return id;
+  }
+
+  @PostLoad
+  void decodeCodes() {
+    this.sensorCode = CodeDictionary.codeOf(this.sensorId);
+    this.gatewayCode = CodeDictionary.codeOf(this.gatewayId);
+    this.networkCode = CodeDictionary.codeOf(this.networkId);
+  }
+
+  /// Partition key (`yyyyMM`) of the month containing the given time
+  public static int partitionOf(LocalDateTime timestamp) {
+    return timestamp.getYear() * 100 + timestamp.getMonthValue();
   }
 
   /// Id of the measurement
@@ -67,4 +255,19 @@ public class Measurement {
   public LocalDateTime getTimestamp() {
     return this.timestamp;
   }
+
+  /// Month partition (`yyyyMM`) the measurement is stored in
+  public int getPartitionMonth() {
+    return this.partitionMonth;
+  }
+
+  /// Topology inconsistency detected at import time, `null` when the
+  /// measurement matched the configured topology or was not checked
+  public TopologyViolation getTopologyViolation() {
+    return this.topologyViolation;
+  }
+
+  public void setTopologyViolation(TopologyViolation topologyViolation) {
+    this.topologyViolation = topologyViolation;
+  }
 }
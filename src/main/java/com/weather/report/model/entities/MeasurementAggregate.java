@@ -0,0 +1,186 @@
+package com.weather.report.model.entities;
+
+import java.time.LocalDateTime;
+
+import com.weather.report.model.AggregateResolution;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/// Summary of the measurements of a sensor over one hour or one day, stored
+/// by the retention engine in place of raw measurements older than the
+/// retention period of their network.
+///
+/// Count, sum, sum of squares, minimum and maximum are kept so that reports
+/// can still compute counts, means, variances and extremes over ranges whose
+/// raw rows have been deleted.
+///
+/// An aggregate cannot be split, so a report counts every aggregate whose
+/// bucket overlaps its window in full: over compacted ranges the window is
+/// widened to the boundaries of the buckets it cuts through. The statistics
+/// are exact for windows aligned on those boundaries.
+@Entity
+@Table(name = "measurement_aggregates", indexes = {
+    @Index(name = "idx_aggregate_sensor_bucket", columnList = "sensorCode, resolution, bucket_start", unique = true),
+    @Index(name = "idx_aggregate_gateway_bucket", columnList = "gatewayCode, bucket_start"),
+    @Index(name = "idx_aggregate_network_bucket", columnList = "networkCode, bucket_start") })
+@NamedQuery(name = MeasurementAggregate.BY_SENSOR,
+    query = "SELECT a FROM MeasurementAggregate a WHERE a.sensorCode = :code" + MeasurementAggregate.OVERLAPPING
+        + " ORDER BY a.bucketStart ASC")
+@NamedQuery(name = MeasurementAggregate.BY_GATEWAY,
+    query = "SELECT a FROM MeasurementAggregate a WHERE a.gatewayCode = :code" + MeasurementAggregate.OVERLAPPING
+        + " ORDER BY a.bucketStart ASC")
+@NamedQuery(name = MeasurementAggregate.BY_NETWORK,
+    query = "SELECT a FROM MeasurementAggregate a WHERE a.networkCode = :code" + MeasurementAggregate.OVERLAPPING
+        + " ORDER BY a.bucketStart ASC")
+@NamedQuery(name = MeasurementAggregate.BUCKETS,
+    query = "SELECT a FROM MeasurementAggregate a WHERE a.sensorCode IN :codes"
+        + " AND a.resolution = :resolution AND a.bucketStart >= :from AND a.bucketStart <= :to")
+public class MeasurementAggregate {
+
+  /// Aggregates of a sensor (`:code`) whose bucket overlaps a window, see
+  /// [#OVERLAPPING]
+  public static final String BY_SENSOR = "MeasurementAggregate.bySensor";
+  /// Aggregates of a gateway (`:code`) whose bucket overlaps a window, see
+  /// [#OVERLAPPING]
+  public static final String BY_GATEWAY = "MeasurementAggregate.byGateway";
+  /// Aggregates of a network (`:code`) whose bucket overlaps a window, see
+  /// [#OVERLAPPING]
+  public static final String BY_NETWORK = "MeasurementAggregate.byNetwork";
+  /// Aggregates of the sensors `:codes` at `:resolution` starting in
+  /// `[:from, :to]`, used to merge a roll-up batch into existing buckets
+  public static final String BUCKETS = "MeasurementAggregate.buckets";
+
+  /// Restricts the aggregates to the buckets overlapping a window ending at
+  /// `:end`: hourly buckets starting from `:hourStart`, the start of the window
+  /// truncated to the hour, and daily buckets (`:daily`) starting from
+  /// `:dayStart`, the start of the window truncated to the day
+  static final String OVERLAPPING = " AND a.bucketStart <= :end AND (a.bucketStart >= :hourStart"
+      + " OR a.resolution = :daily AND a.bucketStart >= :dayStart)";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "measurement_aggregate_seq")
+  @SequenceGenerator(name = "measurement_aggregate_seq", sequenceName = "measurement_aggregate_seq",
+      allocationSize = 50)
+  private Long id;
+
+  private String sensorCode;
+  private String gatewayCode;
+  private String networkCode;
+
+  @Enumerated(EnumType.STRING)
+  private AggregateResolution resolution;
+
+  @Column(name = "bucket_start")
+  private LocalDateTime bucketStart;
+
+  @Column(name = "value_count")
+  private long count;
+
+  @Column(name = "value_sum")
+  private double sum;
+
+  @Column(name = "value_sum_squares")
+  private double sumOfSquares;
+
+  @Column(name = "value_min")
+  private double min = Double.POSITIVE_INFINITY;
+
+  @Column(name = "value_max")
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public MeasurementAggregate() {
+    // JPA Compliance
+  }
+
+  public MeasurementAggregate(String networkCode, String gatewayCode, String sensorCode,
+      AggregateResolution resolution, LocalDateTime bucketStart) {
+    this.networkCode = networkCode;
+    this.gatewayCode = gatewayCode;
+    this.sensorCode = sensorCode;
+    this.resolution = resolution;
+    this.bucketStart = bucketStart;
+  }
+
+  /// Adds a raw value to the aggregate
+  public void add(double value) {
+    count++;
+    sum += value;
+    sumOfSquares += value * value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /// Adds every value summarised by another aggregate of the same bucket
+  public void merge(MeasurementAggregate other) {
+    count += other.count;
+    sum += other.sum;
+    sumOfSquares += other.sumOfSquares;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /// Id of the aggregate
+  public Long getId() {
+    return this.id;
+  }
+
+  /// Code of the network the summarised measurements were reported for
+  public String getNetworkCode() {
+    return this.networkCode;
+  }
+
+  /// Code of the gateway the summarised measurements were reported for
+  public String getGatewayCode() {
+    return this.gatewayCode;
+  }
+
+  /// Code of the sensor that performed the summarised measurements
+  public String getSensorCode() {
+    return this.sensorCode;
+  }
+
+  /// Width of the bucket
+  public AggregateResolution getResolution() {
+    return this.resolution;
+  }
+
+  /// Start of the bucket, truncated to the resolution
+  public LocalDateTime getBucketStart() {
+    return this.bucketStart;
+  }
+
+  /// Number of summarised measurements
+  public long getCount() {
+    return this.count;
+  }
+
+  /// Sum of the summarised values
+  public double getSum() {
+    return this.sum;
+  }
+
+  /// Sum of the squares of the summarised values
+  public double getSumOfSquares() {
+    return this.sumOfSquares;
+  }
+
+  /// Smallest summarised value
+  public double getMin() {
+    return this.min;
+  }
+
+  /// Largest summarised value
+  public double getMax() {
+    return this.max;
+  }
+}
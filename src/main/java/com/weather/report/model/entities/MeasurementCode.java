@@ -0,0 +1,68 @@
+package com.weather.report.model.entities;
+
+import com.weather.report.model.CodeType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/// Entry of the dictionary mapping the sensor, gateway and network codes of
+/// measurements to the integer surrogate keys stored in their rows.
+///
+/// Entries are never updated nor deleted, so a key stays valid for the whole
+/// life of the database.
+@Entity
+@Table(name = "measurement_codes", uniqueConstraints = @UniqueConstraint(name = "uk_measurement_code",
+    columnNames = { "code_type", "code" }))
+@NamedQuery(name = MeasurementCode.ALL, query = "SELECT c FROM MeasurementCode c")
+@NamedQuery(name = MeasurementCode.BY_CODE,
+    query = "SELECT c FROM MeasurementCode c WHERE c.type = :type AND c.code = :code")
+public class MeasurementCode {
+
+  /// Every entry of the dictionary
+  public static final String ALL = "MeasurementCode.all";
+  /// Entry of a `:type` and `:code`
+  public static final String BY_CODE = "MeasurementCode.byCode";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Integer id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "code_type", nullable = false, length = 16)
+  private CodeType type;
+
+  @Column(nullable = false)
+  private String code;
+
+  public MeasurementCode() {
+    // JPA Compliance
+  }
+
+  public MeasurementCode(CodeType type, String code) {
+    this.type = type;
+    this.code = code;
+  }
+
+  /// Surrogate key stored in the measurement rows
+  public Integer getId() {
+    return this.id;
+  }
+
+  /// Kind of code
+  public CodeType getType() {
+    return this.type;
+  }
+
+  /// The code itself
+  public String getCode() {
+    return this.code;
+  }
+}
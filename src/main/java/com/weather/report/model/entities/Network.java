@@ -5,6 +5,7 @@ import java.util.ArrayList;
 
 import com.weather.report.model.Timestamped;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
@@ -12,10 +13,15 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.CascadeType;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /// A _monitoring network_ that represents a logical set of system elements.
 /// 
 /// It may have a list of _operators_ responsible for receiving notifications.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Network extends Timestamped {
 
   @Id
@@ -24,6 +30,7 @@ public class Network extends Timestamped {
   private String description;
 
   @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   private Collection<Operator> operators = new ArrayList<>();
 
   // mappedby=network : the gateway entity has a field called network that owns
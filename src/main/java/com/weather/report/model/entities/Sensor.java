@@ -2,6 +2,7 @@ package com.weather.report.model.entities;
 
 import com.weather.report.model.Timestamped;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -10,12 +11,17 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /// A _sensor_ measures a physical quantity and periodically sends the
 /// corresponding measurements.
 /// 
 /// A sensor may have a _threshold_ defined by the user to detect
 /// anomalous behaviours.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Sensor extends Timestamped {
 
   @Id
@@ -1,6 +1,7 @@
 package com.weather.report.model.entities;
 
 import com.weather.report.model.ThresholdType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -8,14 +9,26 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.Objects;
 
 /// A _threshold_ defines an acceptable limit for the values measured by a
 /// sensor.
 ///
 /// It always consists of a numeric value and a ThresholdType that the system
-/// must apply to decide whether a measurement is anomalous.
+/// must apply to decide whether a measurement is anomalous. Range types also
+/// need an upper value, the value being the lower bound of the band.
+///
+/// A positive hysteresis makes the threshold alert once per excursion: after
+/// an alert the sensor must come back inside the acceptable limit by at least
+/// the hysteresis before it can alert again, so that a value flapping around
+/// the limit does not alert on every sample. Without hysteresis every anomalous
+/// measurement alerts.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "THRESHOLD")
 public class Threshold {
 
@@ -30,6 +43,13 @@ public class Threshold {
   @Column(name = "THRESHOLD_VALUE", nullable = false)
   private double value;
 
+  // nullable, so that the columns can be added to an existing table
+  @Column(name = "UPPER_VALUE")
+  private Double upperValue;
+
+  @Column(name = "HYSTERESIS")
+  private Double hysteresis;
+
   protected Threshold() {
     // JPA only
   }
@@ -40,6 +60,12 @@ public class Threshold {
     this.value = value;
   }
 
+  public Threshold(String sensorCode, ThresholdType type, double value, Double upperValue, double hysteresis) {
+    this(sensorCode, type, value);
+    this.upperValue = upperValue;
+    this.hysteresis = hysteresis;
+  }
+
   public String getSensorCode() {
     return sensorCode;
   }
@@ -52,6 +78,15 @@ public class Threshold {
     return value;
   }
 
+  /// @return upper bound of a range threshold, `null` for the other types
+  public Double getUpperValue() {
+    return upperValue;
+  }
+
+  public double getHysteresis() {
+    return hysteresis != null ? hysteresis : 0.0;
+  }
+
   public void setType(ThresholdType type) {
     this.type = Objects.requireNonNull(type);
   }
@@ -59,4 +94,12 @@ public class Threshold {
   public void setValue(double value) {
     this.value = value;
   }
+
+  public void setUpperValue(Double upperValue) {
+    this.upperValue = upperValue;
+  }
+
+  public void setHysteresis(double hysteresis) {
+    this.hysteresis = hysteresis;
+  }
 }
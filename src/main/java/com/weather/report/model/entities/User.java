@@ -2,12 +2,18 @@ package com.weather.report.model.entities;
 
 import com.weather.report.model.UserType;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /// Represents a user in the weather report system
 @Entity(name = "WR_USER")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User {
 
   @Id
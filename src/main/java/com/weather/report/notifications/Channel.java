@@ -0,0 +1,20 @@
+package com.weather.report.notifications;
+
+import com.weather.report.model.OperatorContact;
+
+/**
+ * Ways an operator can be notified.
+ */
+public enum Channel {
+  EMAIL,
+  SMS;
+
+  /**
+   * @param operator contact of the operator to notify
+   * @return address of the operator on this channel, {@code null} if it has
+   *         none
+   */
+  public String addressOf(OperatorContact operator) {
+    return this == EMAIL ? operator.email() : operator.phoneNumber();
+  }
+}
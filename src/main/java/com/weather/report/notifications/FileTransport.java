@@ -0,0 +1,35 @@
+package com.weather.report.notifications;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Stand-in transport appending every message to a local file, one line per
+ * message: time, channel, recipient and text separated by tabs.
+ */
+public class FileTransport implements NotificationTransport {
+
+  private final Path file;
+
+  /**
+   * @param file file the messages are appended to, created if needed
+   */
+  public FileTransport(Path file) {
+    this.file = file;
+  }
+
+  @Override
+  public void send(Channel channel, String recipient, String message) throws IOException {
+    String line = LocalDateTime.now() + "\t" + channel + "\t" + recipient + "\t" + message
+        + System.lineSeparator();
+    Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  public Path getFile() {
+    return file;
+  }
+}
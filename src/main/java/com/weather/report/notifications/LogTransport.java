@@ -0,0 +1,17 @@
+package com.weather.report.notifications;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Stand-in transport writing every message to the log instead of sending it.
+ */
+public class LogTransport implements NotificationTransport {
+
+  private static final Logger logger = LogManager.getLogger(LogTransport.class);
+
+  @Override
+  public void send(Channel channel, String recipient, String message) {
+    logger.info("Sending {} to {}: {}", channel, recipient, message);
+  }
+}
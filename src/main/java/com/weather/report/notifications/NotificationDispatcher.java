@@ -0,0 +1,374 @@
+package com.weather.report.notifications;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.weather.report.metrics.Counter;
+import com.weather.report.metrics.Metrics;
+import com.weather.report.model.OperatorContact;
+
+/**
+ * Sends the threshold alerts to the operators on a background thread, so that
+ * raising an alert never waits for a message to be delivered.
+ * <p>
+ * Alerts are batched per recipient and channel: the first alert for a
+ * recipient opens a message that is sent after the
+ * {@linkplain NotificationSettings#getLinger() batching window}, and the
+ * alerts raised in the meantime, for any sensor, are added to it. Each channel
+ * is rate limited by a {@link TokenBucket}; a message waiting for a token keeps
+ * collecting alerts. A failed message is retried with an exponential backoff.
+ * The cost of an alert storm is therefore bounded by the number of recipients:
+ * memory holds at most one pending message per recipient and channel, and the
+ * transport sees at most the configured rate.
+ */
+public class NotificationDispatcher implements AutoCloseable {
+
+  private static final Logger logger = LogManager.getLogger(NotificationDispatcher.class);
+
+  private static final Counter ALERTS = Metrics.counter("alerts.raised");
+  private static final Counter SENT = Metrics.counter("alerts.messages.sent");
+  private static final Counter RETRIED = Metrics.counter("alerts.messages.retried");
+  private static final Counter FAILED = Metrics.counter("alerts.messages.failed");
+
+  private final NotificationSettings settings;
+  private final NotificationTransport transport;
+  private final Map<Channel, TokenBucket> buckets = new EnumMap<>(Channel.class);
+
+  // one pending message per recipient; the worker removes a message before sending it
+  private final Map<Recipient, Message> pending = new ConcurrentHashMap<>();
+  private final DelayQueue<Due> due = new DelayQueue<>();
+
+  private final AtomicLong alerts = new AtomicLong();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong retried = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicInteger sending = new AtomicInteger();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition idle = lock.newCondition();
+
+  private final Thread worker;
+  private volatile boolean running = true;
+
+  /**
+   * Starts a dispatcher.
+   *
+   * @param settings  rate limits, batching window and retry policy
+   * @param transport transport delivering the messages
+   */
+  public NotificationDispatcher(NotificationSettings settings, NotificationTransport transport) {
+    this.settings = Objects.requireNonNull(settings);
+    this.transport = Objects.requireNonNull(transport);
+    for (Channel channel : Channel.values()) {
+      buckets.put(channel, new TokenBucket(settings.getPermitsPerSecond(channel), settings.getBurst(channel),
+          System::nanoTime));
+    }
+    worker = new Thread(this::run, "alert-dispatcher");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  /**
+   * Queues an alert for every operator, on every channel the operator can be
+   * reached on. Never blocks on delivery.
+   *
+   * @param sensorCode code of the sensor that triggered the alert
+   * @param operators  contacts of the operators to alert
+   * @return number of messages the alert was added to
+   */
+  public int submit(String sensorCode, Collection<OperatorContact> operators) {
+    if (!running) {
+      throw new IllegalStateException("Dispatcher closed");
+    }
+    alerts.incrementAndGet();
+    ALERTS.increment();
+    long now = System.nanoTime();
+    int messages = 0;
+    for (OperatorContact operator : operators) {
+      for (Channel channel : Channel.values()) {
+        String address = channel.addressOf(operator);
+        if (address != null) {
+          pending.compute(new Recipient(channel, address), (recipient, message) -> {
+            if (message == null) {
+              message = new Message(recipient);
+              schedule(message, now + settings.getLinger().toNanos());
+            }
+            message.add(sensorCode);
+            return message;
+          });
+          messages++;
+        }
+      }
+    }
+    return messages;
+  }
+
+  /**
+   * Sends the pending messages without waiting for their batching window,
+   * still within the rate limits, and waits until they are delivered or
+   * dropped.
+   *
+   * @param timeout longest time to wait
+   * @return whether every message was handled within the timeout
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean flush(Duration timeout) throws InterruptedException {
+    long now = System.nanoTime();
+    for (Recipient recipient : pending.keySet()) {
+      pending.computeIfPresent(recipient, (r, message) -> {
+        schedule(message, now);
+        return message;
+      });
+    }
+    long remaining = timeout.toNanos();
+    lock.lock();
+    try {
+      while (!isIdle()) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = idle.awaitNanos(remaining);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isIdle() {
+    return pending.isEmpty() && sending.get() == 0;
+  }
+
+  /**
+   * @return messages waiting to be sent
+   */
+  public int getPendingMessages() {
+    return pending.size();
+  }
+
+  /**
+   * @return alerts submitted so far
+   */
+  public long getAlerts() {
+    return alerts.get();
+  }
+
+  /**
+   * @return messages delivered so far
+   */
+  public long getSentMessages() {
+    return sent.get();
+  }
+
+  /**
+   * @return failed attempts followed by a retry
+   */
+  public long getRetriedMessages() {
+    return retried.get();
+  }
+
+  /**
+   * @return messages dropped after their last attempt
+   */
+  public long getFailedMessages() {
+    return failed.get();
+  }
+
+  /**
+   * Sends the pending messages, waiting up to the given time, then stops the
+   * worker thread; the messages still pending are dropped.
+   *
+   * @param timeout longest time to wait for the pending messages
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void close(Duration timeout) throws InterruptedException {
+    if (!running) {
+      return;
+    }
+    try {
+      if (!flush(timeout)) {
+        logger.warn("Dropping {} alert messages not sent within {}", pending.size(), timeout);
+      }
+    } finally {
+      running = false;
+      worker.interrupt();
+      worker.join();
+    }
+  }
+
+  /**
+   * Closes the dispatcher, waiting up to ten seconds for the pending messages.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    close(Duration.ofSeconds(10));
+  }
+
+  private void run() {
+    try {
+      while (running) {
+        Due next = due.take();
+        Message message = pending.get(next.recipient);
+        // entries left by a rescheduled message are stale
+        if (message != null && message.dueAt - System.nanoTime() <= 0) {
+          // counted before it leaves the map, so that the dispatcher never looks idle while it sends
+          sending.incrementAndGet();
+          try {
+            if (pending.remove(next.recipient, message)) {
+              dispatch(message);
+            }
+          } finally {
+            sending.decrementAndGet();
+          }
+        }
+        signalIfIdle();
+      }
+    } catch (InterruptedException e) {
+      logger.debug("Alert dispatcher stopped");
+    }
+  }
+
+  private void dispatch(Message message) {
+    Recipient recipient = message.recipient;
+    long wait = buckets.get(recipient.channel).tryAcquire();
+    if (wait > 0) {
+      requeue(message, wait);
+      return;
+    }
+    try {
+      transport.send(recipient.channel, recipient.address, message.text());
+      sent.incrementAndGet();
+      SENT.increment();
+    } catch (Exception e) {
+      message.failures++;
+      if (message.failures >= settings.getMaxAttempts()) {
+        failed.incrementAndGet();
+        FAILED.increment();
+        logger.warn("Dropping {} to {} after {} attempts: {}", recipient.channel, recipient.address,
+            message.failures, e.getMessage());
+      } else {
+        retried.incrementAndGet();
+        RETRIED.increment();
+        logger.debug("Sending {} to {} failed, retrying: {}", recipient.channel, recipient.address, e.getMessage());
+        requeue(message, settings.getBackoff(message.failures).toNanos());
+      }
+    }
+  }
+
+  // a message opened for the recipient in the meantime absorbs this one and keeps its own schedule
+  private void requeue(Message message, long delayNanos) {
+    pending.compute(message.recipient, (recipient, current) -> {
+      if (current == null) {
+        schedule(message, System.nanoTime() + delayNanos);
+        return message;
+      }
+      current.absorb(message);
+      return current;
+    });
+  }
+
+  // called under the lock of the message entry
+  private void schedule(Message message, long at) {
+    message.dueAt = at;
+    due.add(new Due(message.recipient, at));
+  }
+
+  private void signalIfIdle() {
+    if (isIdle()) {
+      lock.lock();
+      try {
+        idle.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private static final class Recipient {
+    private final Channel channel;
+    private final String address;
+
+    Recipient(Channel channel, String address) {
+      this.channel = channel;
+      this.address = address;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Recipient other && channel == other.channel && address.equals(other.address);
+    }
+
+    @Override
+    public int hashCode() {
+      return channel.hashCode() * 31 + address.hashCode();
+    }
+  }
+
+  /**
+   * Alerts waiting to be sent to a recipient, counted per sensor. Only mutated
+   * under the lock of its entry in the pending map, or by the worker once
+   * removed from it.
+   */
+  private static final class Message {
+    private final Recipient recipient;
+    private final Map<String, Integer> alertsBySensor = new LinkedHashMap<>();
+    private int failures;
+    // read by the worker before taking the message out of the map
+    private volatile long dueAt;
+
+    Message(Recipient recipient) {
+      this.recipient = recipient;
+    }
+
+    void add(String sensorCode) {
+      alertsBySensor.merge(sensorCode, 1, Integer::sum);
+    }
+
+    void absorb(Message older) {
+      older.alertsBySensor.forEach((sensor, count) -> alertsBySensor.merge(sensor, count, Integer::sum));
+      failures = Math.max(failures, older.failures);
+    }
+
+    String text() {
+      StringBuilder text = new StringBuilder("Measured values out of threshold bounds:");
+      alertsBySensor.forEach((sensor, count) -> text.append(' ').append(sensor).append(" (")
+          .append(count).append(count == 1 ? " alert)" : " alerts)"));
+      return text.toString();
+    }
+  }
+
+  private static final class Due implements Delayed {
+    private final Recipient recipient;
+    private final long at;
+
+    Due(Recipient recipient, long at) {
+      this.recipient = recipient;
+      this.at = at;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(at - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(at, ((Due) other).at);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package com.weather.report.notifications;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Rate limits, batching window and retry policy of a
+ * {@link NotificationDispatcher}.
+ * <p>
+ * Instances are immutable: every {@code with*} method returns a modified copy.
+ */
+public final class NotificationSettings {
+
+  /** system property overriding the default number of emails sent per second */
+  public static final String EMAIL_RATE_PROPERTY = "weather.alerts.emailsPerSecond";
+
+  /** system property overriding the default number of SMS sent per second */
+  public static final String SMS_RATE_PROPERTY = "weather.alerts.smsPerSecond";
+
+  /** system property overriding the default batching window, in milliseconds */
+  public static final String LINGER_PROPERTY = "weather.alerts.lingerMillis";
+
+  private static final double DEFAULT_EMAIL_RATE = 5.0;
+  private static final int DEFAULT_EMAIL_BURST = 20;
+  private static final double DEFAULT_SMS_RATE = 1.0;
+  private static final int DEFAULT_SMS_BURST = 5;
+  private static final long DEFAULT_LINGER_MILLIS = 1000;
+  private static final int DEFAULT_MAX_ATTEMPTS = 5;
+  private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(500);
+  private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMinutes(1);
+
+  private final Map<Channel, Double> rates;
+  private final Map<Channel, Integer> bursts;
+  private final Duration linger;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  private NotificationSettings(Map<Channel, Double> rates, Map<Channel, Integer> bursts, Duration linger,
+      int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+    for (Channel channel : Channel.values()) {
+      double rate = rates.get(channel);
+      if (!(rate > 0) || Double.isInfinite(rate) || bursts.get(channel) < 1) {
+        throw new IllegalArgumentException("Rate and burst of " + channel + " must be positive");
+      }
+    }
+    if (linger == null || linger.isNegative()) {
+      throw new IllegalArgumentException("Linger cannot be null or negative");
+    }
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("Max attempts must be positive");
+    }
+    if (initialBackoff == null || maxBackoff == null || initialBackoff.isNegative()
+        || maxBackoff.compareTo(initialBackoff) < 0) {
+      throw new IllegalArgumentException("Backoffs must be positive and ordered");
+    }
+    this.rates = rates;
+    this.bursts = bursts;
+    this.linger = linger;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * @return settings configured through system properties, falling back to 5
+   *         emails and 1 SMS per second, a one second batching window and 5
+   *         attempts per message
+   */
+  public static NotificationSettings defaults() {
+    Map<Channel, Double> rates = new EnumMap<>(Channel.class);
+    Map<Channel, Integer> bursts = new EnumMap<>(Channel.class);
+    rates.put(Channel.EMAIL, doubleProperty(EMAIL_RATE_PROPERTY, DEFAULT_EMAIL_RATE));
+    bursts.put(Channel.EMAIL, DEFAULT_EMAIL_BURST);
+    rates.put(Channel.SMS, doubleProperty(SMS_RATE_PROPERTY, DEFAULT_SMS_RATE));
+    bursts.put(Channel.SMS, DEFAULT_SMS_BURST);
+    return new NotificationSettings(rates, bursts,
+        Duration.ofMillis(Long.getLong(LINGER_PROPERTY, DEFAULT_LINGER_MILLIS)),
+        DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+  }
+
+  private static double doubleProperty(String name, double defaultValue) {
+    String value = System.getProperty(name);
+    return value != null ? Double.parseDouble(value) : defaultValue;
+  }
+
+  /**
+   * @param channel          channel to limit
+   * @param permitsPerSecond messages sent per second once the burst is spent
+   * @param burst            messages that can be sent at once
+   * @return modified copy of the settings
+   */
+  public NotificationSettings withRateLimit(Channel channel, double permitsPerSecond, int burst) {
+    Map<Channel, Double> newRates = new EnumMap<>(rates);
+    Map<Channel, Integer> newBursts = new EnumMap<>(bursts);
+    newRates.put(channel, permitsPerSecond);
+    newBursts.put(channel, burst);
+    return new NotificationSettings(newRates, newBursts, linger, maxAttempts, initialBackoff, maxBackoff);
+  }
+
+  /**
+   * Alerts raised for a recipient within the window after the first one are
+   * sent in the same message.
+   *
+   * @param linger batching window
+   * @return modified copy of the settings
+   */
+  public NotificationSettings withLinger(Duration linger) {
+    return new NotificationSettings(rates, bursts, linger, maxAttempts, initialBackoff, maxBackoff);
+  }
+
+  /**
+   * A failed message is retried after the initial backoff, doubled on every
+   * further failure up to the maximum, and dropped after the last attempt.
+   *
+   * @param maxAttempts    attempts per message, the first one included
+   * @param initialBackoff delay before the first retry
+   * @param maxBackoff     longest delay between two attempts
+   * @return modified copy of the settings
+   */
+  public NotificationSettings withRetries(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+    return new NotificationSettings(rates, bursts, linger, maxAttempts, initialBackoff, maxBackoff);
+  }
+
+  public double getPermitsPerSecond(Channel channel) {
+    return rates.get(channel);
+  }
+
+  public int getBurst(Channel channel) {
+    return bursts.get(channel);
+  }
+
+  public Duration getLinger() {
+    return linger;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * @param failures failed attempts so far, at least one
+   * @return delay before the next attempt
+   */
+  public Duration getBackoff(int failures) {
+    Duration backoff = initialBackoff;
+    for (int i = 1; i < failures && backoff.compareTo(maxBackoff) < 0; i++) {
+      backoff = backoff.multipliedBy(2);
+    }
+    return backoff.compareTo(maxBackoff) < 0 ? backoff : maxBackoff;
+  }
+}
@@ -0,0 +1,21 @@
+package com.weather.report.notifications;
+
+import java.io.IOException;
+
+/**
+ * Delivers the messages of a {@link NotificationDispatcher}, always from its
+ * worker thread.
+ */
+@FunctionalInterface
+public interface NotificationTransport {
+
+  /**
+   * Delivers a message; a failure is retried by the dispatcher.
+   *
+   * @param channel   channel of the message
+   * @param recipient email address or phone number
+   * @param message   text of the message
+   * @throws IOException if the message cannot be delivered
+   */
+  void send(Channel channel, String recipient, String message) throws IOException;
+}
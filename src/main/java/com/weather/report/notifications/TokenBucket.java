@@ -0,0 +1,44 @@
+package com.weather.report.notifications;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limit of a channel: the bucket holds up to {@code burst} tokens, gains
+ * {@code permitsPerSecond} tokens per second, and every message takes one.
+ * <p>
+ * Not thread-safe: a bucket is only used by the worker thread of its
+ * {@link NotificationDispatcher}.
+ */
+final class TokenBucket {
+
+  private final double capacity;
+  private final double nanosPerToken;
+  private final LongSupplier clock;
+  private double tokens;
+  private long refilledAt;
+
+  TokenBucket(double permitsPerSecond, int burst, LongSupplier clock) {
+    this.capacity = burst;
+    this.nanosPerToken = 1_000_000_000d / permitsPerSecond;
+    this.clock = clock;
+    this.tokens = burst;
+    this.refilledAt = clock.getAsLong();
+  }
+
+  /**
+   * Takes a token if one is available.
+   *
+   * @return {@code 0} if a token was taken, otherwise the nanoseconds until
+   *         the next one
+   */
+  long tryAcquire() {
+    long now = clock.getAsLong();
+    tokens = Math.min(capacity, tokens + (now - refilledAt) / nanosPerToken);
+    refilledAt = now;
+    if (tokens >= 1) {
+      tokens -= 1;
+      return 0L;
+    }
+    return Math.max(1L, (long) Math.ceil((1 - tokens) * nanosPerToken));
+  }
+}
@@ -1,15 +1,18 @@
 package com.weather.report.operations;
 
 import com.weather.report.exceptions.*;
+import com.weather.report.metrics.ReportBuildEvent;
 import com.weather.report.model.entities.*;
 import com.weather.report.model.UserType;
+import com.weather.report.operations.topology.TopologyIndex;
 import com.weather.report.reports.Report.Range;
 import com.weather.report.repositories.CRUDRepository;
+import com.weather.report.repositories.MeasurementAggregateRepository;
+import com.weather.report.repositories.Repositories;
 import com.weather.report.reports.*;
 import com.weather.report.services.AlertingService;
 import com.weather.report.WeatherReport;
-import com.weather.report.persistence.PersistenceManager;
-import jakarta.persistence.EntityManager;
+import com.weather.report.persistence.UnitOfWork;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -19,8 +22,9 @@ import java.util.stream.Collectors;
 
 public class GatewayOperationsImpl implements GatewayOperations {
 
-    private final CRUDRepository<Gateway, String> gatewayRepo = new CRUDRepository<>(Gateway.class);
-    private final CRUDRepository<User, String> userRepo = new CRUDRepository<>(User.class);
+    private final CRUDRepository<Gateway, String> gatewayRepo = Repositories.gateways();
+    private final CRUDRepository<User, String> userRepo = Repositories.users();
+    private final MeasurementAggregateRepository aggregateRepo = Repositories.aggregates();
     private static final Pattern GW_CODE_PATTERN = Pattern.compile("^GW_\\d{4}$");
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(WeatherReport.DATE_FORMAT);
 
@@ -28,40 +32,55 @@ public class GatewayOperationsImpl implements GatewayOperations {
     public Gateway createGateway(String code, String name, String description, String username)
             throws IdAlreadyInUseException, InvalidInputDataException, UnauthorizedException {
         if (code == null || username == null) throw new InvalidInputDataException("Mandatory data missing");
-        checkMaintainer(username);
-        if (!GW_CODE_PATTERN.matcher(code).matches()) throw new InvalidInputDataException("Invalid format");
-        if (gatewayRepo.read(code) != null) throw new IdAlreadyInUseException("Exists");
-
-        Gateway gateway = new Gateway(code, name, description);
-        gateway.setCreatedBy(username);
-        gateway.setCreatedAt(LocalDateTime.now());
-        return gatewayRepo.create(gateway);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            checkMaintainer(username);
+            if (!GW_CODE_PATTERN.matcher(code).matches()) throw new InvalidInputDataException("Invalid format");
+            if (gatewayRepo.read(code) != null) throw new IdAlreadyInUseException("Exists");
+
+            Gateway gateway = new Gateway(code, name, description);
+            gateway.setCreatedBy(username);
+            gateway.setCreatedAt(LocalDateTime.now());
+            gateway = gatewayRepo.create(gateway);
+            uow.commit();
+            UnitOfWork.afterCommit(() -> TopologyIndex.gatewayCreated(code));
+            return gateway;
+        }
     }
 
     @Override
     public Gateway updateGateway(String code, String name, String description, String username)
             throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException {
         if (code == null || username == null) throw new InvalidInputDataException("Missing data");
-        checkMaintainer(username);
-        Gateway existingGateway = gatewayRepo.read(code);
-        if (existingGateway == null) throw new ElementNotFoundException("Not found");
-
-        if (name != null) existingGateway.setName(name);
-        if (description != null) existingGateway.setDescription(description);
-        existingGateway.setModifiedBy(username);
-        existingGateway.setModifiedAt(LocalDateTime.now());
-        return gatewayRepo.update(existingGateway);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            checkMaintainer(username);
+            Gateway existingGateway = gatewayRepo.read(code);
+            if (existingGateway == null) throw new ElementNotFoundException("Not found");
+
+            if (name != null) existingGateway.setName(name);
+            if (description != null) existingGateway.setDescription(description);
+            existingGateway.setModifiedBy(username);
+            existingGateway.setModifiedAt(LocalDateTime.now());
+            Gateway updated = gatewayRepo.update(existingGateway);
+            uow.commit();
+            return updated;
+        }
     }
 
     @Override
     public Gateway deleteGateway(String code, String username)
             throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException {
         if (code == null || username == null) throw new InvalidInputDataException("Missing data");
-        checkMaintainer(username);
-        Gateway gateway = gatewayRepo.delete(code);
-        if (gateway == null) throw new ElementNotFoundException("Not found");
-        AlertingService.notifyDeletion(username, code, Gateway.class);
-        return gateway;
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            checkMaintainer(username);
+            Gateway gateway = gatewayRepo.delete(code);
+            if (gateway == null) throw new ElementNotFoundException("Not found");
+            uow.commit();
+            UnitOfWork.afterCommit(() -> {
+                TopologyIndex.gatewayDeleted(code);
+                AlertingService.notifyDeletion(username, code, Gateway.class);
+            });
+            return gateway;
+        }
     }
 
     @Override
@@ -74,80 +93,97 @@ public class GatewayOperationsImpl implements GatewayOperations {
     public Parameter createParameter(String gatewayCode, String code, String name, String description, double value, String username)
             throws IdAlreadyInUseException, InvalidInputDataException, ElementNotFoundException, UnauthorizedException {
         if (gatewayCode == null || code == null || username == null) throw new InvalidInputDataException("Missing");
-        checkMaintainer(username);
-        Gateway gateway = gatewayRepo.read(gatewayCode);
-        if (gateway == null) throw new ElementNotFoundException("Gateway missing");
-        if (gateway.getParameters().stream().anyMatch(p -> p.getCode().equals(code))) throw new IdAlreadyInUseException("Exists");
-
-        Parameter parameter = new Parameter();
-        parameter.setCode(code); 
-        parameter.setName(name); 
-        parameter.setDescription(description); 
-        parameter.setValue(value); 
-        parameter.setGateway(gateway);
-        gateway.getParameters().add(parameter);
-        gatewayRepo.update(gateway);
-        return parameter;
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            checkMaintainer(username);
+            Gateway gateway = gatewayRepo.read(gatewayCode);
+            if (gateway == null) throw new ElementNotFoundException("Gateway missing");
+            if (gateway.getParameters().stream().anyMatch(p -> p.getCode().equals(code))) throw new IdAlreadyInUseException("Exists");
+
+            Parameter parameter = new Parameter();
+            parameter.setCode(code); 
+            parameter.setName(name); 
+            parameter.setDescription(description); 
+            parameter.setValue(value); 
+            parameter.setGateway(gateway);
+            gateway.getParameters().add(parameter);
+            gatewayRepo.update(gateway);
+            uow.commit();
+            return parameter;
+        }
     }
 
     @Override
     public Parameter updateParameter(String gatewayCode, String code, double value, String username)
             throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException {
         if (gatewayCode == null || code == null || username == null) throw new InvalidInputDataException("Missing");
-        checkMaintainer(username);
-        Gateway gateway = gatewayRepo.read(gatewayCode);
-        if (gateway == null) throw new ElementNotFoundException("Gateway missing");
-        Parameter parameter = gateway.getParameters().stream().filter(p -> p.getCode().equals(code)).findFirst()
-                .orElseThrow(() -> new ElementNotFoundException("Param missing"));
-        parameter.setValue(value);
-        gatewayRepo.update(gateway);
-        return parameter;
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            checkMaintainer(username);
+            Gateway gateway = gatewayRepo.read(gatewayCode);
+            if (gateway == null) throw new ElementNotFoundException("Gateway missing");
+            Parameter parameter = gateway.getParameters().stream().filter(p -> p.getCode().equals(code)).findFirst()
+                    .orElseThrow(() -> new ElementNotFoundException("Param missing"));
+            parameter.setValue(value);
+            gatewayRepo.update(gateway);
+            uow.commit();
+            return parameter;
+        }
     }
 
     @Override
     public GatewayReport getGatewayReport(String code, String start, String end)
             throws ElementNotFoundException, InvalidInputDataException {
         if (code == null) throw new InvalidInputDataException("Code null");
-        Gateway gateway = gatewayRepo.read(code);
-        if (gateway == null) throw new ElementNotFoundException("Not found");
+        Gateway gateway;
+        List<Measurement> measurements;
+        List<MeasurementAggregate> aggregates;
+        ReportBuildEvent event = ReportBuildEvent.start("gateway", code, start, end);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            gateway = gatewayRepo.read(code);
+            if (gateway == null) throw new ElementNotFoundException("Not found");
+            LocalDateTime startTime = start != null ? LocalDateTime.parse(start, FORMATTER) : null;
+            LocalDateTime endTime = end != null ? LocalDateTime.parse(end, FORMATTER) : null;
+            measurements = Repositories.measurementStore().readByGateway(code, startTime, endTime);
+            // measurements compacted by the retention engine only survive as aggregates
+            aggregates = aggregateRepo.readByGateway(code, startTime, endTime);
+        }
 
         GatewayReportImpl report = new GatewayReportImpl(code, start, end);
         report.setBatteryChargePercentage(gateway.getParameters().stream()
                 .filter(p -> p.getCode().equals(Parameter.BATTERY_CHARGE_PERCENTAGE_CODE))
                 .map(Parameter::getValue).findFirst().orElse(0.0));
 
-        List<Measurement> measurements = getFilteredMeasurements(code, start, end);
-        report.setNumberOfMeasurements(measurements.size());
-        
-        if (measurements.size() >= 1) {
-            calculateSensorsStats(measurements, report, gateway);
+        long total = measurements.size() + aggregates.stream().mapToLong(MeasurementAggregate::getCount).sum();
+        report.setNumberOfMeasurements(total);
+        event.loaded(total);
+
+        if (total >= 1) {
+            calculateSensorsStats(measurements, aggregates, total, report, gateway);
+            // intervals between consecutive measurements need the raw rows
             if (measurements.size() >= 2) {
                 calculateHistogram(measurements, report);
             }
         }
 
+        event.finish();
         return report;
     }
 
-    private List<Measurement> getFilteredMeasurements(String code, String start, String end) {
-        EntityManager entityManager = PersistenceManager.getEntityManager();
-        try {
-            String jpql = "SELECT m FROM Measurement m WHERE m.gatewayCode = :code";
-            if (start != null) jpql += " AND m.timestamp >= :start";
-            if (end != null) jpql += " AND m.timestamp <= :end";
-            jpql += " ORDER BY m.timestamp ASC";
-            
-            var query = entityManager.createQuery(jpql, Measurement.class).setParameter("code", code);
-            if (start != null) query.setParameter("start", LocalDateTime.parse(start, FORMATTER));
-            if (end != null) query.setParameter("end", LocalDateTime.parse(end, FORMATTER));
-            return query.getResultList();
-        } finally { entityManager.close(); }
-    }
-
-    private void calculateSensorsStats(List<Measurement> measurements, GatewayReportImpl report, Gateway gateway) {
-        Map<String, List<Measurement>> bySensor = measurements.stream().collect(Collectors.groupingBy(Measurement::getSensorCode));
+    private void calculateSensorsStats(List<Measurement> measurements, List<MeasurementAggregate> aggregates,
+            long total, GatewayReportImpl report, Gateway gateway) {
+        // per sensor: [count, sum] over raw rows and aggregates
+        Map<String, double[]> bySensor = new HashMap<>();
+        for (Measurement m : measurements) {
+            double[] stats = bySensor.computeIfAbsent(m.getSensorCode(), k -> new double[2]);
+            stats[0]++;
+            stats[1] += m.getValue();
+        }
+        for (MeasurementAggregate a : aggregates) {
+            double[] stats = bySensor.computeIfAbsent(a.getSensorCode(), k -> new double[2]);
+            stats[0] += a.getCount();
+            stats[1] += a.getSum();
+        }
         Map<String, Long> counts = bySensor.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> (long)e.getValue().size()));
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> (long) e.getValue()[0]));
         
         long maxCount = Collections.max(counts.values());
         long minCount = Collections.min(counts.values());
@@ -155,16 +191,15 @@ public class GatewayOperationsImpl implements GatewayOperations {
         report.setMostActiveSensors(counts.entrySet().stream().filter(e -> e.getValue() == maxCount).map(Map.Entry::getKey).collect(Collectors.toList()));
         report.setLeastActiveSensors(counts.entrySet().stream().filter(e -> e.getValue() == minCount).map(Map.Entry::getKey).collect(Collectors.toList()));
         
-        double total = measurements.size();
-        report.setSensorsLoadRatio(counts.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> (e.getValue()/total)*100.0)));
+        report.setSensorsLoadRatio(counts.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> (e.getValue()/(double) total)*100.0)));
 
         double expectedMean = gateway.getParameters().stream().filter(p -> p.getCode().equals(Parameter.EXPECTED_MEAN_CODE)).map(Parameter::getValue).findFirst().orElse(0.0);
         double expectedStdDev = gateway.getParameters().stream().filter(p -> p.getCode().equals(Parameter.EXPECTED_STD_DEV_CODE)).map(Parameter::getValue).findFirst().orElse(0.0);
         
         List<String> outlierSensors = new ArrayList<>();
-        if (measurements.size() >= 2) {
-            bySensor.forEach((sensorCode, sensorMeasurements) -> {
-                double meanValue = sensorMeasurements.stream().mapToDouble(Measurement::getValue).average().orElse(0.0);
+        if (total >= 2) {
+            bySensor.forEach((sensorCode, stats) -> {
+                double meanValue = stats[1] / stats[0];
                 if (Math.abs(meanValue - expectedMean) >= 2 * expectedStdDev) outlierSensors.add(sensorCode);
             });
         }
@@ -18,14 +18,20 @@ import com.weather.report.exceptions.ElementNotFoundException;
 import com.weather.report.exceptions.IdAlreadyInUseException;
 import com.weather.report.exceptions.InvalidInputDataException;
 import com.weather.report.exceptions.UnauthorizedException;
+import com.weather.report.metrics.ReportBuildEvent;
+import com.weather.report.model.OperatorContact;
 import com.weather.report.model.entities.Measurement;
+import com.weather.report.model.entities.MeasurementAggregate;
 import com.weather.report.model.entities.Network;
 import com.weather.report.model.entities.Operator;
 import com.weather.report.model.entities.User;
+import com.weather.report.operations.topology.TopologyIndex;
+import com.weather.report.persistence.UnitOfWork;
 import com.weather.report.reports.NetworkReport;
 import com.weather.report.reports.NetworkReportImpl;
 import com.weather.report.repositories.CRUDRepository;
-import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.repositories.MeasurementAggregateRepository;
+import com.weather.report.repositories.Repositories;
 import com.weather.report.utils.ValidationUtils;
 import com.weather.report.services.AlertingService;
 
@@ -35,33 +41,39 @@ public class NetworkOperationsImpl implements NetworkOperations {
 
     private final CRUDRepository<Network, String> networkRepo;
     private final CRUDRepository<Operator, String> operatorRepo;
-    private final MeasurementRepository measurementRepo;
+    private final MeasurementAggregateRepository aggregateRepo;
 
     public NetworkOperationsImpl() {
-        this.networkRepo = new CRUDRepository<>(Network.class);
-        this.operatorRepo = new CRUDRepository<>(Operator.class);
-        this.measurementRepo = new MeasurementRepository();
+        this.networkRepo = Repositories.networks();
+        this.operatorRepo = Repositories.operators();
+        this.aggregateRepo = Repositories.aggregates();
     }
 
     @Override
     public Network createNetwork(String code, String name, String description, String username)
             throws IdAlreadyInUseException, InvalidInputDataException, UnauthorizedException {
         ValidationUtils.validateNetworkCode(code);
-        User user = ValidationUtils.validateMaintainerUser(username);
 
-        Network existing = networkRepo.read(code);
-        if (existing != null) {
-            throw new IdAlreadyInUseException("Network with code '" + code + "' already exsists ");
-        }
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            User user = ValidationUtils.validateMaintainerUser(username);
+
+            Network existing = networkRepo.read(code);
+            if (existing != null) {
+                throw new IdAlreadyInUseException("Network with code '" + code + "' already exsists ");
+            }
 
-        Network network = new Network(code, name, description);
+            Network network = new Network(code, name, description);
 
-        network.setCreatedBy(user.getUsername());
+            network.setCreatedBy(user.getUsername());
 
-        network.setCreatedAt(LocalDateTime.now());
+            network.setCreatedAt(LocalDateTime.now());
 
-        network = networkRepo.create(network);
-        return network;
+            network = networkRepo.create(network);
+            uow.commit();
+            List<OperatorContact> contacts = OperatorContact.allOf(network.getOperators());
+            UnitOfWork.afterCommit(() -> TopologyIndex.networkChanged(code, contacts));
+            return network;
+        }
     }
 
     @Override
@@ -69,21 +81,24 @@ public class NetworkOperationsImpl implements NetworkOperations {
             throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException {
         ValidationUtils.validateNotNullOrEmpty(code, "Network code");
 
-        User user = ValidationUtils.validateMaintainerUser(username);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            User user = ValidationUtils.validateMaintainerUser(username);
 
-        Network network = networkRepo.read(code);
-        if (network == null) {
-            throw new ElementNotFoundException("Network with code '" + code + "' not found");
-        }
+            Network network = networkRepo.read(code);
+            if (network == null) {
+                throw new ElementNotFoundException("Network with code '" + code + "' not found");
+            }
 
-        network.setName(name);
-        network.setDescription(description);
-        network.setModifiedBy(user.getUsername());
-        network.setModifiedAt(LocalDateTime.now());
+            network.setName(name);
+            network.setDescription(description);
+            network.setModifiedBy(user.getUsername());
+            network.setModifiedAt(LocalDateTime.now());
 
-        network = networkRepo.update(network);
+            network = networkRepo.update(network);
 
-        return network;
+            uow.commit();
+            return network;
+        }
     }
 
     @Override
@@ -91,17 +106,22 @@ public class NetworkOperationsImpl implements NetworkOperations {
             throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException {
         ValidationUtils.validateNotNullOrEmpty(code, "Network code");
 
-        User user = ValidationUtils.validateMaintainerUser(username);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            User user = ValidationUtils.validateMaintainerUser(username);
 
-        Network network = networkRepo.read(code);
-        if (network == null) {
-            throw new ElementNotFoundException("Network with code '" + code + "' not found");
+            Network network = networkRepo.read(code);
+            if (network == null) {
+                throw new ElementNotFoundException("Network with code '" + code + "' not found");
+            }
+            networkRepo.delete(code);
+            uow.commit();
+            UnitOfWork.afterCommit(() -> {
+                TopologyIndex.networkDeleted(code);
+                AlertingService.notifyDeletion(user.getUsername(), code, Network.class);
+            });
+
+            return network;
         }
-        networkRepo.delete(code);
-
-        AlertingService.notifyDeletion(user.getUsername(), code, Network.class);
-
-        return network;
     }
 
     @Override
@@ -131,17 +151,20 @@ public class NetworkOperationsImpl implements NetworkOperations {
         ValidationUtils.validateNotNullOrEmpty(email, "Email");
         // ph no. can be null
 
-        ValidationUtils.validateMaintainerUser(username);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            ValidationUtils.validateMaintainerUser(username);
 
-        Operator existing = operatorRepo.read(email);
-        if (existing != null) {
-            throw new IdAlreadyInUseException("Operator with email '" + email + "' already exists");
+            Operator existing = operatorRepo.read(email);
+            if (existing != null) {
+                throw new IdAlreadyInUseException("Operator with email '" + email + "' already exists");
 
-        }
-        Operator operator = new Operator(firstName, lastName, email, phoneNumber);
+            }
+            Operator operator = new Operator(firstName, lastName, email, phoneNumber);
 
-        operator = operatorRepo.create(operator);
-        return operator;
+            operator = operatorRepo.create(operator);
+            uow.commit();
+            return operator;
+        }
     }
 
     @Override
@@ -150,19 +173,24 @@ public class NetworkOperationsImpl implements NetworkOperations {
         ValidationUtils.validateNotNullOrEmpty(networkCode, "Network code");
         ValidationUtils.validateNotNullOrEmpty(operatorEmail, "Operator email");
 
-        ValidationUtils.validateMaintainerUser(username);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            ValidationUtils.validateMaintainerUser(username);
 
-        Network network = networkRepo.read(networkCode);
-        if (network == null) {
-            throw new ElementNotFoundException("Network with code '" + networkCode + "' not found");
-        }
-        Operator operator = operatorRepo.read(operatorEmail);
-        if (operator == null) {
-            throw new ElementNotFoundException("Operator with email '" + operatorEmail + "' not found");
+            Network network = networkRepo.read(networkCode);
+            if (network == null) {
+                throw new ElementNotFoundException("Network with code '" + networkCode + "' not found");
+            }
+            Operator operator = operatorRepo.read(operatorEmail);
+            if (operator == null) {
+                throw new ElementNotFoundException("Operator with email '" + operatorEmail + "' not found");
+            }
+            network.addOperator(operator);
+            network = networkRepo.update(network);
+            uow.commit();
+            List<OperatorContact> contacts = OperatorContact.allOf(network.getOperators());
+            UnitOfWork.afterCommit(() -> TopologyIndex.networkChanged(networkCode, contacts));
+            return network;
         }
-        network.addOperator(operator);
-        network = networkRepo.update(network);
-        return network;
     }
 
     @Override
@@ -170,23 +198,28 @@ public class NetworkOperationsImpl implements NetworkOperations {
             throws InvalidInputDataException, ElementNotFoundException {
         ValidationUtils.validateNotNullOrEmpty(code, "Network code");
 
-        Network network = networkRepo.read(code);
-        if (network == null) {
-            throw new ElementNotFoundException("Network with code '" + code + "' not found");
-        }
-
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern(WeatherReport.DATE_FORMAT);
-        LocalDateTime start = startDate != null ? LocalDateTime.parse(startDate, formatter) : null;
-        LocalDateTime end = endDate != null ? LocalDateTime.parse(endDate, formatter) : null;
-
-        List<Measurement> allMeasurements = measurementRepo.read();
-
-        List<Measurement> measurements = allMeasurements.stream()
-                .filter(m -> code.equals(m.getNetworkCode()))
-                .filter(m -> isInTimeRange(m.getTimestamp(), start, end))
-                .collect(Collectors.toList());
+        LocalDateTime start;
+        LocalDateTime end;
+        List<Measurement> measurements;
+        List<MeasurementAggregate> aggregates;
+        ReportBuildEvent event = ReportBuildEvent.start("network", code, startDate, endDate);
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            Network network = networkRepo.read(code);
+            if (network == null) {
+                throw new ElementNotFoundException("Network with code '" + code + "' not found");
+            }
+            start = startDate != null ? LocalDateTime.parse(startDate, formatter) : null;
+            end = endDate != null ? LocalDateTime.parse(endDate, formatter) : null;
+            // only the month partitions overlapping [start, end] are scanned
+            measurements = Repositories.measurementStore().readByNetwork(code, start, end);
+            // measurements compacted by the retention engine only survive as aggregates
+            aggregates = aggregateRepo.readByNetwork(code, start, end);
+        }
+        event.loaded(measurements.size() + aggregates.stream().mapToLong(MeasurementAggregate::getCount).sum());
 
-        if (measurements.isEmpty()) {
+        if (measurements.isEmpty() && aggregates.isEmpty()) {
+            event.finish();
             return new NetworkReportImpl(
                     code,
                     startDate,
@@ -202,6 +235,9 @@ public class NetworkOperationsImpl implements NetworkOperations {
                 .collect(Collectors.groupingBy(
                         Measurement::getGatewayCode,
                         Collectors.counting()));
+        for (MeasurementAggregate aggregate : aggregates) {
+            gatewayCountMap.merge(aggregate.getGatewayCode(), aggregate.getCount(), Long::sum);
+        }
 
         long maxCount = gatewayCountMap.values().stream()
                 .max(Long::compareTo)
@@ -220,7 +256,10 @@ public class NetworkOperationsImpl implements NetworkOperations {
                 .map(Map.Entry::getKey)
                 .collect(Collectors.toList());
 
-        long totalMeasurements = measurements.size();
+        long totalMeasurements = 0;
+        for (long count : gatewayCountMap.values()) {
+            totalMeasurements += count;
+        }
         Map<String, Double> loadRatios = new HashMap<>();
 
         for (Map.Entry<String, Long> entry : gatewayCountMap.entrySet()) {
@@ -228,8 +267,9 @@ public class NetworkOperationsImpl implements NetworkOperations {
             loadRatios.put(entry.getKey(), percentage);
         }
 
-        SortedMap<NetworkReport.Range<LocalDateTime>, Long> histogram = buildTimeHistogram(measurements, start, end);
+        SortedMap<NetworkReport.Range<LocalDateTime>, Long> histogram = buildTimeHistogram(measurements, aggregates, start, end);
 
+        event.finish();
         return new NetworkReportImpl(
                 code,
                 startDate,
@@ -241,40 +281,33 @@ public class NetworkOperationsImpl implements NetworkOperations {
                 histogram);
     }
 
-    private boolean isInTimeRange(LocalDateTime timestamp, LocalDateTime start, LocalDateTime end) {
-        // inclusive lowerbound
-        if (start != null && timestamp.isBefore(start)) {
-            return false;
-        }
-        // inclusive upper bound
-        if (end != null && timestamp.isAfter(end)) {
-            return false;
-        }
-        return true;
-    }
-
+    // an aggregate is spread evenly over the histogram buckets its own bucket overlaps, so a daily
+    // aggregate in an hourly histogram does not show up as a spike at midnight
     private SortedMap<NetworkReport.Range<LocalDateTime>, Long> buildTimeHistogram(
             List<Measurement> measurements,
+            List<MeasurementAggregate> aggregates,
             LocalDateTime requestedStart,
             LocalDateTime requestedEnd) {
         SortedMap<NetworkReport.Range<LocalDateTime>, Long> histogram = new TreeMap<>(
                 Comparator.comparing(NetworkReport.Range::getStart));
-        if (measurements.isEmpty()) {
+        if (measurements.isEmpty() && aggregates.isEmpty()) {
             return histogram;
         }
+        List<LocalDateTime> timestamps = new ArrayList<>();
+        measurements.forEach(m -> timestamps.add(m.getTimestamp()));
+        aggregates.forEach(a -> timestamps.add(a.getBucketStart()));
+
         // effective time range -_-
         LocalDateTime effectiveStart = requestedStart;
         LocalDateTime effectiveEnd = requestedEnd;
 
         if (effectiveStart == null) {
-            effectiveStart = measurements.stream()
-                    .map(Measurement::getTimestamp)
+            effectiveStart = timestamps.stream()
                     .min(LocalDateTime::compareTo)
                     .orElse(null);
         }
         if (effectiveEnd == null) {
-            effectiveEnd = measurements.stream()
-                    .map(Measurement::getTimestamp)
+            effectiveEnd = timestamps.stream()
                     .max(LocalDateTime::compareTo)
                     .orElse(null);
         }
@@ -286,17 +319,50 @@ public class NetworkOperationsImpl implements NetworkOperations {
         List<NetworkReportImpl.TimeRange> buckets = createTimeBuckets(
                 effectiveStart, effectiveEnd, unit);
 
-        for (NetworkReportImpl.TimeRange bucket : buckets) {
-            long count = measurements.stream()
+        long[] counts = new long[buckets.size()];
+        for (int i = 0; i < buckets.size(); i++) {
+            NetworkReportImpl.TimeRange bucket = buckets.get(i);
+            counts[i] = measurements.stream()
                     .filter(m -> bucket.contains(m.getTimestamp()))
                     .count();
-
-            histogram.put(bucket, count);
+        }
+        for (MeasurementAggregate aggregate : aggregates) {
+            spread(aggregate, buckets, counts);
+        }
+        for (int i = 0; i < buckets.size(); i++) {
+            histogram.put(buckets.get(i), counts[i]);
         }
 
         return histogram;
     }
 
+    private static void spread(MeasurementAggregate aggregate, List<NetworkReportImpl.TimeRange> buckets,
+            long[] counts) {
+        LocalDateTime from = aggregate.getBucketStart();
+        LocalDateTime to = aggregate.getResolution().next(from);
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < buckets.size() && buckets.get(i).getStart().isBefore(to); i++) {
+            if (!buckets.get(i).getEnd().isBefore(from)) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first < 0) {
+            // the report window always overlaps the aggregate, this only guards the total
+            first = from.isBefore(buckets.get(0).getStart()) ? 0 : buckets.size() - 1;
+            last = first;
+        }
+        int n = last - first + 1;
+        long share = aggregate.getCount() / n;
+        long remainder = aggregate.getCount() % n;
+        for (int i = 0; i < n; i++) {
+            counts[first + i] += share + (i < remainder ? 1 : 0);
+        }
+    }
+
     private List<NetworkReportImpl.TimeRange> createTimeBuckets(
             LocalDateTime start, LocalDateTime end, ChronoUnit unit) {
 
@@ -1,43 +1,83 @@
 package com.weather.report.operations;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.weather.report.metrics.Metrics;
+
 /**
  * Central factory providing concrete implementations of the operations
  * interfaces.
  * {@link com.weather.report.WeatherReport} delegates to these methods to obtain
  * the correct instances for requirements R1-R4.
+ * <p>
+ * The implementations are stateless and safe for concurrent use, so every
+ * facade shares a single instance of each, built with the factory.
+ * <p>
+ * When {@link Metrics} are enabled every operation is timed under the
+ * {@code network}, {@code gateway}, {@code sensor} or {@code topology} prefix;
+ * the timed wrapper is also built once and shared.
  */
 public final class OperationsFactory {
 
+  private static final NetworkOperations NETWORKS = new NetworkOperationsImpl();
+  private static final GatewayOperations GATEWAYS = new GatewayOperationsImpl();
+  private static final SensorOperations SENSORS = new SensorOperationsImpl();
+  private static final TopologyOperations TOPOLOGY = new TopologyOperationsImpl();
+
+  // operations interface -> timed wrapper of its shared implementation
+  private static final Map<Class<?>, Object> TIMED = new ConcurrentHashMap<>();
+
   private OperationsFactory() {
     // utility class
   }
-  
+
   /**
    * @return implementation of {@link NetworkOperations} configured for R1/R4
    */
   public static NetworkOperations getNetworkOperations() {
-    return new NetworkOperationsImpl();
+    return shared(NetworkOperations.class, NETWORKS, "network");
   }
 
   /**
    * @return implementation of {@link GatewayOperations} configured for R2/R4
    */
   public static GatewayOperations getGatewayOperations() {
-    return new GatewayOperationsImpl();
+    return shared(GatewayOperations.class, GATEWAYS, "gateway");
   }
 
   /**
    * @return implementation of {@link SensorOperations} configured for R3/R4
    */
   public static SensorOperations getSensorOperations() {
-    return new SensorOperationsImpl();   // must not be null cause WeatherReport delegates here
+    // must not be null cause WeatherReport delegates here
+    return shared(SensorOperations.class, SENSORS, "sensor");
   }
 
   /**
    * @return implementation of {@link TopologyOperations} configured for R4
    */
   public static TopologyOperations getTopologyOperations() {
-    return new TopologyOperationsImpl();
+    return shared(TopologyOperations.class, TOPOLOGY, "topology");
+  }
+
+  private static <T> T shared(Class<T> type, T implementation, String prefix) {
+    if (!Metrics.isEnabled()) {
+      return implementation;
+    }
+    Object timed = TIMED.get(type);
+    if (timed == null) {
+      T wrapper = Metrics.timed(type, implementation, prefix);
+      if (wrapper == implementation) {
+        // metrics were disabled in the meantime
+        return implementation;
+      }
+      timed = TIMED.putIfAbsent(type, wrapper);
+      if (timed == null) {
+        return wrapper;
+      }
+    }
+    return type.cast(timed);
   }
 
-}
\ No newline at end of file
+}
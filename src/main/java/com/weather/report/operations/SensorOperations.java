@@ -110,6 +110,57 @@ public interface SensorOperations {
   public Threshold updateThreshold(String sensorCode, ThresholdType type, double value, String username)
       throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException;
 
+  /**
+   * Creates a threshold for a sensor, with the upper bound of a range type and
+   * a hysteresis.
+   *
+   * @param sensorCode target sensor code (mandatory)
+   * @param type       comparison type (mandatory)
+   * @param value      threshold numeric value, lower bound of a range type
+   * @param upperValue upper bound, mandatory for range types and ignored
+   *                   otherwise
+   * @param hysteresis margin by which a value must come back inside the limit
+   *                   before a new alert, {@code 0} to alert on every anomalous
+   *                   value
+   * @param username   user performing the action (mandatory, must be a
+   *                   {@code MAINTAINER})
+   * @return created threshold
+   * @throws InvalidInputDataException when mandatory data are invalid, the
+   *                                   band is empty or the hysteresis cannot
+   *                                   be applied to the type
+   * @throws ElementNotFoundException  when the sensor does not exist
+   * @throws IdAlreadyInUseException   when a threshold already exists for the
+   *                                   sensor
+   * @throws UnauthorizedException     when user is missing or not authorized
+   */
+  public Threshold createThreshold(String sensorCode, ThresholdType type, double value, Double upperValue,
+      double hysteresis, String username)
+      throws InvalidInputDataException, ElementNotFoundException, IdAlreadyInUseException,
+      UnauthorizedException;
+
+  /**
+   * Updates an existing threshold for a sensor, with the upper bound of a range
+   * type and a hysteresis.
+   *
+   * @param sensorCode target sensor code (mandatory)
+   * @param type       comparison type (mandatory)
+   * @param value      new threshold numeric value, lower bound of a range type
+   * @param upperValue new upper bound, mandatory for range types and ignored
+   *                   otherwise
+   * @param hysteresis new hysteresis, {@code 0} for none
+   * @param username   user performing the action (mandatory, must be a
+   *                   {@code MAINTAINER})
+   * @return updated threshold
+   * @throws InvalidInputDataException when mandatory data are invalid, the
+   *                                   band is empty or the hysteresis cannot
+   *                                   be applied to the type
+   * @throws ElementNotFoundException  when sensor or threshold does not exist
+   * @throws UnauthorizedException     when user is missing or not authorized
+   */
+  public Threshold updateThreshold(String sensorCode, ThresholdType type, double value, Double upperValue,
+      double hysteresis, String username)
+      throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException;
+
   /**
    * Builds the report for a sensor in the given interval.
    *
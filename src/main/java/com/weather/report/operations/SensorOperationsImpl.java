@@ -18,19 +18,26 @@ import com.weather.report.exceptions.ElementNotFoundException;
 import com.weather.report.exceptions.IdAlreadyInUseException;
 import com.weather.report.exceptions.InvalidInputDataException;
 import com.weather.report.exceptions.UnauthorizedException;
+import com.weather.report.metrics.ReportBuildEvent;
 import com.weather.report.model.ThresholdType;
 import com.weather.report.model.UserType;
 import com.weather.report.model.entities.Measurement;
+import com.weather.report.model.entities.MeasurementAggregate;
 import com.weather.report.model.entities.Sensor;
 import com.weather.report.model.entities.Threshold;
 import com.weather.report.model.entities.User;
-import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.operations.topology.TopologyIndex;
+import com.weather.report.persistence.UnitOfWork;
 import com.weather.report.reports.Report;
 import com.weather.report.reports.SensorReport;
 import com.weather.report.reports.SensorReportImpl;
+import com.weather.report.repositories.MeasurementAggregateRepository;
+import com.weather.report.repositories.Repositories;
 import com.weather.report.services.AlertingService;
 import com.weather.report.utils.ValidationUtils;
 
+import org.hibernate.jpa.HibernateHints;
+
 import jakarta.persistence.EntityManager;
 
 // R3 implementation of SensorOperations
@@ -39,6 +46,8 @@ public class SensorOperationsImpl implements SensorOperations {
   // date formatter used by reports
   private static final DateTimeFormatter REPORT_DATE_FORMATTER = DateTimeFormatter.ofPattern(WeatherReport.DATE_FORMAT);
 
+  private final MeasurementAggregateRepository aggregateRepo = Repositories.aggregates();
+
   /*
    * helper : mandatory enums must be != null
    * Threshold is mandatory cause we need it to compare
@@ -49,6 +58,28 @@ public class SensorOperationsImpl implements SensorOperations {
     }
   }
 
+  // helper : a range needs a non-empty band, and the hysteresis must leave a way back to normal
+  private static void validateThresholdBounds(ThresholdType type, double value, Double upperValue,
+      double hysteresis) throws InvalidInputDataException {
+    if (!Double.isFinite(value)) {
+      throw new InvalidInputDataException("value must be a finite number");
+    }
+    if (!Double.isFinite(hysteresis) || hysteresis < 0) {
+      throw new InvalidInputDataException("hysteresis must be a non-negative number");
+    }
+    if (type.isRange()) {
+      if (upperValue == null || !Double.isFinite(upperValue) || upperValue < value) {
+        throw new InvalidInputDataException("upper value is mandatory and must not be lower than value");
+      }
+      if (type == ThresholdType.OUTSIDE_RANGE && 2 * hysteresis > upperValue - value) {
+        throw new InvalidInputDataException("hysteresis must not exceed half of the band");
+      }
+    }
+    if (type == ThresholdType.NOT_EQUAL && hysteresis > 0) {
+      throw new InvalidInputDataException("hysteresis is not supported by NOT_EQUAL thresholds");
+    }
+  }
+
   // helper : parses a report date in the required format (it can be null)
   private static LocalDateTime parseReportDate(String s) throws InvalidInputDataException {
     if (s == null)
@@ -83,11 +114,8 @@ public class SensorOperationsImpl implements SensorOperations {
 
     ValidationUtils.validateSensorCode(code); // helper N.2
 
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      // start a transaction to make sure that changes to the database are saved
-      // correctly by JPA
-      em.getTransaction().begin();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
 
       requireMaintainer(em, username); 
 
@@ -103,16 +131,9 @@ public class SensorOperationsImpl implements SensorOperations {
       sensor.setCreatedAt(LocalDateTime.now());
 
       em.persist(sensor); // save the entity
-      em.getTransaction().commit(); // confirm the transaction and saves the data to the database
+      uow.commit();
+      UnitOfWork.afterCommit(() -> TopologyIndex.sensorCreated(code));
       return sensor;
-
-    } catch (RuntimeException ex) {
-      if (em.getTransaction().isActive()) {
-        em.getTransaction().rollback();
-      } // eventually close the transaction before the exception
-      throw ex;
-    } finally {
-      em.close();
     }
   }
 
@@ -122,9 +143,8 @@ public class SensorOperationsImpl implements SensorOperations {
 
     ValidationUtils.validateSensorCode(code);
 
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      em.getTransaction().begin();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
 
       Sensor s = em.find(Sensor.class, code);
       if (s == null) {
@@ -139,16 +159,8 @@ public class SensorOperationsImpl implements SensorOperations {
       s.setModifiedBy(username);
       s.setModifiedAt(LocalDateTime.now());
 
-      em.getTransaction().commit();
+      uow.commit();
       return s;
-
-    } catch (RuntimeException ex) {
-      if (em.getTransaction().isActive()) {
-        em.getTransaction().rollback();
-      }
-      throw ex;
-    } finally {
-      em.close();
     }
   }
 
@@ -158,9 +170,8 @@ public class SensorOperationsImpl implements SensorOperations {
 
     ValidationUtils.validateSensorCode(code);
 
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      em.getTransaction().begin();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
 
       requireMaintainer(em, username);
 
@@ -176,32 +187,33 @@ public class SensorOperationsImpl implements SensorOperations {
       }
 
       em.remove(s); // remove sensor
-      em.getTransaction().commit();
-
-      // deletion notification
-      AlertingService.notifyDeletion(username, code, Sensor.class);
+      uow.commit();
+      // snapshot patch and deletion notification, once the deletion is committed
+      UnitOfWork.afterCommit(() -> {
+        TopologyIndex.sensorDeleted(code);
+        AlertingService.notifyDeletion(username, code, Sensor.class);
+      });
       return s;
-
-    } catch (RuntimeException ex) {
-      if (em.getTransaction().isActive()) {
-        em.getTransaction().rollback();
-      }
-      throw ex;
-    } finally {
-      em.close();
     }
   }
 
   @Override
   public Threshold createThreshold(String sensorCode, ThresholdType type, double value, String username)
       throws InvalidInputDataException, ElementNotFoundException, IdAlreadyInUseException, UnauthorizedException {
+    return createThreshold(sensorCode, type, value, null, 0.0, username);
+  }
+
+  @Override
+  public Threshold createThreshold(String sensorCode, ThresholdType type, double value, Double upperValue,
+      double hysteresis, String username)
+      throws InvalidInputDataException, ElementNotFoundException, IdAlreadyInUseException, UnauthorizedException {
 
     ValidationUtils.validateSensorCode(sensorCode);
     validateThresholdType(type);
+    validateThresholdBounds(type, value, upperValue, hysteresis);
 
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      em.getTransaction().begin();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
 
       // sensor must exist
       Sensor sensor = em.find(Sensor.class, sensorCode);
@@ -217,35 +229,34 @@ public class SensorOperationsImpl implements SensorOperations {
         throw new IdAlreadyInUseException("Threshold already exists");
       }
 
-      Threshold t = new Threshold(sensorCode, type, value);
+      Threshold t = new Threshold(sensorCode, type, value, type.isRange() ? upperValue : null, hysteresis);
       em.persist(t);
 
       // associate threshold to sensor
       sensor.setThreshold(t);
 
-      em.getTransaction().commit();
+      uow.commit();
       return t;
-
-    } catch (RuntimeException ex) {
-      if (em.getTransaction().isActive()) {
-        em.getTransaction().rollback();
-      }
-      throw ex;
-    } finally {
-      em.close();
     }
   }
 
   @Override
   public Threshold updateThreshold(String sensorCode, ThresholdType type, double value, String username)
       throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException {
+    return updateThreshold(sensorCode, type, value, null, 0.0, username);
+  }
+
+  @Override
+  public Threshold updateThreshold(String sensorCode, ThresholdType type, double value, Double upperValue,
+      double hysteresis, String username)
+      throws InvalidInputDataException, ElementNotFoundException, UnauthorizedException {
 
     ValidationUtils.validateSensorCode(sensorCode);
     validateThresholdType(type);
+    validateThresholdBounds(type, value, upperValue, hysteresis);
 
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      em.getTransaction().begin();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
 
       Sensor sensor = em.find(Sensor.class, sensorCode);
       if (sensor == null) {
@@ -262,30 +273,26 @@ public class SensorOperationsImpl implements SensorOperations {
 
       t.setType(type);
       t.setValue(value);
+      t.setUpperValue(type.isRange() ? upperValue : null);
+      t.setHysteresis(hysteresis);
 
       // keep the relation coherent after updating the fields
       sensor.setThreshold(t);
 
-      em.getTransaction().commit();
+      uow.commit();
       return t;
-
-    } catch (RuntimeException ex) {
-      if (em.getTransaction().isActive()) {
-        em.getTransaction().rollback();
-      }
-      throw ex;
-    } finally {
-      em.close();
     }
   }
 
   @Override
   public Collection<Sensor> getSensors(String... codes) {
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
       // no codes provided -> returns all sensors
       if (codes == null || codes.length == 0) {
-        return em.createQuery("SELECT s FROM Sensor s", Sensor.class).getResultList();
+        return em.createQuery("SELECT s FROM Sensor s", Sensor.class)
+            .setHint(HibernateHints.HINT_CACHEABLE, true)
+            .getResultList();
       }
 
       // returns only existing sensors, no exceptions, no duplicates
@@ -299,8 +306,6 @@ public class SensorOperationsImpl implements SensorOperations {
         }
       }
       return new ArrayList<>(found.values());
-    } finally {
-      em.close();
     }
   }
 
@@ -317,19 +322,27 @@ public class SensorOperationsImpl implements SensorOperations {
       throw new InvalidInputDataException("Invalid interval");
     }
 
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
+    ReportBuildEvent event = ReportBuildEvent.start("sensor", code, startDate, endDate);
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
       // sensor must exist
       Sensor s = em.find(Sensor.class, code);
       if (s == null) {
         throw new ElementNotFoundException("Sensor not found");
       }
 
-      List<Measurement> ms = loadSensorMeasurements(em, code, start, end);
+      List<Measurement> ms = Repositories.measurementStore().readBySensor(code, start, end);
+      // measurements compacted by the retention engine only survive as aggregates
+      List<MeasurementAggregate> aggregates = aggregateRepo.readBySensor(code, start, end);
       long n = ms.size();
+      for (MeasurementAggregate a : aggregates) {
+        n += a.getCount();
+      }
+      event.loaded(n);
 
       // no measurements -> empty report
       if (n == 0) {
+        event.finish();
         return new SensorReportImpl(
             code, startDate, endDate, 0,
             0.0, 0.0, 0.0,
@@ -351,6 +364,11 @@ public class SensorOperationsImpl implements SensorOperations {
         min = Math.min(min, v);
         max = Math.max(max, v);
       }
+      for (MeasurementAggregate a : aggregates) {
+        sum += a.getSum();
+        min = Math.min(min, a.getMin());
+        max = Math.max(max, a.getMax());
+      }
 
       double mean = (n >= 1) ? sum / n : 0.0;
 
@@ -359,15 +377,22 @@ public class SensorOperationsImpl implements SensorOperations {
       double variance = 0.0;
       double stdDev = 0.0;
       if (n >= 2) {
-        variance = values.stream()
+        double squaredDeviations = values.stream()
             .mapToDouble(v -> (v - meanFinal) * (v - meanFinal))
-            .sum() / (n - 1); // sample variance
+            .sum();
+        // sum of (v - mean)^2 over an aggregate, expanded from its sums
+        for (MeasurementAggregate a : aggregates) {
+          squaredDeviations += Math.max(0.0,
+              a.getSumOfSquares() - 2 * meanFinal * a.getSum() + a.getCount() * meanFinal * meanFinal);
+        }
+        variance = squaredDeviations / (n - 1); // sample variance
         stdDev = Math.sqrt(variance);
       }
 
       final double stdDevFinal = stdDev;
 
       // detect outliers: values outside +- 2 * stdDev from the mean
+      // (outliers and histogram need single values, so only raw rows take part)
       List<Measurement> outliers = (n >= 2 && stdDev > 0.0)
           ? ms.stream()
               .filter(m -> Math.abs(m.getValue() - meanFinal) >= 2 * stdDevFinal)
@@ -383,6 +408,7 @@ public class SensorOperationsImpl implements SensorOperations {
 
       SortedMap<Report.Range<Double>, Long> histogram = buildHistogram(nonOutValues);
 
+      event.finish();
       return new SensorReportImpl(
           code, startDate, endDate, n,
           mean, variance, stdDev,
@@ -390,40 +416,9 @@ public class SensorOperationsImpl implements SensorOperations {
           List.copyOf(outliers),
           histogram);
 
-    } finally {
-      em.close();
     }
   }
 
-  // helper for histogram : loads sensor measurements with optional inclusive
-  // bounds
-  private static List<Measurement> loadSensorMeasurements(
-      EntityManager em, String sensorCode, LocalDateTime start, LocalDateTime end) {
-
-    StringBuilder jpql = new StringBuilder("SELECT m FROM Measurement m WHERE m.sensorCode = :code");
-
-    if (start != null) {
-      jpql.append(" AND m.timestamp >= :start");
-    }
-    if (end != null) {
-      jpql.append(" AND m.timestamp <= :end");
-    }
-
-    jpql.append(" ORDER BY m.timestamp ASC");
-
-    var q = em.createQuery(jpql.toString(), Measurement.class);
-    q.setParameter("code", sensorCode);
-
-    if (start != null) {
-      q.setParameter("start", start);
-    }
-    if (end != null) {
-      q.setParameter("end", end);
-    }
-
-    return q.getResultList();
-  }
-
   /**
    * builds a histogram with 20 buckets over the given values
    * ranges are contiguous
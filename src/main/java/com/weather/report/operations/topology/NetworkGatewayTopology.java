@@ -3,7 +3,7 @@ package com.weather.report.operations.topology;
 import com.weather.report.exceptions.*;
 import com.weather.report.model.entities.Gateway;
 import com.weather.report.model.entities.Network;
-import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.UnitOfWork;
 import com.weather.report.utils.ValidationUtils;
 
 import jakarta.persistence.EntityManager;
@@ -23,11 +23,10 @@ public class NetworkGatewayTopology {
         // validating inputs
         ValidationUtils.validateNetworkCode(networkCode);
         ValidationUtils.validateGatewayCode(gatewayCode);
-        ValidationUtils.validateMaintainerUser(username);
 
-        EntityManager em = PersistenceManager.getEntityManager();
-        try {
-            em.getTransaction().begin();
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            ValidationUtils.validateMaintainerUser(username);
+            EntityManager em = uow.getEntityManager();
             // does network exist?
             Network network = em.find(Network.class, networkCode);
             if (network == null) {
@@ -51,16 +50,9 @@ public class NetworkGatewayTopology {
                 gateway.setNetwork(network);
             }
 
-            em.getTransaction().commit();
+            uow.commit();
+            UnitOfWork.afterCommit(() -> TopologyIndex.gatewayConnected(gatewayCode, networkCode));
             return network;
-
-        } catch (RuntimeException ex) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
-            throw ex;
-        } finally {
-            em.close();
         }
     }
 
@@ -70,11 +62,10 @@ public class NetworkGatewayTopology {
         // Validate inputs
         ValidationUtils.validateNetworkCode(networkCode);
         ValidationUtils.validateGatewayCode(gatewayCode);
-        ValidationUtils.validateMaintainerUser(username);
 
-        EntityManager em = PersistenceManager.getEntityManager();
-        try {
-            em.getTransaction().begin();
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            ValidationUtils.validateMaintainerUser(username);
+            EntityManager em = uow.getEntityManager();
 
             // does network exist?
             Network network = em.find(Network.class, networkCode);
@@ -106,17 +97,9 @@ public class NetworkGatewayTopology {
             network.getGateways().remove(connectedGateway);
             gateway.setNetwork(null);
 
-            em.getTransaction().commit();
+            uow.commit();
+            UnitOfWork.afterCommit(() -> TopologyIndex.gatewayDisconnected(gatewayCode));
             return network;
-
-        } catch (RuntimeException ex) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
-            throw ex;
-        } finally {
-            em.close();
-
         }
     }
 
@@ -125,8 +108,8 @@ public class NetworkGatewayTopology {
 
         ValidationUtils.validateNetworkCode(networkCode);
 
-        EntityManager em = PersistenceManager.getEntityManager();
-        try {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            EntityManager em = uow.getEntityManager();
             Network network = em.find(Network.class, networkCode);
             if (network == null) {
                 throw new ElementNotFoundException("Network with code '" + networkCode + "' not found");
@@ -136,9 +119,6 @@ public class NetworkGatewayTopology {
             }
 
             return new ArrayList<>(network.getGateways());
-
-        } finally {
-            em.close();
         }
     }
 
@@ -8,7 +8,7 @@ import com.weather.report.exceptions.InvalidInputDataException;
 import com.weather.report.exceptions.UnauthorizedException;
 import com.weather.report.model.entities.Gateway;
 import com.weather.report.model.entities.Sensor;
-import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.UnitOfWork;
 import com.weather.report.utils.ValidationUtils;
 
 import jakarta.persistence.EntityManager;
@@ -33,11 +33,9 @@ public class SensorGatewayTopology {
             throw new InvalidInputDataException("Username cannot be null or empty");
         }
 
-        ValidationUtils.validateMaintainerUser(username);
-
-        EntityManager em = PersistenceManager.getEntityManager();
-        try {
-            em.getTransaction().begin();
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            ValidationUtils.validateMaintainerUser(username);
+            EntityManager em = uow.getEntityManager();
 
             // does gateway exist?
             Gateway gateway = em.find(Gateway.class, gatewayCode);
@@ -65,16 +63,9 @@ public class SensorGatewayTopology {
                 sensor.setGateway(gateway);
             }
 
-            em.getTransaction().commit();
+            uow.commit();
+            UnitOfWork.afterCommit(() -> TopologyIndex.sensorConnected(sensorCode, gatewayCode));
             return gateway;
-
-        } catch (RuntimeException ex) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
-            throw ex;
-        } finally {
-            em.close();
         }
     }
 
@@ -92,11 +83,9 @@ public class SensorGatewayTopology {
             throw new InvalidInputDataException("Username cannot be null or empty");
         }
 
-        ValidationUtils.validateMaintainerUser(username);
-
-        EntityManager em = PersistenceManager.getEntityManager();
-        try {
-            em.getTransaction().begin();
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            ValidationUtils.validateMaintainerUser(username);
+            EntityManager em = uow.getEntityManager();
 
             // does gateway exist?
             Gateway gateway = em.find(Gateway.class, gatewayCode);
@@ -134,16 +123,9 @@ public class SensorGatewayTopology {
             // Clear the inverse relationship
             sensor.setGateway(null);
 
-            em.getTransaction().commit();
+            uow.commit();
+            UnitOfWork.afterCommit(() -> TopologyIndex.sensorDisconnected(sensorCode));
             return gateway;
-
-        } catch (RuntimeException ex) {
-            if (em.getTransaction().isActive()) {
-                em.getTransaction().rollback();
-            }
-            throw ex;
-        } finally {
-            em.close();
         }
     }
 
@@ -154,8 +136,8 @@ public class SensorGatewayTopology {
             throw new InvalidInputDataException("Gateway code cannot be null or empty");
         }
 
-        EntityManager em = PersistenceManager.getEntityManager();
-        try {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            EntityManager em = uow.getEntityManager();
             Gateway gateway = em.find(Gateway.class, gatewayCode);
             if (gateway == null) {
                 throw new ElementNotFoundException(
@@ -167,9 +149,6 @@ public class SensorGatewayTopology {
             }
 
             return new ArrayList<>(gateway.getSensors());
-
-        } finally {
-            em.close();
         }
     }
 
@@ -0,0 +1,153 @@
+package com.weather.report.operations.topology;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import com.weather.report.model.OperatorContact;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.UnitOfWork;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Shared, lock-free holder of the current {@link TopologySnapshot}.
+ * <p>
+ * The snapshot is read from the database on first use and then kept up to date
+ * by patching it (copy-on-write) after every committed topology change, so
+ * ingestion, alerting and reports can resolve sensor → gateway → network →
+ * operators without touching JPA entities. Writers call the change methods
+ * through {@link UnitOfWork#afterCommit(Runnable)}, so a change that is not
+ * committed yet, or rolled back, never reaches the snapshot. The snapshot is
+ * dropped whenever {@link PersistenceManager} closes its factory.
+ */
+public final class TopologyIndex {
+
+    private static final AtomicReference<TopologySnapshot> SNAPSHOT =
+            new AtomicReference<>(TopologySnapshot.unloaded());
+
+    static {
+        PersistenceManager.addResetListener(TopologyIndex::invalidate);
+    }
+
+    private TopologyIndex() {
+        // utility class
+    }
+
+    /**
+     * @return the current topology snapshot, loading it from the database if
+     *         needed
+     */
+    public static TopologySnapshot current() {
+        TopologySnapshot snapshot = SNAPSHOT.get();
+        while (!snapshot.isLoaded()) {
+            TopologySnapshot loaded = load();
+            // a concurrent change replaces the placeholder, forcing a fresh load
+            if (SNAPSHOT.compareAndSet(snapshot, loaded)) {
+                return loaded;
+            }
+            snapshot = SNAPSHOT.get();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the current snapshot; the next lookup reloads it from the database.
+     */
+    public static void invalidate() {
+        SNAPSHOT.set(TopologySnapshot.unloaded());
+    }
+
+    public static void sensorCreated(String sensorCode) {
+        patch(s -> s.withSensor(sensorCode));
+    }
+
+    public static void sensorDeleted(String sensorCode) {
+        patch(s -> s.withoutSensor(sensorCode));
+    }
+
+    public static void gatewayCreated(String gatewayCode) {
+        patch(s -> s.withGateway(gatewayCode));
+    }
+
+    public static void gatewayDeleted(String gatewayCode) {
+        patch(s -> s.withoutGateway(gatewayCode));
+    }
+
+    public static void networkChanged(String networkCode, Collection<OperatorContact> operators) {
+        patch(s -> s.withNetwork(networkCode, operators));
+    }
+
+    public static void networkDeleted(String networkCode) {
+        patch(s -> s.withoutNetwork(networkCode));
+    }
+
+    public static void sensorConnected(String sensorCode, String gatewayCode) {
+        patch(s -> s.withSensorGateway(sensorCode, gatewayCode));
+    }
+
+    public static void sensorDisconnected(String sensorCode) {
+        patch(s -> s.withSensorGateway(sensorCode, null));
+    }
+
+    public static void gatewayConnected(String gatewayCode, String networkCode) {
+        patch(s -> s.withGatewayNetwork(gatewayCode, networkCode));
+    }
+
+    public static void gatewayDisconnected(String gatewayCode) {
+        patch(s -> s.withGatewayNetwork(gatewayCode, null));
+    }
+
+    // an unloaded snapshot is swapped for a new placeholder so that a load
+    // started before this change cannot be published
+    private static void patch(UnaryOperator<TopologySnapshot> change) {
+        SNAPSHOT.updateAndGet(s -> s.isLoaded() ? change.apply(s) : TopologySnapshot.unloaded());
+    }
+
+    private static TopologySnapshot load() {
+        EntityManager em = PersistenceManager.getEntityManager();
+        try {
+            Set<String> sensors = new HashSet<>();
+            Map<String, String> gatewayBySensor = new HashMap<>();
+            for (Object[] row : em.createQuery(
+                    "SELECT s.code, g.code FROM Sensor s LEFT JOIN s.gateway g", Object[].class).getResultList()) {
+                sensors.add((String) row[0]);
+                if (row[1] != null) {
+                    gatewayBySensor.put((String) row[0], (String) row[1]);
+                }
+            }
+
+            Set<String> gateways = new HashSet<>();
+            Map<String, String> networkByGateway = new HashMap<>();
+            for (Object[] row : em.createQuery(
+                    "SELECT g.code, n.code FROM Gateway g LEFT JOIN g.network n", Object[].class).getResultList()) {
+                gateways.add((String) row[0]);
+                if (row[1] != null) {
+                    networkByGateway.put((String) row[0], (String) row[1]);
+                }
+            }
+
+            Map<String, List<OperatorContact>> operatorsByNetwork = new HashMap<>();
+            for (String networkCode : em.createQuery("SELECT n.code FROM Network n", String.class).getResultList()) {
+                operatorsByNetwork.put(networkCode, new ArrayList<>());
+            }
+            for (Object[] row : em.createQuery(
+                    "SELECT n.code, o.email, o.phoneNumber FROM Network n JOIN n.operators o", Object[].class)
+                    .getResultList()) {
+                // a network inserted between the two queries has no entry yet
+                operatorsByNetwork.computeIfAbsent((String) row[0], k -> new ArrayList<>())
+                        .add(new OperatorContact((String) row[1], (String) row[2]));
+            }
+
+            return TopologySnapshot.of(sensors, gateways, gatewayBySensor, networkByGateway, operatorsByNetwork);
+        } finally {
+            em.close();
+        }
+    }
+}
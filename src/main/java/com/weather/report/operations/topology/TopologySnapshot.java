@@ -0,0 +1,203 @@
+package com.weather.report.operations.topology;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.weather.report.model.OperatorContact;
+import com.weather.report.model.TopologyViolation;
+
+/**
+ * Immutable view of the sensor → gateway → network → operators topology.
+ * <p>
+ * Every lookup is a plain hash map access on immutable values detached from
+ * any {@code EntityManager} (operators are kept as {@link OperatorContact}s,
+ * not entities), so a snapshot can be shared freely between threads.
+ * Changes never modify an existing snapshot: the {@code with*}/{@code without*}
+ * methods return a patched copy that {@link TopologyIndex} publishes atomically.
+ */
+public final class TopologySnapshot {
+
+    private final boolean loaded;
+    private final Set<String> sensors;
+    private final Set<String> gateways;
+    private final Map<String, String> gatewayBySensor;
+    private final Map<String, String> networkByGateway;
+    private final Map<String, List<OperatorContact>> operatorsByNetwork;
+
+    private TopologySnapshot(boolean loaded, Set<String> sensors, Set<String> gateways,
+            Map<String, String> gatewayBySensor, Map<String, String> networkByGateway,
+            Map<String, List<OperatorContact>> operatorsByNetwork) {
+        this.loaded = loaded;
+        this.sensors = Set.copyOf(sensors);
+        this.gateways = Set.copyOf(gateways);
+        this.gatewayBySensor = Map.copyOf(gatewayBySensor);
+        this.networkByGateway = Map.copyOf(networkByGateway);
+        this.operatorsByNetwork = Map.copyOf(operatorsByNetwork);
+    }
+
+    // placeholder published while the topology still has to be read from the database
+    static TopologySnapshot unloaded() {
+        return new TopologySnapshot(false, Set.of(), Set.of(), Map.of(), Map.of(), Map.of());
+    }
+
+    static TopologySnapshot of(Set<String> sensors, Set<String> gateways, Map<String, String> gatewayBySensor,
+            Map<String, String> networkByGateway, Map<String, List<OperatorContact>> operatorsByNetwork) {
+        Map<String, List<OperatorContact>> operators = new HashMap<>();
+        operatorsByNetwork.forEach((network, ops) -> operators.put(network, List.copyOf(ops)));
+        return new TopologySnapshot(true, sensors, gateways, gatewayBySensor, networkByGateway, operators);
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean containsSensor(String sensorCode) {
+        return sensorCode != null && sensors.contains(sensorCode);
+    }
+
+    public boolean containsGateway(String gatewayCode) {
+        return gatewayCode != null && gateways.contains(gatewayCode);
+    }
+
+    public boolean containsNetwork(String networkCode) {
+        return networkCode != null && operatorsByNetwork.containsKey(networkCode);
+    }
+
+    /**
+     * @param sensorCode sensor code
+     * @return code of the gateway the sensor is connected to, {@code null} if none
+     */
+    public String gatewayOf(String sensorCode) {
+        return sensorCode == null ? null : gatewayBySensor.get(sensorCode);
+    }
+
+    /**
+     * @param gatewayCode gateway code
+     * @return code of the network the gateway is connected to, {@code null} if none
+     */
+    public String networkOf(String gatewayCode) {
+        return gatewayCode == null ? null : networkByGateway.get(gatewayCode);
+    }
+
+    /**
+     * @param sensorCode sensor code
+     * @return code of the network reached through the sensor's gateway,
+     *         {@code null} if the chain is incomplete
+     */
+    public String networkOfSensor(String sensorCode) {
+        return networkOf(gatewayOf(sensorCode));
+    }
+
+    /**
+     * @param networkCode network code
+     * @return contacts of the operators responsible for the network, empty if
+     *         none or unknown
+     */
+    public List<OperatorContact> operatorsOf(String networkCode) {
+        if (networkCode == null) {
+            return List.of();
+        }
+        return operatorsByNetwork.getOrDefault(networkCode, List.of());
+    }
+
+    /**
+     * @param sensorCode sensor code
+     * @return contacts of the operators of the network the sensor belongs to,
+     *         empty if none
+     */
+    public List<OperatorContact> operatorsForSensor(String sensorCode) {
+        return operatorsOf(networkOfSensor(sensorCode));
+    }
+
+    /**
+     * Checks a network/gateway/sensor triple against the configured links using
+     * two hash lookups, without touching the database.
+     *
+     * @param networkCode network code reported for the measurement
+     * @param gatewayCode gateway code reported for the measurement
+     * @param sensorCode  sensor code reported for the measurement
+     * @return the first inconsistency found, {@code null} if the triple matches
+     */
+    public TopologyViolation validate(String networkCode, String gatewayCode, String sensorCode) {
+        if (!containsSensor(sensorCode)) {
+            return TopologyViolation.UNKNOWN_SENSOR;
+        }
+        if (!gatewayCode.equals(gatewayBySensor.get(sensorCode))) {
+            return TopologyViolation.GATEWAY_MISMATCH;
+        }
+        if (!networkCode.equals(networkByGateway.get(gatewayCode))) {
+            return TopologyViolation.NETWORK_MISMATCH;
+        }
+        return null;
+    }
+
+    TopologySnapshot withSensor(String sensorCode) {
+        Set<String> s = new HashSet<>(sensors);
+        s.add(sensorCode);
+        return new TopologySnapshot(true, s, gateways, gatewayBySensor, networkByGateway, operatorsByNetwork);
+    }
+
+    TopologySnapshot withoutSensor(String sensorCode) {
+        Set<String> s = new HashSet<>(sensors);
+        s.remove(sensorCode);
+        Map<String, String> links = new HashMap<>(gatewayBySensor);
+        links.remove(sensorCode);
+        return new TopologySnapshot(true, s, gateways, links, networkByGateway, operatorsByNetwork);
+    }
+
+    TopologySnapshot withGateway(String gatewayCode) {
+        Set<String> g = new HashSet<>(gateways);
+        g.add(gatewayCode);
+        return new TopologySnapshot(true, sensors, g, gatewayBySensor, networkByGateway, operatorsByNetwork);
+    }
+
+    TopologySnapshot withoutGateway(String gatewayCode) {
+        Set<String> g = new HashSet<>(gateways);
+        g.remove(gatewayCode);
+        Map<String, String> sensorLinks = new HashMap<>(gatewayBySensor);
+        sensorLinks.values().removeIf(gatewayCode::equals);
+        Map<String, String> networkLinks = new HashMap<>(networkByGateway);
+        networkLinks.remove(gatewayCode);
+        return new TopologySnapshot(true, sensors, g, sensorLinks, networkLinks, operatorsByNetwork);
+    }
+
+    TopologySnapshot withNetwork(String networkCode, Collection<OperatorContact> operators) {
+        Map<String, List<OperatorContact>> n = new HashMap<>(operatorsByNetwork);
+        n.put(networkCode, List.copyOf(operators));
+        return new TopologySnapshot(true, sensors, gateways, gatewayBySensor, networkByGateway, n);
+    }
+
+    TopologySnapshot withoutNetwork(String networkCode) {
+        Map<String, List<OperatorContact>> n = new HashMap<>(operatorsByNetwork);
+        n.remove(networkCode);
+        Map<String, String> networkLinks = new HashMap<>(networkByGateway);
+        networkLinks.values().removeIf(networkCode::equals);
+        return new TopologySnapshot(true, sensors, gateways, gatewayBySensor, networkLinks, n);
+    }
+
+    // gatewayCode null means the sensor has been disconnected
+    TopologySnapshot withSensorGateway(String sensorCode, String gatewayCode) {
+        Map<String, String> links = new HashMap<>(gatewayBySensor);
+        if (gatewayCode == null) {
+            links.remove(sensorCode);
+        } else {
+            links.put(sensorCode, gatewayCode);
+        }
+        return new TopologySnapshot(true, sensors, gateways, links, networkByGateway, operatorsByNetwork);
+    }
+
+    // networkCode null means the gateway has been disconnected
+    TopologySnapshot withGatewayNetwork(String gatewayCode, String networkCode) {
+        Map<String, String> links = new HashMap<>(networkByGateway);
+        if (networkCode == null) {
+            links.remove(gatewayCode);
+        } else {
+            links.put(gatewayCode, networkCode);
+        }
+        return new TopologySnapshot(true, sensors, gateways, gatewayBySensor, links, operatorsByNetwork);
+    }
+}
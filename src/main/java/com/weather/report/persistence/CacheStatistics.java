@@ -0,0 +1,60 @@
+package com.weather.report.persistence;
+
+/**
+ * Counters of one second-level cache region, as returned by
+ * {@link PersistenceManager#getCacheStatistics()}.
+ */
+public class CacheStatistics {
+
+  private final String region;
+  private final long hits;
+  private final long misses;
+  private final long puts;
+  private final long entries;
+
+  CacheStatistics(String region, long hits, long misses, long puts, long entries) {
+    this.region = region;
+    this.hits = hits;
+    this.misses = misses;
+    this.puts = puts;
+    this.entries = entries;
+  }
+
+  public String getRegion() {
+    return region;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getPuts() {
+    return puts;
+  }
+
+  /**
+   * @return entries currently held in memory, {@code -1} if the provider does
+   *         not report it
+   */
+  public long getEntries() {
+    return entries;
+  }
+
+  /**
+   * @return fraction of lookups served by the cache, {@code 0} before the first
+   *         lookup
+   */
+  public double getHitRatio() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0.0 : (double) hits / lookups;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: hits=%d, misses=%d, puts=%d, entries=%d", region, hits, misses, puts, entries);
+  }
+}
@@ -0,0 +1,218 @@
+package com.weather.report.persistence;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.weather.report.model.CodeType;
+import com.weather.report.model.entities.MeasurementCode;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * In-memory, bidirectional view of the {@link MeasurementCode} dictionary.
+ * <p>
+ * The whole table is read on first use. New codes are inserted by
+ * {@link #idOf(EntityManager, CodeType, String)} in the caller's unit of work,
+ * before the measurements that use them are persisted, and only enter the view
+ * once that unit commits: a rolled back import leaves neither a dictionary row
+ * nor a stale key behind. Codes looked up but not found are remembered too, so
+ * that reports and duplicate checks on elements without data do not query the
+ * database every time. Decoded codes are the dictionary's own {@code String}
+ * instances, shared by every measurement that uses them. The view is dropped
+ * whenever {@link PersistenceManager} closes its factory.
+ */
+public final class CodeDictionary {
+
+  private static final Object LOCK = new Object();
+
+  private static final Map<CodeType, Map<String, Integer>> ids = new EnumMap<>(CodeType.class);
+  private static final Map<Integer, String> codes = new ConcurrentHashMap<>();
+  // codes known not to be stored; an entry is removed when its code is registered
+  private static final Map<CodeType, Set<String>> missing = new EnumMap<>(CodeType.class);
+  private static volatile boolean loaded;
+
+  static {
+    for (CodeType type : CodeType.values()) {
+      ids.put(type, new ConcurrentHashMap<>());
+      missing.put(type, ConcurrentHashMap.newKeySet());
+    }
+    PersistenceManager.addResetListener(CodeDictionary::invalidate);
+  }
+
+  private CodeDictionary() {
+    // utility class
+  }
+
+  /**
+   * @param type kind of code
+   * @param code code to look up, may be {@code null}
+   * @return key of the code, {@code null} if the code is {@code null} or has
+   *         never been stored
+   */
+  public static Integer find(CodeType type, String code) {
+    if (code == null) {
+      return null;
+    }
+    ensureLoaded();
+    Integer id = ids.get(type).get(code);
+    if (id != null || missing.get(type).contains(code)) {
+      return id;
+    }
+    synchronized (LOCK) {
+      id = ids.get(type).get(code);
+      if (id == null) {
+        id = fetch(type, code);
+        if (id == null) {
+          missing.get(type).add(code);
+        }
+      }
+    }
+    return id;
+  }
+
+  /**
+   * Looks a code up in memory only, without querying the database.
+   *
+   * @param type kind of code
+   * @param code code to look up, may be {@code null}
+   * @return key of the code, {@code null} if the code is {@code null} or is
+   *         not in the loaded dictionary
+   */
+  public static Integer cached(CodeType type, String code) {
+    return code == null ? null : ids.get(type).get(code);
+  }
+
+  /**
+   * Returns the key of a code, adding it to the dictionary in the given
+   * entity manager if needed. Must be called inside the {@link UnitOfWork}
+   * owning that entity manager: a new code is committed with it, and only
+   * becomes visible to the other lookups once it has committed.
+   *
+   * @param em   entity manager of the active unit of work
+   * @param type kind of code
+   * @param code code to encode, may be {@code null}
+   * @return key of the code, {@code null} if the code is {@code null}
+   */
+  public static Integer idOf(EntityManager em, CodeType type, String code) {
+    if (code == null) {
+      return null;
+    }
+    ensureLoaded(em);
+    Integer id = ids.get(type).get(code);
+    if (id != null) {
+      return id;
+    }
+    List<MeasurementCode> existing = em.createNamedQuery(MeasurementCode.BY_CODE, MeasurementCode.class)
+        .setParameter("type", type)
+        .setParameter("code", code)
+        .getResultList();
+    MeasurementCode entry;
+    if (existing.isEmpty()) {
+      entry = new MeasurementCode(type, code);
+      em.persist(entry);
+    } else {
+      entry = existing.get(0);
+    }
+    UnitOfWork.afterCommit(() -> register(entry));
+    return entry.getId();
+  }
+
+  /**
+   * @param id key of a code, may be {@code null}
+   * @return the shared instance of the code, {@code null} if the key is
+   *         {@code null}
+   */
+  public static String codeOf(Integer id) {
+    if (id == null) {
+      return null;
+    }
+    ensureLoaded();
+    String code = codes.get(id);
+    if (code == null) {
+      synchronized (LOCK) {
+        code = codes.get(id);
+        if (code == null) {
+          code = fetch(id);
+        }
+      }
+    }
+    return code;
+  }
+
+  static void invalidate() {
+    synchronized (LOCK) {
+      loaded = false;
+      codes.clear();
+      for (Map<String, Integer> byCode : ids.values()) {
+        byCode.clear();
+      }
+      for (Set<String> unknown : missing.values()) {
+        unknown.clear();
+      }
+    }
+  }
+
+  private static void ensureLoaded() {
+    if (!loaded) {
+      EntityManager em = PersistenceManager.getEntityManager();
+      try {
+        ensureLoaded(em);
+      } finally {
+        em.close();
+      }
+    }
+  }
+
+  private static void ensureLoaded(EntityManager em) {
+    if (loaded) {
+      return;
+    }
+    synchronized (LOCK) {
+      if (loaded) {
+        return;
+      }
+      for (MeasurementCode entry : em.createNamedQuery(MeasurementCode.ALL, MeasurementCode.class)
+          .getResultList()) {
+        register(entry);
+      }
+      loaded = true;
+    }
+  }
+
+  private static Integer fetch(CodeType type, String code) {
+    EntityManager em = PersistenceManager.getEntityManager();
+    try {
+      List<MeasurementCode> existing = em.createNamedQuery(MeasurementCode.BY_CODE, MeasurementCode.class)
+          .setParameter("type", type)
+          .setParameter("code", code)
+          .getResultList();
+      return existing.isEmpty() ? null : register(existing.get(0));
+    } finally {
+      em.close();
+    }
+  }
+
+  private static String fetch(Integer id) {
+    EntityManager em = PersistenceManager.getEntityManager();
+    try {
+      MeasurementCode entry = em.find(MeasurementCode.class, id);
+      if (entry == null) {
+        throw new IllegalStateException("Unknown measurement code key " + id);
+      }
+      register(entry);
+      return codes.get(id);
+    } finally {
+      em.close();
+    }
+  }
+
+  private static Integer register(MeasurementCode entry) {
+    codes.putIfAbsent(entry.getId(), entry.getCode());
+    ids.get(entry.getType()).putIfAbsent(codes.get(entry.getId()), entry.getId());
+    missing.get(entry.getType()).remove(entry.getCode());
+    return entry.getId();
+  }
+}
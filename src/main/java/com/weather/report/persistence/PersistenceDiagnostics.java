@@ -0,0 +1,160 @@
+package com.weather.report.persistence;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Snapshot of the Hibernate statistics of the current factory, as returned by
+ * {@link PersistenceManager#getDiagnostics()}.
+ * <p>
+ * Queries are sorted by total execution time, the most expensive first. The
+ * slow-query log holds every SQL statement that took longer than the
+ * {@value PersistenceManager#SLOW_QUERY_PROPERTY} threshold, with its longest
+ * time in milliseconds.
+ */
+public class PersistenceDiagnostics {
+
+  private final boolean enabled;
+  private final Instant since;
+  private final List<QueryDiagnostics> queries;
+  private final Map<String, Long> slowQueries;
+  private final long entityLoads;
+  private final long entityFetches;
+  private final long collectionLoads;
+  private final long collectionFetches;
+  private final long statements;
+  private final long sessions;
+  private final long cacheHits;
+  private final long cacheMisses;
+
+  PersistenceDiagnostics(boolean enabled, Instant since, List<QueryDiagnostics> queries,
+      Map<String, Long> slowQueries, long entityLoads, long entityFetches, long collectionLoads,
+      long collectionFetches, long statements, long sessions, long cacheHits, long cacheMisses) {
+    this.enabled = enabled;
+    this.since = since;
+    this.queries = List.copyOf(queries);
+    this.slowQueries = Map.copyOf(slowQueries);
+    this.entityLoads = entityLoads;
+    this.entityFetches = entityFetches;
+    this.collectionLoads = collectionLoads;
+    this.collectionFetches = collectionFetches;
+    this.statements = statements;
+    this.sessions = sessions;
+    this.cacheHits = cacheHits;
+    this.cacheMisses = cacheMisses;
+  }
+
+  static PersistenceDiagnostics empty() {
+    return new PersistenceDiagnostics(false, null, List.of(), Map.of(), 0, 0, 0, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * @return whether statistics are being collected; when not, every counter
+   *         is frozen at its last value
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return start of the collection period, {@code null} if the factory is
+   *         not booted
+   */
+  public Instant getSince() {
+    return since;
+  }
+
+  public List<QueryDiagnostics> getQueries() {
+    return queries;
+  }
+
+  /**
+   * @param query JPQL or SQL text of a query
+   * @return its counters, {@code null} if it was never run
+   */
+  public QueryDiagnostics getQuery(String query) {
+    return queries.stream().filter(q -> q.getQuery().equals(query)).findFirst().orElse(null);
+  }
+
+  /**
+   * @return slow SQL statements with their longest time in milliseconds
+   */
+  public Map<String, Long> getSlowQueries() {
+    return slowQueries;
+  }
+
+  /**
+   * @return entities loaded, from the database or the second-level cache
+   */
+  public long getEntityLoads() {
+    return entityLoads;
+  }
+
+  /**
+   * @return entities fetched lazily by a separate statement
+   */
+  public long getEntityFetches() {
+    return entityFetches;
+  }
+
+  public long getCollectionLoads() {
+    return collectionLoads;
+  }
+
+  /**
+   * @return collections fetched lazily by a separate statement
+   */
+  public long getCollectionFetches() {
+    return collectionFetches;
+  }
+
+  /**
+   * @return JDBC statements prepared
+   */
+  public long getStatements() {
+    return statements;
+  }
+
+  public long getSessions() {
+    return sessions;
+  }
+
+  public long getSecondLevelCacheHits() {
+    return cacheHits;
+  }
+
+  public long getSecondLevelCacheMisses() {
+    return cacheMisses;
+  }
+
+  /**
+   * @return fraction of second-level cache lookups served by the cache,
+   *         {@code 0} before the first lookup
+   */
+  public double getSecondLevelCacheHitRatio() {
+    long lookups = cacheHits + cacheMisses;
+    return lookups == 0 ? 0.0 : (double) cacheHits / lookups;
+  }
+
+  /**
+   * @return multi-line summary, one line per query and slow statement
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder()
+        .append(String.format(Locale.ROOT, "statistics %s since %s: statements=%d, sessions=%d, entity loads=%d, fetches=%d,"
+            + " collection loads=%d, fetches=%d, second-level cache hit ratio=%.2f",
+            enabled ? "enabled" : "disabled", since, statements, sessions, entityLoads, entityFetches,
+            collectionLoads, collectionFetches, getSecondLevelCacheHitRatio()));
+    for (QueryDiagnostics query : queries) {
+      builder.append(System.lineSeparator()).append("  query ").append(query);
+    }
+    for (Map.Entry<String, Long> slow : slowQueries.entrySet()) {
+      builder.append(System.lineSeparator()).append("  slow ").append(slow.getValue()).append("ms: ")
+          .append(slow.getKey());
+    }
+    return builder.toString();
+  }
+}
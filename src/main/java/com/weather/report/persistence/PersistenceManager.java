@@ -1,38 +1,272 @@
 package com.weather.report.persistence;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.StatisticsSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
 
 public class PersistenceManager {
+  private static final Logger logger = LogManager.getLogger(PersistenceManager.class);
+
   private static final String TEST_PU_NAME = "weatherReportTestPU";
   private static final String PU_NAME = "weatherReportPU";
 
-  private static EntityManagerFactory factory;
-  private static String currentPUName = PersistenceManager.PU_NAME;
+  /** system property selecting the persistence unit used outside tests */
+  public static final String PU_PROPERTY = "weather.persistence.unit";
+
+  /**
+   * system property turning Hibernate statistics on or off, overriding the
+   * persistence unit; they are only needed by {@link #getDiagnostics()} and
+   * {@link #getCacheStatistics()}
+   */
+  public static final String STATISTICS_PROPERTY = "weather.persistence.statistics";
+
+  /** system property setting the time, in milliseconds, above which a SQL statement is logged as slow */
+  public static final String SLOW_QUERY_PROPERTY = "weather.persistence.slowQueryMillis";
+
+  private static final long DEFAULT_SLOW_QUERY_MILLIS = 500;
+
+  private static final int CONNECTION_CHECK_TIMEOUT_SECONDS = 5;
+
+  private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+  private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+  // ad-hoc queries run on nearly every request, parsed once by warmUp() so that
+  // their plans are already in Hibernate's query plan cache (named queries are
+  // compiled when the factory boots)
+  private static final List<String> HOT_QUERIES = List.of(
+      "SELECT s FROM Sensor s",
+      "SELECT s.code, g.code FROM Sensor s LEFT JOIN s.gateway g",
+      "SELECT g.code, n.code FROM Gateway g LEFT JOIN g.network n",
+      "SELECT n.code, o.email, o.phoneNumber FROM Network n JOIN n.operators o");
+
+  private static final Object LOCK = new Object();
+
+  private static volatile EntityManagerFactory factory;
+  private static volatile String currentPUName = System.getProperty(PU_PROPERTY, PersistenceManager.PU_NAME);
+  private static volatile long bootMillis = -1;
+  private static volatile long warmUpMillis = -1;
+  // null keeps the setting of the persistence unit
+  private static volatile Boolean statistics = System.getProperty(STATISTICS_PROPERTY) != null
+      ? Boolean.getBoolean(STATISTICS_PROPERTY)
+      : null;
+
+  // in-memory views of the database that must be dropped with the factory
+  private static final List<Runnable> resetListeners = new CopyOnWriteArrayList<>();
 
   public static void setTestMode() {
-    if (factory != null && factory.isOpen()) {
-      factory.close();
-      factory = null;
+    synchronized (LOCK) {
+      closeFactory();
+      currentPUName = PersistenceManager.TEST_PU_NAME;
     }
-    currentPUName = PersistenceManager.TEST_PU_NAME;
+    notifyReset();
   }
 
+  // double-checked so that concurrent first calls build a single factory
   private static EntityManagerFactory getCurrentFactory() {
-    if (factory == null || !factory.isOpen()) {
-      factory = Persistence.createEntityManagerFactory(currentPUName);
+    EntityManagerFactory current = factory;
+    if (current == null || !current.isOpen()) {
+      synchronized (LOCK) {
+        current = factory;
+        if (current == null || !current.isOpen()) {
+          long start = System.nanoTime();
+          current = Persistence.createEntityManagerFactory(currentPUName, bootProperties());
+          bootMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+          warmUpMillis = -1;
+          factory = current;
+          logger.info("Persistence unit {} booted in {} ms", currentPUName, bootMillis);
+        }
+      }
+    }
+    return current;
+  }
+
+  private static Map<String, Object> bootProperties() {
+    Map<String, Object> properties = new HashMap<>();
+    // slow statements are logged by org.hibernate.SQL_SLOW and, with statistics, kept for getDiagnostics()
+    properties.put(JdbcSettings.LOG_SLOW_QUERY,
+        Long.getLong(SLOW_QUERY_PROPERTY, DEFAULT_SLOW_QUERY_MILLIS));
+    if (statistics != null) {
+      properties.put(StatisticsSettings.GENERATE_STATISTICS, statistics);
     }
-    return factory;
+    return properties;
   }
 
   public static EntityManager getEntityManager() {
     return getCurrentFactory().createEntityManager();
   }
 
+  /**
+   * Boots the persistence unit if needed, parses the hot queries and checks
+   * out a pooled connection, so that the first request does not pay for any
+   * of it. Safe to call more than once.
+   */
+  public static void warmUp() {
+    long start = System.nanoTime();
+    EntityManager em = getEntityManager();
+    try {
+      for (String jpql : HOT_QUERIES) {
+        em.createQuery(jpql);
+      }
+      em.unwrap(Session.class).doWork(PersistenceManager::checkConnection);
+    } finally {
+      em.close();
+    }
+    warmUpMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    logger.info("Persistence unit {} warmed up in {} ms", currentPUName, warmUpMillis);
+  }
+
+  private static void checkConnection(Connection connection) throws SQLException {
+    if (!connection.isValid(CONNECTION_CHECK_TIMEOUT_SECONDS)) {
+      throw new IllegalStateException("Database connection is not valid");
+    }
+  }
+
+  /**
+   * @return time taken to build the current factory, {@code -1} if not booted
+   */
+  public static long getBootMillis() {
+    return bootMillis;
+  }
+
+  /**
+   * @return time taken by the last {@link #warmUp()} on the current factory,
+   *         {@code -1} if it has not been warmed up
+   */
+  public static long getWarmUpMillis() {
+    return warmUpMillis;
+  }
+
+  /**
+   * Returns the counters of every second-level cache region, including the
+   * query result cache, of the current factory; they stay at zero unless
+   * statistics are enabled.
+   *
+   * @return one entry per region, empty if the factory is not booted
+   */
+  public static List<CacheStatistics> getCacheStatistics() {
+    EntityManagerFactory current = factory;
+    if (current == null || !current.isOpen()) {
+      return List.of();
+    }
+    Statistics statistics = current.unwrap(SessionFactory.class).getStatistics();
+    List<CacheStatistics> regions = new ArrayList<>();
+    for (String region : statistics.getSecondLevelCacheRegionNames()) {
+      if (UPDATE_TIMESTAMPS_REGION.equals(region)) {
+        continue;
+      }
+      CacheRegionStatistics stats = QUERY_RESULTS_REGION.equals(region)
+          ? statistics.getQueryRegionStatistics(region)
+          : statistics.getDomainDataRegionStatistics(region);
+      regions.add(new CacheStatistics(region, stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+          stats.getElementCountInMemory()));
+    }
+    return regions;
+  }
+
+  /**
+   * Turns Hibernate statistics on or off for the current factory and the ones
+   * booted later, whatever the persistence unit says.
+   *
+   * @param enabled whether statistics are collected
+   */
+  public static void setStatisticsEnabled(boolean enabled) {
+    statistics = enabled;
+    EntityManagerFactory current = factory;
+    if (current != null && current.isOpen()) {
+      current.unwrap(SessionFactory.class).getStatistics().setStatisticsEnabled(enabled);
+    }
+  }
+
+  /**
+   * Clears the statistics of the current factory, starting a new collection
+   * period.
+   */
+  public static void resetStatistics() {
+    EntityManagerFactory current = factory;
+    if (current != null && current.isOpen()) {
+      current.unwrap(SessionFactory.class).getStatistics().clear();
+    }
+  }
+
+  /**
+   * Reports what the current factory did since it booted or since the last
+   * {@link #resetStatistics()}: per-query executions, rows and times, entity
+   * and collection loads, second-level cache hits and the slow-query log.
+   * Statistics must be enabled, by the persistence unit,
+   * {@value #STATISTICS_PROPERTY} or {@link #setStatisticsEnabled(boolean)}.
+   *
+   * @return statistics snapshot, empty if the factory is not booted
+   */
+  public static PersistenceDiagnostics getDiagnostics() {
+    EntityManagerFactory current = factory;
+    if (current == null || !current.isOpen()) {
+      return PersistenceDiagnostics.empty();
+    }
+    Statistics statistics = current.unwrap(SessionFactory.class).getStatistics();
+    List<QueryDiagnostics> queries = new ArrayList<>();
+    for (String query : statistics.getQueries()) {
+      QueryStatistics stats = statistics.getQueryStatistics(query);
+      queries.add(new QueryDiagnostics(query, stats.getExecutionCount(), stats.getCacheHitCount(),
+          stats.getExecutionRowCount(), stats.getExecutionTotalTime(), stats.getExecutionMaxTime()));
+    }
+    queries.sort(Comparator.comparingLong(QueryDiagnostics::getTotalMillis)
+        .thenComparingLong(QueryDiagnostics::getCalls).reversed());
+    return new PersistenceDiagnostics(statistics.isStatisticsEnabled(), statistics.getStart(), queries,
+        statistics.getSlowQueries(), statistics.getEntityLoadCount(), statistics.getEntityFetchCount(),
+        statistics.getCollectionLoadCount(), statistics.getCollectionFetchCount(),
+        statistics.getPrepareStatementCount(), statistics.getSessionOpenCount(),
+        statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount());
+  }
+
+  /**
+   * Registers a callback invoked whenever the current factory is closed or
+   * replaced, so that caches built on top of the database can be invalidated.
+   *
+   * @param listener callback to run on reset
+   */
+  public static void addResetListener(Runnable listener) {
+    resetListeners.add(listener);
+  }
+
   public static void close() {
+    synchronized (LOCK) {
+      closeFactory();
+    }
+    notifyReset();
+  }
+
+  private static void closeFactory() {
     if (factory != null && factory.isOpen()) {
       factory.close();
     }
+    factory = null;
+    bootMillis = -1;
+    warmUpMillis = -1;
+  }
+
+  private static void notifyReset() {
+    for (Runnable listener : resetListeners) {
+      listener.run();
+    }
   }
 }
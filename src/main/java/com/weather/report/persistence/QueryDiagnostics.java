@@ -0,0 +1,86 @@
+package com.weather.report.persistence;
+
+import java.util.Locale;
+
+/**
+ * Execution counters of one query, as reported by
+ * {@link PersistenceManager#getDiagnostics()}.
+ * <p>
+ * Queries served from the query cache are not executed: the number of times
+ * a query was run by the application is {@link #getCalls()}, which is how
+ * repeated lookups, such as a query issued once per imported row, show up.
+ */
+public class QueryDiagnostics {
+
+  private final String query;
+  private final long executions;
+  private final long cacheHits;
+  private final long rows;
+  private final long totalMillis;
+  private final long maxMillis;
+
+  QueryDiagnostics(String query, long executions, long cacheHits, long rows, long totalMillis, long maxMillis) {
+    this.query = query;
+    this.executions = executions;
+    this.cacheHits = cacheHits;
+    this.rows = rows;
+    this.totalMillis = totalMillis;
+    this.maxMillis = maxMillis;
+  }
+
+  /**
+   * @return JPQL or SQL text of the query
+   */
+  public String getQuery() {
+    return query;
+  }
+
+  /**
+   * @return executions against the database
+   */
+  public long getExecutions() {
+    return executions;
+  }
+
+  /**
+   * @return results served by the query cache
+   */
+  public long getCacheHits() {
+    return cacheHits;
+  }
+
+  /**
+   * @return executions plus query cache hits
+   */
+  public long getCalls() {
+    return executions + cacheHits;
+  }
+
+  /**
+   * @return rows fetched over all executions
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  public long getTotalMillis() {
+    return totalMillis;
+  }
+
+  public long getMaxMillis() {
+    return maxMillis;
+  }
+
+  /**
+   * @return mean execution time, {@code 0} if never executed
+   */
+  public double getAvgMillis() {
+    return executions == 0 ? 0.0 : (double) totalMillis / executions;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT, "calls=%d, executions=%d, rows=%d, avg=%.2fms, max=%dms: %s",
+        getCalls(), executions, rows, getAvgMillis(), maxMillis, query);
+  }
+}
@@ -0,0 +1,162 @@
+package com.weather.report.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Transaction scope bound to the current thread.
+ * <p>
+ * The outermost {@link #begin()} opens an {@link EntityManager} and a
+ * transaction; nested calls on the same thread (repositories, validation
+ * helpers, other operations) join them, so a whole facade call runs on one
+ * connection and one transaction:
+ *
+ * <pre>
+ * try (UnitOfWork uow = UnitOfWork.begin()) {
+ *   EntityManager em = uow.getEntityManager();
+ *   ...
+ *   uow.commit();
+ * }
+ * </pre>
+ *
+ * Only the outermost unit commits: closing it without {@link #commit()}
+ * (read-only work, or an exception thrown half-way) rolls the transaction
+ * back, while joined units leave the decision to it. Callbacks registered with
+ * {@link #afterCommit(Runnable)} run once the outermost unit has committed,
+ * those registered with {@link #afterCompletion(Consumer)} once it has ended
+ * either way.
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+  private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+  private final Scope scope;
+  private final boolean owner;
+  private boolean committed;
+
+  private UnitOfWork(Scope scope, boolean owner) {
+    this.scope = scope;
+    this.owner = owner;
+  }
+
+  /**
+   * Starts a unit of work, or joins the one already active on this thread.
+   *
+   * @return handle to commit and close
+   */
+  public static UnitOfWork begin() {
+    Scope scope = CURRENT.get();
+    if (scope != null) {
+      return new UnitOfWork(scope, false);
+    }
+    EntityManager em = PersistenceManager.getEntityManager();
+    try {
+      em.getTransaction().begin();
+    } catch (RuntimeException e) {
+      em.close();
+      throw e;
+    }
+    scope = new Scope(em);
+    CURRENT.set(scope);
+    return new UnitOfWork(scope, true);
+  }
+
+  /**
+   * @return whether a unit of work is active on the current thread
+   */
+  public static boolean isActive() {
+    return CURRENT.get() != null;
+  }
+
+  /**
+   * Runs the given callback after the active unit of work commits, or
+   * immediately if there is none. Callbacks of a unit that rolls back are
+   * dropped.
+   *
+   * @param callback action depending on committed state
+   */
+  public static void afterCommit(Runnable callback) {
+    Scope scope = CURRENT.get();
+    if (scope == null) {
+      callback.run();
+    } else {
+      scope.afterCommit.add(callback);
+    }
+  }
+
+  /**
+   * Runs the given callback when the active unit of work ends, after the
+   * {@link #afterCommit(Runnable) after-commit} callbacks, telling whether it
+   * committed; runs it immediately with {@code true} if there is none.
+   *
+   * @param callback action releasing state held for the transaction
+   */
+  public static void afterCompletion(Consumer<Boolean> callback) {
+    Scope scope = CURRENT.get();
+    if (scope == null) {
+      callback.accept(true);
+    } else {
+      scope.afterCompletion.add(callback);
+    }
+  }
+
+  /**
+   * @return entity manager shared by every unit joined on this thread
+   */
+  public EntityManager getEntityManager() {
+    return scope.em;
+  }
+
+  /**
+   * Commits the transaction if this is the outermost unit; does nothing for a
+   * joined unit.
+   */
+  public void commit() {
+    if (committed) {
+      throw new IllegalStateException("Unit of work already committed");
+    }
+    if (owner) {
+      scope.em.getTransaction().commit();
+    }
+    committed = true;
+  }
+
+  @Override
+  public void close() {
+    if (!owner) {
+      return;
+    }
+    CURRENT.remove();
+    try {
+      if (scope.em.getTransaction().isActive()) {
+        scope.em.getTransaction().rollback();
+      }
+    } finally {
+      scope.em.close();
+    }
+    try {
+      if (committed) {
+        for (Runnable callback : scope.afterCommit) {
+          callback.run();
+        }
+      }
+    } finally {
+      for (Consumer<Boolean> callback : scope.afterCompletion) {
+        callback.accept(committed);
+      }
+    }
+  }
+
+  private static final class Scope {
+    private final EntityManager em;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final List<Consumer<Boolean>> afterCompletion = new ArrayList<>();
+
+    private Scope(EntityManager em) {
+      this.em = em;
+    }
+  }
+}
@@ -1,9 +1,13 @@
 package com.weather.report.repositories;
 
-import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.UnitOfWork;
+import org.hibernate.jpa.HibernateHints;
 import jakarta.persistence.TypedQuery;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityManager;
 
@@ -14,13 +18,23 @@ import jakarta.persistence.EntityManager;
  * Concrete repositories extend/compose this class to centralise common database
  * access
  * logic for all entities, as described in the README.
+ * <p>
+ * Every operation joins the {@link UnitOfWork} active on the calling thread, or
+ * runs in its own one otherwise. Repositories hold no state besides the
+ * metadata of their entity, resolved once per class, so a single instance may
+ * be shared by any number of threads: {@link Repositories} holds the shared
+ * ones.
  *
  * @param <T>  entity type
  * @param <ID> identifier (primary key) type
  */
 public class CRUDRepository<T, ID> {
 
-  protected Class<T> entityClass;
+  // entity class -> metadata read from its annotations, resolved once per class
+  private static final Map<Class<?>, EntityMetadata> METADATA = new ConcurrentHashMap<>();
+
+  protected final Class<T> entityClass;
+  private final EntityMetadata metadata;
 
   /**
    * Builds a repository for the given entity class.
@@ -29,6 +43,7 @@ public class CRUDRepository<T, ID> {
    */
   public CRUDRepository(Class<T> entityClass) {
     this.entityClass = entityClass;
+    this.metadata = METADATA.computeIfAbsent(entityClass, EntityMetadata::new);
   }
 
   /**
@@ -38,12 +53,7 @@ public class CRUDRepository<T, ID> {
    * @return the name of the entity (to be used in queries)
    */
   protected String getEntityName() {
-    Entity ea = entityClass.getAnnotation(jakarta.persistence.Entity.class);
-    if (ea == null)
-      throw new IllegalArgumentException("Class " + this.entityClass.getName() + " must be annotated as @Entity");
-    if (ea.name().isEmpty())
-      return this.entityClass.getSimpleName();
-    return ea.name();
+    return metadata.getEntityName();
   }
 
   /**
@@ -53,14 +63,10 @@ public class CRUDRepository<T, ID> {
    * @return persisted entity
    */
   public T create(T entity) {
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      em.getTransaction().begin();
-      em.persist(entity);
-      em.getTransaction().commit();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      uow.getEntityManager().persist(entity);
+      uow.commit();
       return entity;
-    } finally {
-      em.close();
     }
   }
 
@@ -71,12 +77,8 @@ public class CRUDRepository<T, ID> {
    * @return found entity or {@code null} if absent
    */
   public T read(ID id) {
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      return em.find(entityClass, id);
-
-    } finally {
-      em.close();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      return uow.getEntityManager().find(entityClass, id);
     }
   }
 
@@ -86,13 +88,12 @@ public class CRUDRepository<T, ID> {
    * @return list of all entities
    */
   public List<T> read() {
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      String jpql = "SELECT e FROM " + getEntityName() + " e";
-      TypedQuery<T> query = em.createQuery(jpql, entityClass);
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      TypedQuery<T> query = uow.getEntityManager().createQuery(metadata.getReadAllQuery(), entityClass);
+      if (metadata.cacheable) {
+        query.setHint(HibernateHints.HINT_CACHEABLE, true);
+      }
       return query.getResultList();
-    } finally {
-      em.close();
     }
   }
 
@@ -103,16 +104,11 @@ public class CRUDRepository<T, ID> {
    * @return updated entity
    */
   public T update(T entity) {
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      em.getTransaction().begin();
-      T updated = em.merge(entity);
-      em.getTransaction().commit();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      T updated = uow.getEntityManager().merge(entity);
+      uow.commit();
       return updated;
-    } finally {
-      em.close();
     }
-
   }
 
   /**
@@ -122,17 +118,44 @@ public class CRUDRepository<T, ID> {
    * @return deleted entity
    */
   public T delete(ID id) {
-    EntityManager em = PersistenceManager.getEntityManager();
-    try {
-      em.getTransaction().begin();
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
       T entity = em.find(entityClass, id);
       if (entity != null) {
         em.remove(entity);
       }
-      em.getTransaction().commit();
+      uow.commit();
       return entity;
-    } finally {
-      em.close();
+    }
+  }
+
+  // what the operations need to know about an entity class, read from its annotations once
+  private static final class EntityMetadata {
+
+    private final Class<?> entityClass;
+    private final String entityName;
+    private final String readAllQuery;
+    private final boolean cacheable;
+
+    EntityMetadata(Class<?> entityClass) {
+      Entity ea = entityClass.getAnnotation(Entity.class);
+      this.entityClass = entityClass;
+      // a missing @Entity is reported on use, so that building the repository never fails
+      this.entityName = ea == null ? null : ea.name().isEmpty() ? entityClass.getSimpleName() : ea.name();
+      this.readAllQuery = entityName == null ? null : "SELECT e FROM " + entityName + " e";
+      this.cacheable = entityClass.isAnnotationPresent(Cacheable.class);
+    }
+
+    String getEntityName() {
+      if (entityName == null) {
+        throw new IllegalArgumentException("Class " + entityClass.getName() + " must be annotated as @Entity");
+      }
+      return entityName;
+    }
+
+    String getReadAllQuery() {
+      getEntityName();
+      return readAllQuery;
     }
   }
 }
@@ -0,0 +1,396 @@
+package com.weather.report.repositories;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.weather.report.metrics.Metrics;
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.persistence.CodeDictionary;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.UnitOfWork;
+import com.weather.report.repositories.chunks.PointConsumer;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * In-process copy of the measurements of the last
+ * {@value #DEFAULT_HOURS} hours (see {@link #HOURS_PROPERTY}), so that
+ * reports over recent windows are answered without querying the database.
+ * <p>
+ * Points are kept per sensor in ring buffers of (epoch second, value) pairs
+ * allocated off-heap, growing up to {@link #CAPACITY_PROPERTY} points. The
+ * window is loaded from the database on first use, then fed by
+ * {@link MeasurementRepository} once the inserts of an import batch are
+ * committed; deletes reaching into the window drop it until the next use.
+ * A range is only answered from memory when the window holds every stored
+ * measurement in it: a sensor whose buffer overflowed, or a thread with
+ * uncommitted measurement writes, falls back to the database.
+ * <p>
+ * Only writes made through this process are seen: the window must be
+ * disabled (hours set to {@code 0}) when other processes write the same
+ * database.
+ */
+public final class HotMeasurementWindow {
+
+  /** system property setting the number of hours kept, {@code 0} to disable */
+  public static final String HOURS_PROPERTY = "weather.hotWindow.hours";
+
+  /** system property setting the maximum number of points kept per sensor */
+  public static final String CAPACITY_PROPERTY = "weather.hotWindow.capacity";
+
+  public static final int DEFAULT_HOURS = 48;
+
+  private static final int HOURS = Integer.getInteger(HOURS_PROPERTY, DEFAULT_HOURS);
+  private static final int MAX_CAPACITY = Math.max(1, Integer.getInteger(CAPACITY_PROPERTY, 4096));
+  private static final int INITIAL_CAPACITY = Math.min(64, MAX_CAPACITY);
+
+  private static final Object LOCK = new Object();
+
+  // sensor code -> one buffer per (gateway, network) the sensor reported for; null until loaded
+  private static volatile Map<String, List<Ring>> rings;
+  // bumped at the end of every measurement write, so that a load racing with one is discarded
+  private static long generation;
+  private static int writesInFlight;
+  private static final ThreadLocal<int[]> threadWrites = ThreadLocal.withInitial(() -> new int[1]);
+
+  static {
+    PersistenceManager.addResetListener(HotMeasurementWindow::invalidate);
+    Metrics.gauge("measurements.hotWindow.points", HotMeasurementWindow::getPointCount);
+  }
+
+  private HotMeasurementWindow() {
+    // utility class
+  }
+
+  /**
+   * @return whether the window is enabled
+   */
+  public static boolean isEnabled() {
+    return HOURS > 0;
+  }
+
+  /**
+   * @return number of hours kept
+   */
+  public static int getHours() {
+    return HOURS;
+  }
+
+  /**
+   * Passes the points of a sensor in a recent range to the consumer, in
+   * insertion order, if the window covers it.
+   *
+   * @param sensorCode sensor code
+   * @param start      inclusive lower bound, within the window
+   * @param end        inclusive upper bound, {@code null} for none
+   * @param consumer   receiver of the points
+   * @return {@code false}, without calling the consumer, if the range must be
+   *         read from the database
+   */
+  public static boolean scan(String sensorCode, LocalDateTime start, LocalDateTime end, PointConsumer consumer) {
+    Map<String, List<Ring>> current = covering(start);
+    if (current == null) {
+      return false;
+    }
+    long from = toEpochSecond(start);
+    long to = end != null ? toEpochSecond(end) : Long.MAX_VALUE;
+    List<Ring> sensorRings = current.getOrDefault(sensorCode, List.of());
+    for (Ring ring : sensorRings) {
+      if (!ring.covers(from)) {
+        return false;
+      }
+    }
+    for (Ring ring : sensorRings) {
+      ring.scan(from, to, consumer);
+    }
+    return true;
+  }
+
+  /**
+   * @return number of points held
+   */
+  public static long getPointCount() {
+    Map<String, List<Ring>> current = rings;
+    long count = 0;
+    if (current != null) {
+      for (List<Ring> sensorRings : current.values()) {
+        for (Ring ring : sensorRings) {
+          count += ring.size();
+        }
+      }
+    }
+    return count;
+  }
+
+  static List<Measurement> readBySensor(String sensorCode, LocalDateTime start, LocalDateTime end) {
+    return read(start, end, ring -> ring.sensorCode.equals(sensorCode));
+  }
+
+  static List<Measurement> readByGateway(String gatewayCode, LocalDateTime start, LocalDateTime end) {
+    return read(start, end, ring -> Objects.equals(ring.gatewayCode, gatewayCode));
+  }
+
+  static List<Measurement> readByNetwork(String networkCode, LocalDateTime start, LocalDateTime end) {
+    return read(start, end, ring -> Objects.equals(ring.networkCode, networkCode));
+  }
+
+  // measurements in the range, oldest first, or null if the database must be queried
+  private static List<Measurement> read(LocalDateTime start, LocalDateTime end, RingFilter filter) {
+    Map<String, List<Ring>> current = covering(start);
+    if (current == null) {
+      return null;
+    }
+    long from = toEpochSecond(start);
+    long to = end != null ? toEpochSecond(end) : Long.MAX_VALUE;
+    List<Measurement> measurements = new ArrayList<>();
+    for (List<Ring> sensorRings : current.values()) {
+      for (Ring ring : sensorRings) {
+        if (!filter.accept(ring)) {
+          continue;
+        }
+        if (!ring.covers(from)) {
+          return null;
+        }
+        ring.scan(from, to, (second, value) -> measurements.add(new Measurement(ring.networkCode,
+            ring.gatewayCode, ring.sensorCode, value, LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC))));
+      }
+    }
+    measurements.sort(Comparator.comparing(Measurement::getTimestamp));
+    return measurements;
+  }
+
+  // the loaded window if it can answer ranges starting at start, null otherwise
+  private static Map<String, List<Ring>> covering(LocalDateTime start) {
+    if (HOURS <= 0 || start == null || toEpochSecond(start) < windowStart() || threadWrites.get()[0] > 0) {
+      return null;
+    }
+    Map<String, List<Ring>> current = rings;
+    if (current != null) {
+      return current;
+    }
+    long seen;
+    synchronized (LOCK) {
+      if (writesInFlight > 0) {
+        return null;
+      }
+      seen = generation;
+    }
+    Map<String, List<Ring>> loaded = load();
+    synchronized (LOCK) {
+      if (rings == null && generation == seen && writesInFlight == 0) {
+        rings = loaded;
+      }
+      return rings;
+    }
+  }
+
+  /**
+   * Called inside the unit of work storing new measurements: they are added to
+   * the window once it commits.
+   */
+  static void inserting(Collection<Measurement> measurements) {
+    if (HOURS > 0) {
+      // the caller may reuse its list before an enclosing unit of work ends
+      List<Measurement> batch = List.copyOf(measurements);
+      track(committed -> {
+        Map<String, List<Ring>> current = rings;
+        if (committed && current != null) {
+          long windowStart = windowStart();
+          for (Measurement m : batch) {
+            add(current, m.getNetworkCode(), m.getGatewayCode(), m.getSensorCode(),
+                toEpochSecond(m.getTimestamp()), m.getValue(), windowStart);
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Called inside the unit of work deleting or changing measurements: the
+   * window is dropped once it commits, unless only points older than it are
+   * affected.
+   *
+   * @param before exclusive upper bound of the affected timestamps,
+   *               {@code null} if unknown
+   */
+  static void removing(LocalDateTime before) {
+    if (HOURS > 0) {
+      track(committed -> {
+        if (committed && (before == null || toEpochSecond(before) > windowStart())) {
+          invalidate();
+        }
+      });
+    }
+  }
+
+  // counts the write as in flight until its unit of work ends
+  private static void track(Consumer<Boolean> onCompletion) {
+    synchronized (LOCK) {
+      writesInFlight++;
+    }
+    threadWrites.get()[0]++;
+    UnitOfWork.afterCompletion(committed -> {
+      threadWrites.get()[0]--;
+      try {
+        onCompletion.accept(committed);
+      } finally {
+        synchronized (LOCK) {
+          writesInFlight--;
+          generation++;
+        }
+      }
+    });
+  }
+
+  static void invalidate() {
+    synchronized (LOCK) {
+      generation++;
+      rings = null;
+    }
+  }
+
+  // committed rows only: a dedicated entity manager, outside any unit of work on this thread
+  private static Map<String, List<Ring>> load() {
+    long windowStart = windowStart();
+    LocalDateTime start = LocalDateTime.ofEpochSecond(windowStart, 0, ZoneOffset.UTC);
+    Map<String, List<Ring>> loaded = new ConcurrentHashMap<>();
+    EntityManager em = PersistenceManager.getEntityManager();
+    try {
+      em.createNamedQuery(Measurement.RECENT, Object[].class)
+          .setParameter("firstPartition", Measurement.partitionOf(start))
+          .setParameter("start", start)
+          .getResultStream()
+          .forEach(row -> add(loaded, CodeDictionary.codeOf((Integer) row[0]),
+              CodeDictionary.codeOf((Integer) row[1]), CodeDictionary.codeOf((Integer) row[2]),
+              toEpochSecond((LocalDateTime) row[3]), (Double) row[4], windowStart));
+    } finally {
+      em.close();
+    }
+    return loaded;
+  }
+
+  private static void add(Map<String, List<Ring>> target, String networkCode, String gatewayCode,
+      String sensorCode, long second, double value, long windowStart) {
+    if (second < windowStart) {
+      return;
+    }
+    List<Ring> sensorRings = target.computeIfAbsent(sensorCode, k -> new CopyOnWriteArrayList<>());
+    Ring ring = null;
+    synchronized (sensorRings) {
+      for (Ring candidate : sensorRings) {
+        if (Objects.equals(candidate.gatewayCode, gatewayCode) && Objects.equals(candidate.networkCode, networkCode)) {
+          ring = candidate;
+          break;
+        }
+      }
+      if (ring == null) {
+        ring = new Ring(networkCode, gatewayCode, sensorCode);
+        sensorRings.add(ring);
+      }
+    }
+    ring.add(second, value, windowStart);
+  }
+
+  private static long windowStart() {
+    return toEpochSecond(LocalDateTime.now()) - HOURS * 3600L;
+  }
+
+  private static long toEpochSecond(LocalDateTime timestamp) {
+    return timestamp.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  @FunctionalInterface
+  private interface RingFilter {
+    boolean accept(Ring ring);
+  }
+
+  /**
+   * Off-heap ring buffer of (epoch second, value) pairs in insertion order.
+   */
+  private static final class Ring {
+    private static final int SLOT_BYTES = Long.BYTES + Double.BYTES;
+
+    private final String networkCode;
+    private final String gatewayCode;
+    private final String sensorCode;
+
+    private ByteBuffer slots = ByteBuffer.allocateDirect(INITIAL_CAPACITY * SLOT_BYTES);
+    private int capacity = INITIAL_CAPACITY;
+    private int head;
+    private int size;
+    // newest timestamp dropped for lack of room: ranges reaching it are incomplete
+    private long evictedUpTo = Long.MIN_VALUE;
+
+    private Ring(String networkCode, String gatewayCode, String sensorCode) {
+      this.networkCode = networkCode;
+      this.gatewayCode = gatewayCode;
+      this.sensorCode = sensorCode;
+    }
+
+    synchronized void add(long second, double value, long windowStart) {
+      // points that left the window are dropped for free
+      while (size > 0 && secondAt(head) < windowStart) {
+        head = (head + 1) % capacity;
+        size--;
+      }
+      if (size == capacity) {
+        if (capacity < MAX_CAPACITY) {
+          grow();
+        } else {
+          evictedUpTo = Math.max(evictedUpTo, secondAt(head));
+          head = (head + 1) % capacity;
+          size--;
+        }
+      }
+      int offset = ((head + size) % capacity) * SLOT_BYTES;
+      slots.putLong(offset, second);
+      slots.putDouble(offset + Long.BYTES, value);
+      size++;
+    }
+
+    synchronized boolean covers(long from) {
+      return evictedUpTo < from;
+    }
+
+    synchronized void scan(long from, long to, PointConsumer consumer) {
+      for (int i = 0; i < size; i++) {
+        int offset = ((head + i) % capacity) * SLOT_BYTES;
+        long second = slots.getLong(offset);
+        if (second >= from && second <= to) {
+          consumer.accept(second, slots.getDouble(offset + Long.BYTES));
+        }
+      }
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    private long secondAt(int index) {
+      return slots.getLong(index * SLOT_BYTES);
+    }
+
+    private void grow() {
+      int grown = Math.min(capacity * 2, MAX_CAPACITY);
+      ByteBuffer copy = ByteBuffer.allocateDirect(grown * SLOT_BYTES);
+      for (int i = 0; i < size; i++) {
+        int offset = ((head + i) % capacity) * SLOT_BYTES;
+        copy.putLong(i * SLOT_BYTES, slots.getLong(offset));
+        copy.putDouble(i * SLOT_BYTES + Long.BYTES, slots.getDouble(offset + Long.BYTES));
+      }
+      slots = copy;
+      capacity = grown;
+      head = 0;
+    }
+  }
+}
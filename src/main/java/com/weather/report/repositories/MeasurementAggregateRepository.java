@@ -0,0 +1,72 @@
+package com.weather.report.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.weather.report.model.AggregateResolution;
+import com.weather.report.model.entities.MeasurementAggregate;
+import com.weather.report.persistence.UnitOfWork;
+
+public class MeasurementAggregateRepository extends CRUDRepository<MeasurementAggregate, Long> {
+
+  // stand-ins for missing report bounds, so a single named query covers every case
+  private static final LocalDateTime MIN_BUCKET = LocalDateTime.of(1, 1, 1, 0, 0);
+  private static final LocalDateTime MAX_BUCKET = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+  public MeasurementAggregateRepository() {
+    super(MeasurementAggregate.class);
+  }
+
+  /**
+   * Reads the aggregates of a sensor whose bucket overlaps the range, oldest
+   * first; the buckets cut by the range are included in full.
+   *
+   * @param sensorCode sensor code
+   * @param start      inclusive lower bound, {@code null} for none
+   * @param end        inclusive upper bound, {@code null} for none
+   * @return aggregates in the range
+   */
+  public List<MeasurementAggregate> readBySensor(String sensorCode, LocalDateTime start, LocalDateTime end) {
+    return rangeQuery(MeasurementAggregate.BY_SENSOR, sensorCode, start, end);
+  }
+
+  /**
+   * Reads the aggregates of a gateway whose bucket overlaps the range, oldest
+   * first; the buckets cut by the range are included in full.
+   *
+   * @param gatewayCode gateway code
+   * @param start       inclusive lower bound, {@code null} for none
+   * @param end         inclusive upper bound, {@code null} for none
+   * @return aggregates in the range
+   */
+  public List<MeasurementAggregate> readByGateway(String gatewayCode, LocalDateTime start, LocalDateTime end) {
+    return rangeQuery(MeasurementAggregate.BY_GATEWAY, gatewayCode, start, end);
+  }
+
+  /**
+   * Reads the aggregates of a network whose bucket overlaps the range, oldest
+   * first; the buckets cut by the range are included in full.
+   *
+   * @param networkCode network code
+   * @param start       inclusive lower bound, {@code null} for none
+   * @param end         inclusive upper bound, {@code null} for none
+   * @return aggregates in the range
+   */
+  public List<MeasurementAggregate> readByNetwork(String networkCode, LocalDateTime start, LocalDateTime end) {
+    return rangeQuery(MeasurementAggregate.BY_NETWORK, networkCode, start, end);
+  }
+
+  private static List<MeasurementAggregate> rangeQuery(String queryName, String code, LocalDateTime start,
+      LocalDateTime end) {
+    LocalDateTime from = start != null ? start : MIN_BUCKET;
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      return uow.getEntityManager().createNamedQuery(queryName, MeasurementAggregate.class)
+          .setParameter("code", code)
+          .setParameter("hourStart", AggregateResolution.HOURLY.bucketOf(from))
+          .setParameter("daily", AggregateResolution.DAILY)
+          .setParameter("dayStart", AggregateResolution.DAILY.bucketOf(from))
+          .setParameter("end", end != null ? end : MAX_BUCKET)
+          .getResultList();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.weather.report.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.UnitOfWork;
+
+/**
+ * Month partitions that may hold measurements, used by
+ * {@link MeasurementRepository} to skip or bound range queries.
+ * <p>
+ * The set is read once from the database and then maintained after every
+ * committed insert or month deletion; it may contain months whose rows were
+ * deleted one by one, never miss a month that holds rows. It is dropped
+ * whenever {@link PersistenceManager} closes its factory.
+ */
+final class MeasurementPartitions {
+
+  private static final Object LOCK = new Object();
+
+  // immutable snapshot, null until loaded
+  private static volatile NavigableSet<Integer> months;
+  // bumped on every change, so that a load racing with a change is discarded
+  private static long generation;
+
+  static {
+    PersistenceManager.addResetListener(MeasurementPartitions::invalidate);
+  }
+
+  private MeasurementPartitions() {
+    // utility class
+  }
+
+  /**
+   * @return partitions that may hold measurements, in ascending order
+   */
+  static NavigableSet<Integer> all() {
+    NavigableSet<Integer> current = months;
+    while (current == null) {
+      long seen;
+      synchronized (LOCK) {
+        seen = generation;
+      }
+      NavigableSet<Integer> loaded = load();
+      synchronized (LOCK) {
+        if (months == null && generation == seen) {
+          months = loaded;
+        }
+        current = months;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * @param start inclusive lower bound, {@code null} for none
+   * @param end   inclusive upper bound, {@code null} for none
+   * @return partitions overlapping the window, in ascending order
+   */
+  static NavigableSet<Integer> overlapping(LocalDateTime start, LocalDateTime end) {
+    NavigableSet<Integer> all = all();
+    if (all.isEmpty()) {
+      return all;
+    }
+    int first = start != null ? Measurement.partitionOf(start) : all.first();
+    int last = end != null ? Measurement.partitionOf(end) : all.last();
+    return first > last ? Collections.emptyNavigableSet() : all.subSet(first, true, last, true);
+  }
+
+  static void added(Collection<Integer> partitions) {
+    synchronized (LOCK) {
+      generation++;
+      if (months != null && !months.containsAll(partitions)) {
+        NavigableSet<Integer> copy = new TreeSet<>(months);
+        copy.addAll(partitions);
+        months = Collections.unmodifiableNavigableSet(copy);
+      }
+    }
+  }
+
+  static void removed(int firstPartition, int lastPartition) {
+    synchronized (LOCK) {
+      generation++;
+      if (months != null) {
+        NavigableSet<Integer> copy = new TreeSet<>(months);
+        copy.subSet(firstPartition, true, lastPartition, true).clear();
+        months = Collections.unmodifiableNavigableSet(copy);
+      }
+    }
+  }
+
+  static void invalidate() {
+    synchronized (LOCK) {
+      generation++;
+      months = null;
+    }
+  }
+
+  private static NavigableSet<Integer> load() {
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      return Collections.unmodifiableNavigableSet(new TreeSet<>(
+          uow.getEntityManager().createNamedQuery(Measurement.PARTITIONS, Integer.class).getResultList()));
+    }
+  }
+}
@@ -1,11 +1,384 @@
 package com.weather.report.repositories;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+
+import com.weather.report.model.AggregateResolution;
+import com.weather.report.model.CodeType;
+import com.weather.report.model.entities.ImportCheckpoint;
 import com.weather.report.model.entities.Measurement;
+import com.weather.report.model.entities.MeasurementAggregate;
+import com.weather.report.persistence.CodeDictionary;
+import com.weather.report.persistence.UnitOfWork;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 
-public class MeasurementRepository extends CRUDRepository<Measurement, Long> {
+public class MeasurementRepository extends CRUDRepository<Measurement, Long> implements MeasurementStore {
 
   public MeasurementRepository() {
     super(Measurement.class);
   }
 
+  /**
+   * Persists a batch of measurements in a single transaction, optionally
+   * together with the import checkpoint they complete, so that the batch and
+   * the recorded progress are committed atomically.
+   *
+   * @param measurements measurements to persist
+   * @param checkpoint   import progress to store with the batch, may be
+   *                     {@code null}
+   */
+  public void createAll(List<Measurement> measurements, ImportCheckpoint checkpoint) {
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
+      Set<Integer> partitions = new HashSet<>();
+      Map<String, Integer> newCodes = new HashMap<>();
+      for (Measurement measurement : measurements) {
+        encodeCodes(em, measurement, newCodes);
+        em.persist(measurement);
+        partitions.add(measurement.getPartitionMonth());
+      }
+      if (checkpoint != null) {
+        em.merge(checkpoint);
+      }
+      HotMeasurementWindow.inserting(measurements);
+      UnitOfWork.afterCommit(() -> MeasurementPartitions.added(partitions));
+      uow.commit();
+    }
+  }
+
+  @Override
+  public void append(List<Measurement> measurements) {
+    createAll(measurements, null);
+  }
+
+  @Override
+  public Measurement create(Measurement measurement) {
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      encodeCodes(uow.getEntityManager(), measurement, new HashMap<>());
+      super.create(measurement);
+      HotMeasurementWindow.inserting(List.of(measurement));
+      UnitOfWork.afterCommit(() -> MeasurementPartitions.added(Set.of(measurement.getPartitionMonth())));
+      uow.commit();
+      return measurement;
+    }
+  }
+
+  @Override
+  public Measurement update(Measurement measurement) {
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      HotMeasurementWindow.removing(null);
+      Measurement updated = super.update(measurement);
+      uow.commit();
+      return updated;
+    }
+  }
+
+  @Override
+  public Measurement delete(Long id) {
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      HotMeasurementWindow.removing(null);
+      Measurement deleted = super.delete(id);
+      uow.commit();
+      return deleted;
+    }
+  }
+
+  /**
+   * Returns the duplicate-suppression keys (see {@link #duplicateKey}) of the
+   * measurements already stored for the given sensors in a time window, with a
+   * single indexed query.
+   *
+   * @param sensorCodes sensors to look up
+   * @param from        inclusive lower bound
+   * @param to          inclusive upper bound
+   * @return keys of the stored measurements
+   */
+  public Set<String> findExistingKeys(Collection<String> sensorCodes, LocalDateTime from, LocalDateTime to) {
+    Set<Integer> sensorIds = new HashSet<>();
+    for (String sensorCode : sensorCodes) {
+      Integer id = CodeDictionary.find(CodeType.SENSOR, sensorCode);
+      if (id != null) {
+        sensorIds.add(id);
+      }
+    }
+    Set<String> keys = new HashSet<>();
+    if (sensorIds.isEmpty()) {
+      return keys;
+    }
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      List<Object[]> rows = uow.getEntityManager().createNamedQuery(Measurement.EXISTING_KEYS, Object[].class)
+          .setParameter("ids", sensorIds)
+          .setParameter("from", from)
+          .setParameter("to", to)
+          .getResultList();
+      for (Object[] row : rows) {
+        keys.add(duplicateKey(CodeDictionary.codeOf((Integer) row[0]), (LocalDateTime) row[1]));
+      }
+      return keys;
+    }
+  }
+
+  /**
+   * Reads the measurements of a sensor, oldest first, scanning only the month
+   * partitions that overlap the window.
+   *
+   * @param sensorCode sensor code
+   * @param start      inclusive lower bound, {@code null} for none
+   * @param end        inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  @Override
+  public List<Measurement> readBySensor(String sensorCode, LocalDateTime start, LocalDateTime end) {
+    List<Measurement> recent = HotMeasurementWindow.readBySensor(sensorCode, start, end);
+    if (recent != null) {
+      return recent;
+    }
+    Integer id = CodeDictionary.find(CodeType.SENSOR, sensorCode);
+    NavigableSet<Integer> partitions = MeasurementPartitions.overlapping(start, end);
+    if (id == null || partitions.isEmpty()) {
+      return new ArrayList<>();
+    }
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      return rangeQuery(uow.getEntityManager(), Measurement.BY_SENSOR, id, partitions, start, end).getResultList();
+    }
+  }
+
+  /**
+   * Reads the measurements collected by a gateway, oldest first, scanning only
+   * the month partitions that overlap the window.
+   *
+   * @param gatewayCode gateway code
+   * @param start       inclusive lower bound, {@code null} for none
+   * @param end         inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  @Override
+  public List<Measurement> readByGateway(String gatewayCode, LocalDateTime start, LocalDateTime end) {
+    List<Measurement> recent = HotMeasurementWindow.readByGateway(gatewayCode, start, end);
+    if (recent != null) {
+      return recent;
+    }
+    Integer id = CodeDictionary.find(CodeType.GATEWAY, gatewayCode);
+    NavigableSet<Integer> partitions = MeasurementPartitions.overlapping(start, end);
+    if (id == null || partitions.isEmpty()) {
+      return new ArrayList<>();
+    }
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      return rangeQuery(uow.getEntityManager(), Measurement.BY_GATEWAY, id, partitions, start, end).getResultList();
+    }
+  }
+
+  /**
+   * Reads the measurements of a network, oldest first, scanning only the month
+   * partitions that overlap the window.
+   *
+   * @param networkCode network code
+   * @param start       inclusive lower bound, {@code null} for none
+   * @param end         inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  @Override
+  public List<Measurement> readByNetwork(String networkCode, LocalDateTime start, LocalDateTime end) {
+    List<Measurement> recent = HotMeasurementWindow.readByNetwork(networkCode, start, end);
+    if (recent != null) {
+      return recent;
+    }
+    Integer id = CodeDictionary.find(CodeType.NETWORK, networkCode);
+    NavigableSet<Integer> partitions = MeasurementPartitions.overlapping(start, end);
+    if (id == null || partitions.isEmpty()) {
+      return new ArrayList<>();
+    }
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      return rangeQuery(uow.getEntityManager(), Measurement.BY_NETWORK, id, partitions, start, end).getResultList();
+    }
+  }
+
+  /**
+   * @return month partitions that may hold measurements, oldest first
+   */
+  public List<YearMonth> getPartitions() {
+    List<YearMonth> partitions = new ArrayList<>();
+    for (int partition : MeasurementPartitions.all()) {
+      partitions.add(YearMonth.of(partition / 100, partition % 100));
+    }
+    return partitions;
+  }
+
+  /**
+   * Deletes every measurement of a month with a single statement; the cost
+   * grows with the number of rows deleted.
+   *
+   * @param month month to delete
+   * @return number of deleted measurements
+   */
+  public int deleteMonth(YearMonth month) {
+    int partition = month.getYear() * 100 + month.getMonthValue();
+    return deleteMonths(partition, partition);
+  }
+
+  /**
+   * Deletes every measurement older than the given month with a single
+   * statement; the cost grows with the number of rows deleted.
+   *
+   * @param month first month to keep
+   * @return number of deleted measurements
+   */
+  public int deleteMonthsBefore(YearMonth month) {
+    return deleteMonths(0, month.getYear() * 100 + month.getMonthValue() - 1);
+  }
+
+  private int deleteMonths(int firstPartition, int lastPartition) {
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      YearMonth after = YearMonth.of(lastPartition / 100, lastPartition % 100).plusMonths(1);
+      HotMeasurementWindow.removing(after.atDay(1).atStartOfDay());
+      int deleted = uow.getEntityManager().createNamedQuery(Measurement.DELETE_MONTHS)
+          .setParameter("firstPartition", firstPartition)
+          .setParameter("lastPartition", lastPartition)
+          .executeUpdate();
+      UnitOfWork.afterCommit(() -> MeasurementPartitions.removed(firstPartition, lastPartition));
+      uow.commit();
+      return deleted;
+    }
+  }
+
+  /**
+   * @return codes of the networks having at least one measurement
+   */
+  public List<String> findNetworkCodes() {
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      List<String> codes = new ArrayList<>();
+      for (Integer id : uow.getEntityManager().createNamedQuery(Measurement.NETWORKS, Integer.class).getResultList()) {
+        codes.add(CodeDictionary.codeOf(id));
+      }
+      return codes;
+    }
+  }
+
+  /**
+   * Rolls up to {@code batchSize} measurements of a network older than the
+   * cutoff into aggregates of the given resolution, merging them into the
+   * buckets already stored, then deletes them, all in one transaction.
+   *
+   * @param networkCode network code
+   * @param cutoff      exclusive upper bound of the measurements to roll up
+   * @param resolution  width of the aggregate buckets
+   * @param batchSize   maximum number of measurements handled
+   * @return number of measurements rolled up, {@code 0} once none older than
+   *         the cutoff is left
+   */
+  public int rollUp(String networkCode, LocalDateTime cutoff, AggregateResolution resolution, int batchSize) {
+    Integer networkId = CodeDictionary.find(CodeType.NETWORK, networkCode);
+    if (networkId == null) {
+      return 0;
+    }
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      EntityManager em = uow.getEntityManager();
+      List<Measurement> batch = em.createNamedQuery(Measurement.EXPIRED, Measurement.class)
+          .setParameter("id", networkId)
+          .setParameter("lastPartition", Measurement.partitionOf(cutoff))
+          .setParameter("cutoff", cutoff)
+          .setMaxResults(batchSize)
+          .getResultList();
+      if (batch.isEmpty()) {
+        return 0;
+      }
+      HotMeasurementWindow.removing(cutoff);
+
+      Map<String, MeasurementAggregate> buckets = new HashMap<>();
+      Set<String> sensorCodes = new HashSet<>();
+      List<Long> ids = new ArrayList<>(batch.size());
+      LocalDateTime first = null;
+      LocalDateTime last = null;
+      for (Measurement m : batch) {
+        LocalDateTime bucket = resolution.bucketOf(m.getTimestamp());
+        buckets.computeIfAbsent(duplicateKey(m.getSensorCode(), bucket),
+            k -> new MeasurementAggregate(m.getNetworkCode(), m.getGatewayCode(), m.getSensorCode(), resolution,
+                bucket))
+            .add(m.getValue());
+        sensorCodes.add(m.getSensorCode());
+        ids.add(m.getId());
+        first = first == null || bucket.isBefore(first) ? bucket : first;
+        last = last == null || bucket.isAfter(last) ? bucket : last;
+      }
+
+      // buckets split across batches (or runs) are merged, not duplicated
+      List<MeasurementAggregate> stored = em.createNamedQuery(MeasurementAggregate.BUCKETS, MeasurementAggregate.class)
+          .setParameter("codes", sensorCodes)
+          .setParameter("resolution", resolution)
+          .setParameter("from", first)
+          .setParameter("to", last)
+          .getResultList();
+      for (MeasurementAggregate aggregate : stored) {
+        MeasurementAggregate fresh = buckets.remove(duplicateKey(aggregate.getSensorCode(), aggregate.getBucketStart()));
+        if (fresh != null) {
+          aggregate.merge(fresh);
+        }
+      }
+      for (MeasurementAggregate fresh : buckets.values()) {
+        em.persist(fresh);
+      }
+
+      em.createNamedQuery(Measurement.DELETE_BY_IDS).setParameter("ids", ids).executeUpdate();
+      uow.commit();
+      return batch.size();
+    }
+  }
+
+  // always resolved again: a batch retried row by row may carry keys of codes added by its rolled back attempt
+  private static void encodeCodes(EntityManager em, Measurement measurement, Map<String, Integer> newCodes) {
+    measurement.setCodeKeys(
+        keyOf(em, CodeType.SENSOR, measurement.getSensorCode(), newCodes),
+        keyOf(em, CodeType.GATEWAY, measurement.getGatewayCode(), newCodes),
+        keyOf(em, CodeType.NETWORK, measurement.getNetworkCode(), newCodes));
+  }
+
+  // codes added by this unit are only published on commit, so the batch remembers them itself
+  private static Integer keyOf(EntityManager em, CodeType type, String code, Map<String, Integer> newCodes) {
+    Integer id = CodeDictionary.cached(type, code);
+    if (id != null || code == null) {
+      return id;
+    }
+    return newCodes.computeIfAbsent(type + ":" + code, k -> CodeDictionary.idOf(em, type, code));
+  }
+
+  // picks the named query matching the bounds that are actually set
+  private static TypedQuery<Measurement> rangeQuery(EntityManager em, String queryName, Integer id,
+      NavigableSet<Integer> partitions, LocalDateTime start, LocalDateTime end) {
+    TypedQuery<Measurement> query;
+    if (start != null && end != null) {
+      query = em.createNamedQuery(queryName + Measurement.BETWEEN, Measurement.class)
+          .setParameter("start", start)
+          .setParameter("end", end);
+    } else if (start != null) {
+      query = em.createNamedQuery(queryName + Measurement.FROM, Measurement.class)
+          .setParameter("start", start);
+    } else if (end != null) {
+      query = em.createNamedQuery(queryName + Measurement.UNTIL, Measurement.class)
+          .setParameter("end", end);
+    } else {
+      query = em.createNamedQuery(queryName, Measurement.class);
+    }
+    return query.setParameter("id", id)
+        .setParameter("firstPartition", partitions.first())
+        .setParameter("lastPartition", partitions.last());
+  }
+
+  /**
+   * @param sensorCode sensor that produced the measurement
+   * @param timestamp  time of the measurement
+   * @return natural key identifying a measurement for duplicate suppression
+   */
+  public static String duplicateKey(String sensorCode, LocalDateTime timestamp) {
+    return sensorCode + '|' + timestamp;
+  }
 }
@@ -0,0 +1,53 @@
+package com.weather.report.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.weather.report.model.entities.Measurement;
+
+/**
+ * Storage of measurements, implemented by the relational
+ * {@link MeasurementRepository} and by the compressed
+ * {@link com.weather.report.repositories.chunks.ChunkMeasurementStore}.
+ * Imports and reports use the one returned by
+ * {@link Repositories#measurementStore()}.
+ */
+public interface MeasurementStore {
+
+  /**
+   * Stores a batch of measurements.
+   *
+   * @param measurements measurements to store
+   */
+  void append(List<Measurement> measurements);
+
+  /**
+   * Reads the measurements of a sensor, oldest first.
+   *
+   * @param sensorCode sensor code
+   * @param start      inclusive lower bound, {@code null} for none
+   * @param end        inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  List<Measurement> readBySensor(String sensorCode, LocalDateTime start, LocalDateTime end);
+
+  /**
+   * Reads the measurements collected by a gateway, oldest first.
+   *
+   * @param gatewayCode gateway code
+   * @param start       inclusive lower bound, {@code null} for none
+   * @param end         inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  List<Measurement> readByGateway(String gatewayCode, LocalDateTime start, LocalDateTime end);
+
+  /**
+   * Reads the measurements of a network, oldest first.
+   *
+   * @param networkCode network code
+   * @param start       inclusive lower bound, {@code null} for none
+   * @param end         inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  List<Measurement> readByNetwork(String networkCode, LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,136 @@
+package com.weather.report.repositories;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.weather.report.model.entities.Gateway;
+import com.weather.report.model.entities.ImportCheckpoint;
+import com.weather.report.model.entities.Network;
+import com.weather.report.model.entities.Operator;
+import com.weather.report.model.entities.Sensor;
+import com.weather.report.model.entities.User;
+import com.weather.report.repositories.chunks.ChunkMeasurementStore;
+
+/**
+ * Repositories shared by the operations and services.
+ * <p>
+ * Repositories are stateless, so one instance per entity serves every thread;
+ * they are all built together the first time any of them is requested.
+ */
+public final class Repositories {
+
+  /**
+   * system property naming a chunk file imports and reports keep the
+   * measurements in, instead of the database
+   */
+  public static final String CHUNK_FILE_PROPERTY = "weather.measurements.chunkFile";
+
+  private static final CRUDRepository<User, String> USERS = new CRUDRepository<>(User.class);
+  private static final CRUDRepository<Network, String> NETWORKS = new CRUDRepository<>(Network.class);
+  private static final CRUDRepository<Operator, String> OPERATORS = new CRUDRepository<>(Operator.class);
+  private static final CRUDRepository<Gateway, String> GATEWAYS = new CRUDRepository<>(Gateway.class);
+  private static final CRUDRepository<ImportCheckpoint, String> CHECKPOINTS =
+      new CRUDRepository<>(ImportCheckpoint.class);
+  private static final MeasurementRepository MEASUREMENTS = new MeasurementRepository();
+  private static final MeasurementAggregateRepository AGGREGATES = new MeasurementAggregateRepository();
+  private static final Map<Path, ChunkMeasurementStore> CHUNK_STORES = new ConcurrentHashMap<>();
+
+  private Repositories() {
+    // utility class
+  }
+
+  public static CRUDRepository<User, String> users() {
+    return USERS;
+  }
+
+  public static CRUDRepository<Network, String> networks() {
+    return NETWORKS;
+  }
+
+  public static CRUDRepository<Operator, String> operators() {
+    return OPERATORS;
+  }
+
+  public static CRUDRepository<Gateway, String> gateways() {
+    return GATEWAYS;
+  }
+
+  public static CRUDRepository<ImportCheckpoint, String> checkpoints() {
+    return CHECKPOINTS;
+  }
+
+  /**
+   * Unlike the other accessors, returns a new sensor repository on every call,
+   * since callers such as the threshold loader are expected to be able to
+   * substitute its construction. Building one is cheap: the entity metadata is
+   * resolved once per class and shared by every instance.
+   */
+  public static CRUDRepository<Sensor, String> sensors() {
+    return new CRUDRepository<>(Sensor.class);
+  }
+
+  public static MeasurementRepository measurements() {
+    return MEASUREMENTS;
+  }
+
+  public static MeasurementAggregateRepository aggregates() {
+    return AGGREGATES;
+  }
+
+  /**
+   * Returns the store imports and reports keep the measurements in: the
+   * relational {@link #measurements()} repository or, when
+   * {@value #CHUNK_FILE_PROPERTY} is set, the {@link ChunkMeasurementStore} on
+   * that file, opened on first use. Retention, resumable imports and the hot
+   * measurement window only work on the relational repository.
+   *
+   * @return the configured measurement store
+   */
+  public static MeasurementStore measurementStore() {
+    String file = System.getProperty(CHUNK_FILE_PROPERTY);
+    if (file == null || file.isBlank()) {
+      return MEASUREMENTS;
+    }
+    return CHUNK_STORES.computeIfAbsent(Path.of(file.trim()).toAbsolutePath(), Repositories::openChunkStore);
+  }
+
+  private static ChunkMeasurementStore openChunkStore(Path file) {
+    try {
+      return new ChunkMeasurementStore(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open the measurement chunk file " + file, e);
+    }
+  }
+
+  /**
+   * Seals and closes the chunk stores opened by {@link #measurementStore()};
+   * the points of their open chunks are lost if the process exits without it.
+   *
+   * @throws IOException if a store cannot be written
+   */
+  public static void closeMeasurementStores() throws IOException {
+    IOException failure = null;
+    for (Path file : List.copyOf(CHUNK_STORES.keySet())) {
+      ChunkMeasurementStore store = CHUNK_STORES.remove(file);
+      if (store == null) {
+        continue;
+      }
+      try {
+        store.close();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.weather.report.repositories.chunks;
+
+/**
+ * Reads back a bit stream produced by {@link BitWriter}.
+ */
+final class BitReader {
+
+  private final long[] words;
+  private int position;
+
+  BitReader(byte[] bytes) {
+    words = new long[(bytes.length + 7) >>> 3];
+    for (int i = 0; i < bytes.length; i++) {
+      words[i >>> 3] |= (bytes[i] & 0xFFL) << (56 - ((i & 7) << 3));
+    }
+  }
+
+  boolean readBit() {
+    return readBits(1) != 0;
+  }
+
+  /**
+   * @param count number of bits, 1 to 64
+   * @return the next {@code count} bits as the low bits of a long
+   */
+  long readBits(int count) {
+    long result = 0;
+    while (count > 0) {
+      int used = position & 63;
+      int n = Math.min(64 - used, count);
+      long chunk = (words[position >>> 6] << used) >>> (64 - n);
+      result = n == 64 ? chunk : (result << n) | chunk;
+      position += n;
+      count -= n;
+    }
+    return result;
+  }
+
+  /**
+   * @param count number of bits of a two's complement value, 1 to 64
+   * @return the value, sign extended
+   */
+  long readSigned(int count) {
+    long bits = readBits(count);
+    return (bits << (64 - count)) >> (64 - count);
+  }
+}
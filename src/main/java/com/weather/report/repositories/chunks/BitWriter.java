@@ -0,0 +1,59 @@
+package com.weather.report.repositories.chunks;
+
+import java.util.Arrays;
+
+/**
+ * Growable bit stream written most significant bit first.
+ */
+final class BitWriter {
+
+  private long[] words = new long[16];
+  private int size;
+
+  void writeBit(boolean bit) {
+    writeBits(bit ? 1 : 0, 1);
+  }
+
+  /**
+   * Appends the {@code count} low bits of {@code value}.
+   *
+   * @param value bits to write, higher bits are ignored
+   * @param count number of bits, 1 to 64
+   */
+  void writeBits(long value, int count) {
+    while (count > 0) {
+      int index = size >>> 6;
+      if (index == words.length) {
+        words = Arrays.copyOf(words, words.length * 2);
+      }
+      int free = 64 - (size & 63);
+      int n = Math.min(free, count);
+      long chunk = (value >>> (count - n)) & mask(n);
+      words[index] |= chunk << (free - n);
+      size += n;
+      count -= n;
+    }
+  }
+
+  /**
+   * @return number of bits written
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return written bits, the last byte padded with zeros
+   */
+  byte[] toByteArray() {
+    byte[] bytes = new byte[(size + 7) >>> 3];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) (words[i >>> 3] >>> (56 - ((i & 7) << 3)));
+    }
+    return bytes;
+  }
+
+  static long mask(int bits) {
+    return bits == 64 ? -1L : (1L << bits) - 1;
+  }
+}
@@ -0,0 +1,182 @@
+package com.weather.report.repositories.chunks;
+
+/**
+ * Gorilla compression of a series of (epoch second, double) points.
+ * <p>
+ * The first point is stored verbatim. Each following timestamp is stored as
+ * the difference between its delta and the previous delta (delta-of-delta),
+ * which is {@code 0} for regularly sampled sensors and costs one bit. Each
+ * following value is XOR-ed with the previous one: an unchanged value costs
+ * one bit, and a changed one only stores the meaningful bits between the
+ * leading and trailing zeros of the XOR, reusing the previous window when it
+ * fits.
+ *
+ * <pre>
+ * delta-of-delta   0                    -> '0'
+ *                  [-64, 63]            -> '10'   + 7 bits
+ *                  [-256, 255]          -> '110'  + 9 bits
+ *                  [-2048, 2047]        -> '1110' + 12 bits
+ *                  otherwise            -> '1111' + 64 bits
+ * value xor        0                    -> '0'
+ *                  fits previous window -> '10' + meaningful bits
+ *                  otherwise            -> '11' + 5 bits leading zeros
+ *                                          + 6 bits length + meaningful bits
+ * </pre>
+ */
+final class ChunkEncoder {
+
+  private final BitWriter out = new BitWriter();
+
+  private int count;
+  private long minTimestamp = Long.MAX_VALUE;
+  private long maxTimestamp = Long.MIN_VALUE;
+
+  private long previousTimestamp;
+  private long previousDelta;
+  private long previousValue;
+  private int previousLeading = -1;
+  private int previousTrailing;
+
+  /**
+   * @param timestamp epoch second of the point
+   * @param value     value of the point
+   */
+  void append(long timestamp, double value) {
+    long bits = Double.doubleToRawLongBits(value);
+    if (count == 0) {
+      out.writeBits(timestamp, 64);
+      out.writeBits(bits, 64);
+    } else {
+      writeTimestamp(timestamp);
+      writeValue(bits);
+    }
+    previousTimestamp = timestamp;
+    previousValue = bits;
+    minTimestamp = Math.min(minTimestamp, timestamp);
+    maxTimestamp = Math.max(maxTimestamp, timestamp);
+    count++;
+  }
+
+  private void writeTimestamp(long timestamp) {
+    long delta = timestamp - previousTimestamp;
+    long deltaOfDelta = delta - previousDelta;
+    previousDelta = delta;
+    if (deltaOfDelta == 0) {
+      out.writeBit(false);
+    } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+      out.writeBits(0b10, 2);
+      out.writeBits(deltaOfDelta, 7);
+    } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+      out.writeBits(0b110, 3);
+      out.writeBits(deltaOfDelta, 9);
+    } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+      out.writeBits(0b1110, 4);
+      out.writeBits(deltaOfDelta, 12);
+    } else {
+      out.writeBits(0b1111, 4);
+      out.writeBits(deltaOfDelta, 64);
+    }
+  }
+
+  private void writeValue(long bits) {
+    long xor = bits ^ previousValue;
+    if (xor == 0) {
+      out.writeBit(false);
+      return;
+    }
+    out.writeBit(true);
+    // leading zeros are stored on 5 bits
+    int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+    int trailing = Long.numberOfTrailingZeros(xor);
+    if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+      out.writeBit(false);
+      out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+    } else {
+      int meaningful = 64 - leading - trailing;
+      out.writeBit(true);
+      out.writeBits(leading, 5);
+      // a length of 64 does not fit in 6 bits, and 0 never occurs otherwise
+      out.writeBits(meaningful == 64 ? 0 : meaningful, 6);
+      out.writeBits(xor >>> trailing, meaningful);
+      previousLeading = leading;
+      previousTrailing = trailing;
+    }
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  long getMinTimestamp() {
+    return minTimestamp;
+  }
+
+  long getMaxTimestamp() {
+    return maxTimestamp;
+  }
+
+  byte[] toByteArray() {
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes the points of a chunk, passing those in {@code [from, to]} to the
+   * consumer in insertion order.
+   *
+   * @param data     encoded chunk
+   * @param count    number of points in the chunk
+   * @param from     inclusive lower bound, in epoch seconds
+   * @param to       inclusive upper bound, in epoch seconds
+   * @param consumer receiver of the points
+   */
+  static void decode(byte[] data, int count, long from, long to, PointConsumer consumer) {
+    if (count == 0) {
+      return;
+    }
+    BitReader in = new BitReader(data);
+    long timestamp = in.readBits(64);
+    long bits = in.readBits(64);
+    long delta = 0;
+    int leading = 0;
+    int trailing = 0;
+    for (int i = 0;; i++) {
+      if (timestamp >= from && timestamp <= to) {
+        consumer.accept(timestamp, Double.longBitsToDouble(bits));
+      }
+      if (i == count - 1) {
+        return;
+      }
+
+      if (in.readBit()) {
+        delta += readDeltaOfDelta(in);
+      }
+      timestamp += delta;
+
+      if (in.readBit()) {
+        if (in.readBit()) {
+          leading = (int) in.readBits(5);
+          int meaningful = (int) in.readBits(6);
+          if (meaningful == 0) {
+            meaningful = 64;
+          }
+          trailing = 64 - leading - meaningful;
+        }
+        bits ^= in.readBits(64 - leading - trailing) << trailing;
+      }
+    }
+  }
+
+  // the leading '1' has already been read
+  private static long readDeltaOfDelta(BitReader in) {
+    if (!in.readBit()) {
+      return in.readSigned(7);
+    }
+    if (!in.readBit()) {
+      return in.readSigned(9);
+    }
+    if (!in.readBit()) {
+      return in.readSigned(12);
+    }
+    return in.readBits(64);
+  }
+}
@@ -0,0 +1,464 @@
+package com.weather.report.repositories.chunks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.repositories.MeasurementStore;
+
+/**
+ * Measurement store keeping per-sensor chunks of Gorilla-compressed points
+ * (see {@link ChunkEncoder}) in an append-only local file.
+ * <p>
+ * Every sensor has one open chunk in memory; it is sealed and appended to the
+ * file once it holds {@code chunkSize} points, when the gateway or network of
+ * the sensor changes, on {@link #flush()} and on {@link #close()}. Points of
+ * open chunks are lost if the process dies before one of those. An index of
+ * the sealed chunks (sensor, time span, file position) is rebuilt from the
+ * chunk headers when the file is opened, so range scans only read and decode
+ * the chunks overlapping the requested window.
+ * <p>
+ * Timestamps are stored as UTC epoch seconds, so sub-second precision and the
+ * topology violation flag of imported measurements are not kept.
+ *
+ * <pre>
+ * file   := MAGIC VERSION chunk*
+ * chunk  := headerLength:int dataLength:int header data
+ * header := sensorCode:utf gatewayCode:utf networkCode:utf
+ *           minTimestamp:long maxTimestamp:long count:int
+ * </pre>
+ */
+public class ChunkMeasurementStore implements MeasurementStore, AutoCloseable {
+
+  private static final Logger logger = LogManager.getLogger(ChunkMeasurementStore.class);
+
+  public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+  private static final int MAGIC = 0x57525453; // "WRTS"
+  private static final int VERSION = 1;
+  private static final int FILE_HEADER_BYTES = 8;
+  private static final int CHUNK_PREFIX_BYTES = 8;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final int chunkSize;
+
+  // sensor code -> sealed chunks, in file order
+  private final Map<String, List<SealedChunk>> sealed = new HashMap<>();
+  private final Map<String, OpenChunk> open = new HashMap<>();
+  private long end;
+
+  /**
+   * Opens the store with {@link #DEFAULT_CHUNK_SIZE} points per chunk.
+   *
+   * @param file chunk file, created if missing
+   * @throws IOException if the file cannot be opened or is not a chunk file
+   */
+  public ChunkMeasurementStore(Path file) throws IOException {
+    this(file, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param file      chunk file, created if missing
+   * @param chunkSize maximum number of points per chunk
+   * @throws IOException if the file cannot be opened or is not a chunk file
+   */
+  public ChunkMeasurementStore(Path file, int chunkSize) throws IOException {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive");
+    }
+    this.file = file;
+    this.chunkSize = chunkSize;
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      loadIndex();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void loadIndex() throws IOException {
+    long size = channel.size();
+    if (size == 0) {
+      ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+      writeFully(header, 0);
+      end = FILE_HEADER_BYTES;
+      return;
+    }
+    ByteBuffer header = readFully(0, FILE_HEADER_BYTES);
+    if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+      throw new IOException(file + " is not a measurement chunk file");
+    }
+
+    long position = FILE_HEADER_BYTES;
+    while (position < size) {
+      if (size - position < CHUNK_PREFIX_BYTES) {
+        break;
+      }
+      ByteBuffer prefix = readFully(position, CHUNK_PREFIX_BYTES);
+      int headerLength = prefix.getInt();
+      int dataLength = prefix.getInt();
+      long dataPosition = position + CHUNK_PREFIX_BYTES + headerLength;
+      if (headerLength < 0 || dataLength < 0 || dataPosition + dataLength > size) {
+        break;
+      }
+      ByteBuffer chunkHeader = readFully(position + CHUNK_PREFIX_BYTES, headerLength);
+      SealedChunk chunk = new SealedChunk(readString(chunkHeader), readString(chunkHeader),
+          readString(chunkHeader), chunkHeader.getLong(), chunkHeader.getLong(), chunkHeader.getInt(),
+          dataPosition, dataLength);
+      sealed.computeIfAbsent(chunk.sensorCode, k -> new ArrayList<>()).add(chunk);
+      position = dataPosition + dataLength;
+    }
+    // a chunk cut short by a crash is dropped, the next one overwrites it
+    if (position < size) {
+      logger.warn("Truncating {} incomplete bytes at the end of {}", size - position, file);
+      channel.truncate(position);
+    }
+    end = position;
+  }
+
+  /**
+   * Appends measurements to the open chunks of their sensors.
+   *
+   * @param measurements measurements to store
+   */
+  @Override
+  public synchronized void append(List<Measurement> measurements) {
+    try {
+      for (Measurement m : measurements) {
+        OpenChunk chunk = open.get(m.getSensorCode());
+        if (chunk != null && !chunk.matches(m)) {
+          seal(chunk);
+          chunk = null;
+        }
+        if (chunk == null) {
+          chunk = new OpenChunk(m.getSensorCode(), m.getGatewayCode(), m.getNetworkCode());
+          open.put(m.getSensorCode(), chunk);
+        }
+        chunk.encoder.append(toEpochSecond(m.getTimestamp()), m.getValue());
+        if (chunk.encoder.getCount() >= chunkSize) {
+          seal(chunk);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot append to " + file, e);
+    }
+  }
+
+  /**
+   * Reads the measurements of a sensor, oldest first.
+   *
+   * @param sensorCode sensor code
+   * @param start      inclusive lower bound, {@code null} for none
+   * @param end        inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  @Override
+  public List<Measurement> readBySensor(String sensorCode, LocalDateTime start, LocalDateTime end) {
+    return read(sensorCode, (s, g, n) -> true, start, end);
+  }
+
+  /**
+   * Reads the measurements collected by a gateway, oldest first; every chunk
+   * header is checked, as chunks are indexed by sensor.
+   *
+   * @param gatewayCode gateway code
+   * @param start       inclusive lower bound, {@code null} for none
+   * @param end         inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  @Override
+  public List<Measurement> readByGateway(String gatewayCode, LocalDateTime start, LocalDateTime end) {
+    return read(null, (s, g, n) -> gatewayCode.equals(g), start, end);
+  }
+
+  /**
+   * Reads the measurements of a network, oldest first; every chunk header is
+   * checked, as chunks are indexed by sensor.
+   *
+   * @param networkCode network code
+   * @param start       inclusive lower bound, {@code null} for none
+   * @param end         inclusive upper bound, {@code null} for none
+   * @return measurements in the range
+   */
+  @Override
+  public List<Measurement> readByNetwork(String networkCode, LocalDateTime start, LocalDateTime end) {
+    return read(null, (s, g, n) -> networkCode.equals(n), start, end);
+  }
+
+  // sensorCode null scans the chunks of every sensor
+  private List<Measurement> read(String sensorCode, ChunkFilter filter, LocalDateTime start, LocalDateTime end) {
+    List<Measurement> measurements = new ArrayList<>();
+    scanChunks(sensorCode, filter, start, end, (sensor, gatewayCode, networkCode) -> (second, value) ->
+        measurements.add(new Measurement(networkCode, gatewayCode, sensor, value,
+            LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC))));
+    measurements.sort(Comparator.comparing(Measurement::getTimestamp));
+    return measurements;
+  }
+
+  /**
+   * Passes the points of a sensor in a time range to the consumer, chunk by
+   * chunk in insertion order, without allocating per point.
+   *
+   * @param sensorCode sensor code
+   * @param start      inclusive lower bound, {@code null} for none
+   * @param end        inclusive upper bound, {@code null} for none
+   * @param consumer   receiver of the points
+   */
+  public void scan(String sensorCode, LocalDateTime start, LocalDateTime end, PointConsumer consumer) {
+    scanChunks(sensorCode, (s, g, n) -> true, start, end, (sensor, gatewayCode, networkCode) -> consumer);
+  }
+
+  private void scanChunks(String sensorCode, ChunkFilter filter, LocalDateTime start, LocalDateTime end,
+      ChunkConsumer consumer) {
+    long from = start != null ? toEpochSecond(start) : Long.MIN_VALUE;
+    long to = end != null ? toEpochSecond(end) : Long.MAX_VALUE;
+
+    List<SealedChunk> chunks = new ArrayList<>();
+    List<OpenChunkCopy> heads = new ArrayList<>();
+    synchronized (this) {
+      if (sensorCode != null) {
+        chunks.addAll(sealed.getOrDefault(sensorCode, List.of()));
+      } else {
+        sealed.values().forEach(chunks::addAll);
+      }
+      chunks.removeIf(chunk -> !filter.accepts(chunk.sensorCode, chunk.gatewayCode, chunk.networkCode));
+      List<OpenChunk> candidates = sensorCode != null
+          ? Stream.ofNullable(open.get(sensorCode)).toList()
+          : List.copyOf(open.values());
+      for (OpenChunk head : candidates) {
+        if (filter.accepts(head.sensorCode, head.gatewayCode, head.networkCode)) {
+          // the open chunk keeps growing: decode a consistent copy of it
+          heads.add(new OpenChunkCopy(head.sensorCode, head.gatewayCode, head.networkCode,
+              head.encoder.toByteArray(), head.encoder.getCount()));
+        }
+      }
+    }
+
+    // sealed chunks are immutable, so the file is read outside the lock
+    try {
+      for (SealedChunk chunk : chunks) {
+        if (chunk.maxTimestamp < from || chunk.minTimestamp > to) {
+          continue;
+        }
+        ByteBuffer data = readFully(chunk.dataPosition, chunk.dataLength);
+        ChunkEncoder.decode(data.array(), chunk.count, from, to,
+            consumer.forChunk(chunk.sensorCode, chunk.gatewayCode, chunk.networkCode));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read " + file, e);
+    }
+    for (OpenChunkCopy head : heads) {
+      ChunkEncoder.decode(head.data(), head.count(), from, to,
+          consumer.forChunk(head.sensorCode(), head.gatewayCode(), head.networkCode()));
+    }
+  }
+
+  /**
+   * Seals every open chunk and forces the file to disk.
+   */
+  public synchronized void flush() {
+    try {
+      for (OpenChunk chunk : List.copyOf(open.values())) {
+        seal(chunk);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot flush " + file, e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (!channel.isOpen()) {
+      return;
+    }
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * @return codes of the sensors having at least one point
+   */
+  public synchronized Set<String> getSensorCodes() {
+    Set<String> codes = new TreeSet<>(sealed.keySet());
+    codes.addAll(open.keySet());
+    return codes;
+  }
+
+  /**
+   * @return number of points stored, open chunks included
+   */
+  public synchronized long getPointCount() {
+    long count = 0;
+    for (List<SealedChunk> chunks : sealed.values()) {
+      for (SealedChunk chunk : chunks) {
+        count += chunk.count;
+      }
+    }
+    for (OpenChunk chunk : open.values()) {
+      count += chunk.encoder.getCount();
+    }
+    return count;
+  }
+
+  /**
+   * @return number of chunks written to the file
+   */
+  public synchronized int getChunkCount() {
+    int count = 0;
+    for (List<SealedChunk> chunks : sealed.values()) {
+      count += chunks.size();
+    }
+    return count;
+  }
+
+  /**
+   * @return size of the chunk file in bytes
+   */
+  public synchronized long getFileSize() {
+    return end;
+  }
+
+  private void seal(OpenChunk chunk) throws IOException {
+    open.remove(chunk.sensorCode);
+    if (chunk.encoder.getCount() == 0) {
+      return;
+    }
+    byte[] data = chunk.encoder.toByteArray();
+    ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+    try (DataOutputStream header = new DataOutputStream(headerBytes)) {
+      header.writeUTF(chunk.sensorCode);
+      header.writeUTF(Objects.toString(chunk.gatewayCode, ""));
+      header.writeUTF(Objects.toString(chunk.networkCode, ""));
+      header.writeLong(chunk.encoder.getMinTimestamp());
+      header.writeLong(chunk.encoder.getMaxTimestamp());
+      header.writeInt(chunk.encoder.getCount());
+    }
+    byte[] headerData = headerBytes.toByteArray();
+
+    ByteBuffer record = ByteBuffer.allocate(CHUNK_PREFIX_BYTES + headerData.length + data.length)
+        .putInt(headerData.length)
+        .putInt(data.length)
+        .put(headerData)
+        .put(data)
+        .flip();
+    long position = end;
+    writeFully(record, position);
+    end = position + record.capacity();
+
+    long dataPosition = position + CHUNK_PREFIX_BYTES + headerData.length;
+    sealed.computeIfAbsent(chunk.sensorCode, k -> new ArrayList<>()).add(new SealedChunk(chunk.sensorCode,
+        chunk.gatewayCode, chunk.networkCode, chunk.encoder.getMinTimestamp(), chunk.encoder.getMaxTimestamp(),
+        chunk.encoder.getCount(), dataPosition, data.length));
+  }
+
+  private void writeFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private ByteBuffer readFully(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        throw new IOException("Unexpected end of " + file);
+      }
+    }
+    return buffer.flip();
+  }
+
+  // strings written by DataOutput.writeUTF; codes are plain ASCII
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+    buffer.get(bytes);
+    String value = new String(bytes, StandardCharsets.UTF_8);
+    return value.isEmpty() ? null : value;
+  }
+
+  private static long toEpochSecond(LocalDateTime timestamp) {
+    return timestamp.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  @FunctionalInterface
+  private interface ChunkFilter {
+    boolean accepts(String sensorCode, String gatewayCode, String networkCode);
+  }
+
+  @FunctionalInterface
+  private interface ChunkConsumer {
+    PointConsumer forChunk(String sensorCode, String gatewayCode, String networkCode);
+  }
+
+  private record OpenChunkCopy(String sensorCode, String gatewayCode, String networkCode, byte[] data, int count) {
+  }
+
+  private static final class OpenChunk {
+    private final String sensorCode;
+    private final String gatewayCode;
+    private final String networkCode;
+    private final ChunkEncoder encoder = new ChunkEncoder();
+
+    private OpenChunk(String sensorCode, String gatewayCode, String networkCode) {
+      this.sensorCode = sensorCode;
+      this.gatewayCode = gatewayCode;
+      this.networkCode = networkCode;
+    }
+
+    // a chunk holds the measurements of a sensor for a single gateway and network
+    private boolean matches(Measurement m) {
+      return Objects.equals(gatewayCode, m.getGatewayCode()) && Objects.equals(networkCode, m.getNetworkCode());
+    }
+  }
+
+  private static final class SealedChunk {
+    private final String sensorCode;
+    private final String gatewayCode;
+    private final String networkCode;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int count;
+    private final long dataPosition;
+    private final int dataLength;
+
+    private SealedChunk(String sensorCode, String gatewayCode, String networkCode, long minTimestamp,
+        long maxTimestamp, int count, long dataPosition, int dataLength) {
+      this.sensorCode = sensorCode;
+      this.gatewayCode = gatewayCode;
+      this.networkCode = networkCode;
+      this.minTimestamp = minTimestamp;
+      this.maxTimestamp = maxTimestamp;
+      this.count = count;
+      this.dataPosition = dataPosition;
+      this.dataLength = dataLength;
+    }
+  }
+}
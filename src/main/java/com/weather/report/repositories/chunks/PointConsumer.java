@@ -0,0 +1,15 @@
+package com.weather.report.repositories.chunks;
+
+/**
+ * Receiver of the points of a range scan, called without boxing or allocating
+ * a measurement per point.
+ */
+@FunctionalInterface
+public interface PointConsumer {
+
+  /**
+   * @param epochSecond time of the point, seconds since the epoch in UTC
+   * @param value       value of the point
+   */
+  void accept(long epochSecond, double value);
+}
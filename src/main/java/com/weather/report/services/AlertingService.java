@@ -1,38 +1,133 @@
 package com.weather.report.services;
 
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.weather.report.metrics.AlertDispatchEvent;
+import com.weather.report.model.OperatorContact;
 import com.weather.report.model.entities.Operator;
+import com.weather.report.notifications.FileTransport;
+import com.weather.report.notifications.LogTransport;
+import com.weather.report.notifications.NotificationDispatcher;
+import com.weather.report.notifications.NotificationSettings;
 
 /**
  * Service handling user notifications (email/SMS) for threshold violations and
  * element
  * deletions, as required by the README.
+ * <p>
+ * Threshold alerts are handed to a shared {@link NotificationDispatcher}, which
+ * batches, rate limits and retries the messages on its own thread. The
+ * default dispatcher uses the {@link NotificationSettings#defaults() default
+ * settings} and writes the messages to the file named by
+ * {@value #ALERTS_FILE_PROPERTY}, or to the log if it is not set.
  */
 public class AlertingService {
 
   private static final Logger logger = LogManager.getLogger(AlertingService.class);
 
+  /** system property naming a file the alert messages are appended to instead of being logged */
+  public static final String ALERTS_FILE_PROPERTY = "weather.alerts.file";
+
+  private static final ReentrantLock LOCK = new ReentrantLock();
+  private static volatile NotificationDispatcher dispatcher;
+
   /**
-   * Notifies operators when a measurement exceeds a sensor threshold.
+   * Notifies operators when a measurement exceeds a sensor threshold. Returns
+   * as soon as the alert is queued.
    *
    * @param operators  operators to alert
    * @param sensorCode code of the sensor that triggered the alert
    */
   public static void notifyThresholdViolation(Collection<Operator> operators, String sensorCode) {
-    StringBuilder builder = new StringBuilder().append("Measured a value out of threshold bounds for sensor ")
-        .append(sensorCode).append(", alerting operators");
+    notifyContacts(OperatorContact.allOf(operators), sensorCode);
+  }
+
+  private static void notifyContacts(Collection<OperatorContact> operators, String sensorCode) {
+    AlertDispatchEvent event = new AlertDispatchEvent();
+    event.begin();
+
+    logger.warn("Measured a value out of threshold bounds for sensor {}, alerting operators", sensorCode);
+
+    NotificationDispatcher current = getDispatcher();
+    int queueDepth = current.getPendingMessages();
+    int messages;
+    try {
+      messages = current.submit(sensorCode, operators);
+    } catch (IllegalStateException e) {
+      // the dispatcher was replaced and closed since it was read
+      current = getDispatcher();
+      messages = current.submit(sensorCode, operators);
+    }
 
-    logger.warn(builder);
+    if (event.shouldCommit()) {
+      event.sensorCode = sensorCode;
+      event.recipients = operators.size();
+      event.messages = messages;
+      event.queueDepth = queueDepth;
+      event.commit();
+    }
+  }
 
-    for (Operator operator : operators) {
-      sendEmail(operator);
-      if (operator.getPhoneNumber() != null) {
-        sendSMS(operator);
+  /**
+   * @return the dispatcher of the threshold alerts, started on first use
+   */
+  public static NotificationDispatcher getDispatcher() {
+    NotificationDispatcher current = dispatcher;
+    if (current != null) {
+      return current;
+    }
+    LOCK.lock();
+    try {
+      if (dispatcher == null) {
+        String file = System.getProperty(ALERTS_FILE_PROPERTY);
+        dispatcher = new NotificationDispatcher(NotificationSettings.defaults(),
+            file != null ? new FileTransport(Path.of(file)) : new LogTransport());
       }
+      return dispatcher;
+    } finally {
+      LOCK.unlock();
+    }
+  }
+
+  /**
+   * Replaces the dispatcher of the threshold alerts, for instance to plug a
+   * real transport; the previous one is returned, still running, for the
+   * caller to close.
+   *
+   * @param replacement new dispatcher
+   * @return the previous dispatcher, {@code null} if none was started
+   */
+  public static NotificationDispatcher setDispatcher(NotificationDispatcher replacement) {
+    LOCK.lock();
+    try {
+      NotificationDispatcher previous = dispatcher;
+      dispatcher = replacement;
+      return previous;
+    } finally {
+      LOCK.unlock();
+    }
+  }
+
+  /**
+   * Delivers the queued threshold alerts and stops the dispatcher. A later
+   * alert starts a new one.
+   */
+  public static void shutdown() {
+    NotificationDispatcher previous = setDispatcher(null);
+    if (previous == null) {
+      return;
+    }
+    try {
+      previous.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.warn("Interrupted while delivering the queued alerts, {} left undelivered",
+          previous.getPendingMessages());
     }
   }
 
@@ -44,17 +139,7 @@ public class AlertingService {
    * @param elementClass class of the deleted element to identify its type
    */
   public static void notifyDeletion(String username, String code, Class<?> elementClass) {
-    logger.info(String.format("USer %s deleted %s %s", username, code, elementClass.getSimpleName()));
-  }
-
-  private static void sendEmail(Operator operator) {
-    StringBuilder builder = new StringBuilder().append("Sending email to ").append(operator.getEmail()).append("\n");
-    logger.info(builder);
-  }
-
-  private static void sendSMS(Operator operator) {
-    StringBuilder builder = new StringBuilder().append("Sending SMS to ").append(operator.getEmail()).append("\n");
-    logger.info(builder);
+    logger.info("User {} deleted {} {}", username, code, elementClass.getSimpleName());
   }
 
 }
@@ -1,22 +1,39 @@
 package com.weather.report.services;
 
-import com.weather.report.model.ThresholdType;
+import com.weather.report.metrics.Counter;
+import com.weather.report.metrics.ImportBatchEvent;
+import com.weather.report.metrics.Metrics;
+import com.weather.report.metrics.Timer;
+import com.weather.report.model.OperatorContact;
+import com.weather.report.model.TopologyViolation;
 import com.weather.report.model.entities.*;
-import com.weather.report.repositories.CRUDRepository;
+import com.weather.report.operations.topology.TopologyIndex;
+import com.weather.report.operations.topology.TopologySnapshot;
 import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.repositories.MeasurementStore;
+import com.weather.report.repositories.Repositories;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.File;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DataImportingService {
 
@@ -24,12 +41,85 @@ public class DataImportingService {
 
   private static final int EXPECTED_CSV_COLUMNS = 5;
 
+  /** suffix appended to the source path for rows quarantined by {@link TopologyPolicy#QUARANTINE} */
+  public static final String QUARANTINE_SUFFIX = ".quarantine.csv";
+
+  /** suffix appended to the source path for skipped rows, with line number and {@link RejectReason} */
+  public static final String REJECTS_SUFFIX = ".rejects.csv";
+
+  private static final String REJECTS_HEADER = "line,reason,row";
+
   private static final DateTimeFormatter CSV_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+  private static final Timer IMPORT_TIMER = Metrics.timer("import.file");
+  private static final Timer BATCH_TIMER = Metrics.timer("import.batch");
+  private static final Timer THRESHOLD_TIMER = Metrics.timer("import.thresholdCheck");
+  private static final Counter IMPORT_FAILURES = Metrics.counter("import.failures");
+  private static final Counter ROWS_READ = Metrics.counter("import.rows.read");
+  private static final Counter ROWS_STORED = Metrics.counter("import.rows.stored");
+  private static final Counter ROWS_REJECTED = Metrics.counter("import.rows.rejected");
+  private static final Counter ROWS_QUARANTINED = Metrics.counter("import.rows.quarantined");
+  private static final Counter ROWS_DUPLICATE = Metrics.counter("import.rows.duplicate");
+
   private DataImportingService() {
   }
 
   public static void storeMeasurements(String filePath) {
+    storeMeasurements(filePath, ImportOptions.defaults());
+  }
+
+  /**
+   * Imports the measurements of a CSV file, checking every row against the
+   * configured topology according to the given policy.
+   *
+   * @param filePath       path of the CSV file
+   * @param topologyPolicy how rows inconsistent with the topology are handled
+   * @return counters collected during the import
+   */
+  public static ImportSummary storeMeasurements(String filePath, TopologyPolicy topologyPolicy) {
+    return storeMeasurements(filePath, ImportOptions.defaults().withTopologyPolicy(topologyPolicy));
+  }
+
+  /**
+   * Imports the measurements of a CSV file, committing them in batches.
+   * <p>
+   * Topology checks use the shared {@link TopologyIndex} snapshot, taken once
+   * per import, so they cost two hash lookups per row and no query. A
+   * resumable import stores an {@link ImportCheckpoint}, keyed by the SHA-256
+   * of the file, in the same transaction as each batch: a restart seeks to the
+   * last committed byte offset, a completed file is skipped altogether and rows
+   * whose (sensor, timestamp) pair is already stored are dropped.
+   * <p>
+   * The measurements go to the {@link Repositories#measurementStore()
+   * configured store}; resumable imports need the relational one.
+   * <p>
+   * The sensor thresholds are read once per import, on the first committed
+   * batch, and each committed batch is evaluated with the compiled
+   * {@link ThresholdEvaluator} of every sensor.
+   *
+   * @param filePath path of the CSV file
+   * @param options  import settings
+   * @return counters collected during the import
+   */
+  public static ImportSummary storeMeasurements(String filePath, ImportOptions options) {
+    long start = IMPORT_TIMER.start();
+    try {
+      ImportSummary summary = importFile(filePath, options);
+      ROWS_READ.add(summary.getTotalRows());
+      ROWS_STORED.add(summary.getStoredRows());
+      ROWS_REJECTED.add(summary.getSkippedRows() - summary.getQuarantinedRows() - summary.getDuplicateRows());
+      ROWS_QUARANTINED.add(summary.getQuarantinedRows());
+      ROWS_DUPLICATE.add(summary.getDuplicateRows());
+      return summary;
+    } catch (RuntimeException e) {
+      IMPORT_FAILURES.increment();
+      throw e;
+    } finally {
+      IMPORT_TIMER.stop(start);
+    }
+  }
+
+  private static ImportSummary importFile(String filePath, ImportOptions options) {
     if (filePath == null || filePath.isBlank()) {
       throw new IllegalArgumentException("File path cannot be null or empty");
     }
@@ -46,50 +136,114 @@ public class DataImportingService {
       throw new IllegalArgumentException("File is not readable: " + file.getAbsolutePath());
     }
 
-    MeasurementRepository repository = new MeasurementRepository();
-
-    int totalRows = 0;
-    int successfulRows = 0;
-    int skippedRows = 0;
+    MeasurementStore store = Repositories.measurementStore();
+    // the checkpoint of a resumable import is committed in the same transaction as its batch
+    if (options.isResumable() && store != Repositories.measurements()) {
+      throw new IllegalArgumentException("Resumable imports need the relational measurement store, unset "
+          + Repositories.CHUNK_FILE_PROPERTY);
+    }
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+    TopologyPolicy topologyPolicy = options.getTopologyPolicy();
+    ImportSummary summary = new ImportSummary(filePath, topologyPolicy);
 
-      String headerLine = reader.readLine();
-      if (headerLine == null) {
-        logger.warn("File is empty: {}", filePath);
-        return;
+    try {
+      ImportCheckpoint checkpoint = options.isResumable() ? loadCheckpoint(file) : null;
+      if (checkpoint != null && checkpoint.isCompleted()) {
+        logger.info("File {} already imported ({} measurements), skipping", filePath, checkpoint.getRowCount());
+        summary.alreadyImported();
+        return summary;
       }
 
-      String line;
-      int lineNumber = 1;
+      TopologySnapshot topology = topologyPolicy == TopologyPolicy.OFF ? null : TopologyIndex.current();
+      Batch batch = new Batch(filePath, store, options.getBatchSize(), checkpoint, summary,
+          new Thresholds());
 
-      while ((line = reader.readLine()) != null) {
-        lineNumber++;
-        totalRows++;
+      try (OffsetLineReader reader = new OffsetLineReader(file)) {
 
-        if (line.isBlank()) {
-          skippedRows++;
-          continue;
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+          logger.warn("File is empty: {}", filePath);
+          return summary;
         }
 
-        try {
-          Measurement measurement = parseCSVLine(line, lineNumber);
-          Measurement savedMeasurement = repository.create(measurement);
-          successfulRows++;
-          checkMeasurement(savedMeasurement);
-
-        } catch (InvalidCSVLineException e) {
-          logger.warn("Skipping invalid CSV line {}: {}", lineNumber, e.getMessage());
-          skippedRows++;
-        } catch (Exception e) {
-          logger.error("Error saving measurement from line {}: {}", lineNumber, e.getMessage(), e);
-          skippedRows++;
+        long lineNumber = 1;
+        boolean resuming = checkpoint != null && checkpoint.getByteOffset() > 0;
+        if (resuming) {
+          reader.seek(checkpoint.getByteOffset());
+          lineNumber = checkpoint.getLineNumber();
+          summary.resumedAfterLine(lineNumber);
+          logger.info("Resuming import of {} after line {}", filePath, lineNumber);
+        }
+        batch.startAt(reader.getOffset());
+
+        // quarantined rows keep the original header so the file can be re-imported as is
+        try (SidecarFile rejects = new SidecarFile(file, REJECTS_SUFFIX, REJECTS_HEADER, resuming);
+            SidecarFile quarantine = new SidecarFile(file, QUARANTINE_SUFFIX, headerLine, resuming)) {
+
+          String line;
+          while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            summary.rowRead();
+
+            if (line.isBlank()) {
+              summary.rowRejected(RejectReason.BLANK_LINE);
+              continue;
+            }
+
+            try {
+              long parseStart = batch.isRecorded() ? System.nanoTime() : 0L;
+              Measurement measurement = parseCSVLine(line, lineNumber);
+              batch.parsed(parseStart);
+
+              if (topology != null) {
+                TopologyViolation violation = topology.validate(
+                    measurement.getNetworkCode(), measurement.getGatewayCode(), measurement.getSensorCode());
+                if (violation != null) {
+                  summary.topologyViolation(violation);
+                  if (topologyPolicy == TopologyPolicy.ACCEPT_AND_FLAG) {
+                    measurement.setTopologyViolation(violation);
+                  } else if (topologyPolicy == TopologyPolicy.QUARANTINE) {
+                    quarantine.append(line);
+                    summary.rowQuarantined();
+                    continue;
+                  } else {
+                    reject(rejects, summary, lineNumber, RejectReason.TOPOLOGY_MISMATCH, line);
+                    continue;
+                  }
+                }
+              }
+
+              batch.add(measurement, lineNumber, line);
+              if (batch.isFull()) {
+                batch.commit(reader.getOffset(), lineNumber, rejects);
+              }
+
+            } catch (InvalidCSVLineException e) {
+              // guarded: a noisy feed reaches this line for most rows, and the arguments would be boxed
+              if (logger.isDebugEnabled()) {
+                logger.debug("Skipping invalid CSV line {}: {}", lineNumber, e.getMessage());
+              }
+              reject(rejects, summary, lineNumber, e.getReason(), line);
+            }
+          }
+
+          if (checkpoint != null) {
+            checkpoint.setCompleted(true);
+          }
+          batch.commit(reader.getOffset(), lineNumber, rejects);
+
+          logger.info("Import complete. {}", summary);
+          if (rejects.getRows() > 0) {
+            logger.warn("Skipped {} rows of {} ({}), details in {}",
+                rejects.getRows(), filePath, summary.getRejectedRows(), rejects.getTarget().getPath());
+          }
+          if (quarantine.getRows() > 0) {
+            logger.warn("Quarantined {} rows of {} in {}",
+                quarantine.getRows(), filePath, quarantine.getTarget().getPath());
+          }
         }
       }
-
-      logger.info(
-          "Import complete. Total rows: {}, Successful: {}, Skipped: {}",
-          totalRows, successfulRows, skippedRows);
+      return summary;
 
     } catch (IOException e) {
       String errorMessage = "Failed to read CSV file: " + filePath;
@@ -98,6 +252,318 @@ public class DataImportingService {
     }
   }
 
+  // the original row is written last, so fixing it only requires dropping the first two columns
+  private static void reject(SidecarFile rejects, ImportSummary summary, long lineNumber, RejectReason reason,
+      String line) throws IOException {
+    summary.rowRejected(reason);
+    rejects.append(lineNumber + "," + reason + "," + line);
+  }
+
+  private static ImportCheckpoint loadCheckpoint(File file) throws IOException {
+    String fingerprint = fingerprint(file);
+    ImportCheckpoint checkpoint = Repositories.checkpoints().read(fingerprint);
+    return checkpoint != null ? checkpoint : new ImportCheckpoint(fingerprint, file.getPath());
+  }
+
+  private static String fingerprint(File file) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+    try (InputStream in = new FileInputStream(file)) {
+      byte[] buffer = new byte[64 * 1024];
+      int n;
+      while ((n = in.read(buffer)) > 0) {
+        digest.update(buffer, 0, n);
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Measurements waiting to be committed, with the source line of each one so
+   * that rows can be rejected individually if the batch fails. Each batch is
+   * reported as an {@link ImportBatchEvent} when a flight recording is active.
+   */
+  private static final class Batch {
+    private final String filePath;
+    private final MeasurementStore store;
+    private final int size;
+    private final ImportCheckpoint checkpoint;
+    private final ImportSummary summary;
+    private final Thresholds thresholds;
+    private final List<Measurement> measurements;
+    private final List<Long> lineNumbers;
+    private final List<String> lines;
+    private ImportBatchEvent event;
+    private long startOffset;
+
+    Batch(String filePath, MeasurementStore store, int size, ImportCheckpoint checkpoint,
+        ImportSummary summary, Thresholds thresholds) {
+      this.filePath = filePath;
+      this.store = store;
+      this.size = size;
+      this.checkpoint = checkpoint;
+      this.summary = summary;
+      this.thresholds = thresholds;
+      this.measurements = new ArrayList<>(size);
+      this.lineNumbers = new ArrayList<>(size);
+      this.lines = new ArrayList<>(size);
+      beginEvent();
+    }
+
+    private void beginEvent() {
+      event = new ImportBatchEvent();
+      event.begin();
+    }
+
+    /**
+     * @param byteOffset position of the first row of the batch in the file
+     */
+    void startAt(long byteOffset) {
+      startOffset = byteOffset;
+    }
+
+    /**
+     * @return whether parse times have to be measured for the current batch
+     */
+    boolean isRecorded() {
+      return event.isEnabled();
+    }
+
+    /**
+     * @param parseStart value of {@link System#nanoTime()} before parsing a
+     *                   row, {@code 0} if the batch is not recorded
+     */
+    void parsed(long parseStart) {
+      if (parseStart != 0L) {
+        event.parseTime += System.nanoTime() - parseStart;
+      }
+    }
+
+    void add(Measurement measurement, long lineNumber, String line) {
+      measurements.add(measurement);
+      lineNumbers.add(lineNumber);
+      lines.add(line);
+    }
+
+    boolean isFull() {
+      return measurements.size() >= size;
+    }
+
+    /**
+     * Commits the pending measurements; for resumable imports duplicates are
+     * dropped first and the checkpoint is moved to the given position in the
+     * same transaction.
+     */
+    void commit(long byteOffset, long lineNumber, SidecarFile rejects) throws IOException {
+      long start = BATCH_TIMER.start();
+      try {
+        commitTimed(byteOffset, lineNumber, rejects);
+      } finally {
+        BATCH_TIMER.stop(start);
+      }
+    }
+
+    private void commitTimed(long byteOffset, long lineNumber, SidecarFile rejects) throws IOException {
+      if (checkpoint != null) {
+        dropDuplicates();
+      } else if (measurements.isEmpty()) {
+        return;
+      }
+
+      long previousCount = checkpoint != null ? checkpoint.getRowCount() : 0;
+      List<Measurement> stored = measurements;
+      long persistStart = event.isEnabled() ? System.nanoTime() : 0L;
+      try {
+        if (checkpoint != null) {
+          checkpoint.advance(byteOffset, lineNumber, previousCount + measurements.size());
+        }
+        if (checkpoint != null) {
+          Repositories.measurements().createAll(measurements, checkpoint);
+        } else {
+          store.append(measurements);
+        }
+      } catch (RuntimeException e) {
+        logger.debug("Batch ending at line {} failed, storing rows one by one: {}", lineNumber, e.getMessage());
+        stored = commitOneByOne(rejects);
+        if (checkpoint != null) {
+          checkpoint.advance(byteOffset, lineNumber, previousCount + stored.size());
+          Repositories.measurements().createAll(List.of(), checkpoint);
+        }
+      }
+      commitEvent(stored.size(), byteOffset, persistStart);
+
+      summary.rowsStored(stored.size());
+      thresholds.check(stored);
+      measurements.clear();
+      lineNumbers.clear();
+      lines.clear();
+    }
+
+    private void commitEvent(int rows, long byteOffset, long persistStart) {
+      if (persistStart != 0L && event.shouldCommit()) {
+        event.persistTime = System.nanoTime() - persistStart;
+        event.file = filePath;
+        event.rows = rows;
+        event.bytes = byteOffset - startOffset;
+        event.commit();
+      }
+      startOffset = byteOffset;
+      beginEvent();
+    }
+
+    private List<Measurement> commitOneByOne(SidecarFile rejects) throws IOException {
+      List<Measurement> stored = new ArrayList<>();
+      for (int i = 0; i < measurements.size(); i++) {
+        Measurement measurement = copyOf(measurements.get(i));
+        try {
+          store.append(List.of(measurement));
+          stored.add(measurement);
+        } catch (RuntimeException e) {
+          if (logger.isDebugEnabled()) {
+            logger.debug("Error saving measurement from line {}: {}", lineNumbers.get(i), e.getMessage(), e);
+          }
+          reject(rejects, summary, lineNumbers.get(i), RejectReason.STORAGE_ERROR, lines.get(i));
+        }
+      }
+      return stored;
+    }
+
+    // the failed batch left its generated ids on the entities, which persist() would reject as detached
+    private static Measurement copyOf(Measurement measurement) {
+      Measurement copy = new Measurement(measurement.getNetworkCode(), measurement.getGatewayCode(),
+          measurement.getSensorCode(), measurement.getValue(), measurement.getTimestamp());
+      copy.setTopologyViolation(measurement.getTopologyViolation());
+      return copy;
+    }
+
+    // one indexed query per batch finds the (sensor, timestamp) pairs already stored
+    private void dropDuplicates() {
+      if (measurements.isEmpty()) {
+        return;
+      }
+      Set<String> sensorCodes = new HashSet<>();
+      LocalDateTime from = measurements.get(0).getTimestamp();
+      LocalDateTime to = from;
+      for (Measurement measurement : measurements) {
+        sensorCodes.add(measurement.getSensorCode());
+        if (measurement.getTimestamp().isBefore(from)) {
+          from = measurement.getTimestamp();
+        }
+        if (measurement.getTimestamp().isAfter(to)) {
+          to = measurement.getTimestamp();
+        }
+      }
+      Set<String> seen = Repositories.measurements().findExistingKeys(sensorCodes, from, to);
+
+      // compacts the three lists in place, keeping the first occurrence of each key
+      int kept = 0;
+      for (int i = 0; i < measurements.size(); i++) {
+        Measurement measurement = measurements.get(i);
+        if (seen.add(MeasurementRepository.duplicateKey(measurement.getSensorCode(), measurement.getTimestamp()))) {
+          measurements.set(kept, measurement);
+          lineNumbers.set(kept, lineNumbers.get(i));
+          lines.set(kept, lines.get(i));
+          kept++;
+        } else {
+          summary.rowDuplicate();
+        }
+      }
+      measurements.subList(kept, measurements.size()).clear();
+      lineNumbers.subList(kept, lineNumbers.size()).clear();
+      lines.subList(kept, lines.size()).clear();
+    }
+  }
+
+  /**
+   * Compiled thresholds of the sensors, read on the first committed batch of an
+   * import, and the buffers the committed values are evaluated in.
+   */
+  private static final class Thresholds {
+    private Map<String, ThresholdEvaluator> evaluators;
+    private double[] values = new double[0];
+    private int[] alerts = new int[0];
+
+    void check(List<Measurement> stored) {
+      if (stored.isEmpty()) {
+        return;
+      }
+      long start = THRESHOLD_TIMER.start();
+      try {
+        checkTimed(stored);
+      } finally {
+        THRESHOLD_TIMER.stop(start);
+      }
+    }
+
+    private void checkTimed(List<Measurement> stored) {
+      if (evaluators == null) {
+        evaluators = load();
+      }
+      if (evaluators.isEmpty()) {
+        return;
+      }
+      if (values.length < stored.size()) {
+        values = new double[stored.size()];
+        alerts = new int[stored.size()];
+      }
+      // the rows of a sensor are usually contiguous, so the values are evaluated one run at a time
+      int from = 0;
+      while (from < stored.size()) {
+        String sensorCode = stored.get(from).getSensorCode();
+        int to = from + 1;
+        while (to < stored.size() && sensorCode.equals(stored.get(to).getSensorCode())) {
+          to++;
+        }
+        ThresholdEvaluator evaluator = evaluators.get(sensorCode);
+        if (evaluator != null) {
+          for (int i = from; i < to; i++) {
+            values[i] = stored.get(i).getValue();
+          }
+          int count = evaluator.alerts(values, from, to, alerts);
+          for (int i = 0; i < count; i++) {
+            notifyViolation(stored.get(alerts[i]));
+          }
+        }
+        from = to;
+      }
+    }
+
+    private static Map<String, ThresholdEvaluator> load() {
+      Map<String, ThresholdEvaluator> evaluators = new HashMap<>();
+      try {
+        for (Sensor sensor : Repositories.sensors().read()) {
+          Threshold threshold = sensor.getThreshold();
+          if (threshold != null) {
+            evaluators.put(sensor.getCode(), ThresholdEvaluator.of(sensor.getCode(), threshold));
+          }
+        }
+      } catch (Exception e) {
+        logger.error("Error loading the sensor thresholds, no threshold is checked: {}", e.getMessage(), e);
+        evaluators.clear();
+      }
+      return evaluators;
+    }
+
+    private static void notifyViolation(Measurement measurement) {
+      try {
+        List<OperatorContact> contacts = TopologyIndex.current().operatorsOf(measurement.getNetworkCode());
+        if (!contacts.isEmpty()) {
+          // fresh operators each time: the snapshot contacts are shared, the entities must not be
+          List<Operator> operators = contacts.stream().map(OperatorContact::toOperator).toList();
+          AlertingService.notifyThresholdViolation(operators, measurement.getSensorCode());
+        }
+      } catch (Exception e) {
+        logger.error(
+            "Error checking threshold for measurement {}: {}",
+            measurement.getSensorCode(), e.getMessage(), e);
+      }
+    }
+  }
+
   private static File resolveFilePath(String filePath) {
     try {
       String decodedPath = URLDecoder.decode(filePath, StandardCharsets.UTF_8.name());
@@ -121,13 +587,13 @@ public class DataImportingService {
     }
   }
 
-  private static Measurement parseCSVLine(String line, int lineNumber)
+  private static Measurement parseCSVLine(String line, long lineNumber)
       throws InvalidCSVLineException {
 
     String[] parts = line.split(",");
 
     if (parts.length != EXPECTED_CSV_COLUMNS) {
-      throw new InvalidCSVLineException(
+      throw new InvalidCSVLineException(RejectReason.COLUMN_COUNT,
           String.format("Expected %d columns, found %d",
               EXPECTED_CSV_COLUMNS, parts.length));
     }
@@ -140,21 +606,21 @@ public class DataImportingService {
       String valueString = parts[4].trim();
 
       if (networkCode.isEmpty() || gatewayCode.isEmpty() || sensorCode.isEmpty()) {
-        throw new InvalidCSVLineException("Network, gateway, or sensor code is empty");
+        throw new InvalidCSVLineException(RejectReason.MISSING_CODE, "Network, gateway, or sensor code is empty");
       }
 
       LocalDateTime timestamp;
       try {
         timestamp = LocalDateTime.parse(dateString, CSV_DATE_FORMATTER);
       } catch (DateTimeParseException e) {
-        throw new InvalidCSVLineException("Invalid date format: " + dateString);
+        throw new InvalidCSVLineException(RejectReason.INVALID_DATE, "Invalid date format: " + dateString);
       }
 
       double value;
       try {
         value = Double.parseDouble(valueString);
       } catch (NumberFormatException e) {
-        throw new InvalidCSVLineException("Invalid numeric value: " + valueString);
+        throw new InvalidCSVLineException(RejectReason.INVALID_VALUE, "Invalid numeric value: " + valueString);
       }
 
       return new Measurement(networkCode, gatewayCode, sensorCode, value, timestamp);
@@ -162,72 +628,20 @@ public class DataImportingService {
     } catch (InvalidCSVLineException e) {
       throw e;
     } catch (Exception e) {
-      throw new InvalidCSVLineException("Unexpected error parsing line: " + e.getMessage());
+      throw new InvalidCSVLineException(RejectReason.PARSE_ERROR, "Unexpected error parsing line: " + e.getMessage());
     }
   }
 
-  private static void checkMeasurement(Measurement measurement) {
-    CRUDRepository<Sensor, String> sensorRepository = new CRUDRepository<>(Sensor.class);
-
-    try {
-      Sensor currentSensor = sensorRepository.read().stream()
-          .filter(sensor -> measurement.getSensorCode().equals(sensor.getCode()))
-          .findFirst()
-          .orElse(null);
-
-      if (currentSensor == null) {
-        return;
-      }
-
-      Threshold threshold = currentSensor.getThreshold();
-      if (threshold == null) {
-        return;
-      }
-
-      boolean isViolation = checkThresholdViolation(
-          measurement.getValue(),
-          threshold.getValue(),
-          threshold.getType());
-
-      if (isViolation) {
-        CRUDRepository<Network, String> networkRepository = new CRUDRepository<>(Network.class);
-
-        Network network = networkRepository.read(measurement.getNetworkCode());
-
-        if (network != null && !network.getOperators().isEmpty()) {
-          AlertingService.notifyThresholdViolation(
-              network.getOperators(),
-              currentSensor.getCode());
-        }
-      }
+  private static class InvalidCSVLineException extends Exception {
+    private final RejectReason reason;
 
-    } catch (Exception e) {
-      logger.error(
-          "Error checking threshold for measurement {}: {}",
-          measurement.getSensorCode(), e.getMessage(), e);
+    public InvalidCSVLineException(RejectReason reason, String message) {
+      super(message);
+      this.reason = reason;
     }
-  }
 
-  private static boolean checkThresholdViolation(
-      double measuredValue,
-      double thresholdValue,
-      ThresholdType type) {
-
-    final double EPSILON = 0.0001;
-
-    return switch (type) {
-      case GREATER_THAN -> measuredValue > thresholdValue;
-      case LESS_THAN -> measuredValue < thresholdValue;
-      case GREATER_OR_EQUAL -> measuredValue >= thresholdValue;
-      case LESS_OR_EQUAL -> measuredValue <= thresholdValue;
-      case EQUAL -> Math.abs(measuredValue - thresholdValue) < EPSILON;
-      case NOT_EQUAL -> Math.abs(measuredValue - thresholdValue) >= EPSILON;
-    };
-  }
-
-  private static class InvalidCSVLineException extends Exception {
-    public InvalidCSVLineException(String message) {
-      super(message);
+    public RejectReason getReason() {
+      return reason;
     }
   }
 }
@@ -0,0 +1,80 @@
+package com.weather.report.services;
+
+/**
+ * Settings of a single {@link DataImportingService} import.
+ * <p>
+ * Instances are immutable: every {@code with*} method returns a modified copy.
+ */
+public final class ImportOptions {
+
+  /** system property enabling resumable imports by default */
+  public static final String RESUMABLE_PROPERTY = "weather.import.resumable";
+
+  /** system property overriding the default batch size */
+  public static final String BATCH_SIZE_PROPERTY = "weather.import.batchSize";
+
+  private static final int DEFAULT_BATCH_SIZE = 500;
+
+  private final TopologyPolicy topologyPolicy;
+  private final boolean resumable;
+  private final int batchSize;
+
+  private ImportOptions(TopologyPolicy topologyPolicy, boolean resumable, int batchSize) {
+    if (topologyPolicy == null) {
+      throw new IllegalArgumentException("Topology policy cannot be null");
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.topologyPolicy = topologyPolicy;
+    this.resumable = resumable;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * @return options configured through system properties, falling back to a
+   *         non-resumable import without topology checks
+   */
+  public static ImportOptions defaults() {
+    return new ImportOptions(
+        TopologyPolicy.fromSystemProperty(),
+        Boolean.getBoolean(RESUMABLE_PROPERTY),
+        Integer.getInteger(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE));
+  }
+
+  public ImportOptions withTopologyPolicy(TopologyPolicy topologyPolicy) {
+    return new ImportOptions(topologyPolicy, resumable, batchSize);
+  }
+
+  /**
+   * A resumable import records a checkpoint with every committed batch and
+   * skips rows whose (sensor, timestamp) pair is already stored, so it can be
+   * restarted or re-delivered safely.
+   *
+   * @param resumable whether the import is resumable
+   * @return modified copy of the options
+   */
+  public ImportOptions withResumable(boolean resumable) {
+    return new ImportOptions(topologyPolicy, resumable, batchSize);
+  }
+
+  /**
+   * @param batchSize number of measurements committed per transaction
+   * @return modified copy of the options
+   */
+  public ImportOptions withBatchSize(int batchSize) {
+    return new ImportOptions(topologyPolicy, resumable, batchSize);
+  }
+
+  public TopologyPolicy getTopologyPolicy() {
+    return topologyPolicy;
+  }
+
+  public boolean isResumable() {
+    return resumable;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+}
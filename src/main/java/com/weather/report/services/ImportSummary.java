@@ -0,0 +1,165 @@
+package com.weather.report.services;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.weather.report.model.TopologyViolation;
+
+/**
+ * Counters collected while importing a single CSV file with
+ * {@link DataImportingService}.
+ */
+public class ImportSummary {
+
+  private final String filePath;
+  private final TopologyPolicy topologyPolicy;
+  private long totalRows;
+  private long storedRows;
+  private long skippedRows;
+  private long quarantinedRows;
+  private long duplicateRows;
+  private long resumedAfterLine;
+  private boolean alreadyImported;
+  private final Map<RejectReason, Long> rejectedRows = new EnumMap<>(RejectReason.class);
+  private final Map<TopologyViolation, Long> topologyViolations = new EnumMap<>(TopologyViolation.class);
+
+  ImportSummary(String filePath, TopologyPolicy topologyPolicy) {
+    this.filePath = filePath;
+    this.topologyPolicy = topologyPolicy;
+  }
+
+  void rowRead() {
+    totalRows++;
+  }
+
+  void rowsStored(int rows) {
+    storedRows += rows;
+  }
+
+  void rowRejected(RejectReason reason) {
+    skippedRows++;
+    rejectedRows.merge(reason, 1L, Long::sum);
+  }
+
+  void rowQuarantined() {
+    skippedRows++;
+    quarantinedRows++;
+  }
+
+  void rowDuplicate() {
+    skippedRows++;
+    duplicateRows++;
+  }
+
+  void resumedAfterLine(long lineNumber) {
+    resumedAfterLine = lineNumber;
+  }
+
+  void alreadyImported() {
+    alreadyImported = true;
+  }
+
+  void topologyViolation(TopologyViolation violation) {
+    topologyViolations.merge(violation, 1L, Long::sum);
+  }
+
+  public String getFilePath() {
+    return filePath;
+  }
+
+  public TopologyPolicy getTopologyPolicy() {
+    return topologyPolicy;
+  }
+
+  /**
+   * @return number of data rows read from the file (header excluded)
+   */
+  public long getTotalRows() {
+    return totalRows;
+  }
+
+  /**
+   * @return number of rows persisted as measurements
+   */
+  public long getStoredRows() {
+    return storedRows;
+  }
+
+  /**
+   * @return number of rows not persisted (blank, malformed, rejected,
+   *         quarantined or duplicated)
+   */
+  public long getSkippedRows() {
+    return skippedRows;
+  }
+
+  /**
+   * @return number of rows written to the quarantine file
+   */
+  public long getQuarantinedRows() {
+    return quarantinedRows;
+  }
+
+  /**
+   * @return number of rows dropped because a measurement with the same sensor
+   *         and timestamp was already stored (resumable imports only)
+   */
+  public long getDuplicateRows() {
+    return duplicateRows;
+  }
+
+  /**
+   * @return line after which a resumable import restarted, {@code 0} if it
+   *         started from the beginning
+   */
+  public long getResumedAfterLine() {
+    return resumedAfterLine;
+  }
+
+  /**
+   * @return whether the import was skipped because a resumable import of the
+   *         same file content had already completed
+   */
+  public boolean isAlreadyImported() {
+    return alreadyImported;
+  }
+
+  /**
+   * @return number of rejected rows, by reason
+   */
+  public Map<RejectReason, Long> getRejectedRows() {
+    return Collections.unmodifiableMap(rejectedRows);
+  }
+
+  /**
+   * @param reason reject reason
+   * @return number of rows rejected for the given reason
+   */
+  public long getRejectedRows(RejectReason reason) {
+    return rejectedRows.getOrDefault(reason, 0L);
+  }
+
+  /**
+   * @return number of rows that did not match the topology, by violation
+   */
+  public Map<TopologyViolation, Long> getTopologyViolations() {
+    return Collections.unmodifiableMap(topologyViolations);
+  }
+
+  /**
+   * @param violation kind of violation
+   * @return number of rows found with the given violation
+   */
+  public long getTopologyViolations(TopologyViolation violation) {
+    return topologyViolations.getOrDefault(violation, 0L);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Total rows: %d, Stored: %d, Skipped: %d, Rejected: %s, Quarantined: %d, "
+        + "Duplicates: %d, Topology violations (%s): %s",
+        totalRows, storedRows, skippedRows, rejectedRows, quarantinedRows, duplicateRows, topologyPolicy,
+        topologyViolations);
+  }
+}
@@ -0,0 +1,90 @@
+package com.weather.report.services;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffered UTF-8 line reader that knows the byte offset of the next line, so
+ * that an import can record where it stopped and later seek back there.
+ * Lines end with {@code \n} or {@code \r\n}.
+ */
+class OffsetLineReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final FileInputStream input;
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private byte[] line = new byte[256];
+  private long offset;
+
+  OffsetLineReader(File file) throws IOException {
+    this.input = new FileInputStream(file);
+    this.channel = input.getChannel();
+    buffer.flip();
+  }
+
+  /**
+   * Moves to the given byte offset, discarding any buffered data.
+   *
+   * @param position offset of the next line to read
+   */
+  void seek(long position) throws IOException {
+    channel.position(position);
+    buffer.clear().flip();
+    offset = position;
+  }
+
+  /**
+   * @return byte offset of the next line
+   */
+  long getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return next line without terminator, {@code null} at end of file
+   */
+  String readLine() throws IOException {
+    int length = 0;
+    boolean readAny = false;
+    while (true) {
+      if (!buffer.hasRemaining()) {
+        buffer.clear();
+        int n = channel.read(buffer);
+        buffer.flip();
+        if (n <= 0) {
+          return readAny ? decode(length) : null;
+        }
+      }
+      readAny = true;
+      byte b = buffer.get();
+      offset++;
+      if (b == '\n') {
+        return decode(length);
+      }
+      if (length == line.length) {
+        line = Arrays.copyOf(line, length * 2);
+      }
+      line[length++] = b;
+    }
+  }
+
+  private String decode(int length) {
+    if (length > 0 && line[length - 1] == '\r') {
+      length--;
+    }
+    return new String(line, 0, length, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+}
@@ -0,0 +1,23 @@
+package com.weather.report.services;
+
+/**
+ * Reason codes recorded for CSV rows skipped by {@link DataImportingService}.
+ */
+public enum RejectReason {
+  /** empty line, counted but not written to the reject file */
+  BLANK_LINE,
+  /** the row does not have the expected number of columns */
+  COLUMN_COUNT,
+  /** network, gateway or sensor code is empty */
+  MISSING_CODE,
+  /** the date does not follow {@code WeatherReport.DATE_FORMAT} */
+  INVALID_DATE,
+  /** the value is not a number */
+  INVALID_VALUE,
+  /** the row could not be parsed for any other reason */
+  PARSE_ERROR,
+  /** the row does not match the configured topology (see {@link TopologyPolicy#REJECT}) */
+  TOPOLOGY_MISMATCH,
+  /** the measurement could not be persisted */
+  STORAGE_ERROR
+}
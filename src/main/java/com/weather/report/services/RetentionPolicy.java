@@ -0,0 +1,83 @@
+package com.weather.report.services;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.weather.report.model.AggregateResolution;
+
+/**
+ * How long the raw measurements of a network are kept and how they are
+ * summarised afterwards by the {@link RetentionService}.
+ * <p>
+ * Instances are immutable: every {@code with*} method returns a modified copy.
+ */
+public final class RetentionPolicy {
+
+  /** system property overriding the default number of days raw data is kept */
+  public static final String RAW_DAYS_PROPERTY = "weather.retention.rawDays";
+
+  /** system property overriding the default resolution ({@code HOURLY} or {@code DAILY}) */
+  public static final String RESOLUTION_PROPERTY = "weather.retention.resolution";
+
+  private static final int DEFAULT_RAW_DAYS = 90;
+
+  private final int rawDays;
+  private final AggregateResolution resolution;
+
+  private RetentionPolicy(int rawDays, AggregateResolution resolution) {
+    if (rawDays < 0) {
+      throw new IllegalArgumentException("Raw retention cannot be negative");
+    }
+    if (resolution == null) {
+      throw new IllegalArgumentException("Resolution cannot be null");
+    }
+    this.rawDays = rawDays;
+    this.resolution = resolution;
+  }
+
+  /**
+   * @return policy configured through system properties, falling back to 90
+   *         days of raw data rolled up into hourly aggregates
+   */
+  public static RetentionPolicy defaults() {
+    String resolution = System.getProperty(RESOLUTION_PROPERTY);
+    return new RetentionPolicy(
+        Integer.getInteger(RAW_DAYS_PROPERTY, DEFAULT_RAW_DAYS),
+        resolution == null ? AggregateResolution.HOURLY : parseResolution(resolution));
+  }
+
+  private static AggregateResolution parseResolution(String value) {
+    try {
+      return AggregateResolution.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid " + RESOLUTION_PROPERTY + " '" + value + "', expected one of "
+          + Arrays.toString(AggregateResolution.values()), e);
+    }
+  }
+
+  /**
+   * @param rawDays number of days raw measurements are kept before being
+   *                rolled up
+   * @return modified copy of the policy
+   */
+  public RetentionPolicy withRawDays(int rawDays) {
+    return new RetentionPolicy(rawDays, resolution);
+  }
+
+  /**
+   * @param resolution width of the buckets older measurements are rolled up
+   *                   into
+   * @return modified copy of the policy
+   */
+  public RetentionPolicy withResolution(AggregateResolution resolution) {
+    return new RetentionPolicy(rawDays, resolution);
+  }
+
+  public int getRawDays() {
+    return rawDays;
+  }
+
+  public AggregateResolution getResolution() {
+    return resolution;
+  }
+}
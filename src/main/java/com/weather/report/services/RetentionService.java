@@ -0,0 +1,205 @@
+package com.weather.report.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.repositories.Repositories;
+
+/**
+ * Retention engine compacting old measurements.
+ * <p>
+ * For every network, raw measurements older than the
+ * {@linkplain RetentionPolicy#getRawDays() retention period} of its policy
+ * are rolled up into hourly or daily
+ * {@link com.weather.report.model.entities.MeasurementAggregate aggregates}
+ * and deleted, one batch per transaction so that imports and reports are
+ * never blocked for long. Reports combine the aggregates with the remaining
+ * raw rows, so their counts and statistics do not change when data is
+ * compacted, as long as the report window is aligned on the bucket
+ * boundaries: a bucket cut by the window is counted in full.
+ * <p>
+ * Runs can be triggered with {@link #runOnce()} or scheduled on a background
+ * thread with {@link #start(Duration)}.
+ */
+public class RetentionService implements AutoCloseable {
+
+  private static final Logger logger = LogManager.getLogger(RetentionService.class);
+
+  /** system property overriding the default number of rows per transaction */
+  public static final String BATCH_SIZE_PROPERTY = "weather.retention.batchSize";
+
+  private static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final RetentionPolicy defaultPolicy;
+  private final Map<String, RetentionPolicy> networkPolicies = new ConcurrentHashMap<>();
+  private final Clock clock;
+  private final int batchSize;
+  private final MeasurementRepository measurementRepo = Repositories.measurements();
+
+  private final AtomicLong runs = new AtomicLong();
+  private final AtomicLong rowsRolledUp = new AtomicLong();
+  private final AtomicLong lastRunMillis = new AtomicLong();
+
+  private volatile ScheduledExecutorService scheduler;
+
+  /**
+   * @param defaultPolicy policy of the networks without a specific one
+   */
+  public RetentionService(RetentionPolicy defaultPolicy) {
+    this(defaultPolicy, Clock.systemDefaultZone(), Integer.getInteger(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE));
+  }
+
+  /**
+   * @param defaultPolicy policy of the networks without a specific one
+   * @param clock         source of the current time the retention periods
+   *                      are counted from
+   * @param batchSize     number of measurements rolled up per transaction
+   */
+  public RetentionService(RetentionPolicy defaultPolicy, Clock clock, int batchSize) {
+    if (defaultPolicy == null || clock == null) {
+      throw new IllegalArgumentException("Policy and clock cannot be null");
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.defaultPolicy = defaultPolicy;
+    this.clock = clock;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Overrides the default policy for a network.
+   *
+   * @param networkCode network code
+   * @param policy      policy of the network, {@code null} to fall back to the
+   *                    default one
+   */
+  public void setNetworkPolicy(String networkCode, RetentionPolicy policy) {
+    if (policy == null) {
+      networkPolicies.remove(networkCode);
+    } else {
+      networkPolicies.put(networkCode, policy);
+    }
+  }
+
+  /**
+   * @param networkCode network code
+   * @return policy applied to the network
+   */
+  public RetentionPolicy getPolicy(String networkCode) {
+    return networkPolicies.getOrDefault(networkCode, defaultPolicy);
+  }
+
+  /**
+   * Rolls up every measurement older than the retention period of its network.
+   * Only complete buckets are compacted: the cutoff is aligned to the start of
+   * the bucket containing the end of the retention period.
+   *
+   * @return number of raw measurements rolled up and deleted
+   */
+  public synchronized long runOnce() {
+    long start = System.nanoTime();
+    LocalDateTime now = LocalDateTime.now(clock);
+    long total = 0;
+    for (String networkCode : measurementRepo.findNetworkCodes()) {
+      RetentionPolicy policy = getPolicy(networkCode);
+      LocalDateTime cutoff = policy.getResolution().bucketOf(now.minusDays(policy.getRawDays()));
+      long network = 0;
+      int rolled;
+      while ((rolled = measurementRepo.rollUp(networkCode, cutoff, policy.getResolution(), batchSize)) > 0) {
+        network += rolled;
+      }
+      if (network > 0) {
+        logger.info("Rolled up {} measurements of {} older than {} into {} aggregates", network, networkCode,
+            cutoff, policy.getResolution());
+      }
+      total += network;
+    }
+    runs.incrementAndGet();
+    rowsRolledUp.addAndGet(total);
+    lastRunMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return total;
+  }
+
+  /**
+   * Runs the retention engine periodically on a background thread, the first
+   * time right away.
+   *
+   * @param period delay between the end of a run and the start of the next
+   */
+  public synchronized void start(Duration period) {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "measurement-retention");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::runSafely, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+    logger.info("Retention scheduled every {}", period);
+  }
+
+  // an exception escaping a scheduled task would cancel every later run
+  private void runSafely() {
+    try {
+      runOnce();
+    } catch (RuntimeException e) {
+      logger.error("Retention run failed", e);
+    }
+  }
+
+  /**
+   * Stops the background runs and waits for the current one, if any.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    ScheduledExecutorService current;
+    synchronized (this) {
+      current = scheduler;
+      scheduler = null;
+    }
+    if (current == null) {
+      return;
+    }
+    current.shutdown();
+    current.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    logger.info("Retention stopped");
+  }
+
+  public boolean isRunning() {
+    return scheduler != null;
+  }
+
+  /**
+   * @return number of completed runs
+   */
+  public long getRuns() {
+    return runs.get();
+  }
+
+  /**
+   * @return raw measurements rolled up since the service was created
+   */
+  public long getRowsRolledUp() {
+    return rowsRolledUp.get();
+  }
+
+  /**
+   * @return duration of the last completed run
+   */
+  public long getLastRunMillis() {
+    return lastRunMillis.get();
+  }
+}
@@ -0,0 +1,66 @@
+package com.weather.report.services;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered text file written next to an imported CSV (rejects, quarantine).
+ * <p>
+ * The file is created, and its header written, only when the first row is
+ * appended, so clean imports leave no empty files behind.
+ */
+class SidecarFile implements Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final File target;
+  private final String header;
+  private final boolean append;
+  private BufferedWriter writer;
+  private long rows;
+
+  /**
+   * @param source CSV file being imported
+   * @param suffix suffix appended to the source path
+   * @param header first line of the file
+   * @param append whether rows are added to an existing file (resumed import)
+   */
+  SidecarFile(File source, String suffix, String header, boolean append) {
+    this.target = new File(source.getPath() + suffix);
+    this.header = header;
+    this.append = append;
+  }
+
+  void append(String row) throws IOException {
+    if (writer == null) {
+      boolean writeHeader = !append || target.length() == 0;
+      writer = new BufferedWriter(new FileWriter(target, StandardCharsets.UTF_8, append), BUFFER_SIZE);
+      if (writeHeader) {
+        writer.write(header);
+        writer.newLine();
+      }
+    }
+    writer.write(row);
+    writer.newLine();
+    rows++;
+  }
+
+  File getTarget() {
+    return target;
+  }
+
+  long getRows() {
+    return rows;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (writer != null) {
+      writer.close();
+    }
+  }
+}
@@ -0,0 +1,338 @@
+package com.weather.report.services;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.repositories.Repositories;
+
+/**
+ * Long-running ingestion of CSV files dropped into a spool directory.
+ * <p>
+ * A single background thread watches the directory with a {@link WatchService},
+ * waits until a new file has not changed for {@link #SETTLE_MILLIS} (so
+ * half-written files are not read), imports it through
+ * {@link DataImportingService} on the already open persistence unit, and moves
+ * it, with its reject/quarantine sidecars, to the {@code done} or
+ * {@code failed} sub-directory. Lag and throughput counters can be read at any
+ * time from other threads.
+ */
+public class SpoolIngestionService implements AutoCloseable {
+
+  private static final Logger logger = LogManager.getLogger(SpoolIngestionService.class);
+
+  public static final String DONE_DIR = "done";
+  public static final String FAILED_DIR = "failed";
+
+  /** time a file must stay unchanged before being imported */
+  public static final long SETTLE_MILLIS = 500;
+
+  private static final String CSV_EXTENSION = ".csv";
+
+  private final Path spoolDir;
+  private final Path doneDir;
+  private final Path failedDir;
+  private final ImportOptions options;
+
+  // file -> nanoTime of the last event seen for it, only touched by the worker thread
+  private final Map<Path, Long> pending = new LinkedHashMap<>();
+
+  private final AtomicLong filesImported = new AtomicLong();
+  private final AtomicLong filesFailed = new AtomicLong();
+  private final AtomicLong rowsStored = new AtomicLong();
+  private final AtomicLong rowsSkipped = new AtomicLong();
+  private final AtomicLong importNanos = new AtomicLong();
+  private final AtomicLong lastLagMillis = new AtomicLong();
+  private final AtomicLong maxLagMillis = new AtomicLong();
+  private final AtomicLong pendingFiles = new AtomicLong();
+
+  private WatchService watcher;
+  private Thread worker;
+  private volatile boolean running;
+
+  /**
+   * @param spoolDir directory where CSV files are dropped
+   * @param options  settings used for every import
+   */
+  public SpoolIngestionService(Path spoolDir, ImportOptions options) {
+    this.spoolDir = spoolDir.toAbsolutePath();
+    this.doneDir = this.spoolDir.resolve(DONE_DIR);
+    this.failedDir = this.spoolDir.resolve(FAILED_DIR);
+    this.options = options;
+  }
+
+  /**
+   * Boots the persistence unit, then starts watching the spool directory.
+   * Files already present are imported first.
+   *
+   * @throws IOException if the directories cannot be created or watched
+   */
+  public synchronized void start() throws IOException {
+    if (worker != null) {
+      return;
+    }
+    Files.createDirectories(doneDir);
+    Files.createDirectories(failedDir);
+
+    // pay the Hibernate bootstrap once, before the first file arrives
+    PersistenceManager.warmUp();
+
+    watcher = spoolDir.getFileSystem().newWatchService();
+    spoolDir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY);
+    running = true;
+    worker = new Thread(this::run, "spool-ingestion");
+    worker.setDaemon(true);
+    worker.start();
+    logger.info("Watching {} for CSV files", spoolDir);
+  }
+
+  /**
+   * Stops watching and waits for the file being imported, if any.
+   */
+  @Override
+  public synchronized void close() throws IOException, InterruptedException {
+    // the worker may already have stopped on an unexpected error
+    if (worker == null) {
+      return;
+    }
+    running = false;
+    watcher.close();
+    worker.join();
+    worker = null;
+    logger.info("Stopped watching {}", spoolDir);
+  }
+
+  private void run() {
+    try {
+      rescan();
+      while (running) {
+        WatchKey key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+        if (key != null) {
+          for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+              rescan();
+            } else {
+              track(spoolDir.resolve((Path) event.context()));
+            }
+          }
+          key.reset();
+        }
+        importSettledFiles();
+      }
+    } catch (ClosedWatchServiceException | InterruptedException e) {
+      logger.debug("Spool watcher stopped: {}", e.getMessage());
+    } catch (Throwable e) {
+      logger.error("Spool ingestion of {} stopped on an unexpected error", spoolDir, e);
+    } finally {
+      // isRunning() must not report a dead worker as healthy
+      running = false;
+    }
+  }
+
+  // a failed scan only delays the files it missed: they are tracked again on their next event or scan
+  private void rescan() {
+    try {
+      scanSpoolDirectory();
+    } catch (IOException e) {
+      logger.error("Cannot scan spool directory {}", spoolDir, e);
+    }
+  }
+
+  private void scanSpoolDirectory() throws IOException {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir)) {
+      for (Path file : files) {
+        track(file);
+      }
+    }
+  }
+
+  private void track(Path file) {
+    if (!isImportable(file)) {
+      return;
+    }
+    pending.put(file, System.nanoTime());
+    pendingFiles.set(pending.size());
+  }
+
+  // sidecars written next to the source must not be imported as new data
+  private static boolean isImportable(Path file) {
+    String name = file.getFileName().toString();
+    return name.endsWith(CSV_EXTENSION)
+        && !name.endsWith(DataImportingService.REJECTS_SUFFIX)
+        && !name.endsWith(DataImportingService.QUARANTINE_SUFFIX)
+        && Files.isRegularFile(file);
+  }
+
+  private void importSettledFiles() {
+    long settledBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS);
+    Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator();
+    while (running && it.hasNext()) {
+      Map.Entry<Path, Long> entry = it.next();
+      if (entry.getValue() - settledBefore > 0) {
+        continue;
+      }
+      it.remove();
+      pendingFiles.set(pending.size());
+      if (Files.isRegularFile(entry.getKey())) {
+        importFile(entry.getKey());
+      }
+    }
+  }
+
+  private void importFile(Path file) {
+    long start = System.nanoTime();
+    Path target;
+    try {
+      ImportSummary summary = DataImportingService.storeMeasurements(file.toString(), options);
+      rowsStored.addAndGet(summary.getStoredRows());
+      rowsSkipped.addAndGet(summary.getSkippedRows());
+      filesImported.incrementAndGet();
+      target = doneDir;
+    } catch (RuntimeException e) {
+      logger.error("Import of {} failed", file, e);
+      filesFailed.incrementAndGet();
+      target = failedDir;
+    }
+    importNanos.addAndGet(System.nanoTime() - start);
+    recordLag(file);
+
+    move(file, target);
+    move(Paths.get(file + DataImportingService.REJECTS_SUFFIX), target);
+    move(Paths.get(file + DataImportingService.QUARANTINE_SUFFIX), target);
+  }
+
+  // lag: time between the file landing in the spool and the end of its import
+  private void recordLag(Path file) {
+    try {
+      long lag = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+      lastLagMillis.set(lag);
+      maxLagMillis.accumulateAndGet(lag, Math::max);
+    } catch (IOException e) {
+      logger.debug("Cannot read modification time of {}: {}", file, e.getMessage());
+    }
+  }
+
+  private void move(Path file, Path directory) {
+    if (!Files.exists(file)) {
+      return;
+    }
+    Path destination = directory.resolve(file.getFileName());
+    if (Files.exists(destination)) {
+      destination = directory.resolve(System.currentTimeMillis() + "-" + file.getFileName());
+    }
+    try {
+      Files.move(file, destination, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.error("Cannot move {} to {}", file, directory, e);
+    }
+  }
+
+  public Path getSpoolDirectory() {
+    return spoolDir;
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * @return number of files imported and moved to {@code done}
+   */
+  public long getFilesImported() {
+    return filesImported.get();
+  }
+
+  /**
+   * @return number of files whose import failed, moved to {@code failed}
+   */
+  public long getFilesFailed() {
+    return filesFailed.get();
+  }
+
+  /**
+   * @return files detected but not imported yet
+   */
+  public long getPendingFiles() {
+    return pendingFiles.get();
+  }
+
+  public long getRowsStored() {
+    return rowsStored.get();
+  }
+
+  public long getRowsSkipped() {
+    return rowsSkipped.get();
+  }
+
+  /**
+   * @return milliseconds between the last file landing and its import ending
+   */
+  public long getLastLagMillis() {
+    return lastLagMillis.get();
+  }
+
+  /**
+   * @return highest lag observed since the service started
+   */
+  public long getMaxLagMillis() {
+    return maxLagMillis.get();
+  }
+
+  /**
+   * @return stored rows per second of import time, {@code 0} before the first
+   *         import
+   */
+  public double getRowsPerSecond() {
+    long nanos = importNanos.get();
+    return nanos == 0 ? 0.0 : rowsStored.get() * 1_000_000_000.0 / nanos;
+  }
+
+  /**
+   * Runs the service until the JVM is stopped.
+   *
+   * @param args spool directory
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 1) {
+      System.err.println("Usage: SpoolIngestionService <spool-directory>");
+      System.exit(1);
+    }
+    SpoolIngestionService service = new SpoolIngestionService(Paths.get(args[0]), ImportOptions.defaults());
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        service.close();
+      } catch (IOException | InterruptedException e) {
+        logger.error("Error stopping spool ingestion", e);
+      }
+      AlertingService.shutdown();
+      try {
+        Repositories.closeMeasurementStores();
+      } catch (IOException e) {
+        logger.error("Error closing the measurement chunk files", e);
+      }
+      PersistenceManager.close();
+    }));
+    service.start();
+    Thread.currentThread().join();
+  }
+}
@@ -0,0 +1,240 @@
+package com.weather.report.services;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoublePredicate;
+
+import com.weather.report.model.ThresholdType;
+import com.weather.report.model.entities.Threshold;
+import com.weather.report.persistence.PersistenceManager;
+
+/**
+ * A sensor {@link Threshold} compiled into a {@link DoublePredicate}.
+ * <p>
+ * Every type is reduced to a closed interval of anomalous values, or to the
+ * complement of one, so that evaluating a measurement costs a subtraction and
+ * two comparisons whatever the type, with no boxing and no switch; exclusive
+ * bounds are moved to the next representable double. {@code EQUAL} and
+ * {@code NOT_EQUAL} compare the distance to the value, the other types the
+ * value itself, so that the result is exactly the one of the plain comparison.
+ * {@code NaN} is never anomalous.
+ * <p>
+ * With a positive hysteresis the evaluator alerts once per excursion: after an
+ * alert it stays disarmed until a value falls inside the limit widened by the
+ * hysteresis. Evaluators are shared by the imports through {@link #of}, so
+ * the state survives from one file to the next and is only dropped when the
+ * threshold changes or {@link PersistenceManager} closes its factory.
+ */
+public final class ThresholdEvaluator implements DoublePredicate {
+
+  // tolerance of EQUAL and NOT_EQUAL
+  static final double EPSILON = 0.0001;
+
+  // sensor code -> evaluator compiled from its current threshold
+  private static final Map<String, ThresholdEvaluator> COMPILED = new ConcurrentHashMap<>();
+
+  static {
+    PersistenceManager.addResetListener(COMPILED::clear);
+  }
+
+  private final ThresholdType type;
+  private final double value;
+  private final Double upperValue;
+  private final double hysteresis;
+
+  // anomalous: low <= x - shift <= high, or the opposite when outside
+  private final double shift;
+  private final boolean outside;
+  private final double low;
+  private final double high;
+  // back to normal: rearmLow <= x - shift <= rearmHigh when outside, the opposite otherwise
+  private final double rearmLow;
+  private final double rearmHigh;
+
+  private final AtomicBoolean armed = new AtomicBoolean(true);
+
+  private ThresholdEvaluator(ThresholdType type, double value, Double upperValue, double hysteresis) {
+    this.type = Objects.requireNonNull(type);
+    this.value = value;
+    this.upperValue = upperValue;
+    this.hysteresis = hysteresis;
+
+    double upper = upperValue != null ? upperValue : value;
+    this.outside = type == ThresholdType.NOT_EQUAL || type == ThresholdType.OUTSIDE_RANGE;
+    this.shift = type == ThresholdType.EQUAL || type == ThresholdType.NOT_EQUAL ? value : 0.0;
+    switch (type) {
+      case LESS_THAN -> {
+        low = Double.NEGATIVE_INFINITY;
+        high = Math.nextDown(value);
+      }
+      case LESS_OR_EQUAL -> {
+        low = Double.NEGATIVE_INFINITY;
+        high = value;
+      }
+      case GREATER_THAN -> {
+        low = Math.nextUp(value);
+        high = Double.POSITIVE_INFINITY;
+      }
+      case GREATER_OR_EQUAL -> {
+        low = value;
+        high = Double.POSITIVE_INFINITY;
+      }
+      // |x - value| < EPSILON, NOT_EQUAL being anomalous outside of it
+      case EQUAL, NOT_EQUAL -> {
+        low = Math.nextUp(-EPSILON);
+        high = Math.nextDown(EPSILON);
+      }
+      case INSIDE_RANGE, OUTSIDE_RANGE -> {
+        low = value;
+        high = upper;
+      }
+      default -> throw new IllegalArgumentException("Unsupported threshold type " + type);
+    }
+    // the rearm band is the normal range shrunk by the hysteresis
+    this.rearmLow = outside ? low + hysteresis : low - hysteresis;
+    this.rearmHigh = outside ? high - hysteresis : high + hysteresis;
+  }
+
+  /**
+   * Compiles a threshold.
+   *
+   * @param threshold threshold to compile
+   * @return a new evaluator, armed
+   */
+  public static ThresholdEvaluator compile(Threshold threshold) {
+    return new ThresholdEvaluator(threshold.getType(), threshold.getValue(),
+        threshold.getType().isRange() ? threshold.getUpperValue() : null, threshold.getHysteresis());
+  }
+
+  /**
+   * Returns the shared evaluator of a sensor, compiling it again if the
+   * threshold changed since the last call.
+   *
+   * @param sensorCode code of the sensor
+   * @param threshold  current threshold of the sensor
+   * @return the shared evaluator of the sensor
+   */
+  public static ThresholdEvaluator of(String sensorCode, Threshold threshold) {
+    ThresholdEvaluator evaluator = COMPILED.get(sensorCode);
+    if (evaluator != null && evaluator.compiledFrom(threshold)) {
+      return evaluator;
+    }
+    ThresholdEvaluator compiled = compile(threshold);
+    COMPILED.put(sensorCode, compiled);
+    return compiled;
+  }
+
+  private boolean compiledFrom(Threshold threshold) {
+    return type == threshold.getType()
+        && Double.compare(value, threshold.getValue()) == 0
+        && (!type.isRange() || Objects.equals(upperValue, threshold.getUpperValue()))
+        && Double.compare(hysteresis, threshold.getHysteresis()) == 0;
+  }
+
+  /**
+   * @param measuredValue measured value
+   * @return whether the value is anomalous, regardless of the hysteresis
+   */
+  @Override
+  public boolean test(double measuredValue) {
+    double v = measuredValue - shift;
+    return outside ? v < low || v > high : v >= low && v <= high;
+  }
+
+  private boolean rearms(double measuredValue) {
+    double v = measuredValue - shift;
+    return outside ? v >= rearmLow && v <= rearmHigh : v < rearmLow || v > rearmHigh;
+  }
+
+  /**
+   * Evaluates a measurement, updating the hysteresis state.
+   *
+   * @param measuredValue measured value
+   * @return whether the measurement must raise an alert
+   */
+  public boolean alert(double measuredValue) {
+    if (hysteresis == 0.0) {
+      return test(measuredValue);
+    }
+    if (armed.get()) {
+      return test(measuredValue) && armed.compareAndSet(true, false);
+    }
+    if (rearms(measuredValue)) {
+      armed.set(true);
+    }
+    return false;
+  }
+
+  /**
+   * Finds the anomalous values of a slice, regardless of the hysteresis.
+   *
+   * @param values values to evaluate
+   * @param from   first index, inclusive
+   * @param to     last index, exclusive
+   * @param hits   receives the indexes of the anomalous values, in order; at
+   *               least {@code to - from} long
+   * @return number of anomalous values
+   */
+  public int scan(double[] values, int from, int to, int[] hits) {
+    int count = 0;
+    // one branch-free loop per shape, the common case being a slice with no hit
+    if (outside) {
+      for (int i = from; i < to; i++) {
+        double v = values[i] - shift;
+        hits[count] = i;
+        count += (v < low | v > high) ? 1 : 0;
+      }
+    } else {
+      for (int i = from; i < to; i++) {
+        double v = values[i] - shift;
+        hits[count] = i;
+        count += (v >= low & v <= high) ? 1 : 0;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Evaluates a slice of consecutive measurements of the sensor, updating the
+   * hysteresis state as {@link #alert(double)} would for each value in turn.
+   *
+   * @param values values to evaluate, oldest first
+   * @param from   first index, inclusive
+   * @param to     last index, exclusive
+   * @param alerts receives the indexes of the values raising an alert, in
+   *               order; at least {@code to - from} long
+   * @return number of alerts
+   */
+  public int alerts(double[] values, int from, int to, int[] alerts) {
+    if (hysteresis == 0.0) {
+      return scan(values, from, to, alerts);
+    }
+    int count = 0;
+    boolean isArmed = armed.get();
+    for (int i = from; i < to; i++) {
+      if (isArmed) {
+        if (test(values[i])) {
+          alerts[count++] = i;
+          isArmed = false;
+        }
+      } else if (rearms(values[i])) {
+        isArmed = true;
+      }
+    }
+    armed.set(isArmed);
+    return count;
+  }
+
+  /**
+   * @return whether the next anomalous value raises an alert
+   */
+  public boolean isArmed() {
+    return hysteresis == 0.0 || armed.get();
+  }
+
+  public ThresholdType getType() {
+    return type;
+  }
+}
@@ -0,0 +1,33 @@
+package com.weather.report.services;
+
+import java.util.Locale;
+
+/**
+ * How {@link DataImportingService} treats rows whose network, gateway and
+ * sensor codes do not match the configured topology.
+ */
+public enum TopologyPolicy {
+  /** rows are stored without any topology check */
+  OFF,
+  /** inconsistent rows are skipped */
+  REJECT,
+  /** inconsistent rows are skipped and copied to a re-importable sidecar file */
+  QUARANTINE,
+  /** inconsistent rows are stored, marked with the detected violation */
+  ACCEPT_AND_FLAG;
+
+  /** system property selecting the default policy (e.g. {@code -Dweather.import.topologyPolicy=reject}) */
+  public static final String PROPERTY = "weather.import.topologyPolicy";
+
+  /**
+   * @return the policy configured through {@link #PROPERTY}, {@link #OFF} when
+   *         unset
+   */
+  public static TopologyPolicy fromSystemProperty() {
+    String value = System.getProperty(PROPERTY);
+    if (value == null || value.isBlank()) {
+      return OFF;
+    }
+    return valueOf(value.trim().toUpperCase(Locale.ROOT));
+  }
+}
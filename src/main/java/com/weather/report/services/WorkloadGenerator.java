@@ -0,0 +1,308 @@
+package com.weather.report.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.weather.report.WeatherReport;
+import com.weather.report.exceptions.WeatherReportException;
+import com.weather.report.model.ThresholdType;
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.operations.GatewayOperations;
+import com.weather.report.operations.NetworkOperations;
+import com.weather.report.operations.OperationsFactory;
+import com.weather.report.operations.SensorOperations;
+import com.weather.report.operations.TopologyOperations;
+
+/**
+ * Deterministic generator of synthetic topologies and measurement streams,
+ * shaped by a {@link WorkloadSpec}, for load and scale tests.
+ * <p>
+ * Network {@code n}, its gateway {@code g} and that gateway's sensor
+ * {@code s} (all counted from 1) are coded {@code NET_nn}, {@code GW_nngg}
+ * and {@code S_nnggss}. Every sensor reads a daily cycle around its own
+ * baseline plus Gaussian noise; outliers are spikes well outside that range
+ * but below the sensor's threshold, violations exceed it and gaps drop
+ * consecutive readings. Readings are produced in time order, all sensors at a
+ * given time before the next one, and rounded to two decimals so that the CSV
+ * and in-process outputs hold the same values.
+ * <p>
+ * Each sensor draws from its own generator seeded from the spec's seed, so the
+ * output depends on the spec only: not on the batch size, nor on how much of
+ * the stream was consumed before.
+ */
+public class WorkloadGenerator {
+
+  private static final Logger logger = LogManager.getLogger(WorkloadGenerator.class);
+
+  /** header line of the CSV files read by {@link DataImportingService} */
+  public static final String CSV_HEADER = "date, networkCode, gatewayCode, sensorCode, value";
+
+  private static final DateTimeFormatter CSV_DATE_FORMATTER = DateTimeFormatter.ofPattern(WeatherReport.DATE_FORMAT);
+
+  private static final double DAILY_AMPLITUDE = 5.0;
+  private static final double SECONDS_PER_DAY = 86_400.0;
+
+  private final WorkloadSpec spec;
+  private final List<String[]> sensors = new ArrayList<>();
+
+  public WorkloadGenerator(WorkloadSpec spec) {
+    if (spec == null) {
+      throw new IllegalArgumentException("Workload spec cannot be null");
+    }
+    this.spec = spec;
+    for (int n = 1; n <= spec.getNetworks(); n++) {
+      for (int g = 1; g <= spec.getGatewaysPerNetwork(); g++) {
+        for (int s = 1; s <= spec.getSensorsPerGateway(); s++) {
+          sensors.add(new String[] { String.format("NET_%02d", n), String.format("GW_%02d%02d", n, g),
+              String.format("S_%02d%02d%02d", n, g, s) });
+        }
+      }
+    }
+  }
+
+  public WorkloadSpec getSpec() {
+    return spec;
+  }
+
+  /**
+   * @return codes of the generated sensors, in generation order
+   */
+  public List<String> getSensorCodes() {
+    List<String> codes = new ArrayList<>(sensors.size());
+    for (String[] sensor : sensors) {
+      codes.add(sensor[2]);
+    }
+    return codes;
+  }
+
+  /**
+   * @param sensorCode code of a generated sensor
+   * @return the value above which the sensor's readings are violations
+   */
+  public double thresholdOf(String sensorCode) {
+    int index = getSensorCodes().indexOf(sensorCode);
+    if (index < 0) {
+      throw new IllegalArgumentException("Unknown sensor " + sensorCode);
+    }
+    return new SensorStream(index).threshold;
+  }
+
+  /**
+   * Creates the networks, gateways and sensors of the workload and connects
+   * them; every network gets one operator, so that violations are notified,
+   * and, if the spec says so, every sensor a {@link ThresholdType#GREATER_THAN}
+   * threshold.
+   *
+   * @param username maintainer creating the elements
+   * @throws WeatherReportException if an element cannot be created, e.g.
+   *                                because it already exists
+   */
+  public void createTopology(String username) throws WeatherReportException {
+    NetworkOperations networks = OperationsFactory.getNetworkOperations();
+    GatewayOperations gateways = OperationsFactory.getGatewayOperations();
+    SensorOperations sensorOperations = OperationsFactory.getSensorOperations();
+    TopologyOperations topology = OperationsFactory.getTopologyOperations();
+
+    String network = null;
+    String gateway = null;
+    for (int i = 0; i < sensors.size(); i++) {
+      String[] codes = sensors.get(i);
+      if (!codes[0].equals(network)) {
+        network = codes[0];
+        String email = "operator." + network.toLowerCase(Locale.ROOT) + "@example.com";
+        networks.createNetwork(network, "Network " + network, null, username);
+        networks.createOperator("Operator", network, email, null, username);
+        networks.addOperatorToNetwork(network, email, username);
+      }
+      if (!codes[1].equals(gateway)) {
+        gateway = codes[1];
+        gateways.createGateway(gateway, "Gateway " + gateway, null, username);
+        topology.connectGateway(network, gateway, username);
+      }
+      sensorOperations.createSensor(codes[2], "Sensor " + codes[2], null, username);
+      topology.connectSensor(codes[2], gateway, username);
+      if (spec.hasThresholds()) {
+        sensorOperations.createThreshold(codes[2], ThresholdType.GREATER_THAN, new SensorStream(i).threshold,
+            username);
+      }
+    }
+    logger.info("Created synthetic topology of {} sensors", sensors.size());
+  }
+
+  /**
+   * @return a new stream over the whole workload, from its first reading
+   */
+  public Iterator<Measurement> iterator() {
+    return new Readings();
+  }
+
+  /**
+   * Hands the workload to a sink in batches, e.g. {@code repository::append}.
+   *
+   * @param batchSize maximum number of measurements per batch
+   * @param sink      consumer of the batches, which it may keep
+   * @return number of measurements produced
+   */
+  public long emit(int batchSize, Consumer<List<Measurement>> sink) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    long count = 0;
+    List<Measurement> batch = new ArrayList<>(batchSize);
+    for (Iterator<Measurement> readings = iterator(); readings.hasNext();) {
+      batch.add(readings.next());
+      count++;
+      if (batch.size() == batchSize) {
+        sink.accept(batch);
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+    if (!batch.isEmpty()) {
+      sink.accept(batch);
+    }
+    return count;
+  }
+
+  /**
+   * Writes the workload as a CSV file that {@link DataImportingService} can
+   * import.
+   *
+   * @param file file to create or overwrite
+   * @return number of measurements written
+   * @throws IOException if the file cannot be written
+   */
+  public long writeCsv(Path file) throws IOException {
+    long count = 0;
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write(CSV_HEADER);
+      writer.newLine();
+      for (Iterator<Measurement> readings = iterator(); readings.hasNext();) {
+        writer.write(toCsvLine(readings.next()));
+        writer.newLine();
+        count++;
+      }
+    }
+    logger.info("Wrote {} synthetic measurements to {}", count, file);
+    return count;
+  }
+
+  /**
+   * @param measurement measurement to format
+   * @return the measurement as a line of the import CSV format
+   */
+  public static String toCsvLine(Measurement measurement) {
+    return measurement.getTimestamp().format(CSV_DATE_FORMATTER) + ", " + measurement.getNetworkCode() + ", "
+        + measurement.getGatewayCode() + ", " + measurement.getSensorCode() + ", "
+        + String.format(Locale.ROOT, "%.2f", measurement.getValue());
+  }
+
+  // state of one sensor: its parameters and its own random stream
+  private final class SensorStream {
+    private final Random random;
+    private final double baseline;
+    private final double spread;
+    private final double threshold;
+    private int silentReadings;
+
+    SensorStream(int index) {
+      this.random = new Random(spec.getSeed() * 1_000_003L + index);
+      this.baseline = 10.0 + 15.0 * random.nextDouble();
+      // outliers reach three spreads from the baseline, the threshold sits at four
+      this.spread = DAILY_AMPLITUDE + 3 * spec.getNoise();
+      this.threshold = round(baseline + 4 * spread);
+    }
+
+    // returns NaN when the sensor is silent; the draws are the same whatever the rates
+    double read(long epochSecond) {
+      double gap = random.nextDouble();
+      double noise = random.nextGaussian();
+      double kind = random.nextDouble();
+      double magnitude = random.nextDouble();
+      if (silentReadings > 0) {
+        silentReadings--;
+        return Double.NaN;
+      }
+      if (gap < spec.getGapRate()) {
+        silentReadings = spec.getGapLength() - 1;
+        return Double.NaN;
+      }
+
+      double value;
+      if (kind < spec.getViolationRate()) {
+        value = threshold + 0.1 * spread + magnitude * spread;
+      } else if (kind < spec.getViolationRate() + spec.getOutlierRate()) {
+        double offset = (2 + magnitude) * spread;
+        value = baseline + (noise < 0 ? -offset : offset);
+      } else {
+        double phase = 2 * Math.PI * Math.floorMod(epochSecond, (long) SECONDS_PER_DAY) / SECONDS_PER_DAY;
+        value = baseline + DAILY_AMPLITUDE * Math.sin(phase) + spec.getNoise() * noise;
+      }
+      return round(value);
+    }
+  }
+
+  private final class Readings implements Iterator<Measurement> {
+    private final SensorStream[] streams = new SensorStream[sensors.size()];
+    private final long samples = spec.getSamplesPerSensor();
+    private long sample;
+    private int sensor;
+    private Measurement next;
+
+    Readings() {
+      for (int i = 0; i < streams.length; i++) {
+        streams[i] = new SensorStream(i);
+      }
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Measurement next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Measurement current = next;
+      advance();
+      return current;
+    }
+
+    private void advance() {
+      next = null;
+      while (next == null && sample < samples) {
+        LocalDateTime timestamp = spec.getStart().plus(spec.getSamplingInterval().multipliedBy(sample));
+        double value = streams[sensor].read(timestamp.toLocalTime().toSecondOfDay());
+        if (!Double.isNaN(value)) {
+          String[] codes = sensors.get(sensor);
+          next = new Measurement(codes[0], codes[1], codes[2], value, timestamp);
+        }
+        if (++sensor == streams.length) {
+          sensor = 0;
+          sample++;
+        }
+      }
+    }
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 100) / 100.0;
+  }
+}
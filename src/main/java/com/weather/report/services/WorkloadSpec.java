@@ -0,0 +1,289 @@
+package com.weather.report.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Shape of a synthetic workload produced by the {@link WorkloadGenerator}:
+ * topology size, sampling, and the rates of noise, outliers, gaps and
+ * threshold violations in the measurement streams.
+ * <p>
+ * Instances are immutable: every {@code with*} method returns a modified copy.
+ */
+public final class WorkloadSpec {
+
+  /**
+   * prefix of the system properties overriding the defaults: {@code seed},
+   * {@code networks}, {@code gatewaysPerNetwork}, {@code sensorsPerGateway},
+   * {@code start}, {@code samplingInterval} and {@code duration} (ISO-8601),
+   * {@code noise}, {@code outlierRate}, {@code gapRate}, {@code gapLength},
+   * {@code violationRate}
+   */
+  public static final String PROPERTY_PREFIX = "weather.workload.";
+
+  // element codes have two digits per level (NET_nn, GW_nngg, S_nnggss)
+  private static final int MAX_PER_LEVEL = 99;
+
+  private long seed = 42L;
+  private int networks = 1;
+  private int gatewaysPerNetwork = 2;
+  private int sensorsPerGateway = 5;
+  private LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+  private Duration samplingInterval = Duration.ofHours(1);
+  private Duration duration = Duration.ofDays(7);
+  private double noise = 1.0;
+  private double outlierRate;
+  private double gapRate;
+  private int gapLength = 6;
+  private double violationRate;
+  private boolean thresholds = true;
+
+  private WorkloadSpec() {
+  }
+
+  private WorkloadSpec(WorkloadSpec other) {
+    this.seed = other.seed;
+    this.networks = other.networks;
+    this.gatewaysPerNetwork = other.gatewaysPerNetwork;
+    this.sensorsPerGateway = other.sensorsPerGateway;
+    this.start = other.start;
+    this.samplingInterval = other.samplingInterval;
+    this.duration = other.duration;
+    this.noise = other.noise;
+    this.outlierRate = other.outlierRate;
+    this.gapRate = other.gapRate;
+    this.gapLength = other.gapLength;
+    this.violationRate = other.violationRate;
+    this.thresholds = other.thresholds;
+  }
+
+  /**
+   * @return spec configured through system properties, falling back to one
+   *         network of two gateways with five sensors each, sampled hourly for
+   *         a week from 2025-01-01 with unit noise and no outliers, gaps or
+   *         violations
+   */
+  public static WorkloadSpec defaults() {
+    WorkloadSpec spec = new WorkloadSpec();
+    spec.seed = Long.getLong(PROPERTY_PREFIX + "seed", spec.seed);
+    spec.networks = Integer.getInteger(PROPERTY_PREFIX + "networks", spec.networks);
+    spec.gatewaysPerNetwork = Integer.getInteger(PROPERTY_PREFIX + "gatewaysPerNetwork", spec.gatewaysPerNetwork);
+    spec.sensorsPerGateway = Integer.getInteger(PROPERTY_PREFIX + "sensorsPerGateway", spec.sensorsPerGateway);
+    String start = System.getProperty(PROPERTY_PREFIX + "start");
+    if (start != null) {
+      spec.start = LocalDateTime.parse(start.trim());
+    }
+    spec.samplingInterval = durationProperty("samplingInterval", spec.samplingInterval);
+    spec.duration = durationProperty("duration", spec.duration);
+    spec.noise = doubleProperty("noise", spec.noise);
+    spec.outlierRate = doubleProperty("outlierRate", spec.outlierRate);
+    spec.gapRate = doubleProperty("gapRate", spec.gapRate);
+    spec.gapLength = Integer.getInteger(PROPERTY_PREFIX + "gapLength", spec.gapLength);
+    spec.violationRate = doubleProperty("violationRate", spec.violationRate);
+    return spec.validated();
+  }
+
+  /**
+   * @param seed seed of every random draw: equal specs produce equal workloads
+   * @return modified copy of the spec
+   */
+  public WorkloadSpec withSeed(long seed) {
+    WorkloadSpec copy = new WorkloadSpec(this);
+    copy.seed = seed;
+    return copy.validated();
+  }
+
+  /**
+   * @param networks           number of networks
+   * @param gatewaysPerNetwork number of gateways of each network
+   * @param sensorsPerGateway  number of sensors of each gateway
+   * @return modified copy of the spec
+   */
+  public WorkloadSpec withTopology(int networks, int gatewaysPerNetwork, int sensorsPerGateway) {
+    WorkloadSpec copy = new WorkloadSpec(this);
+    copy.networks = networks;
+    copy.gatewaysPerNetwork = gatewaysPerNetwork;
+    copy.sensorsPerGateway = sensorsPerGateway;
+    return copy.validated();
+  }
+
+  /**
+   * @param start            time of the first reading of every sensor
+   * @param samplingInterval time between two readings of a sensor
+   * @param duration         length of the generated period, the readings
+   *                         falling in {@code [start, start + duration)}
+   * @return modified copy of the spec
+   */
+  public WorkloadSpec withSampling(LocalDateTime start, Duration samplingInterval, Duration duration) {
+    WorkloadSpec copy = new WorkloadSpec(this);
+    copy.start = start;
+    copy.samplingInterval = samplingInterval;
+    copy.duration = duration;
+    return copy.validated();
+  }
+
+  /**
+   * @param noise standard deviation of the Gaussian noise added to every
+   *              reading
+   * @return modified copy of the spec
+   */
+  public WorkloadSpec withNoise(double noise) {
+    WorkloadSpec copy = new WorkloadSpec(this);
+    copy.noise = noise;
+    return copy.validated();
+  }
+
+  /**
+   * @param outlierRate probability that a reading is a spike far from the
+   *                    sensor's usual range, yet within its threshold
+   * @return modified copy of the spec
+   */
+  public WorkloadSpec withOutlierRate(double outlierRate) {
+    WorkloadSpec copy = new WorkloadSpec(this);
+    copy.outlierRate = outlierRate;
+    return copy.validated();
+  }
+
+  /**
+   * @param gapRate   probability that a sensor goes silent at a reading
+   * @param gapLength number of readings missed by a silent sensor
+   * @return modified copy of the spec
+   */
+  public WorkloadSpec withGaps(double gapRate, int gapLength) {
+    WorkloadSpec copy = new WorkloadSpec(this);
+    copy.gapRate = gapRate;
+    copy.gapLength = gapLength;
+    return copy.validated();
+  }
+
+  /**
+   * @param violationRate probability that a reading exceeds the sensor's
+   *                      threshold
+   * @return modified copy of the spec
+   */
+  public WorkloadSpec withViolationRate(double violationRate) {
+    WorkloadSpec copy = new WorkloadSpec(this);
+    copy.violationRate = violationRate;
+    return copy.validated();
+  }
+
+  /**
+   * @param thresholds whether the generated topology gives every sensor a
+   *                   threshold
+   * @return modified copy of the spec
+   */
+  public WorkloadSpec withThresholds(boolean thresholds) {
+    WorkloadSpec copy = new WorkloadSpec(this);
+    copy.thresholds = thresholds;
+    return copy.validated();
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public int getNetworks() {
+    return networks;
+  }
+
+  public int getGatewaysPerNetwork() {
+    return gatewaysPerNetwork;
+  }
+
+  public int getSensorsPerGateway() {
+    return sensorsPerGateway;
+  }
+
+  /**
+   * @return total number of sensors of the topology
+   */
+  public int getSensorCount() {
+    return networks * gatewaysPerNetwork * sensorsPerGateway;
+  }
+
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  public Duration getSamplingInterval() {
+    return samplingInterval;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  /**
+   * @return number of readings of each sensor, gaps included
+   */
+  public long getSamplesPerSensor() {
+    return Math.ceilDiv(duration.toSeconds(), samplingInterval.getSeconds());
+  }
+
+  public double getNoise() {
+    return noise;
+  }
+
+  public double getOutlierRate() {
+    return outlierRate;
+  }
+
+  public double getGapRate() {
+    return gapRate;
+  }
+
+  public int getGapLength() {
+    return gapLength;
+  }
+
+  public double getViolationRate() {
+    return violationRate;
+  }
+
+  public boolean hasThresholds() {
+    return thresholds;
+  }
+
+  private WorkloadSpec validated() {
+    if (networks < 1 || networks > MAX_PER_LEVEL || gatewaysPerNetwork < 1 || gatewaysPerNetwork > MAX_PER_LEVEL
+        || sensorsPerGateway < 1 || sensorsPerGateway > MAX_PER_LEVEL) {
+      throw new IllegalArgumentException("Topology sizes must be between 1 and " + MAX_PER_LEVEL);
+    }
+    if (start == null || samplingInterval == null || duration == null) {
+      throw new IllegalArgumentException("Sampling settings cannot be null");
+    }
+    // the CSV format has a one second resolution
+    if (start.getNano() != 0 || samplingInterval.getNano() != 0 || samplingInterval.getSeconds() < 1) {
+      throw new IllegalArgumentException("Start and sampling interval must be whole seconds");
+    }
+    if (duration.isNegative()) {
+      throw new IllegalArgumentException("Duration cannot be negative");
+    }
+    if (noise < 0 || gapLength < 1) {
+      throw new IllegalArgumentException("Noise cannot be negative and gaps last at least one reading");
+    }
+    checkRate(outlierRate, "Outlier rate");
+    checkRate(gapRate, "Gap rate");
+    checkRate(violationRate, "Violation rate");
+    if (outlierRate + violationRate > 1) {
+      throw new IllegalArgumentException("Outlier and violation rates cannot add up to more than 1");
+    }
+    return this;
+  }
+
+  private static void checkRate(double rate, String name) {
+    if (!(rate >= 0 && rate <= 1)) {
+      throw new IllegalArgumentException(name + " must be between 0 and 1");
+    }
+  }
+
+  private static double doubleProperty(String name, double fallback) {
+    String value = System.getProperty(PROPERTY_PREFIX + name);
+    return value == null ? fallback : Double.parseDouble(value.trim());
+  }
+
+  private static Duration durationProperty(String name, Duration fallback) {
+    String value = System.getProperty(PROPERTY_PREFIX + name);
+    return value == null ? fallback : Duration.parse(value.trim());
+  }
+}
@@ -8,7 +8,7 @@ import com.weather.report.exceptions.InvalidInputDataException;
 import com.weather.report.exceptions.UnauthorizedException;
 import com.weather.report.model.UserType;
 import com.weather.report.model.entities.User;
-import com.weather.report.repositories.CRUDRepository;
+import com.weather.report.repositories.Repositories;
 
 import jakarta.persistence.EntityManager;
 
@@ -65,8 +65,7 @@ public class ValidationUtils {
             throw new UnauthorizedException("Username cannot be null or empty");
         }
 
-        CRUDRepository<User, String> userRepo = new CRUDRepository<>(User.class);
-        User user = userRepo.read(username);
+        User user = Repositories.users().read(username);
 
         if (user == null) {
             throw new UnauthorizedException("User '" + username + "' not found");
@@ -0,0 +1,41 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.ConsoleAppender;
+import org.apache.logging.log4j.core.async.AsyncLoggerContext;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.services.DataImportingService;
+
+public class Test_AsyncLogging {
+
+  @Test
+  void loggersAreAsynchronous() {
+    assertInstanceOf(AsyncLoggerContext.class, LogManager.getContext(false),
+        "log4j2.component.properties must select the asynchronous context");
+  }
+
+  @Test
+  void hotPathsDoNotPayForLocationOrFlushes() {
+    LoggerContext context = (LoggerContext) LogManager.getContext(false);
+    LoggerConfig root = context.getConfiguration().getRootLogger();
+
+    assertFalse(root.isIncludeLocation(), "capturing the caller location walks the stack on every event");
+    ConsoleAppender console = context.getConfiguration().getAppender("Console");
+    assertFalse(console.getImmediateFlush());
+  }
+
+  @Test
+  void debugIsOffByDefault() {
+    // the guarded per-row debug calls of the import loop rely on it
+    assertTrue(LogManager.getLogger(DataImportingService.class).isEnabled(Level.INFO));
+    assertFalse(LogManager.getLogger(DataImportingService.class).isDebugEnabled());
+  }
+}
@@ -0,0 +1,66 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.model.UserType;
+import com.weather.report.model.entities.User;
+import com.weather.report.persistence.PersistenceManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+
+/**
+ * Boots the persistence unit the JMH benchmarks fork with, so that a broken
+ * benchmark configuration shows up in the regular build rather than only with
+ * the {@code benchmarks} profile.
+ */
+public class Test_BenchmarkPersistenceUnit {
+
+  private static final String BENCHMARK_PU = "weatherReportBenchmarkPU";
+
+  private EntityManagerFactory factory;
+
+  @BeforeEach
+  void boot() {
+    // the units share the second-level cache manager: only one factory at a time
+    PersistenceManager.close();
+    factory = Persistence.createEntityManagerFactory(BENCHMARK_PU);
+  }
+
+  @AfterEach
+  void shutDown() {
+    factory.close();
+  }
+
+  @Test
+  void unitIsTunedLikeProduction() {
+    Map<String, Object> properties = factory.getProperties();
+
+    assertEquals("50", String.valueOf(properties.get("hibernate.jdbc.batch_size")));
+    assertEquals("false", String.valueOf(properties.get("hibernate.show_sql")));
+    assertEquals("create", String.valueOf(properties.get("hibernate.hbm2ddl.auto")));
+  }
+
+  @Test
+  void schemaStartsEmptyAndAcceptsWrites() {
+    EntityManager em = factory.createEntityManager();
+    try {
+      assertEquals(0L, em.createQuery("SELECT COUNT(m) FROM Measurement m", Long.class).getSingleResult());
+
+      em.getTransaction().begin();
+      em.persist(new User("benchmark", UserType.MAINTAINER));
+      em.getTransaction().commit();
+
+      assertEquals(1L, em.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult());
+    } finally {
+      em.close();
+    }
+  }
+}
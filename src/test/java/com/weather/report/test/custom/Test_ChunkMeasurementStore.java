@@ -0,0 +1,130 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.repositories.chunks.ChunkMeasurementStore;
+
+public class Test_ChunkMeasurementStore {
+
+  private static final String NET = "NET_01";
+  private static final String GW = "GW_0101";
+  private static final String REGULAR = "S_010101";
+  private static final String IRREGULAR = "S_010102";
+  private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 1, 0, 0);
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void pointsSurviveReopenAndRangeScans() throws IOException {
+    Path file = dir.resolve("measurements.chunks");
+    List<Measurement> regular = regularSeries(3000);
+    List<Measurement> irregular = irregularSeries(700);
+
+    try (ChunkMeasurementStore store = new ChunkMeasurementStore(file, 500)) {
+      store.append(regular);
+      store.append(irregular);
+      // open chunks are visible before being written
+      assertSamePoints(regular, store.readBySensor(REGULAR, null, null));
+      assertSamePoints(irregular, store.readBySensor(IRREGULAR, null, null));
+    }
+
+    try (ChunkMeasurementStore store = new ChunkMeasurementStore(file, 500)) {
+      assertEquals(3700, store.getPointCount());
+      assertSamePoints(regular, store.readBySensor(REGULAR, null, null));
+      assertSamePoints(irregular, store.readBySensor(IRREGULAR, null, null));
+      assertSamePoints(regular.subList(1000, 1049),
+          store.readBySensor(REGULAR, T0.plusHours(1000), T0.plusHours(1048)));
+
+      long[] count = new long[1];
+      store.scan(REGULAR, T0.plusHours(2990), null, (second, value) -> count[0]++);
+      assertEquals(10, count[0]);
+      // regular timestamps and slowly changing values take a few bits per point
+      assertTrue(Files.size(file) < 3000 * 4 + 700 * 16, "file size " + Files.size(file));
+    }
+  }
+
+  @Test
+  void incompleteChunkAtTheEndIsDropped() throws IOException {
+    Path file = dir.resolve("measurements.chunks");
+    List<Measurement> regular = regularSeries(100);
+    try (ChunkMeasurementStore store = new ChunkMeasurementStore(file)) {
+      store.append(regular);
+    }
+    long size = Files.size(file);
+    Files.write(file, new byte[] { 0, 0, 0, 40, 0, 0, 1, 0, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+    try (ChunkMeasurementStore store = new ChunkMeasurementStore(file)) {
+      assertEquals(size, Files.size(file));
+      assertSamePoints(regular, store.readBySensor(REGULAR, null, null));
+      store.append(regular.subList(0, 1));
+    }
+    try (ChunkMeasurementStore store = new ChunkMeasurementStore(file)) {
+      assertEquals(2, store.getChunkCount());
+      assertEquals(101, store.getPointCount());
+    }
+  }
+
+  @Test
+  void gatewayAndNetworkReadsFilterTheChunkHeaders() throws IOException {
+    List<Measurement> regular = regularSeries(120);
+    List<Measurement> other = List.of(new Measurement("NET_02", "GW_0201", "S_020101", 1.0, T0));
+    // two sealed chunks and an open one
+    try (ChunkMeasurementStore store = new ChunkMeasurementStore(dir.resolve("measurements.chunks"), 50)) {
+      store.append(regular);
+      store.append(other);
+
+      assertSamePoints(regular, store.readByGateway(GW, null, null));
+      assertSamePoints(regular.subList(10, 21), store.readByNetwork(NET, T0.plusHours(10), T0.plusHours(20)));
+      assertSamePoints(other, store.readByNetwork("NET_02", null, null));
+      assertTrue(store.readByGateway("GW_9999", null, null).isEmpty());
+    }
+  }
+
+  // hourly readings varying by half a degree
+  private static List<Measurement> regularSeries(int size) {
+    List<Measurement> series = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      series.add(new Measurement(NET, GW, REGULAR, 20.0 + (i / 6 % 8) * 0.5, T0.plusHours(i)));
+    }
+    return series;
+  }
+
+  // jittered intervals, large gaps and awkward doubles
+  private static List<Measurement> irregularSeries(int size) {
+    double[] special = { Double.NaN, -0.0, Double.MAX_VALUE, Double.MIN_VALUE, Double.NEGATIVE_INFINITY };
+    Random random = new Random(42);
+    List<Measurement> series = new ArrayList<>();
+    LocalDateTime time = T0;
+    for (int i = 0; i < size; i++) {
+      time = time.plusSeconds(i % 97 == 0 ? 86_400L * 30 : 50 + random.nextInt(20));
+      double value = i % 50 == 0 ? special[i / 50 % special.length] : random.nextGaussian() * 100;
+      series.add(new Measurement(NET, GW, IRREGULAR, value, time));
+    }
+    return series;
+  }
+
+  private static void assertSamePoints(List<Measurement> expected, List<Measurement> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+      assertEquals(Double.doubleToRawLongBits(expected.get(i).getValue()),
+          Double.doubleToRawLongBits(actual.get(i).getValue()));
+      assertEquals(expected.get(i).getGatewayCode(), actual.get(i).getGatewayCode());
+    }
+  }
+}
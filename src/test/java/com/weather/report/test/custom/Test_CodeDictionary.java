@@ -0,0 +1,101 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.model.CodeType;
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.model.entities.MeasurementCode;
+import com.weather.report.persistence.CodeDictionary;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.UnitOfWork;
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.test.BasePersistenceTest;
+
+import jakarta.persistence.EntityManager;
+
+public class Test_CodeDictionary extends BasePersistenceTest {
+
+  private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 16, 8, 0);
+
+  private final MeasurementRepository repository = new MeasurementRepository();
+
+  @Test
+  void codesAreStoredOnceAndDecodedOnRead() {
+    repository.append(List.of(
+        new Measurement(NET_01, GW_0101, SENSOR_010101, 1.0, T0),
+        new Measurement(NET_01, GW_0101, SENSOR_010101, 2.0, T0.plusHours(1)),
+        new Measurement(NET_01, GW_0101, SENSOR_010102, 3.0, T0.plusHours(1))));
+
+    // one dictionary entry per distinct code, whatever the number of rows
+    assertEquals(4, entries().size());
+    Integer sensor = CodeDictionary.find(CodeType.SENSOR, SENSOR_010101);
+    assertEquals(SENSOR_010101, CodeDictionary.codeOf(sensor));
+    assertNull(CodeDictionary.find(CodeType.GATEWAY, SENSOR_010101));
+
+    List<Measurement> read = repository.readBySensor(SENSOR_010101, null, null);
+    assertEquals(2, read.size());
+    assertEquals(NET_01, read.get(0).getNetworkCode());
+    assertEquals(GW_0101, read.get(0).getGatewayCode());
+    assertSame(read.get(0).getSensorCode(), read.get(1).getSensorCode());
+    assertEquals(3, repository.readByGateway(GW_0101, null, null).size());
+    assertEquals(List.of(NET_01), repository.findNetworkCodes());
+    assertTrue(repository.findExistingKeys(List.of(SENSOR_010102), T0, T0.plusHours(1))
+        .contains(MeasurementRepository.duplicateKey(SENSOR_010102, T0.plusHours(1))));
+  }
+
+  @Test
+  void unknownCodesReadNothingAndAreNotAdded() {
+    repository.append(List.of(new Measurement(NET_01, GW_0101, SENSOR_010101, 1.0, T0)));
+
+    assertTrue(repository.readBySensor(SENSOR_010102, null, null).isEmpty());
+    assertTrue(repository.readByNetwork(NET_02, null, null).isEmpty());
+    assertTrue(repository.findExistingKeys(List.of(SENSOR_010102), T0, T0).isEmpty());
+    assertEquals(3, entries().size());
+  }
+
+  @Test
+  void rolledBackImportsLeaveNoCodesBehind() {
+    repository.append(List.of(new Measurement(NET_01, GW_0101, SENSOR_010101, 1.0, T0)));
+
+    try (UnitOfWork outer = UnitOfWork.begin()) {
+      repository.append(List.of(new Measurement(NET_02, GW_0102, SENSOR_010102, 2.0, T0)));
+      assertEquals(6, outer.getEntityManager().createNamedQuery(MeasurementCode.ALL, MeasurementCode.class)
+          .getResultList().size(), "new codes are written in the importing unit of work");
+      // closed without commit: rolled back
+    }
+
+    assertEquals(3, entries().size());
+    assertNull(CodeDictionary.find(CodeType.SENSOR, SENSOR_010102));
+    assertNull(CodeDictionary.find(CodeType.NETWORK, NET_02));
+  }
+
+  @Test
+  void missingCodesAreRememberedUntilStored() {
+    assertNull(CodeDictionary.find(CodeType.SENSOR, SENSOR_010101));
+    assertNull(CodeDictionary.find(CodeType.SENSOR, SENSOR_010101));
+
+    repository.append(List.of(new Measurement(NET_01, GW_0101, SENSOR_010101, 1.0, T0)));
+
+    Integer id = CodeDictionary.find(CodeType.SENSOR, SENSOR_010101);
+    assertNotNull(id, "storing a code must clear its negative entry");
+    assertEquals(1, repository.readBySensor(SENSOR_010101, null, null).size());
+  }
+
+  private static List<MeasurementCode> entries() {
+    EntityManager em = PersistenceManager.getEntityManager();
+    try {
+      return em.createNamedQuery(MeasurementCode.ALL, MeasurementCode.class).getResultList();
+    } finally {
+      em.close();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.ConcurrentWeatherReport;
+import com.weather.report.exceptions.ElementNotFoundException;
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.reports.SensorReport;
+import com.weather.report.services.ImportSummary;
+import com.weather.report.services.WorkloadGenerator;
+import com.weather.report.services.WorkloadSpec;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_ConcurrentWeatherReport extends BasePersistenceTest {
+
+  private static final int FILES = 4;
+  private static final int REPORT_ROUNDS = 20;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void importsAndReportsRunConcurrently() throws Exception {
+    WorkloadGenerator generator = new WorkloadGenerator(WorkloadSpec.defaults()
+        .withTopology(2, 2, 4)
+        .withSampling(LocalDateTime.of(2025, 3, 1, 0, 0), Duration.ofMinutes(30), Duration.ofDays(2))
+        .withViolationRate(0.02));
+    generator.createTopology(MAINTAINER_USERNAME);
+    List<String> sensors = generator.getSensorCodes();
+
+    // every file holds the readings of a quarter of the sensors, so the imports never store the same row
+    List<Path> files = new ArrayList<>();
+    List<BufferedWriter> writers = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      files.add(dir.resolve("part-" + i + ".csv"));
+      writers.add(Files.newBufferedWriter(files.get(i)));
+      writers.get(i).write(WorkloadGenerator.CSV_HEADER);
+      writers.get(i).newLine();
+    }
+    long written = 0;
+    for (Iterator<Measurement> readings = generator.iterator(); readings.hasNext(); written++) {
+      Measurement m = readings.next();
+      BufferedWriter writer = writers.get(sensors.indexOf(m.getSensorCode()) % FILES);
+      writer.write(WorkloadGenerator.toCsvLine(m));
+      writer.newLine();
+    }
+    for (BufferedWriter writer : writers) {
+      writer.close();
+    }
+
+    try (ConcurrentWeatherReport concurrent = new ConcurrentWeatherReport(8)) {
+      List<CompletableFuture<ImportSummary>> imports = new ArrayList<>();
+      for (Path file : files) {
+        imports.add(concurrent.importDataFromFile(file.toString()));
+      }
+      List<CompletableFuture<?>> reports = new ArrayList<>();
+      for (int round = 0; round < REPORT_ROUNDS; round++) {
+        reports.add(concurrent.getSensorReport(sensors.get(round % sensors.size()), null, null));
+        reports.add(concurrent.getGatewayReport(GW_0101, null, null));
+        reports.add(concurrent.getNetworkReport(NET_02, null, null));
+      }
+
+      CompletableFuture.allOf(reports.toArray(CompletableFuture[]::new)).get();
+      long stored = 0;
+      for (CompletableFuture<ImportSummary> future : imports) {
+        stored += future.get().getStoredRows();
+      }
+      assertEquals(written, stored);
+
+      List<CompletableFuture<SensorReport>> finals = new ArrayList<>();
+      for (String sensor : sensors) {
+        finals.add(concurrent.getSensorReport(sensor, null, null));
+      }
+      long reported = 0;
+      for (CompletableFuture<SensorReport> future : finals) {
+        reported += future.get().getNumberOfMeasurements();
+      }
+      assertEquals(written, reported);
+    }
+  }
+
+  @Test
+  void failuresCompleteTheFuture() {
+    try (ConcurrentWeatherReport concurrent = new ConcurrentWeatherReport()) {
+      ExecutionException e = assertThrows(ExecutionException.class,
+          () -> concurrent.getSensorReport(SENSOR_UNKNOWN, null, null).get());
+      assertInstanceOf(ElementNotFoundException.class, e.getCause());
+
+      assertThrows(ExecutionException.class,
+          () -> concurrent.submit(r -> r.networks().createNetwork(null, null, null, MAINTAINER_USERNAME)).get());
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.exceptions.WeatherReportException;
+import com.weather.report.model.TopologyViolation;
+import com.weather.report.model.entities.ImportCheckpoint;
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.repositories.CRUDRepository;
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.services.DataImportingService;
+import com.weather.report.services.ImportOptions;
+import com.weather.report.services.ImportSummary;
+import com.weather.report.services.RejectReason;
+import com.weather.report.services.TopologyPolicy;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_DataImport extends BasePersistenceTest {
+
+  private static final String S_010101 = "S_010101";
+
+  @TempDir
+  Path tempDir;
+
+  private Path copyResource(String name) throws IOException {
+    Path target = tempDir.resolve(name);
+    try (InputStream in = getClass().getClassLoader().getResourceAsStream("csv/" + name)) {
+      Files.copy(in, target);
+    }
+    return target;
+  }
+
+  private void configureTopology() throws WeatherReportException {
+    createNetwork(NET_01);
+    createGateway(GW_0101);
+    createSensor(S_010101);
+    connectGateway(NET_01, GW_0101);
+    connectSensor(S_010101, GW_0101);
+  }
+
+  @Test
+  void rejectPolicyKeepsOnlyConsistentRows() throws Exception {
+    configureTopology();
+
+    ImportSummary consistent = DataImportingService.storeMeasurements(
+        copyResource("S_111.csv").toString(), TopologyPolicy.REJECT);
+    ImportSummary unknown = DataImportingService.storeMeasurements(
+        copyResource("S_121.csv").toString(), TopologyPolicy.REJECT);
+
+    assertEquals(166, consistent.getStoredRows());
+    assertTrue(consistent.getTopologyViolations().isEmpty());
+    assertEquals(0, unknown.getStoredRows());
+    assertEquals(unknown.getTotalRows(), unknown.getTopologyViolations(TopologyViolation.UNKNOWN_SENSOR));
+    assertEquals(166, new MeasurementRepository().read().size());
+  }
+
+  @Test
+  void quarantinePolicyWritesReimportableFile() throws Exception {
+    configureTopology();
+    facade.topology().disconnectGateway(NET_01, GW_0101, MAINTAINER_USERNAME);
+
+    Path source = copyResource("S_111.csv");
+    ImportSummary summary = DataImportingService.storeMeasurements(source.toString(), TopologyPolicy.QUARANTINE);
+
+    Path quarantine = Path.of(source + DataImportingService.QUARANTINE_SUFFIX);
+    List<String> lines = Files.readAllLines(quarantine);
+    assertEquals(0, summary.getStoredRows());
+    assertEquals(166, summary.getTopologyViolations(TopologyViolation.NETWORK_MISMATCH));
+    assertEquals(167, lines.size(), "quarantine file must contain the header and every row");
+
+    connectGateway(NET_01, GW_0101);
+    ImportSummary replay = DataImportingService.storeMeasurements(quarantine.toString(), TopologyPolicy.REJECT);
+    assertEquals(166, replay.getStoredRows());
+  }
+
+  @Test
+  void acceptAndFlagPolicyStoresMarkedRows() throws Exception {
+    createSensor(S_010101);
+
+    ImportSummary summary = DataImportingService.storeMeasurements(
+        copyResource("S_111.csv").toString(), TopologyPolicy.ACCEPT_AND_FLAG);
+
+    List<Measurement> stored = new MeasurementRepository().read();
+    assertEquals(166, summary.getStoredRows());
+    assertEquals(166, stored.size());
+    assertFalse(stored.stream().anyMatch(m -> m.getTopologyViolation() != TopologyViolation.GATEWAY_MISMATCH));
+  }
+
+  @Test
+  void skippedRowsAreStreamedToRejectFile() throws Exception {
+    Path source = tempDir.resolve("bad.csv");
+    Files.write(source, List.of(
+        "date, networkCode, gatewayCode, sensorCode, value",
+        "2025-11-16 08:00:00, NET_01, GW_0101, S_010101, 20.45",
+        "2025-11-16 09:00:00, NET_01, GW_0101, S_010101",
+        "",
+        "16/11/2025 10:00, NET_01, GW_0101, S_010101, 17.18",
+        "2025-11-16 11:00:00, NET_01, GW_0101, S_010101, n/a"));
+
+    ImportSummary summary = DataImportingService.storeMeasurements(source.toString(), TopologyPolicy.OFF);
+
+    assertEquals(1, summary.getStoredRows());
+    assertEquals(4, summary.getSkippedRows());
+    assertEquals(1, summary.getRejectedRows(RejectReason.BLANK_LINE));
+    assertEquals(List.of(
+        "line,reason,row",
+        "3,COLUMN_COUNT,2025-11-16 09:00:00, NET_01, GW_0101, S_010101",
+        "5,INVALID_DATE,16/11/2025 10:00, NET_01, GW_0101, S_010101, 17.18",
+        "6,INVALID_VALUE,2025-11-16 11:00:00, NET_01, GW_0101, S_010101, n/a"),
+        Files.readAllLines(Path.of(source + DataImportingService.REJECTS_SUFFIX)));
+  }
+
+  @Test
+  void failedBatchStoresItsValidRowsOneByOne() throws Exception {
+    // the code does not fit the dictionary column, so only that row fails to store
+    String tooLong = "S_" + "9".repeat(300);
+    Path source = tempDir.resolve("storage.csv");
+    Files.write(source, List.of(
+        "date, networkCode, gatewayCode, sensorCode, value",
+        "2025-11-16 08:00:00, NET_01, GW_0101, S_010101, 20.45",
+        "2025-11-16 09:00:00, NET_01, GW_0101, " + tooLong + ", 18.20",
+        "2025-11-16 10:00:00, NET_01, GW_0101, S_010101, 17.18"));
+
+    ImportSummary summary = DataImportingService.storeMeasurements(source.toString(),
+        ImportOptions.defaults().withTopologyPolicy(TopologyPolicy.OFF).withBatchSize(10));
+
+    assertEquals(2, summary.getStoredRows());
+    assertEquals(1, summary.getRejectedRows(RejectReason.STORAGE_ERROR));
+    assertEquals(2, new MeasurementRepository().readBySensor(S_010101, null, null).size());
+    List<String> rejects = Files.readAllLines(Path.of(source + DataImportingService.REJECTS_SUFFIX));
+    assertEquals(2, rejects.size(), rejects.toString());
+    assertTrue(rejects.get(1).startsWith("3,STORAGE_ERROR,"), rejects.get(1));
+  }
+
+  @Test
+  void resumableImportIsIdempotent() throws Exception {
+    ImportOptions resumable = ImportOptions.defaults().withResumable(true).withBatchSize(40);
+    Path source = copyResource("S_111.csv");
+
+    ImportSummary first = facade.importDataFromFile(source.toString(), resumable);
+    ImportSummary again = facade.importDataFromFile(source.toString(), resumable);
+    Path copy = Files.copy(source, tempDir.resolve("copy.csv"));
+    ImportSummary redelivered = facade.importDataFromFile(copy.toString(), resumable);
+
+    assertEquals(166, first.getStoredRows());
+    assertTrue(again.isAlreadyImported());
+    assertTrue(redelivered.isAlreadyImported());
+    assertEquals(166, new MeasurementRepository().read().size());
+  }
+
+  @Test
+  void resumableImportRestartsFromCheckpointAndDropsDuplicates() throws Exception {
+    Path source = copyResource("S_111.csv");
+    List<String> lines = Files.readAllLines(source);
+    Path head = tempDir.resolve("head.csv");
+    Files.write(head, lines.subList(0, 61));
+    DataImportingService.storeMeasurements(head.toString(), ImportOptions.defaults());
+
+    // simulates an import that died after committing the first 50 rows
+    byte[] content = Files.readAllBytes(source);
+    long offset = 0;
+    for (int newlines = 0; newlines < 51; offset++) {
+      if (content[(int) offset] == '\n') {
+        newlines++;
+      }
+    }
+    String fingerprint = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    ImportCheckpoint checkpoint = new ImportCheckpoint(fingerprint, source.toString());
+    checkpoint.advance(offset, 51, 50);
+    new CRUDRepository<ImportCheckpoint, String>(ImportCheckpoint.class).create(checkpoint);
+
+    ImportSummary resumed = DataImportingService.storeMeasurements(source.toString(),
+        ImportOptions.defaults().withResumable(true));
+
+    assertEquals(51, resumed.getResumedAfterLine());
+    assertEquals(116, resumed.getTotalRows());
+    assertEquals(10, resumed.getDuplicateRows());
+    assertEquals(106, resumed.getStoredRows());
+    assertEquals(166, new MeasurementRepository().read().size());
+    assertTrue(new CRUDRepository<ImportCheckpoint, String>(ImportCheckpoint.class).read(fingerprint).isCompleted());
+  }
+}
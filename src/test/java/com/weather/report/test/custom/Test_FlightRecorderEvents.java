@@ -0,0 +1,95 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.notifications.LogTransport;
+import com.weather.report.notifications.NotificationDispatcher;
+import com.weather.report.notifications.NotificationSettings;
+import com.weather.report.services.AlertingService;
+import com.weather.report.services.DataImportingService;
+import com.weather.report.services.ImportOptions;
+import com.weather.report.services.ImportSummary;
+import com.weather.report.services.WorkloadGenerator;
+import com.weather.report.services.WorkloadSpec;
+import com.weather.report.test.BasePersistenceTest;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class Test_FlightRecorderEvents extends BasePersistenceTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void importsReportsAndAlertsAreRecorded() throws Exception {
+    WorkloadGenerator generator = new WorkloadGenerator(WorkloadSpec.defaults()
+        .withTopology(1, 1, 2)
+        .withSampling(LocalDateTime.of(2025, 3, 1, 0, 0), Duration.ofMinutes(30), Duration.ofDays(1))
+        .withViolationRate(0.05));
+    generator.createTopology(MAINTAINER_USERNAME);
+    Path file = dir.resolve("workload.csv");
+    long written = generator.writeCsv(file);
+    String sensor = generator.getSensorCodes().get(0);
+
+    Path output = dir.resolve("recording.jfr");
+    ImportSummary summary;
+    // a window longer than the import keeps every message pending
+    NotificationDispatcher previous = AlertingService.setDispatcher(new NotificationDispatcher(
+        NotificationSettings.defaults().withLinger(Duration.ofMinutes(1)), new LogTransport()));
+    try (Recording recording = new Recording()) {
+      recording.enable("com.weather.report.ImportBatch").withThreshold(Duration.ZERO);
+      recording.enable("com.weather.report.ReportBuild").withThreshold(Duration.ZERO);
+      recording.enable("com.weather.report.AlertDispatch").withThreshold(Duration.ZERO);
+      recording.start();
+
+      summary = DataImportingService.storeMeasurements(file.toString(),
+          ImportOptions.defaults().withBatchSize(25));
+      facade.sensors().getSensorReport(sensor, null, null);
+      facade.gateways().getGatewayReport(GW_0101, null, null);
+      facade.networks().getNetworkReport(NET_01, null, null);
+
+      recording.stop();
+      recording.dump(output);
+    } finally {
+      AlertingService.setDispatcher(previous).close();
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(output);
+
+    List<RecordedEvent> batches = ofType(events, "com.weather.report.ImportBatch");
+    assertEquals(summary.getStoredRows(), batches.stream().mapToLong(e -> e.getInt("rows")).sum());
+    assertEquals(Files.size(file), batches.stream().mapToLong(e -> e.getLong("bytes")).sum()
+        + Files.readAllLines(file).get(0).length() + 1);
+    assertTrue(batches.size() >= written / 25);
+    assertTrue(batches.stream().allMatch(e -> e.getDuration("persistTime").toNanos() > 0));
+
+    List<RecordedEvent> reports = ofType(events, "com.weather.report.ReportBuild");
+    assertEquals(List.of("sensor", "gateway", "network"), reports.stream().map(e -> e.getString("kind")).toList());
+    assertEquals(sensor, reports.get(0).getString("code"));
+    assertEquals(written, reports.get(2).getLong("rowsScanned"));
+
+    List<RecordedEvent> alerts = ofType(events, "com.weather.report.AlertDispatch");
+    assertFalse(alerts.isEmpty());
+    assertTrue(alerts.stream().allMatch(e -> e.getInt("recipients") == 1 && e.getInt("messages") >= 1));
+    // the first alert opens the pending messages, the next ones are added to them
+    assertEquals(0, alerts.get(0).getInt("queueDepth"));
+    assertTrue(alerts.stream().skip(1).allMatch(e -> e.getInt("queueDepth") > 0));
+  }
+
+  private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+    return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+  }
+}
@@ -0,0 +1,89 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.UnitOfWork;
+import com.weather.report.repositories.HotMeasurementWindow;
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.test.BasePersistenceTest;
+
+import jakarta.persistence.EntityManager;
+
+public class Test_HotMeasurementWindow extends BasePersistenceTest {
+
+  private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+  private final MeasurementRepository repository = new MeasurementRepository();
+
+  @Test
+  void recentRangesAreServedFromMemory() {
+    repository.append(readings(0, 10));
+    LocalDateTime start = now.minusHours(6);
+
+    // first use loads the window from the database
+    assertEquals(10, repository.readBySensor(SENSOR_010101, start, null).size());
+    repository.append(readings(10, 5));
+
+    Statistics statistics = statistics();
+    long queries = statistics.getQueryExecutionCount();
+    List<Measurement> recent = repository.readBySensor(SENSOR_010101, start, null);
+    assertEquals(15, recent.size());
+    assertTrue(recent.get(0).getTimestamp().isBefore(recent.get(14).getTimestamp()));
+    assertEquals(15, repository.readByNetwork(NET_01, start, now).size());
+    assertEquals(15, repository.readByGateway(GW_0101, start, null).size());
+    long[] points = new long[1];
+    assertTrue(HotMeasurementWindow.scan(SENSOR_010101, start, null, (second, value) -> points[0]++));
+    assertEquals(15, points[0]);
+    assertEquals(queries, statistics.getQueryExecutionCount());
+
+    // ranges reaching before the window still go to the database
+    assertEquals(15, repository.readBySensor(SENSOR_010101, null, null).size());
+    assertTrue(statistics.getQueryExecutionCount() > queries);
+
+    // points served from memory are detached copies: deletes go through the database
+    repository.delete(repository.read().get(0).getId());
+    assertEquals(14, repository.readBySensor(SENSOR_010101, start, null).size());
+  }
+
+  @Test
+  void uncommittedWritesAreReadFromTheDatabase() {
+    repository.append(readings(0, 10));
+    LocalDateTime start = now.minusHours(6);
+    assertEquals(10, repository.readBySensor(SENSOR_010101, start, null).size());
+
+    try (UnitOfWork uow = UnitOfWork.begin()) {
+      repository.append(readings(10, 1));
+      assertEquals(11, repository.readBySensor(SENSOR_010101, start, null).size());
+    }
+    assertEquals(10, repository.readBySensor(SENSOR_010101, start, null).size());
+  }
+
+  // one reading every ten minutes, the last one now
+  private List<Measurement> readings(int first, int count) {
+    List<Measurement> readings = new ArrayList<>();
+    for (int i = first; i < first + count; i++) {
+      readings.add(new Measurement(NET_01, GW_0101, SENSOR_010101, i, now.minusMinutes(10L * (30 - i))));
+    }
+    return readings;
+  }
+
+  private static Statistics statistics() {
+    EntityManager em = PersistenceManager.getEntityManager();
+    try {
+      return em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    } finally {
+      em.close();
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_MeasurementPartitions extends BasePersistenceTest {
+
+  private static final YearMonth OCTOBER = YearMonth.of(2025, 10);
+  private static final YearMonth NOVEMBER = YearMonth.of(2025, 11);
+
+  @Test
+  void rangeReadsOnlySeeOverlappingPartitions() throws Exception {
+    MeasurementRepository repository = new MeasurementRepository();
+    facade.importDataFromFile(getClass().getClassLoader().getResource("csv/S_111.csv").getPath());
+    repository.create(new Measurement(NET_01, GW_0101, SENSOR_010101, 1.0, LocalDateTime.of(2025, 10, 31, 23, 0)));
+
+    assertEquals(List.of(OCTOBER, NOVEMBER), repository.getPartitions());
+    assertEquals(167, repository.readByNetwork(NET_01, null, null).size());
+    assertEquals(166, repository.readByNetwork(NET_01, LocalDateTime.of(2025, 11, 1, 0, 0), null).size());
+    assertEquals(1, repository.readBySensor(SENSOR_010101, null, LocalDateTime.of(2025, 10, 31, 23, 59)).size());
+    assertTrue(repository.readByGateway(GW_0101, LocalDateTime.of(2024, 1, 1, 0, 0),
+        LocalDateTime.of(2024, 12, 31, 0, 0)).isEmpty());
+  }
+
+  @Test
+  void oldMonthsAreDeletedInBulk() throws Exception {
+    MeasurementRepository repository = new MeasurementRepository();
+    facade.importDataFromFile(getClass().getClassLoader().getResource("csv/S_111.csv").getPath());
+    repository.create(new Measurement(NET_01, GW_0101, SENSOR_010101, 1.0, LocalDateTime.of(2025, 10, 1, 0, 0)));
+    repository.create(new Measurement(NET_01, GW_0101, SENSOR_010101, 2.0, LocalDateTime.of(2025, 9, 1, 0, 0)));
+
+    assertEquals(2, repository.deleteMonthsBefore(NOVEMBER));
+    assertEquals(List.of(NOVEMBER), repository.getPartitions());
+    assertEquals(166, repository.deleteMonth(NOVEMBER));
+    assertTrue(repository.getPartitions().isEmpty());
+    assertTrue(repository.read().isEmpty());
+  }
+}
@@ -0,0 +1,74 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_MeasurementRangeQueries extends BasePersistenceTest {
+
+  // old enough to be read from the database, not from the hot window
+  private static final LocalDateTime T1 = LocalDateTime.of(2024, 1, 31, 23, 59, 59);
+  private static final LocalDateTime T2 = LocalDateTime.of(2024, 2, 15, 12, 0);
+  private static final LocalDateTime T3 = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+  private MeasurementRepository repository;
+
+  @BeforeEach
+  void storeMeasurements() {
+    repository = new MeasurementRepository();
+    repository.createAll(List.of(
+        new Measurement(NET_01, GW_0101, SENSOR_010101, 1.0, T1),
+        new Measurement(NET_01, GW_0101, SENSOR_010101, 2.0, T2),
+        new Measurement(NET_01, GW_0101, SENSOR_010101, 3.0, T3),
+        new Measurement(NET_02, GW_0102, SENSOR_010102, 4.0, T2)), null);
+  }
+
+  private static List<LocalDateTime> timestamps(List<Measurement> measurements) {
+    return measurements.stream().map(Measurement::getTimestamp).toList();
+  }
+
+  @Test
+  void sensorLookupsIncludeBothEdges() {
+    assertEquals(List.of(T1, T2, T3), timestamps(repository.readBySensor(SENSOR_010101, null, null)));
+    assertEquals(List.of(T2, T3), timestamps(repository.readBySensor(SENSOR_010101, T2, null)));
+    assertEquals(List.of(T1, T2), timestamps(repository.readBySensor(SENSOR_010101, null, T2)));
+    assertEquals(List.of(T2), timestamps(repository.readBySensor(SENSOR_010101, T2, T2)));
+    assertEquals(List.of(T2),
+        timestamps(repository.readBySensor(SENSOR_010101, T1.plusSeconds(1), T3.minusSeconds(1))));
+  }
+
+  @Test
+  void gatewayLookupsIncludeBothEdges() {
+    assertEquals(List.of(T1, T2, T3), timestamps(repository.readByGateway(GW_0101, null, null)));
+    assertEquals(List.of(T3), timestamps(repository.readByGateway(GW_0101, T3, null)));
+    assertEquals(List.of(T1), timestamps(repository.readByGateway(GW_0101, null, T1)));
+    assertEquals(List.of(T1, T2, T3), timestamps(repository.readByGateway(GW_0101, T1, T3)));
+    assertEquals(List.of(T2), timestamps(repository.readByGateway(GW_0102, T1, T3)));
+  }
+
+  @Test
+  void networkLookupsIncludeBothEdges() {
+    assertEquals(List.of(T1, T2, T3), timestamps(repository.readByNetwork(NET_01, null, null)));
+    assertEquals(List.of(T2, T3), timestamps(repository.readByNetwork(NET_01, T2, null)));
+    assertEquals(List.of(T1, T2), timestamps(repository.readByNetwork(NET_01, null, T2)));
+    assertEquals(List.of(T1, T2), timestamps(repository.readByNetwork(NET_01, T1, T2)));
+    assertEquals(List.of(T2), timestamps(repository.readByNetwork(NET_02, null, null)));
+  }
+
+  @Test
+  void emptyWindowsAndUnknownCodesReturnNothing() {
+    assertTrue(repository.readBySensor(SENSOR_010101, T1.plusSeconds(1), T2.minusSeconds(1)).isEmpty());
+    assertTrue(repository.readByGateway(GW_0101, T3.plusSeconds(1), null).isEmpty());
+    assertTrue(repository.readByNetwork(NET_01, null, T1.minusSeconds(1)).isEmpty());
+    assertTrue(repository.readBySensor(SENSOR_UNKNOWN, null, null).isEmpty());
+  }
+}
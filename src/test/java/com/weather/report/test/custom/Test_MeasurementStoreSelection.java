@@ -0,0 +1,66 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.repositories.Repositories;
+import com.weather.report.services.ImportOptions;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_MeasurementStoreSelection extends BasePersistenceTest {
+
+  @TempDir
+  Path dir;
+
+  @AfterEach
+  void restoreRelationalStore() throws IOException {
+    System.clearProperty(Repositories.CHUNK_FILE_PROPERTY);
+    Repositories.closeMeasurementStores();
+  }
+
+  private String csv() {
+    return getClass().getClassLoader().getResource("csv/S_111.csv").getPath();
+  }
+
+  @Test
+  void relationalRepositoryIsTheDefault() {
+    assertSame(Repositories.measurements(), Repositories.measurementStore());
+  }
+
+  @Test
+  void importsAndReportsUseTheChunkFile() throws Exception {
+    createNetwork(NET_01);
+    createGateway(GW_0101);
+    createSensor(SENSOR_010101);
+    System.setProperty(Repositories.CHUNK_FILE_PROPERTY, dir.resolve("measurements.chunks").toString());
+
+    facade.importDataFromFile(csv());
+
+    assertTrue(Repositories.measurements().read().isEmpty());
+    assertEquals(166, facade.sensors().getSensorReport(SENSOR_010101, null, null).getNumberOfMeasurements());
+    assertEquals(166, facade.gateways().getGatewayReport(GW_0101, null, null).getNumberOfMeasurements());
+    assertEquals(166, facade.networks().getNetworkReport(NET_01, null, null).getNumberOfMeasurements());
+
+    // reopened from the file
+    Repositories.closeMeasurementStores();
+    assertEquals(10, facade.sensors().getSensorReport(SENSOR_010101, "2025-11-16 08:00:00",
+        "2025-11-16 17:00:00").getNumberOfMeasurements());
+  }
+
+  @Test
+  void resumableImportsNeedTheDatabase() {
+    System.setProperty(Repositories.CHUNK_FILE_PROPERTY, dir.resolve("measurements.chunks").toString());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> facade.importDataFromFile(csv(), ImportOptions.defaults().withResumable(true)));
+  }
+}
@@ -0,0 +1,85 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.WeatherReport;
+import com.weather.report.exceptions.IdAlreadyInUseException;
+import com.weather.report.metrics.MetricSnapshot;
+import com.weather.report.metrics.Metrics;
+import com.weather.report.metrics.Timer;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_Metrics extends BasePersistenceTest {
+
+  @TempDir
+  Path dir;
+
+  @AfterEach
+  void disableMetrics() {
+    Metrics.setEnabled(false);
+    Metrics.reset();
+  }
+
+  @Test
+  void timersReportPercentiles() {
+    Timer timer = Metrics.timer("test.latency");
+    timer.record(1_000_000);
+    assertEquals(0, timer.getCount());
+
+    Metrics.setEnabled(true);
+    for (int i = 1; i <= 1000; i++) {
+      timer.record(i * 1_000L);
+    }
+    MetricSnapshot snapshot = Metrics.snapshot("test.latency");
+    assertEquals(1000, snapshot.getCount());
+    assertEquals(0.5005, snapshot.getMeanMillis(), 1e-9);
+    assertEquals(1.0, snapshot.getMaxMillis(), 1e-9);
+    assertEquals(0.5, snapshot.getP50Millis(), 0.5 * 0.125);
+    assertEquals(0.99, snapshot.getP99Millis(), 0.99 * 0.125);
+    assertTrue(snapshot.getP50Millis() <= snapshot.getP95Millis());
+
+    Metrics.reset();
+    assertEquals(0, timer.getCount());
+    assertEquals(0, timer.getPercentileNanos(0.5));
+  }
+
+  @Test
+  void operationsAndImportsAreMeasured() throws Exception {
+    // facades built while metrics are disabled are not wrapped
+    assertSame(facade.networks().getClass(), new WeatherReport().networks().getClass());
+
+    Metrics.setEnabled(true);
+    WeatherReport timed = new WeatherReport();
+    assertNotSame(facade.networks().getClass(), timed.networks().getClass());
+    timed.networks().createNetwork(NET_01, null, null, MAINTAINER_USERNAME);
+    assertThrows(IdAlreadyInUseException.class,
+        () -> timed.networks().createNetwork(NET_01, null, null, MAINTAINER_USERNAME));
+    timed.networks().getNetworks();
+
+    assertEquals(2, Metrics.snapshot("network.createNetwork").getCount());
+    assertEquals(1, Metrics.snapshot("network.createNetwork.errors").getCount());
+    assertEquals(1, Metrics.snapshot("network.getNetworks").getCount());
+
+    timed.importDataFromFile(getClass().getClassLoader().getResource("csv/S_111.csv").getPath());
+    assertEquals(1, Metrics.snapshot("import.file").getCount());
+    assertEquals(166, Metrics.snapshot("import.rows.stored").getCount());
+    assertTrue(Metrics.snapshot("import.batch").getCount() > 0);
+
+    Path file = dir.resolve("metrics.txt");
+    Metrics.dump(file);
+    String dump = Files.readString(file);
+    assertTrue(dump.contains("import.rows.stored counter count=166"), dump);
+    assertTrue(dump.contains("network.createNetwork timer count=2"), dump);
+  }
+}
@@ -0,0 +1,218 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.model.OperatorContact;
+import com.weather.report.model.ThresholdType;
+import com.weather.report.notifications.Channel;
+import com.weather.report.notifications.FileTransport;
+import com.weather.report.notifications.NotificationDispatcher;
+import com.weather.report.notifications.NotificationSettings;
+import com.weather.report.notifications.NotificationTransport;
+import com.weather.report.services.AlertingService;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_NotificationDispatcher extends BasePersistenceTest {
+
+  private static final OperatorContact ALICE = new OperatorContact(OPERATOR_ALICE_EMAIL, OPERATOR_ALICE_PHONE);
+  private static final OperatorContact BOB = new OperatorContact(OPERATOR_BOB_EMAIL, null);
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void alertsAreBatchedPerRecipient() throws Exception {
+    Recorder recorder = new Recorder(0);
+    try (NotificationDispatcher dispatcher = new NotificationDispatcher(settings(), recorder)) {
+      for (int i = 0; i < 50; i++) {
+        assertEquals(3, dispatcher.submit(i % 5 == 0 ? SENSOR_010102 : SENSOR_010101, List.of(ALICE, BOB)));
+      }
+      assertEquals(3, dispatcher.getPendingMessages());
+      assertTrue(dispatcher.flush(TIMEOUT));
+
+      assertEquals(50, dispatcher.getAlerts());
+      assertEquals(3, dispatcher.getSentMessages());
+      assertEquals(List.of(
+          "EMAIL " + OPERATOR_ALICE_EMAIL,
+          "EMAIL " + OPERATOR_BOB_EMAIL,
+          "SMS " + OPERATOR_ALICE_PHONE), recorder.recipients());
+      String message = recorder.messages.get(0);
+      assertTrue(message.contains(SENSOR_010101 + " (40 alerts)"), message);
+      assertTrue(message.contains(SENSOR_010102 + " (10 alerts)"), message);
+    }
+  }
+
+  @Test
+  void failedMessagesAreRetriedWithBackoff() throws Exception {
+    NotificationSettings settings = settings().withRetries(3, Duration.ofMillis(50), Duration.ofMillis(100));
+    assertEquals(Duration.ofMillis(50), settings.getBackoff(1));
+    assertEquals(Duration.ofMillis(100), settings.getBackoff(2));
+    assertEquals(Duration.ofMillis(100), settings.getBackoff(10));
+
+    Recorder flaky = new Recorder(2);
+    try (NotificationDispatcher dispatcher = new NotificationDispatcher(settings, flaky)) {
+      long start = System.nanoTime();
+      dispatcher.submit(SENSOR_010101, List.of(BOB));
+      assertTrue(dispatcher.flush(TIMEOUT));
+      assertTrue(System.nanoTime() - start >= Duration.ofMillis(150).toNanos());
+      assertEquals(1, dispatcher.getSentMessages());
+      assertEquals(2, dispatcher.getRetriedMessages());
+    }
+
+    Recorder broken = new Recorder(Integer.MAX_VALUE);
+    try (NotificationDispatcher dispatcher = new NotificationDispatcher(settings, broken)) {
+      dispatcher.submit(SENSOR_010101, List.of(BOB));
+      assertTrue(dispatcher.flush(TIMEOUT));
+      assertEquals(0, dispatcher.getSentMessages());
+      assertEquals(1, dispatcher.getFailedMessages());
+      assertEquals(3, broken.attempts.get());
+    }
+  }
+
+  @Test
+  void channelsAreRateLimited() throws Exception {
+    NotificationSettings settings = settings().withRateLimit(Channel.EMAIL, 10, 1);
+    Recorder recorder = new Recorder(0);
+    try (NotificationDispatcher dispatcher = new NotificationDispatcher(settings, recorder)) {
+      long start = System.nanoTime();
+      for (int i = 0; i < 5; i++) {
+        dispatcher.submit(SENSOR_010101, List.of(new OperatorContact("op" + i + "@example.com", null)));
+      }
+      assertTrue(dispatcher.flush(TIMEOUT));
+      // one email at once, then one every 100 ms
+      assertTrue(System.nanoTime() - start >= Duration.ofMillis(350).toNanos());
+      assertEquals(5, dispatcher.getSentMessages());
+    }
+  }
+
+  @Test
+  void slowTransportsNeverBlockTheAlerts() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    NotificationTransport stuck = (channel, recipient, message) -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+    try (NotificationDispatcher dispatcher = new NotificationDispatcher(
+        settings().withLinger(Duration.ZERO), stuck)) {
+      for (int i = 0; i < 10_000; i++) {
+        dispatcher.submit(SENSOR_010101, List.of(ALICE, BOB));
+      }
+      // the message being sent left the pending map, every other alert was merged
+      assertTrue(dispatcher.getPendingMessages() <= 3);
+      release.countDown();
+      assertTrue(dispatcher.flush(TIMEOUT));
+    }
+  }
+
+  @Test
+  void importAlertsReachTheTransport() throws Exception {
+    createNetwork(NET_01);
+    createGateway(GW_0101);
+    createSensor(SENSOR_010101);
+    connectGateway(NET_01, GW_0101);
+    connectSensor(SENSOR_010101, GW_0101);
+    facade.networks().createOperator(OPERATOR_ALICE_FIRST, OPERATOR_ALICE_LAST, OPERATOR_ALICE_EMAIL,
+        OPERATOR_ALICE_PHONE, MAINTAINER_USERNAME);
+    facade.networks().addOperatorToNetwork(NET_01, OPERATOR_ALICE_EMAIL, MAINTAINER_USERNAME);
+    facade.sensors().createThreshold(SENSOR_010101, ThresholdType.GREATER_THAN, 20.0, MAINTAINER_USERNAME);
+
+    List<String> rows = new ArrayList<>();
+    rows.add("date, networkCode, gatewayCode, sensorCode, value");
+    for (int i = 0; i < 24; i++) {
+      rows.add(String.format("2025-11-16 %02d:00:00, %s, %s, %s, %s", i, NET_01, GW_0101, SENSOR_010101, 25.0));
+    }
+    Path csv = Files.write(dir.resolve("storm.csv"), rows);
+
+    Path file = dir.resolve("alerts.log");
+    NotificationDispatcher previous = AlertingService.setDispatcher(
+        new NotificationDispatcher(settings(), new FileTransport(file)));
+    try {
+      facade.importDataFromFile(csv.toString());
+      assertTrue(AlertingService.getDispatcher().flush(TIMEOUT));
+    } finally {
+      AlertingService.setDispatcher(previous).close();
+    }
+
+    // 24 alerts, one email and one SMS
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(2, lines.size(), lines.toString());
+    assertTrue(lines.get(0).endsWith(SENSOR_010101 + " (24 alerts)"), lines.get(0));
+    assertTrue(lines.get(0).contains("\tEMAIL\t" + OPERATOR_ALICE_EMAIL + "\t"), lines.get(0));
+    assertTrue(lines.get(1).contains("\tSMS\t" + OPERATOR_ALICE_PHONE + "\t"), lines.get(1));
+  }
+
+  @Test
+  void shutdownDeliversTheQueuedAlerts() throws Exception {
+    Recorder recorder = new Recorder(0);
+    NotificationDispatcher dispatcher = new NotificationDispatcher(settings(), recorder);
+    NotificationDispatcher previous = AlertingService.setDispatcher(dispatcher);
+    if (previous != null) {
+      previous.close();
+    }
+    try {
+      AlertingService.notifyThresholdViolation(List.of(ALICE.toOperator()), SENSOR_010101);
+      AlertingService.shutdown();
+      assertEquals(List.of("EMAIL " + OPERATOR_ALICE_EMAIL, "SMS " + OPERATOR_ALICE_PHONE), recorder.recipients());
+      assertEquals(0, dispatcher.getPendingMessages());
+
+      // the next alert starts a new dispatcher
+      assertNotSame(dispatcher, AlertingService.getDispatcher());
+    } finally {
+      AlertingService.shutdown();
+    }
+  }
+
+  private static NotificationSettings settings() {
+    return NotificationSettings.defaults()
+        .withLinger(Duration.ofMillis(100))
+        .withRateLimit(Channel.EMAIL, 100, 100)
+        .withRateLimit(Channel.SMS, 100, 100);
+  }
+
+  // records the delivered messages, failing the given number of first attempts
+  private static final class Recorder implements NotificationTransport {
+    private final int failures;
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+    Recorder(int failures) {
+      this.failures = failures;
+    }
+
+    @Override
+    public void send(Channel channel, String recipient, String message) throws IOException {
+      if (attempts.incrementAndGet() <= failures) {
+        throw new IOException("unavailable");
+      }
+      sent.add(channel + " " + recipient);
+      messages.add(message);
+    }
+
+    List<String> recipients() {
+      List<String> sorted = new ArrayList<>(sent);
+      Collections.sort(sorted);
+      return sorted;
+    }
+  }
+}
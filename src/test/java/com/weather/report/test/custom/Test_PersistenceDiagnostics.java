@@ -0,0 +1,59 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.persistence.PersistenceDiagnostics;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.QueryDiagnostics;
+import com.weather.report.persistence.UnitOfWork;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_PersistenceDiagnostics extends BasePersistenceTest {
+
+  @Test
+  void importQueriesAreVisible() {
+    PersistenceManager.resetStatistics();
+    facade.importDataFromFile(getClass().getClassLoader().getResource("csv/S_111.csv").getPath());
+
+    PersistenceDiagnostics diagnostics = PersistenceManager.getDiagnostics();
+    assertTrue(diagnostics.isEnabled());
+    // the threshold check reads the sensors
+    QueryDiagnostics sensorScan = diagnostics.getQuery("SELECT e FROM Sensor e");
+    assertTrue(sensorScan.getCalls() > 0, sensorScan.toString());
+    assertTrue(diagnostics.getStatements() > 0);
+    assertTrue(diagnostics.toString().contains("SELECT e FROM Sensor e"));
+
+    try {
+      PersistenceManager.setStatisticsEnabled(false);
+      facade.importDataFromFile(getClass().getClassLoader().getResource("csv/S_111.csv").getPath());
+      assertFalse(PersistenceManager.getDiagnostics().isEnabled());
+      assertEquals(sensorScan.getCalls(),
+          PersistenceManager.getDiagnostics().getQuery("SELECT e FROM Sensor e").getCalls());
+    } finally {
+      PersistenceManager.setStatisticsEnabled(true);
+    }
+  }
+
+  @Test
+  void slowStatementsAreLogged() {
+    System.setProperty(PersistenceManager.SLOW_QUERY_PROPERTY, "1");
+    try {
+      PersistenceManager.setTestMode();
+      try (UnitOfWork uow = UnitOfWork.begin()) {
+        uow.getEntityManager()
+            .createNativeQuery("SELECT COUNT(*) FROM SYSTEM_RANGE(1, 2000000) WHERE MOD(X, 7) = 3")
+            .getSingleResult();
+      }
+    } finally {
+      System.clearProperty(PersistenceManager.SLOW_QUERY_PROPERTY);
+    }
+
+    PersistenceDiagnostics diagnostics = PersistenceManager.getDiagnostics();
+    assertTrue(diagnostics.getSlowQueries().keySet().stream().anyMatch(sql -> sql.contains("SYSTEM_RANGE")),
+        diagnostics.toString());
+  }
+}
@@ -0,0 +1,81 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.repositories.Repositories;
+import com.weather.report.test.BasePersistenceTest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+public class Test_PersistenceManager extends BasePersistenceTest {
+
+  @Test
+  void warmUpRecordsBootAndWarmUpTimes() {
+    PersistenceManager.close();
+    assertEquals(-1, PersistenceManager.getBootMillis());
+    assertEquals(-1, PersistenceManager.getWarmUpMillis());
+
+    PersistenceManager.setTestMode();
+    PersistenceManager.warmUp();
+
+    assertTrue(PersistenceManager.getBootMillis() >= 0);
+    assertTrue(PersistenceManager.getWarmUpMillis() >= 0);
+  }
+
+  @Test
+  void warmUpIsSafeToCallTwice() {
+    PersistenceManager.warmUp();
+    long bootMillis = PersistenceManager.getBootMillis();
+
+    PersistenceManager.warmUp();
+
+    assertEquals(bootMillis, PersistenceManager.getBootMillis(), "the factory must not be booted again");
+    assertTrue(PersistenceManager.getWarmUpMillis() >= 0);
+    assertEquals(3, Repositories.users().read().size(), "the warm-up must leave the data untouched");
+  }
+
+  @Test
+  void concurrentFirstCallsShareOneFactory() throws Exception {
+    PersistenceManager.setTestMode();
+    int threads = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<EntityManagerFactory>> factories = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        factories.add(executor.submit(() -> {
+          start.await();
+          EntityManager em = PersistenceManager.getEntityManager();
+          try {
+            return em.getEntityManagerFactory();
+          } finally {
+            em.close();
+          }
+        }));
+      }
+      start.countDown();
+
+      Set<EntityManagerFactory> distinct = new HashSet<>();
+      for (Future<EntityManagerFactory> factory : factories) {
+        distinct.add(factory.get());
+      }
+      assertEquals(1, distinct.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.model.AggregateResolution;
+import com.weather.report.model.entities.MeasurementAggregate;
+import com.weather.report.reports.NetworkReport;
+import com.weather.report.reports.SensorReport;
+import com.weather.report.repositories.MeasurementAggregateRepository;
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.services.RetentionPolicy;
+import com.weather.report.services.RetentionService;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_Retention extends BasePersistenceTest {
+
+  // 30 days before it is 2025-11-20: the first 88 of the 166 hourly rows are older
+  private static final Clock CLOCK = Clock.fixed(LocalDateTime.of(2025, 12, 20, 12, 0).toInstant(ZoneOffset.UTC),
+      ZoneOffset.UTC);
+  private static final RetentionPolicy DAILY_AFTER_30_DAYS = RetentionPolicy.defaults()
+      .withRawDays(30)
+      .withResolution(AggregateResolution.DAILY);
+
+  @BeforeEach
+  void importMeasurements() throws Exception {
+    createNetwork(NET_01);
+    createGateway(GW_0101);
+    createSensor(SENSOR_010101);
+    facade.importDataFromFile(getClass().getClassLoader().getResource("csv/S_111.csv").getPath());
+  }
+
+  @Test
+  void reportsAreUnchangedAfterRollUp() throws Exception {
+    SensorReport sensorBefore = facade.sensors().getSensorReport(SENSOR_010101, null, null);
+    NetworkReport networkBefore = facade.networks().getNetworkReport(NET_01, null, null);
+
+    // small batches so that each day is merged across several transactions
+    RetentionService retention = new RetentionService(DAILY_AFTER_30_DAYS, CLOCK, 10);
+    assertEquals(88, retention.runOnce());
+    assertEquals(0, retention.runOnce());
+
+    assertEquals(78, new MeasurementRepository().read().size());
+    List<MeasurementAggregate> aggregates = new MeasurementAggregateRepository().readBySensor(SENSOR_010101, null,
+        null);
+    assertEquals(4, aggregates.size());
+    assertEquals(List.of(16L, 24L, 24L, 24L), aggregates.stream().map(MeasurementAggregate::getCount).toList());
+
+    SensorReport sensorAfter = facade.sensors().getSensorReport(SENSOR_010101, null, null);
+    assertEquals(sensorBefore.getNumberOfMeasurements(), sensorAfter.getNumberOfMeasurements());
+    assertEquals(sensorBefore.getMean(), sensorAfter.getMean(), 1e-9);
+    assertEquals(sensorBefore.getVariance(), sensorAfter.getVariance(), 1e-6);
+    assertEquals(sensorBefore.getMinimumMeasuredValue(), sensorAfter.getMinimumMeasuredValue());
+    assertEquals(sensorBefore.getMaximumMeasuredValue(), sensorAfter.getMaximumMeasuredValue());
+
+    NetworkReport networkAfter = facade.networks().getNetworkReport(NET_01, null, null);
+    assertEquals(networkBefore.getNumberOfMeasurements(), networkAfter.getNumberOfMeasurements());
+    assertEquals(networkBefore.getMostActiveGateways(), networkAfter.getMostActiveGateways());
+    assertEquals(166, networkAfter.getHistogram().values().stream().mapToLong(Long::longValue).sum());
+    assertEquals(166, facade.gateways().getGatewayReport(GW_0101, null, null).getNumberOfMeasurements());
+  }
+
+  @Test
+  void windowsCuttingABucketCountItInFull() throws Exception {
+    // the aligned window the cut one is widened to once the days are compacted
+    SensorReport aligned = facade.sensors().getSensorReport(SENSOR_010101, "2025-11-17 00:00:00",
+        "2025-11-20 05:00:00");
+    new RetentionService(DAILY_AFTER_30_DAYS, CLOCK, 10).runOnce();
+
+    SensorReport cut = facade.sensors().getSensorReport(SENSOR_010101, "2025-11-17 12:00:00",
+        "2025-11-20 05:00:00");
+    assertEquals(78, aligned.getNumberOfMeasurements());
+    assertEquals(aligned.getNumberOfMeasurements(), cut.getNumberOfMeasurements());
+    assertEquals(aligned.getMean(), cut.getMean(), 1e-9);
+    assertEquals(aligned.getMinimumMeasuredValue(), cut.getMinimumMeasuredValue());
+    assertEquals(aligned.getMaximumMeasuredValue(), cut.getMaximumMeasuredValue());
+  }
+
+  @Test
+  void dailyAggregatesAreSpreadOverHourlyHistograms() throws Exception {
+    new RetentionService(DAILY_AFTER_30_DAYS, CLOCK, 10).runOnce();
+
+    // one row per hour: 24 compacted into the 19th, 6 raw ones on the 20th
+    NetworkReport report = facade.networks().getNetworkReport(NET_01, "2025-11-19 00:00:00",
+        "2025-11-20 05:00:00");
+    assertEquals(30, report.getHistogram().size());
+    assertTrue(report.getHistogram().values().stream().allMatch(count -> count == 1L),
+        report.getHistogram().toString());
+
+    // the window cuts the 19th in half: the whole day lands in its last twelve hours
+    report = facade.networks().getNetworkReport(NET_01, "2025-11-19 12:00:00", "2025-11-20 05:00:00");
+    assertEquals(30, report.getNumberOfMeasurements());
+    assertEquals(30, report.getHistogram().values().stream().mapToLong(Long::longValue).sum());
+    assertEquals(2L, report.getHistogram().values().iterator().next());
+  }
+
+  @Test
+  void networkPolicyOverridesTheDefault() {
+    RetentionService retention = new RetentionService(DAILY_AFTER_30_DAYS, CLOCK, 10);
+    retention.setNetworkPolicy(NET_01, DAILY_AFTER_30_DAYS.withRawDays(365));
+
+    assertEquals(0, retention.runOnce());
+    assertEquals(166, new MeasurementRepository().read().size());
+  }
+
+  @Test
+  void mistypedResolutionNamesTheProperty() {
+    System.setProperty(RetentionPolicy.RESOLUTION_PROPERTY, "weekly");
+    try {
+      IllegalArgumentException e = assertThrows(IllegalArgumentException.class, RetentionPolicy::defaults);
+      assertTrue(e.getMessage().contains(RetentionPolicy.RESOLUTION_PROPERTY), e.getMessage());
+      assertTrue(e.getMessage().contains("[HOURLY, DAILY]"), e.getMessage());
+    } finally {
+      System.clearProperty(RetentionPolicy.RESOLUTION_PROPERTY);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.exceptions.WeatherReportException;
+import com.weather.report.model.entities.Sensor;
+import com.weather.report.persistence.CacheStatistics;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.repositories.CRUDRepository;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_SecondLevelCache extends BasePersistenceTest {
+
+  private static CacheStatistics region(String name) {
+    return PersistenceManager.getCacheStatistics().stream()
+        .filter(s -> s.getRegion().equals(name))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  @Test
+  void referenceEntitiesAreServedFromCache() throws WeatherReportException {
+    createSensor(SENSOR_000001);
+    CRUDRepository<Sensor, String> sensors = new CRUDRepository<>(Sensor.class);
+
+    long hitsBefore = region(Sensor.class.getName()).getHits();
+    sensors.read(SENSOR_000001);
+    sensors.read(SENSOR_000001);
+
+    assertTrue(region(Sensor.class.getName()).getHits() >= hitsBefore + 2);
+    assertTrue(region("com.weather.report.model.entities.User").getHits() > 0,
+        "authorization checks must hit the cache");
+  }
+
+  @Test
+  void listQueriesAreCachedUntilTheTableChanges() throws WeatherReportException {
+    createSensor(SENSOR_000001);
+    CRUDRepository<Sensor, String> sensors = new CRUDRepository<>(Sensor.class);
+
+    sensors.read();
+    long hitsBefore = region("default-query-results-region").getHits();
+    assertEquals(1, sensors.read().size());
+    assertEquals(hitsBefore + 1, region("default-query-results-region").getHits());
+
+    createSensor(SENSOR_000002);
+    assertEquals(2, sensors.read().size(), "a write must invalidate the cached result");
+  }
+}
@@ -0,0 +1,53 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.WeatherReport;
+import com.weather.report.metrics.Metrics;
+import com.weather.report.model.entities.Network;
+import com.weather.report.repositories.CRUDRepository;
+import com.weather.report.repositories.Repositories;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_SharedOperations extends BasePersistenceTest {
+
+  @AfterEach
+  void disableMetrics() {
+    Metrics.setEnabled(false);
+    Metrics.reset();
+  }
+
+  @Test
+  void facadesShareTheOperations() throws Exception {
+    WeatherReport other = new WeatherReport();
+    assertSame(facade.networks(), other.networks());
+    assertSame(facade.gateways(), other.gateways());
+    assertSame(facade.sensors(), other.sensors());
+    assertSame(facade.topology(), other.topology());
+
+    Metrics.setEnabled(true);
+    WeatherReport timed = new WeatherReport();
+    assertNotSame(facade.networks(), timed.networks());
+    assertSame(timed.networks(), new WeatherReport().networks());
+
+    timed.networks().createNetwork(NET_01, null, null, MAINTAINER_USERNAME);
+    assertEquals(1, Metrics.snapshot("network.createNetwork").getCount());
+    assertEquals(NET_01, Repositories.networks().read(NET_01).getCode());
+  }
+
+  @Test
+  void nonEntityRepositoriesFailOnEveryUse() {
+    assertEquals(0, new CRUDRepository<>(Network.class).read().size());
+
+    // building the repository succeeds, each operation reports the missing @Entity
+    CRUDRepository<String, String> notAnEntity = new CRUDRepository<>(String.class);
+    assertThrows(IllegalArgumentException.class, notAnEntity::read);
+    assertThrows(IllegalArgumentException.class, notAnEntity::read);
+  }
+}
@@ -0,0 +1,56 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.services.ImportOptions;
+import com.weather.report.services.SpoolIngestionService;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_SpoolIngestion extends BasePersistenceTest {
+
+  private static final long TIMEOUT_MILLIS = 15_000;
+
+  @TempDir
+  Path spool;
+
+  @Test
+  void droppedFilesAreImportedAndMoved() throws Exception {
+    try (SpoolIngestionService service = new SpoolIngestionService(spool, ImportOptions.defaults())) {
+      service.start();
+
+      Path incoming = spool.resolve("incoming.tmp");
+      try (InputStream in = getClass().getClassLoader().getResourceAsStream("csv/S_111.csv")) {
+        Files.copy(in, incoming);
+      }
+      Files.move(incoming, spool.resolve("S_111.csv"));
+      Files.write(spool.resolve("broken.csv"), List.of("date, networkCode, gatewayCode, sensorCode, value",
+          "not a date, NET_01, GW_0101, S_010101, 1.0"));
+
+      long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+      while (service.getFilesImported() < 2 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(100);
+      }
+
+      assertEquals(2, service.getFilesImported());
+      assertEquals(0, service.getFilesFailed());
+      assertEquals(166, service.getRowsStored());
+      assertEquals(1, service.getRowsSkipped());
+      assertTrue(service.getRowsPerSecond() > 0);
+      assertTrue(Files.exists(spool.resolve(SpoolIngestionService.DONE_DIR).resolve("S_111.csv")));
+      assertTrue(Files.exists(spool.resolve(SpoolIngestionService.DONE_DIR).resolve("broken.csv.rejects.csv")));
+      assertFalse(Files.exists(spool.resolve("S_111.csv")));
+      assertEquals(166, new MeasurementRepository().read().size());
+    }
+  }
+}
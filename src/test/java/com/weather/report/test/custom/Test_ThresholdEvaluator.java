@@ -0,0 +1,197 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+
+import com.weather.report.exceptions.InvalidInputDataException;
+import com.weather.report.exceptions.WeatherReportException;
+import com.weather.report.model.ThresholdType;
+import com.weather.report.model.entities.Threshold;
+import com.weather.report.persistence.PersistenceManager;
+import com.weather.report.persistence.QueryDiagnostics;
+import com.weather.report.services.AlertingService;
+import com.weather.report.services.ThresholdEvaluator;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_ThresholdEvaluator extends BasePersistenceTest {
+
+  private static final double[] VALUES = { Double.NEGATIVE_INFINITY, 5.0, 9.99, 9.99995, 10.0, 10.00005, 10.0001,
+      15.0, 20.0, 20.01, Double.POSITIVE_INFINITY, Double.NaN };
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void compiledThresholdsMatchTheirType() {
+    for (double v : VALUES) {
+      assertEquals(v < 10.0, evaluator(ThresholdType.LESS_THAN, 10.0, null, 0).test(v), "< " + v);
+      assertEquals(v <= 10.0, evaluator(ThresholdType.LESS_OR_EQUAL, 10.0, null, 0).test(v), "<= " + v);
+      assertEquals(v > 10.0, evaluator(ThresholdType.GREATER_THAN, 10.0, null, 0).test(v), "> " + v);
+      assertEquals(v >= 10.0, evaluator(ThresholdType.GREATER_OR_EQUAL, 10.0, null, 0).test(v), ">= " + v);
+      assertEquals(Math.abs(v - 10.0) < 0.0001, evaluator(ThresholdType.EQUAL, 10.0, null, 0).test(v), "= " + v);
+      assertEquals(Math.abs(v - 10.0) >= 0.0001, evaluator(ThresholdType.NOT_EQUAL, 10.0, null, 0).test(v),
+          "!= " + v);
+      assertEquals(v >= 10.0 && v <= 20.0, evaluator(ThresholdType.INSIDE_RANGE, 10.0, 20.0, 0).test(v),
+          "in " + v);
+      assertEquals(v < 10.0 || v > 20.0, evaluator(ThresholdType.OUTSIDE_RANGE, 10.0, 20.0, 0).test(v),
+          "out " + v);
+    }
+  }
+
+  @Test
+  void scanFindsTheSameValuesAsTest() {
+    for (ThresholdType type : ThresholdType.values()) {
+      ThresholdEvaluator evaluator = evaluator(type, 10.0, type.isRange() ? 20.0 : null, 0);
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 1; i < VALUES.length - 1; i++) {
+        if (evaluator.test(VALUES[i])) {
+          expected.add(i);
+        }
+      }
+      int[] hits = new int[VALUES.length];
+      int count = evaluator.scan(VALUES, 1, VALUES.length - 1, hits);
+      assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), Arrays.copyOf(hits, count),
+          type.name());
+    }
+  }
+
+  @Test
+  void hysteresisAlertsOncePerExcursion() {
+    double[] values = { 9.0, 11.0, 12.0, 9.5, 11.0, 8.9, 10.5, 7.0 };
+
+    ThresholdEvaluator sequential = evaluator(ThresholdType.GREATER_THAN, 10.0, null, 1.0);
+    List<Integer> alerted = new ArrayList<>();
+    for (int i = 0; i < values.length; i++) {
+      if (sequential.alert(values[i])) {
+        alerted.add(i);
+      }
+    }
+    assertEquals(List.of(1, 6), alerted);
+
+    // a batch split in two slices behaves as the whole batch
+    ThresholdEvaluator batch = evaluator(ThresholdType.GREATER_THAN, 10.0, null, 1.0);
+    int[] alerts = new int[values.length];
+    assertEquals(1, batch.alerts(values, 0, 3, alerts));
+    assertEquals(1, alerts[0]);
+    assertFalse(batch.isArmed());
+    assertEquals(1, batch.alerts(values, 3, values.length, alerts));
+    assertEquals(6, alerts[0]);
+
+    ThresholdEvaluator band = evaluator(ThresholdType.OUTSIDE_RANGE, 10.0, 20.0, 2.0);
+    assertEquals(true, band.alert(21.0));
+    assertEquals(false, band.alert(5.0));
+    assertEquals(false, band.alert(18.5));
+    assertEquals(false, band.alert(21.0));
+    assertEquals(false, band.alert(15.0));
+    assertEquals(true, band.alert(9.0));
+  }
+
+  @Test
+  void importAlertsOncePerExcursion() throws Exception {
+    createNetwork(NET_01);
+    createGateway(GW_0101);
+    createSensor(SENSOR_010101);
+    connectGateway(NET_01, GW_0101);
+    connectSensor(SENSOR_010101, GW_0101);
+    facade.networks().createOperator(OPERATOR_ALICE_FIRST, OPERATOR_ALICE_LAST, OPERATOR_ALICE_EMAIL, null,
+        MAINTAINER_USERNAME);
+    facade.networks().addOperatorToNetwork(NET_01, OPERATOR_ALICE_EMAIL, MAINTAINER_USERNAME);
+    facade.sensors().createThreshold(SENSOR_010101, ThresholdType.GREATER_THAN, 20.0, null, 1.0,
+        MAINTAINER_USERNAME);
+
+    Path first = csv("first.csv", 0, 21.0, 19.5, 21.0, 19.5, 18.0, 21.0);
+    // still in the excursion started by the last row of the first file
+    Path second = csv("second.csv", 6, 22.0, 18.5, 20.5);
+    try (MockedStatic<AlertingService> alerting = mockStatic(AlertingService.class)) {
+      facade.importDataFromFile(first.toString());
+      alerting.verify(() -> AlertingService.notifyThresholdViolation(any(), eq(SENSOR_010101)), times(2));
+
+      facade.importDataFromFile(second.toString());
+      alerting.verify(() -> AlertingService.notifyThresholdViolation(any(), eq(SENSOR_010101)), times(3));
+    }
+
+    // without hysteresis every anomalous row alerts
+    facade.sensors().updateThreshold(SENSOR_010101, ThresholdType.GREATER_THAN, 20.0, MAINTAINER_USERNAME);
+    Path third = csv("third.csv", 9, 21.0, 19.5, 21.0, 21.0);
+    try (MockedStatic<AlertingService> alerting = mockStatic(AlertingService.class)) {
+      facade.importDataFromFile(third.toString());
+      alerting.verify(() -> AlertingService.notifyThresholdViolation(any(), eq(SENSOR_010101)), times(3));
+    }
+  }
+
+  @Test
+  void importReadsTheSensorsOnce() {
+    PersistenceManager.resetStatistics();
+    facade.importDataFromFile(getClass().getClassLoader().getResource("csv/S_111.csv").getPath());
+
+    QueryDiagnostics sensorScan = PersistenceManager.getDiagnostics().getQuery("SELECT e FROM Sensor e");
+    assertEquals(1, sensorScan.getCalls(), sensorScan.toString());
+  }
+
+  @Test
+  void rangeThresholdsAreValidated() throws WeatherReportException {
+    createNetwork(NET_01);
+    createGateway(GW_0101);
+    createSensor(SENSOR_010101);
+
+    assertThrows(InvalidInputDataException.class, () -> facade.sensors().createThreshold(SENSOR_010101,
+        ThresholdType.INSIDE_RANGE, 10.0, MAINTAINER_USERNAME));
+    assertThrows(InvalidInputDataException.class, () -> facade.sensors().createThreshold(SENSOR_010101,
+        ThresholdType.INSIDE_RANGE, 10.0, 5.0, 0.0, MAINTAINER_USERNAME));
+    assertThrows(InvalidInputDataException.class, () -> facade.sensors().createThreshold(SENSOR_010101,
+        ThresholdType.OUTSIDE_RANGE, 10.0, 20.0, 6.0, MAINTAINER_USERNAME));
+    assertThrows(InvalidInputDataException.class, () -> facade.sensors().createThreshold(SENSOR_010101,
+        ThresholdType.NOT_EQUAL, 10.0, null, 1.0, MAINTAINER_USERNAME));
+    assertThrows(InvalidInputDataException.class, () -> facade.sensors().createThreshold(SENSOR_010101,
+        ThresholdType.GREATER_THAN, 10.0, null, -1.0, MAINTAINER_USERNAME));
+
+    Threshold created = facade.sensors().createThreshold(SENSOR_010101, ThresholdType.OUTSIDE_RANGE, 10.0, 20.0,
+        5.0, MAINTAINER_USERNAME);
+    assertEquals(20.0, created.getUpperValue());
+    assertEquals(5.0, created.getHysteresis());
+
+    Threshold updated = facade.sensors().updateThreshold(SENSOR_010101, ThresholdType.LESS_THAN, 10.0, 20.0,
+        0.0, MAINTAINER_USERNAME);
+    assertNull(updated.getUpperValue());
+    assertEquals(0.0, updated.getHysteresis());
+
+    ThresholdEvaluator shared = ThresholdEvaluator.of(SENSOR_010101, updated);
+    assertSame(shared, ThresholdEvaluator.of(SENSOR_010101, updated));
+  }
+
+  private static ThresholdEvaluator evaluator(ThresholdType type, double value, Double upperValue,
+      double hysteresis) {
+    return ThresholdEvaluator.compile(new Threshold(SENSOR_010101, type, value, upperValue, hysteresis));
+  }
+
+  // one row per hour of the given values, starting the given number of hours after midnight
+  private Path csv(String name, int firstHour, double... values) throws Exception {
+    List<String> lines = new ArrayList<>();
+    lines.add("date, networkCode, gatewayCode, sensorCode, value");
+    for (int i = 0; i < values.length; i++) {
+      lines.add(String.format("2025-11-16 %02d:00:00, %s, %s, %s, %s", firstHour + i, NET_01, GW_0101,
+          SENSOR_010101, values[i]));
+    }
+    Path file = dir.resolve(name);
+    Files.write(file, lines);
+    return file;
+  }
+}
@@ -0,0 +1,58 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.exceptions.WeatherReportException;
+import com.weather.report.operations.topology.TopologyIndex;
+import com.weather.report.operations.topology.TopologySnapshot;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_TopologyIndex extends BasePersistenceTest {
+
+  @Test
+  void snapshotFollowsConnectAndDisconnect() throws WeatherReportException {
+    createNetwork(NET_01);
+    createGateway(GW_0001);
+    createSensor(SENSOR_000001);
+
+    TopologySnapshot before = TopologyIndex.current();
+    assertTrue(before.containsSensor(SENSOR_000001));
+    assertNull(before.gatewayOf(SENSOR_000001));
+
+    connectGateway(NET_01, GW_0001);
+    connectSensor(SENSOR_000001, GW_0001);
+
+    TopologySnapshot connected = TopologyIndex.current();
+    assertEquals(GW_0001, connected.gatewayOf(SENSOR_000001));
+    assertEquals(NET_01, connected.networkOfSensor(SENSOR_000001));
+    assertNull(before.gatewayOf(SENSOR_000001), "published snapshots must never change");
+
+    facade.topology().disconnectGateway(NET_01, GW_0001, MAINTAINER_USERNAME);
+    assertNull(TopologyIndex.current().networkOfSensor(SENSOR_000001));
+    assertEquals(GW_0001, TopologyIndex.current().gatewayOf(SENSOR_000001));
+  }
+
+  @Test
+  void snapshotResolvesOperatorsAndDeletions() throws WeatherReportException {
+    createNetwork(NET_01);
+    createGateway(GW_0001);
+    createSensor(SENSOR_000001);
+    connectGateway(NET_01, GW_0001);
+    connectSensor(SENSOR_000001, GW_0001);
+    facade.networks().createOperator(OPERATOR_ALICE_FIRST, OPERATOR_ALICE_LAST, OPERATOR_ALICE_EMAIL,
+        OPERATOR_ALICE_PHONE, MAINTAINER_USERNAME);
+    facade.networks().addOperatorToNetwork(NET_01, OPERATOR_ALICE_EMAIL, MAINTAINER_USERNAME);
+
+    assertEquals(OPERATOR_ALICE_EMAIL,
+        TopologyIndex.current().operatorsForSensor(SENSOR_000001).get(0).email());
+
+    facade.sensors().deleteSensor(SENSOR_000001, MAINTAINER_USERNAME);
+    assertFalse(TopologyIndex.current().containsSensor(SENSOR_000001));
+    assertTrue(TopologyIndex.current().operatorsForSensor(SENSOR_000001).isEmpty());
+  }
+}
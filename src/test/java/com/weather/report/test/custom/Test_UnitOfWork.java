@@ -0,0 +1,80 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.weather.report.exceptions.ElementNotFoundException;
+import com.weather.report.exceptions.WeatherReportException;
+import com.weather.report.model.entities.Network;
+import com.weather.report.operations.topology.TopologyIndex;
+import com.weather.report.persistence.UnitOfWork;
+import com.weather.report.repositories.CRUDRepository;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_UnitOfWork extends BasePersistenceTest {
+
+  @Test
+  void nestedCallsJoinTheOuterTransaction() throws WeatherReportException {
+    AtomicBoolean notified = new AtomicBoolean();
+    try (UnitOfWork outer = UnitOfWork.begin()) {
+      createNetwork(NET_01);
+      createGateway(GW_0001);
+      UnitOfWork.afterCommit(() -> notified.set(true));
+      try (UnitOfWork inner = UnitOfWork.begin()) {
+        assertSame(outer.getEntityManager(), inner.getEntityManager());
+      }
+      assertFalse(notified.get(), "callbacks must wait for the outer commit");
+      outer.commit();
+    }
+
+    assertTrue(notified.get());
+    assertFalse(UnitOfWork.isActive());
+    assertNotNull(new CRUDRepository<Network, String>(Network.class).read(NET_01));
+    assertTrue(TopologyIndex.current().containsGateway(GW_0001));
+  }
+
+  @Test
+  void failureRollsBackEveryJoinedWrite() throws WeatherReportException {
+    assertThrows(ElementNotFoundException.class, () -> {
+      try (UnitOfWork uow = UnitOfWork.begin()) {
+        createNetwork(NET_01);
+        createGateway(GW_0001);
+        facade.topology().connectGateway(NET_01, GW_UNKNOWN, MAINTAINER_USERNAME);
+        uow.commit();
+      }
+    });
+
+    assertFalse(UnitOfWork.isActive());
+    assertNull(new CRUDRepository<Network, String>(Network.class).read(NET_01));
+    assertFalse(TopologyIndex.current().containsGateway(GW_0001));
+  }
+
+  @Test
+  void rolledBackWritesNeverPatchTheLoadedSnapshot() throws WeatherReportException {
+    createNetwork(NET_01);
+    createGateway(GW_0001);
+    connectGateway(NET_01, GW_0001);
+    assertTrue(TopologyIndex.current().containsGateway(GW_0001), "the snapshot must be loaded first");
+
+    try (UnitOfWork outer = UnitOfWork.begin()) {
+      createSensor(SENSOR_000001);
+      facade.gateways().deleteGateway(GW_0001, MAINTAINER_USERNAME);
+      assertTrue(TopologyIndex.current().containsGateway(GW_0001), "the snapshot must wait for the outer commit");
+      // closed without commit: rolled back
+    }
+
+    assertFalse(UnitOfWork.isActive());
+    assertFalse(TopologyIndex.current().containsSensor(SENSOR_000001));
+    assertTrue(TopologyIndex.current().containsGateway(GW_0001));
+    assertEquals(NET_01, TopologyIndex.current().networkOf(GW_0001));
+  }
+}
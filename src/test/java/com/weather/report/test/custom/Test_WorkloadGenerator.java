@@ -0,0 +1,99 @@
+package com.weather.report.test.custom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.weather.report.model.entities.Measurement;
+import com.weather.report.repositories.MeasurementRepository;
+import com.weather.report.services.DataImportingService;
+import com.weather.report.services.ImportSummary;
+import com.weather.report.services.TopologyPolicy;
+import com.weather.report.services.WorkloadGenerator;
+import com.weather.report.services.WorkloadSpec;
+import com.weather.report.test.BasePersistenceTest;
+
+public class Test_WorkloadGenerator extends BasePersistenceTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+  @TempDir
+  Path dir;
+
+  private final WorkloadSpec spec = WorkloadSpec.defaults()
+      .withTopology(1, 2, 3)
+      .withSampling(START, Duration.ofMinutes(10), Duration.ofDays(2))
+      .withOutlierRate(0.02)
+      .withGaps(0.01, 5)
+      .withViolationRate(0.05);
+
+  @Test
+  void sameSpecSameWorkload() {
+    List<Measurement> first = new ArrayList<>();
+    long count = new WorkloadGenerator(spec).emit(7, first::addAll);
+    List<Measurement> second = new ArrayList<>();
+    new WorkloadGenerator(spec).emit(500, second::addAll);
+
+    assertEquals(count, first.size());
+    assertEquals(first.size(), second.size());
+    for (int i = 0; i < first.size(); i++) {
+      assertEquals(first.get(i).getSensorCode(), second.get(i).getSensorCode());
+      assertEquals(first.get(i).getTimestamp(), second.get(i).getTimestamp());
+      assertEquals(first.get(i).getValue(), second.get(i).getValue());
+    }
+
+    Iterator<Measurement> reseeded = new WorkloadGenerator(spec.withSeed(7)).iterator();
+    assertNotEquals(first.get(0).getValue(), reseeded.next().getValue());
+  }
+
+  @Test
+  void streamsFollowTheSpec() {
+    WorkloadGenerator generator = new WorkloadGenerator(spec);
+    long expected = spec.getSensorCount() * spec.getSamplesPerSensor();
+    long violations = 0;
+    long count = 0;
+    LocalDateTime previous = START;
+    for (Iterator<Measurement> readings = generator.iterator(); readings.hasNext();) {
+      Measurement m = readings.next();
+      assertTrue(!m.getTimestamp().isBefore(previous) && m.getTimestamp().isBefore(START.plusDays(2)));
+      previous = m.getTimestamp();
+      if (m.getValue() > generator.thresholdOf(m.getSensorCode())) {
+        violations++;
+      }
+      count++;
+    }
+
+    // gaps drop about 5% of the readings, violations are about 5% of the rest
+    assertTrue(count < expected * 0.99 && count > expected * 0.85, "count " + count);
+    assertTrue(violations > count * 0.03 && violations < count * 0.07, "violations " + violations);
+  }
+
+  @Test
+  void csvOutputImportsCleanly() throws Exception {
+    WorkloadGenerator generator = new WorkloadGenerator(spec);
+    generator.createTopology(MAINTAINER_USERNAME);
+    Path file = dir.resolve("workload.csv");
+    long written = generator.writeCsv(file);
+
+    ImportSummary summary = DataImportingService.storeMeasurements(file.toString(), TopologyPolicy.REJECT);
+    assertEquals(written, summary.getStoredRows());
+    assertTrue(Files.notExists(Path.of(file + DataImportingService.REJECTS_SUFFIX)));
+
+    // in-process batches carry the same values as the file
+    Measurement first = generator.iterator().next();
+    Measurement stored = new MeasurementRepository().readBySensor(first.getSensorCode(), START, START).get(0);
+    assertEquals(first.getValue(), stored.getValue());
+  }
+}